@@ -71,6 +71,7 @@ import org.deidentifier.arx.gui.model.ModelViewConfig.Mode;
 import org.deidentifier.arx.gui.resources.Resources;
 import org.deidentifier.arx.gui.view.def.IView;
 import org.deidentifier.arx.gui.view.impl.MainWindow;
+import org.deidentifier.arx.gui.view.impl.common.async.AnalysisManager;
 import org.deidentifier.arx.gui.view.impl.menu.DialogProject;
 import org.deidentifier.arx.gui.view.impl.menu.DialogProperties;
 import org.deidentifier.arx.gui.view.impl.menu.DialogQueryResult;
@@ -141,6 +142,9 @@ public class Controller implements IView {
         // Run the worker
         final WorkerLocalRecode worker = new WorkerLocalRecode(model);
         main.showProgressDialog(Resources.getMessage("Controller.140"), worker); //$NON-NLS-1$
+        
+        // The output has been modified
+        AnalysisManager.invalidate();
 
         // Show errors
         if (worker.getError() != null) {
@@ -1892,6 +1896,9 @@ public class Controller implements IView {
     @Override
     public void update(final ModelEvent event) {
         if (model != null && model.isDebugEnabled()) this.debug.addEvent(event);
+        if (event.part == ModelPart.MODEL || event.part == ModelPart.RESULT || event.part == ModelPart.ATTRIBUTE_VALUE) {
+            AnalysisManager.invalidate();
+        }
         final Map<ModelPart, Set<IView>> dlisteners = getListeners();
         if (dlisteners.get(event.part) != null) {
             for (final IView listener : dlisteners.get(event.part)) {
@@ -19,8 +19,12 @@ package org.deidentifier.arx.gui.model;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.deidentifier.arx.ARXLattice;
@@ -261,17 +265,10 @@ public class ModelNodeFilter implements Serializable {
 
             // Build sets of visible and hidden nodes
             final Set<ARXNode> visible = new HashSet<ARXNode>();
-            final Set<ARXNode> hidden = new HashSet<ARXNode>();
             visible.add(result.getGlobalOptimum());
-            for (final ARXNode[] level : result.getLattice().getLevels()) {
-                for (final ARXNode node : level) {
-                    if (node.getAnonymity() == Anonymity.ANONYMOUS) {
-                        if (!node.equals(result.getGlobalOptimum())) {
-                            hidden.add(node);
-                        }
-                    }
-                }
-            }
+            final List<Map<Integer, List<ARXNode>>> hidden = getHiddenNodes(result.getLattice(),
+                                                                        Anonymity.ANONYMOUS,
+                                                                        result.getGlobalOptimum());
 
             // Determine max generalization
             int maxgen = 0;
@@ -287,7 +284,7 @@ public class ModelNodeFilter implements Serializable {
                     final int gen = optimum[i] - j;
                     if (gen >= 0) {
                         allowGeneralization(i, gen);
-                        final int current = count(result.getLattice(), visible, hidden);
+                        final int current = count(result.getLattice(), visible, hidden, i, gen);
                         if (current > maxNumNodesInitial) {
                             disallowGeneralization(i, gen);
                             return;
@@ -302,7 +299,7 @@ public class ModelNodeFilter implements Serializable {
                     final int gen = optimum[i] + j;
                     if (gen <= result.getLattice().getTop().getTransformation()[i]) {
                         allowGeneralization(i, gen);
-                        final int current = count(result.getLattice(), visible, hidden);
+                        final int current = count(result.getLattice(), visible, hidden, i, gen);
                         if (current > maxNumNodesInitial) {
                             disallowGeneralization(i, gen);
                             return;
@@ -329,17 +326,10 @@ public class ModelNodeFilter implements Serializable {
 
             // Build sets of visible and hidden nodes
             final Set<ARXNode> visible = new HashSet<ARXNode>();
-            final Set<ARXNode> hidden = new HashSet<ARXNode>();
             visible.add(result.getLattice().getBottom());
-            for (final ARXNode[] level : result.getLattice().getLevels()) {
-                for (final ARXNode node : level) {
-                    if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS) {
-                        if (!node.equals(result.getLattice().getBottom())) {
-                            hidden.add(node);
-                        }
-                    }
-                }
-            }
+            final List<Map<Integer, List<ARXNode>>> hidden = getHiddenNodes(result.getLattice(),
+                                                                        Anonymity.NOT_ANONYMOUS,
+                                                                        result.getLattice().getBottom());
 
             // Determine max generalization
             int maxgen = 0;
@@ -355,7 +345,7 @@ public class ModelNodeFilter implements Serializable {
                     final int gen = base[i] + j;
                     if (gen <= result.getLattice().getTop().getTransformation()[i]) {
                         allowGeneralization(i, gen);
-                        final int current = count(result.getLattice(), visible, hidden);
+                        final int current = count(result.getLattice(), visible, hidden, i, gen);
                         if (current > maxNumNodesInitial) {
                             disallowGeneralization(i, gen);
                             return;
@@ -378,18 +368,26 @@ public class ModelNodeFilter implements Serializable {
      */
     public boolean isAllowed(final ARXLattice lattice, final ARXNode node) {
         
-        double max = node.getHighestScore().relativeTo(lattice.getLowestScore(), lattice.getHighestScore());
-        double min = node.getLowestScore().relativeTo(lattice.getLowestScore(), lattice.getHighestScore());
-        
-        if (max < minInformationLoss) {
-            return false;
-        } else if (min > maxInformationLoss) {
-            return false;
-        } else if (!anonymity.contains(node.getAnonymity())) { return false; }
+        // Check cheap properties first
+        if (!anonymity.contains(node.getAnonymity())) { return false; }
         final int[] transformation = node.getTransformation();
         for (int i = 0; i < transformation.length; i++) {
             if (!generalizations[i].contains(transformation[i])) { return false; }
         }
+        
+        // Check scores
+        if (minInformationLoss > 0d) {
+            double max = node.getHighestScore().relativeTo(lattice.getLowestScore(), lattice.getHighestScore());
+            if (max < minInformationLoss) {
+                return false;
+            }
+        }
+        if (maxInformationLoss < 1d) {
+            double min = node.getLowestScore().relativeTo(lattice.getLowestScore(), lattice.getHighestScore());
+            if (min > maxInformationLoss) {
+                return false;
+            }
+        }
         return true;
     }
 
@@ -434,6 +432,33 @@ public class ModelNodeFilter implements Serializable {
                anonymity.contains(Anonymity.UNKNOWN);
     }
 
+    /**
+     * Returns whether all nodes that pass this filter also pass the given filter. In this case,
+     * the nodes that pass this filter can be determined by only checking the nodes that pass
+     * the other filter.
+     *
+     * @param other
+     * @return
+     */
+    public boolean isRestrictionOf(final ModelNodeFilter other) {
+        if (other == null || other.generalizations.length != this.generalizations.length) {
+            return false;
+        }
+        if (!other.anonymity.containsAll(this.anonymity)) {
+            return false;
+        }
+        if (this.minInformationLoss < other.minInformationLoss ||
+            this.maxInformationLoss > other.maxInformationLoss) {
+            return false;
+        }
+        for (int i = 0; i < generalizations.length; i++) {
+            if (!other.generalizations[i].containsAll(this.generalizations[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Cleans up the settings.
      *
@@ -477,24 +502,66 @@ public class ModelNodeFilter implements Serializable {
     }
 
     /**
-     * Counts the number of visible nodes.
+     * Counts the number of visible nodes after the given generalization level has been allowed.
+     * Only hidden nodes with this level can become visible, which means that they are the only
+     * nodes that need to be checked.
      *
      * @param lattice
      * @param visible
      * @param hidden
+     * @param dimension
+     * @param level
      * @return
      */
-    private int count(final ARXLattice lattice, final Set<ARXNode> visible, final Set<ARXNode> hidden) {
-        final Iterator<ARXNode> i = hidden.iterator();
-        while (i.hasNext()) {
-            final ARXNode node = i.next();
-            if (isAllowed(lattice, node)) {
-                i.remove();
-                visible.add(node);
+    private int count(final ARXLattice lattice,
+                      final Set<ARXNode> visible,
+                      final List<Map<Integer, List<ARXNode>>> hidden,
+                      final int dimension,
+                      final int level) {
+        final List<ARXNode> candidates = hidden.get(dimension).remove(level);
+        if (candidates != null) {
+            for (final ARXNode node : candidates) {
+                if (!visible.contains(node) && isAllowed(lattice, node)) {
+                    visible.add(node);
+                }
             }
         }
         return visible.size();
     }
+
+    /**
+     * Indexes the nodes with the given anonymity property by the generalization levels of all dimensions.
+     *
+     * @param lattice
+     * @param anonymity
+     * @param exclude
+     * @return
+     */
+    private List<Map<Integer, List<ARXNode>>> getHiddenNodes(final ARXLattice lattice,
+                                                             final Anonymity anonymity,
+                                                             final ARXNode exclude) {
+        final int dimensions = lattice.getBottom().getTransformation().length;
+        final List<Map<Integer, List<ARXNode>>> hidden = new ArrayList<Map<Integer, List<ARXNode>>>(dimensions);
+        for (int i = 0; i < dimensions; i++) {
+            hidden.add(new HashMap<Integer, List<ARXNode>>());
+        }
+        for (final ARXNode[] level : lattice.getLevels()) {
+            for (final ARXNode node : level) {
+                if (node.getAnonymity() == anonymity && !node.equals(exclude)) {
+                    final int[] transformation = node.getTransformation();
+                    for (int i = 0; i < dimensions; i++) {
+                        List<ARXNode> list = hidden.get(i).get(transformation[i]);
+                        if (list == null) {
+                            list = new ArrayList<ARXNode>();
+                            hidden.get(i).put(transformation[i], list);
+                        }
+                        list.add(node);
+                    }
+                }
+            }
+        }
+        return hidden;
+    }
     
 
     /**
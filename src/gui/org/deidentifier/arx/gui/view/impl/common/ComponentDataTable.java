@@ -35,7 +35,6 @@ import org.eclipse.nebula.widgets.nattable.NatTable;
 import org.eclipse.nebula.widgets.nattable.config.AbstractUiBindingConfiguration;
 import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
-import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
 import org.eclipse.nebula.widgets.nattable.grid.layer.config.DefaultRowStyleConfiguration;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
@@ -94,6 +93,9 @@ public class ComponentDataTable implements IComponent {
     /**  TODO */
     private DataTableGridLayer      gridLayer;
     
+    /** The data provider. */
+    private DataTableHandleDataProvider provider;
+    
     /**  TODO */
     private Font                    font;
     
@@ -185,6 +187,14 @@ public class ComponentDataTable implements IComponent {
         this.table.redraw();
     }
     
+    /**
+     * Redraws the component after values have been modified.
+     */
+    public void refresh() {
+        this.provider.clear();
+        this.table.redraw();
+    }
+    
     /**
      * Resets the component.
      */
@@ -192,7 +202,8 @@ public class ComponentDataTable implements IComponent {
         this.table.setRedraw(false);
         this.context.getImages().clear();
         this.context.reset();
-        this.gridLayer = new DataTableGridLayerStack(new DataTableHandleDataProvider(context), table, context, parent);
+        this.provider = new DataTableHandleDataProvider(context);
+        this.gridLayer = new DataTableGridLayerStack(provider, table, context, parent);
         this.table.setLayer(gridLayer);
         this.table.refresh();
         this.gridLayer.getBodyLayer().getViewportLayer().recalculateScrollBars();
@@ -214,7 +225,8 @@ public class ComponentDataTable implements IComponent {
     public void setData(final DataHandle handle) {
         this.table.setRedraw(false);
         this.context.setHandle(handle);
-        this.gridLayer = new DataTableGridLayerStack(new DataTableHandleDataProvider(context), table, context, parent);
+        this.provider = new DataTableHandleDataProvider(context);
+        this.gridLayer = new DataTableGridLayerStack(provider, table, context, parent);
         this.table.setLayer(gridLayer);
         this.table.refresh();
         this.gridLayer.getBodyLayer().getViewportLayer().recalculateScrollBars();
@@ -318,7 +330,7 @@ public class ComponentDataTable implements IComponent {
      * @return
      */
     private NatTable createTable(final Composite parent) {
-        final IDataProvider provider = new DataTableHandleDataProvider(context);
+        provider = new DataTableHandleDataProvider(context);
         gridLayer = new DataTableGridLayerStack(provider, table, context, parent);
         final NatTable natTable = new NatTable(parent, gridLayer, false);
         final DataLayer bodyDataLayer = (DataLayer) gridLayer.getBodyDataLayer();
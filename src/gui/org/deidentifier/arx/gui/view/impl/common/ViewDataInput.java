@@ -166,7 +166,7 @@ public class ViewDataInput extends ViewData {
             table.redraw();
             
         } else if (event.part == ModelPart.ATTRIBUTE_VALUE) {
-            table.redraw();
+            table.refresh();
             
         } else if (event.part == ModelPart.SELECTED_VIEW_CONFIG || event.part == ModelPart.RESULT) {
 
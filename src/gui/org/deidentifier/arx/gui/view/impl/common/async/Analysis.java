@@ -24,6 +24,27 @@ package org.deidentifier.arx.gui.view.impl.common.async;
  */
 public abstract class Analysis {
 
+    /**
+     * May return a key which identifies the results of this analysis. Analyses with equal keys
+     * must produce equal results and their <code>onFinish()</code> methods must only depend on
+     * these results. Returns null if results must not be reused.
+     *
+     * @return
+     */
+    public Object getKey() {
+        return null;
+    }
+
+    /**
+     * Returns the results of this analysis, which are cached if a key is provided. Results must
+     * not be modified after the analysis has been run. Returns null if results must not be reused.
+     *
+     * @return
+     */
+    public Object getResult() {
+        return null;
+    }
+
     /**
      * May return a progress value in [0,100] or 0.
      */
@@ -51,6 +72,15 @@ public abstract class Analysis {
      */
     public abstract void run() throws InterruptedException;
     
+    /**
+     * Called instead of <code>run()</code> with the results of a previous analysis with an equal key.
+     *
+     * @param result
+     */
+    public void setResult(Object result) {
+        throw new UnsupportedOperationException("Results cannot be reused"); //$NON-NLS-1$
+    }
+
     /**
      * Called to stop the analysis.
      */
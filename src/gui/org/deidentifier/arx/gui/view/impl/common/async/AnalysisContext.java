@@ -17,6 +17,9 @@
 
 package org.deidentifier.arx.gui.view.impl.common.async;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.DataDefinition;
@@ -34,6 +37,46 @@ import org.deidentifier.arx.gui.model.ModelEvent.ModelPart;
  */
 public class AnalysisContext {
 
+    /**
+     * Identifies an object by identity without keeping it reachable.
+     *
+     * @author Fabian Prasser
+     */
+    private static class IdentityKey {
+
+        /** The object */
+        private final WeakReference<Object> reference;
+
+        /** The hash code */
+        private final int                   hashcode;
+
+        /**
+         * Creates a new instance
+         * @param object
+         */
+        private IdentityKey(Object object) {
+            this.reference = new WeakReference<Object>(object);
+            this.hashcode = System.identityHashCode(object);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof IdentityKey)) {
+                return false;
+            }
+            Object object = reference.get();
+            return object != null && object == ((IdentityKey) other).reference.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
     /** The target (input or output). */
     private ModelPart target;
 
@@ -81,16 +124,26 @@ public class AnalysisContext {
             handle = model.getOutput();
         }
         
+        // Handles of the output are created on demand, identify them by the transformation.
+        // Keys must not keep data reachable, as they are cached.
+        Object key = handle == null ? null : new IdentityKey(handle);
+        if (target != ModelPart.INPUT && handle != null && model.getResult() != null && model.getOutputNode() != null) {
+            key = Arrays.asList(new IdentityKey(model.getResult()),
+                                Arrays.toString(model.getOutputNode().getTransformation()),
+                                handle.isOptimized());
+        }
+        
         // If subset view enabled
         if (model.getViewConfig().isSubset() && 
             model.getOutputConfig() != null &&
             model.getOutputConfig().getConfig() != null &&
             handle != null) {
             handle = handle.getView();
+            key = Arrays.asList(key, true);
         }
         
         // Return
-        return new AnalysisData(config, handle, definition);
+        return new AnalysisData(config, handle, definition, key);
     }
 
     /**
@@ -37,16 +37,22 @@ public class AnalysisData{
     /** The according definition. */
     public final DataDefinition     definition;
 
+    /** A key identifying the data, which is equal for handles of the same transformation. */
+    public final Object             key;
+
     /**
      * Initial constructor.
      *
      * @param config
      * @param handle
+     * @param definition
+     * @param key
      */
-    AnalysisData(ModelConfiguration config, DataHandle handle, DataDefinition definition) {
+    AnalysisData(ModelConfiguration config, DataHandle handle, DataDefinition definition, Object key) {
         this.config = config;
         this.handle = handle;
         this.definition = definition;
+        this.key = key;
     }
     
     @Override
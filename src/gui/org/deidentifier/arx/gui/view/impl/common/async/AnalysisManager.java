@@ -1,13 +1,13 @@
 /*
  * ARX: Powerful Data Anonymization
  * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
@@ -17,143 +17,204 @@
 
 package org.deidentifier.arx.gui.view.impl.common.async;
 
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.swt.widgets.Display;
 
 
 /**
- * This class manages the execution of asynchronous analyses.
+ * This class manages the execution of asynchronous analyses. Analyses of all managers are
+ * executed by a shared pool with a bounded number of threads, which means that analyses of
+ * different views run concurrently. Analyses of one manager are executed one after another:
+ * an analysis only starts when the analysis it replaces has terminated. Analyses which provide
+ * a key are not restarted if an analysis with the same key is already running, and their results
+ * are cached, which means that revisiting a view is instant.
  *
  * @author Fabian Prasser
  */
 public class AnalysisManager {
-    
+
     /**
-     * A worker for analyses.
+     * A task for analyses.
      *
      * @author Fabian Prasser
      */
-    private class AnalysisWorker implements Runnable {
+    private class AnalysisTask implements Runnable {
 
         /** Stop flag. */
-        private volatile boolean stopped = false;
-        
+        private volatile boolean     stopped = false;
+
+        /** Whether the task has been started by the executor. */
+        private boolean              started = false;
+
         /** Analysis to perform. */
-        private final Analysis analysis;
-        
-        /** The thread. */
-        private Thread thread;
-        
+        private final Analysis       analysis;
+
+        /** The key, if any. */
+        private final Object         key;
+
+        /** The generation of the cache. */
+        private final int            generation;
+
+        /** Cached results, if any. */
+        private final Object         result;
+
+        /** The task which must terminate before this task starts, if any. */
+        private AnalysisTask         previous;
+
+        /** Signals termination. */
+        private final CountDownLatch done    = new CountDownLatch(1);
+
+        /** The future. */
+        private Future<?>            future;
+
         /**
          * Creates a new instance.
          *
          * @param analysis
+         * @param key
+         * @param generation
+         * @param result
+         * @param previous
          */
-        private AnalysisWorker(Analysis analysis){
+        private AnalysisTask(Analysis analysis, Object key, int generation, Object result, AnalysisTask previous){
             this.analysis = analysis;
+            this.key = key;
+            this.generation = generation;
+            this.result = result;
+            this.previous = previous;
         }
-        
+
         /**
          * Returns the progress, if any
          * @return
          */
-        public synchronized int getProgress() {
+        public int getProgress() {
             return this.analysis.getProgress();
         }
-        
-        /**
-         * Returns the thread.
-         *
-         * @return
-         */
-        public Thread getThread(){
-            return this.thread;
-        }
-        
-        /**
-         * Is this analysis stopped.
-         *
-         * @return
-         */
-        public synchronized boolean isStopped(){
-            return this.stopped;
-        }
-        
+
         @Override
         public void run() {
             try {
-                this.analysis.run();
-                synchronized(this){
-                    if (this.isStopped()) {
-                        onInterrupt();
-                    }
-                    else {
-                        onFinish(); 
-                    }
+                
+                // Check and wait for the previous task
+                AnalysisTask previous = begin();
+                if (previous != null) {
+                    previous.done.await();
+                }
+                
+                // Execute or reuse results
+                if (this.result != null) {
+                    this.analysis.setResult(this.result);
+                } else {
+                    this.analysis.run();
                 }
+                finished(this);
             } catch (InterruptedException e){
-                onInterrupt();
+                interrupted(this);
             } catch (Exception e){
-                onError();
+                failed(this);
+            } finally {
+                terminated(this);
             }
         }
-        
+
         /**
          * Starts this analysis.
          */
         public void start(){
-            this.thread = new Thread(this);
-            this.thread.setName("StatisticsBuilder"); //$NON-NLS-1$
-            this.thread.setDaemon(true);
-            this.thread.start();
+            this.future = EXECUTOR.submit(this);
         }
-        
+
         /**
          * Stops this analysis.
          */
-        public synchronized void stop(){
+        public void stop(){
             this.stopped = true;
             this.analysis.stop();
-        }
-        
-        /**
-         * Trigger.
-         */
-        private void onError() {
-            display.asyncExec(new Runnable(){
-                public void run(){
-                    analysis.onError();
+            this.future.cancel(true);
+            synchronized (this) {
+                // Tasks cancelled before they have been started will never run
+                if (!this.started) {
+                    this.previous = null;
+                    this.done.countDown();
                 }
-            });
+            }
         }
-        
+
         /**
-         * Trigger.
+         * Marks this task as started and returns the task it must wait for. Throws an exception,
+         * if the task has already been stopped.
+         * @return
+         * @throws InterruptedException
          */
-        private void onFinish() {
-            display.asyncExec(new Runnable(){
-                public void run(){
-                    analysis.onFinish();
-                }
-            });
+        private synchronized AnalysisTask begin() throws InterruptedException {
+            if (this.stopped) {
+                throw new InterruptedException();
+            }
+            this.started = true;
+            AnalysisTask previous = this.previous;
+            this.previous = null;
+            return previous;
         }
-        
-        /**
-         * Trigger.
-         */
-        private void onInterrupt() {
-            display.asyncExec(new Runnable(){
-                public void run(){
-                    analysis.onInterrupt();
-                }
-            });
+    }
+
+    /** Maximal number of results cached per manager. */
+    private static final int              CAPACITY   = 16;
+
+    /** The generation of all caches. */
+    private static final AtomicInteger    GENERATION = new AtomicInteger();
+
+    /** The shared executor. */
+    private static final ExecutorService  EXECUTOR   = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                                                                                   new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            thread.setName("AnalysisWorker-" + count.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
         }
+    });
+
+    /**
+     * Invalidates the results cached by all managers. Must be called when data is modified
+     * in a way which is not reflected by the keys of analyses.
+     */
+    public static void invalidate() {
+        GENERATION.incrementAndGet();
     }
-    
-    /** The current worker. */
-    private AnalysisWorker worker = null;
-    
-    /** The current worker. */
-    private Display display = null;
+
+    /** The current task. */
+    private AnalysisTask                             task       = null;
+
+    /** The most recent task which has not yet terminated. */
+    private AnalysisTask                             last       = null;
+
+    /** The display. */
+    private Display                                  display    = null;
+
+    /** The generation of the cache. */
+    private int                                      generation = GENERATION.get();
+
+    /** The results. */
+    private final Map<Object, SoftReference<Object>> cache      = new LinkedHashMap<Object, SoftReference<Object>>(CAPACITY, 0.75f, true) {
+        private static final long serialVersionUID = 2985403347227806423L;
+        @Override
+        protected boolean removeEldestEntry(Entry<Object, SoftReference<Object>> eldest) {
+            return size() > CAPACITY;
+        }
+    };
 
     /**
      * Creates a new instance.
@@ -163,14 +224,14 @@ public class AnalysisManager {
     public AnalysisManager(Display display){
         this.display = display;
     }
-    
+
     /**
      * Returns the progress, if any
      * @return
      */
-    public int getProgress() {
-        if (worker != null) {
-            return worker.getProgress();
+    public synchronized int getProgress() {
+        if (task != null) {
+            return task.getProgress();
         } else {
             return 0;
         }
@@ -180,47 +241,140 @@ public class AnalysisManager {
      * Returns whether a process is running
      * @return
      */
-    public boolean isRunning() {
-        return worker != null;
+    public synchronized boolean isRunning() {
+        return task != null;
     }
-    
+
     /**
-     * Start a new analysis. Analyses already executing
-     * will be canceled.
-     *  
+     * Start a new analysis. Analyses already executing will be canceled, unless they
+     * have the same key as the new analysis. Cached results are passed to the new analysis
+     * instead of executing it.
+     *
      * @param analysis
      */
-    public synchronized void start(Analysis analysis) {
-        
+    public synchronized void start(final Analysis analysis) {
+
+        // Check for running analysis
+        final Object key = analysis.getKey();
+        if (key != null && task != null && key.equals(task.key) && task.generation == GENERATION.get()) {
+            return;
+        }
+
         // Stop
         stop();
-        
+
+        // Check cache
+        Object result = null;
+        if (key != null) {
+            SoftReference<Object> reference = cache.get(key);
+            result = reference == null ? null : reference.get();
+            if (result == null && reference != null) {
+                cache.remove(key);
+            }
+        }
+
         // Start new work
-        worker = new AnalysisWorker(analysis);
-        worker.start();
+        task = new AnalysisTask(analysis, key, generation, result, last);
+        last = task;
+        task.start();
     }
 
     /**
-     * Stops all running analysis threads.
+     * Stops all running analyses.
      */
-    public void stop() {
+    public synchronized void stop() {
+
+        // Purge cache
+        if (generation != GENERATION.get()) {
+            generation = GENERATION.get();
+            cache.clear();
+        }
 
         // Stop old work
-        if (worker != null && !worker.isStopped()) {
-            worker.stop();
-            try {
-                try {
-                    worker.getThread().interrupt();
-                } catch (SecurityException e) {
-                    /* Ignore*/
-                }
-                if (worker.getThread().isAlive()) {
-                    worker.getThread().join();
+        if (task != null) {
+            task.stop();
+            if (last == task && task.done.getCount() == 0) {
+                last = null;
+            }
+            final Analysis analysis = task.analysis;
+            display.asyncExec(new Runnable(){
+                public void run(){
+                    analysis.onInterrupt();
                 }
-            } catch (InterruptedException e) {
-                /* Ignore*/
+            });
+            task = null;
+        }
+    }
+
+    /**
+     * Trigger.
+     * @param task
+     */
+    private synchronized void failed(AnalysisTask task) {
+        if (task.stopped) {
+            return;
+        }
+        if (this.task == task) {
+            this.task = null;
+        }
+        final Analysis analysis = task.analysis;
+        display.asyncExec(new Runnable(){
+            public void run(){
+                analysis.onError();
             }
-            worker = null;
+        });
+    }
+
+    /**
+     * Trigger.
+     * @param task
+     */
+    private synchronized void finished(AnalysisTask task) {
+        if (task.stopped) {
+            return;
+        }
+        if (this.task == task) {
+            this.task = null;
+        }
+        Object result = task.analysis.getResult();
+        if (task.key != null && result != null && task.generation == generation && generation == GENERATION.get()) {
+            cache.put(task.key, new SoftReference<Object>(result));
+        }
+        final Analysis analysis = task.analysis;
+        display.asyncExec(new Runnable(){
+            public void run(){
+                analysis.onFinish();
+            }
+        });
+    }
+
+    /**
+     * Trigger.
+     * @param task
+     */
+    private synchronized void interrupted(AnalysisTask task) {
+        if (task.stopped) {
+            return;
+        }
+        if (this.task == task) {
+            this.task = null;
+        }
+        final Analysis analysis = task.analysis;
+        display.asyncExec(new Runnable(){
+            public void run(){
+                analysis.onInterrupt();
+            }
+        });
+    }
+
+    /**
+     * Trigger.
+     * @param task
+     */
+    private synchronized void terminated(AnalysisTask task) {
+        task.done.countDown();
+        if (this.last == task) {
+            this.last = null;
         }
     }
 }
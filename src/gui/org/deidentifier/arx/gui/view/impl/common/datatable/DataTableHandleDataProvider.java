@@ -1,13 +1,13 @@
 /*
  * ARX: Powerful Data Anonymization
  * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
@@ -17,20 +17,83 @@
 
 package org.deidentifier.arx.gui.view.impl.common.datatable;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataHandleSubset;
 import org.deidentifier.arx.RowSet;
+import org.eclipse.nebula.widgets.nattable.NatTable;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 
 /**
- * A data provider based on a data handle.
+ * A data provider based on a data handle. Values are decoded in pages of rows by a background
+ * thread and kept in a small LRU cache. Pages following the last requested page in the direction
+ * of scrolling are prefetched. The UI thread only reads pages that are ready and redraws the table
+ * when missing pages have been decoded.
  *
  * @author Fabian Prasser
  */
 public class DataTableHandleDataProvider implements IDataProvider {
 
+    /** Number of rows per page */
+    private static final int             PAGE_SIZE = 256;
+
+    /** Maximal number of cached pages */
+    private static final int             CAPACITY  = 64;
+
+    /** Number of pages to prefetch */
+    private static final int             PREFETCH  = 2;
+
+    /** Placeholder for values which are not ready, yet */
+    private static final String          EMPTY     = ""; //$NON-NLS-1$
+
+    /** The executor, which decodes pages for all providers */
+    private static final ExecutorService EXECUTOR  = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            thread.setName("DataTablePrefetcher"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     /**  TODO */
-    private final DataTableContext context;
+    private final DataTableContext       context;
+
+    /** The handle for which pages are cached */
+    private DataHandle                   handle;
+
+    /** The cached pages */
+    private final Map<Integer, String[][]> pages   = new LinkedHashMap<Integer, String[][]>(CAPACITY, 0.75f, true) {
+        private static final long serialVersionUID = 5325658264938475235L;
+        @Override
+        protected boolean removeEldestEntry(Entry<Integer, String[][]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /** Pages that are being decoded */
+    private final Set<Integer>           pending   = new HashSet<Integer>();
+
+    /** Pages that have been requested but are not ready, yet */
+    private final Set<Integer>           missing   = new HashSet<Integer>();
+
+    /** The last requested page */
+    private int                          last      = 0;
+
+    /** The direction of scrolling */
+    private int                          direction = 1;
+
+    /** Incremented when the cache is cleared, pages decoded before are discarded */
+    private int                          epoch     = 0;
 
     /**
      * Creates a new instance.
@@ -41,6 +104,16 @@ public class DataTableHandleDataProvider implements IDataProvider {
         this.context = context;
     }
 
+    /**
+     * Clears all cached pages. Must be called when values of the handle have been modified.
+     */
+    public synchronized void clear() {
+        this.pages.clear();
+        this.pending.clear();
+        this.missing.clear();
+        this.epoch++;
+    }
+
     @Override
     public int getColumnCount() {
         DataHandle data = context.getHandle();
@@ -54,7 +127,7 @@ public class DataTableHandleDataProvider implements IDataProvider {
         if (data == null) { return null; }
         RowSet rows = context.getRows();
         if (rows == null) {
-            return data.getValue(arg1, arg0);
+            return getValue(data, arg1, arg0);
         } else if (arg0 == 0) {
             // Remap row index for subset if in subset view
             if (data instanceof DataHandleSubset){
@@ -63,7 +136,7 @@ public class DataTableHandleDataProvider implements IDataProvider {
             }
             return rows.contains(arg1);
         } else {
-            return data.getValue(arg1, arg0 - 1);
+            return getValue(data, arg1, arg0 - 1);
         }
     }
 
@@ -78,4 +151,114 @@ public class DataTableHandleDataProvider implements IDataProvider {
     public void setDataValue(final int arg0, final int arg1, final Object arg2) {
         return;
     }
+
+    /**
+     * Decodes the given page in the background.
+     *
+     * @param data
+     * @param page
+     */
+    private void load(final DataHandle data, final int page) {
+
+        // Check
+        if (page < 0 || (long)page * PAGE_SIZE >= data.getNumRows() || pages.containsKey(page) || !pending.add(page)) {
+            return;
+        }
+
+        // Decode
+        final int epoch = this.epoch;
+        EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+
+                // Skip pages that are not needed anymore
+                synchronized (DataTableHandleDataProvider.this) {
+                    if (epoch != DataTableHandleDataProvider.this.epoch) {
+                        return;
+                    }
+                    if (data != handle || !pending.contains(page) || Math.abs(page - last) > CAPACITY / 2) {
+                        pending.remove(page);
+                        return;
+                    }
+                }
+
+                // Decode
+                String[][] values = null;
+                try {
+                    if (!data.isOrphaned()) {
+                        int start = page * PAGE_SIZE;
+                        int end = Math.min(start + PAGE_SIZE, data.getNumRows());
+                        int columns = data.getNumColumns();
+                        values = new String[end - start][columns];
+                        for (int row = start; row < end; row++) {
+                            for (int column = 0; column < columns; column++) {
+                                values[row - start][column] = data.getValue(row, column);
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    // The handle has been modified or released
+                    values = null;
+                }
+
+                // Store
+                boolean redraw;
+                synchronized (DataTableHandleDataProvider.this) {
+                    if (epoch != DataTableHandleDataProvider.this.epoch || !pending.remove(page) || data != handle || values == null) {
+                        return;
+                    }
+                    pages.put(page, values);
+                    redraw = missing.remove(page);
+                }
+
+                // Redraw
+                final NatTable table = context.getTable();
+                if (redraw && table != null && !table.isDisposed()) {
+                    table.getDisplay().asyncExec(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!table.isDisposed()) {
+                                table.redraw();
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the value, if the according page is ready. Triggers decoding and prefetching.
+     *
+     * @param data
+     * @param row
+     * @param column
+     * @return
+     */
+    private synchronized String getValue(DataHandle data, int row, int column) {
+
+        // Reset when the handle has changed
+        if (data != handle) {
+            clear();
+            handle = data;
+        }
+
+        // Track direction of scrolling
+        int page = row / PAGE_SIZE;
+        if (page != last) {
+            direction = page > last ? 1 : -1;
+            last = page;
+        }
+
+        // Return value, if ready
+        String[][] values = pages.get(page);
+        if (values == null) {
+            missing.add(page);
+            load(data, page);
+        }
+        for (int i = 1; i <= PREFETCH; i++) {
+            load(data, page + i * direction);
+        }
+        return values != null ? values[row - page * PAGE_SIZE][column] : EMPTY;
+    }
 }
@@ -20,12 +20,16 @@ package org.deidentifier.arx.gui.view.impl.explore;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
 import org.deidentifier.arx.ARXLattice;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.ARXResult;
 import org.deidentifier.arx.gui.Controller;
 import org.deidentifier.arx.gui.model.ModelNodeFilter;
@@ -56,7 +60,11 @@ import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 
 /**
- * This class implements a view of a lattice.
+ * This class implements a view of a lattice. If more nodes pass the filter than can be displayed,
+ * the lattice is rendered in an aggregated form: nodes are positioned by level and utility, and
+ * regions with many nodes are rendered as density glyphs. Users can zoom into these regions until
+ * individual nodes are shown. Nodes are stored in a spatial index, which means that the costs of
+ * panning and zooming depend on the number of visible nodes only.
  *
  * @author Fabian Prasser
  */
@@ -126,9 +134,6 @@ public class ViewLattice extends ViewSolutionSpace {
     /** Color. */
     private static final Color        COLOR_BLACK             = GUIHelper.getColor(0, 0, 0);
 
-    /** Color. */
-    private static final Color        COLOR_LIGHT_GRAY        = GUIHelper.getColor(211, 211, 211);
-
     /** Color. */
     private static final Color        COLOR_LINE              = GUIHelper.getColor(200, 200, 200);
 
@@ -138,9 +143,6 @@ public class ViewLattice extends ViewSolutionSpace {
     /** Attribute constant. */
     private static final int          ATTRIBUTE_LABEL         = 5;
     
-    /** Attribute constant. */
-    private static final int          ATTRIBUTE_VISIBLE       = 6;
-    
     /** Attribute constant. */
     private static final int          ATTRIBUTE_PATH          = 7;
     
@@ -163,16 +165,28 @@ public class ViewLattice extends ViewSolutionSpace {
     private static final double       ZOOM_SPEED              = 10d;
     
     /** Global settings. */
-    private static final int          MSG_WIDTH               = 300;
+    private static final int          MIN_WIDTH               = 2;
     
     /** Global settings. */
-    private static final int          MSG_HEIGHT              = 100;
+    private static final int          MIN_HEIGHT              = 1;
     
     /** Global settings. */
-    private static final int          MIN_WIDTH               = 2;
+    private static final int          BIN_WIDTH               = 6;
     
     /** Global settings. */
-    private static final int          MIN_HEIGHT              = 1;
+    private static final int          GLYPH_SIZE              = 12;
+    
+    /** Global settings. */
+    private static final double       ZOOM_CLICK              = 8d;
+    
+    /** Global settings. */
+    private static final double       VIEW_MARGIN             = 0.05d;
+    
+    /** Global settings. */
+    private static final double       VIEW_MIN_WIDTH          = 1e-9d;
+    
+    /** Global settings. */
+    private static final int          COLOR_STEPS             = 8;
     
     /** For the current view. */
     private static final int          STROKE_WIDTH_NODE       = 1;
@@ -204,6 +218,33 @@ public class ViewLattice extends ViewSolutionSpace {
     /** The number of nodes. */
     private int                       numNodes                = 0;
     
+    /** The visible nodes. */
+    private final Set<ARXNode>        visible                 = Collections.newSetFromMap(new IdentityHashMap<ARXNode, Boolean>());
+    
+    /** Whether the lattice is rendered in aggregated form. */
+    private boolean                   aggregated              = false;
+    
+    /** Spatial index: the nodes per level, sorted by utility. */
+    private ARXNode[][]               indexNodes              = null;
+    
+    /** Spatial index: the relative utility of the nodes per level. */
+    private double[][]                indexPositions          = null;
+    
+    /** Spatial index: prefix sums of the number of anonymous nodes per level. */
+    private int[][]                   indexAnonymous          = null;
+    
+    /** Viewport in lattice coordinates. */
+    private double                    viewX                   = 0d;
+    
+    /** Viewport in lattice coordinates. */
+    private double                    viewY                   = 0d;
+    
+    /** Viewport in lattice coordinates. */
+    private double                    viewWidth               = 1d;
+    
+    /** Viewport in lattice coordinates. */
+    private double                    viewHeight              = 1d;
+    
     /** Drag parameters. */
     private int                       dragX                   = 0;
     
@@ -287,6 +328,7 @@ public class ViewLattice extends ViewSolutionSpace {
         this.numNodes = 0;
         this.arxLattice = null;
         this.clearLatticeAndDisposePaths();
+        this.clearIndex();
         this.latticeWidth = 0;
         this.screen = null;
         this.canvas.redraw();
@@ -330,6 +372,32 @@ public class ViewLattice extends ViewSolutionSpace {
             }
         }
         this.lattice.clear();
+        this.visible.clear();
+    }
+
+    /**
+     * Clears the spatial index.
+     */
+    private void clearIndex() {
+        this.aggregated = false;
+        this.indexNodes = null;
+        this.indexPositions = null;
+        this.indexAnonymous = null;
+    }
+
+    /**
+     * Returns the number of nodes which are in the current viewport.
+     *
+     * @return
+     */
+    private int countVisibleNodes() {
+        int count = 0;
+        double minX = viewX;
+        double maxX = viewX + viewWidth;
+        for (int level = getMinVisibleLevel(); level <= getMaxVisibleLevel(); level++) {
+            count += lowerBound(indexPositions[level], maxX) - lowerBound(indexPositions[level], minX);
+        }
+        return count;
     }
 
     /**
@@ -353,33 +421,137 @@ public class ViewLattice extends ViewSolutionSpace {
             return;
         }
 
-        // If too many nodes
-        if (numNodes > getModel().getMaxNodesInViewer()) {
-            int x = (size.x / 2) - (MSG_WIDTH / 2);
-            int y = (size.y / 2) - (MSG_HEIGHT / 2);
-            if ((x < 0) || (y < 0)) { return; }
-            g.setBackground(COLOR_LIGHT_GRAY);
-            g.fillRectangle(x, y, MSG_WIDTH, MSG_HEIGHT);
-            g.setForeground(COLOR_BLACK);
-            g.drawRectangle(x, y, MSG_WIDTH, MSG_HEIGHT);
-            drawText(g, Resources.getMessage("LatticeView.7"), x, y, MSG_WIDTH, MSG_HEIGHT); //$NON-NLS-1$
-            return;
-        }
-
         // Return, if nothing to show
         if (lattice.isEmpty() || (screen == null)) { return; }
 
-        // Draw connections
-        drawConnections(g);
+        // If too many nodes
+        if (aggregated) {
+            
+            // Draw nodes or density glyphs
+            if (countVisibleNodes() <= getModel().getMaxNodesInViewer()) {
+                drawAggregatedNodes(g);
+            } else {
+                drawAggregatedBins(g);
+            }
+        } else {
         
-        // Draw nodes
-        drawNodes(g);
+            // Draw connections
+            drawConnections(g);
+            
+            // Draw nodes
+            drawNodes(g);
+        }
         
         // Draw border
         g.setForeground(g.getDevice().getSystemColor(SWT.COLOR_WIDGET_NORMAL_SHADOW));
         g.drawRectangle(0, 0, screen.x-1, screen.y-1);
     }
 
+    /**
+     * Draws density glyphs. Each glyph represents all nodes of a level which are located
+     * within a range of utility that is covered by a few pixels. The intensity of a glyph
+     * is a logarithmic function of the number of nodes, its color represents the fraction
+     * of anonymous nodes.
+     *
+     * @param g
+     */
+    private void drawAggregatedBins(final GC g) {
+
+        // Prepare
+        int minLevel = getMinVisibleLevel();
+        int maxLevel = getMaxVisibleLevel();
+        int bins = (screen.x + BIN_WIDTH - 1) / BIN_WIDTH;
+        int[][] counts = new int[maxLevel - minLevel + 1][bins];
+        int[][] anonymous = new int[maxLevel - minLevel + 1][bins];
+        int max = 0;
+
+        // Count
+        for (int level = minLevel; level <= maxLevel; level++) {
+            double[] positions = indexPositions[level];
+            int start = lowerBound(positions, getLatticeX(0));
+            for (int bin = 0; bin < bins; bin++) {
+                int end = lowerBound(positions, getLatticeX((bin + 1) * BIN_WIDTH));
+                counts[level - minLevel][bin] = end - start;
+                anonymous[level - minLevel][bin] = indexAnonymous[level][end] - indexAnonymous[level][start];
+                max = Math.max(max, end - start);
+                start = end;
+            }
+        }
+
+        // Draw
+        g.setAntialias(SWT.OFF);
+        int height = (int) Math.max(MIN_HEIGHT, (screen.y / viewHeight) * NODE_FRAME_RATIO);
+        for (int level = minLevel; level <= maxLevel; level++) {
+            int y = (int) (getScreenY(level) - height / 2d);
+            for (int bin = 0; bin < bins; bin++) {
+                int count = counts[level - minLevel][bin];
+                if (count > 0) {
+                    double intensity = Math.log(1d + count) / Math.log(1d + max);
+                    double fraction = (double) anonymous[level - minLevel][bin] / (double) count;
+                    g.setBackground(getDensityColor(fraction, intensity));
+                    g.fillRectangle(bin * BIN_WIDTH, y, BIN_WIDTH - 1, height);
+                }
+            }
+        }
+
+        // Mark selected node
+        ARXNode selected = getSelectedNode();
+        if (selected != null && visible.contains(selected)) {
+            int level = getLevel(selected);
+            if (level >= minLevel && level <= maxLevel) {
+                int x = (int) getScreenX(getPosition(selected));
+                g.setForeground(COLOR_BLACK);
+                g.setLineWidth(STROKE_WIDTH_NODE);
+                g.drawRectangle(x - BIN_WIDTH, (int) (getScreenY(level) - height / 2d) - 1, 2 * BIN_WIDTH, height + 1);
+            }
+        }
+    }
+
+    /**
+     * Draws the nodes in the viewport, if the lattice is rendered in aggregated form.
+     * Connections are not drawn.
+     *
+     * @param g
+     */
+    private void drawAggregatedNodes(final GC g) {
+
+        // Prepare
+        int size = getGlyphSize();
+        double minX = viewX;
+        double maxX = viewX + viewWidth;
+
+        // Draw
+        g.setLineWidth(STROKE_WIDTH_NODE);
+        for (int level = getMinVisibleLevel(); level <= getMaxVisibleLevel(); level++) {
+            int y = (int) (getScreenY(level) - size / 2d);
+            int end = lowerBound(indexPositions[level], maxX);
+            for (int i = lowerBound(indexPositions[level], minX); i < end; i++) {
+
+                ARXNode node = indexNodes[level][i];
+                int x = (int) (getScreenX(indexPositions[level][i]) - size / 2d);
+
+                // Fill background
+                g.setBackground(getInnerColor(node));
+                g.setAntialias(SWT.OFF);
+                if (node != getSelectedNode()) {
+                    g.fillOval(x, y, size, size);
+                } else {
+                    g.fillRectangle(x, y, size, size);
+                }
+
+                // Draw line
+                g.setLineWidth(getOuterStrokeWidth(node, size));
+                g.setForeground(getOuterColor(node));
+                g.setAntialias(SWT.ON);
+                if (node != getSelectedNode()) {
+                    g.drawOval(x, y, size, size);
+                } else {
+                    g.drawRectangle(x, y, size, size);
+                }
+            }
+        }
+    }
+
     /**
      * Draws the connections.
      *
@@ -405,8 +577,7 @@ public class ViewLattice extends ViewSolutionSpace {
                 // Draw
                 for (final ARXNode node2 : node1.getSuccessors()) {
                     
-                    boolean visible = (Boolean)node2.getAttributes().get(ATTRIBUTE_VISIBLE);
-                    if (visible && !done.contains(node2)) {
+                    if (visible.contains(node2) && !done.contains(node2)) {
 
                        // Obtain coordinates
                        double[] center2 = (double[]) node2.getAttributes().get(ATTRIBUTE_CENTER);
@@ -531,24 +702,129 @@ public class ViewLattice extends ViewSolutionSpace {
     }
 
     /**
-     * Utility method which centers a text in a rectangle.
+     * Returns the nodes represented by the density glyph at the given location. Returns
+     * <code>null</code> if there is no such glyph or if individual nodes are shown.
      *
-     * @param gc
-     * @param text
      * @param x
      * @param y
-     * @param width
+     * @return The number of nodes and the number of anonymous nodes
+     */
+    private int[] getBin(final int x, final int y) {
+        if (!aggregated || screen == null || countVisibleNodes() <= getModel().getMaxNodesInViewer()) {
+            return null;
+        }
+        int level = getLevel(y, (int) Math.max(MIN_HEIGHT, (screen.y / viewHeight) * NODE_FRAME_RATIO));
+        if (level == -1) {
+            return null;
+        }
+        int bin = x / BIN_WIDTH;
+        int start = lowerBound(indexPositions[level], getLatticeX(bin * BIN_WIDTH));
+        int end = lowerBound(indexPositions[level], getLatticeX((bin + 1) * BIN_WIDTH));
+        if (start == end) {
+            return null;
+        }
+        return new int[] { end - start, indexAnonymous[level][end] - indexAnonymous[level][start] };
+    }
+
+    /**
+     * Returns the color of a density glyph.
+     *
+     * @param fraction Fraction of anonymous nodes
+     * @param intensity Relative number of nodes
+     * @return
+     */
+    private Color getDensityColor(double fraction, double intensity) {
+        
+        // Quantize to bound the number of colors
+        fraction = Math.round(fraction * COLOR_STEPS) / (double) COLOR_STEPS;
+        intensity = Math.round((0.25d + 0.75d * intensity) * COLOR_STEPS) / (double) COLOR_STEPS;
+        
+        // Interpolate between red and green, then between white and the result
+        double red = 255d + (50d - 255d) * fraction;
+        double green = 99d + (205d - 99d) * fraction;
+        double blue = 71d + (50d - 71d) * fraction;
+        return GUIHelper.getColor((int) (255d + (red - 255d) * intensity),
+                                  (int) (255d + (green - 255d) * intensity),
+                                  (int) (255d + (blue - 255d) * intensity));
+    }
+
+    /**
+     * Returns the size of nodes, if the lattice is rendered in aggregated form.
+     *
+     * @return
+     */
+    private int getGlyphSize() {
+        return (int) Math.max(MIN_WIDTH, Math.min(GLYPH_SIZE, (screen.y / viewHeight) * NODE_FRAME_RATIO));
+    }
+
+    /**
+     * Converts a screen coordinate into a lattice coordinate.
+     *
+     * @param x
+     * @return
+     */
+    private double getLatticeX(int x) {
+        return viewX + (double) x / (double) screen.x * viewWidth;
+    }
+
+    /**
+     * Converts a screen coordinate into a lattice coordinate.
+     *
+     * @param y
+     * @return
+     */
+    private double getLatticeY(int y) {
+        return viewY + (double) (screen.y - y) / (double) screen.y * viewHeight;
+    }
+
+    /**
+     * Returns the index of the level of the given node in the spatial index.
+     *
+     * @param node
+     * @return
+     */
+    private int getLevel(ARXNode node) {
+        int total = node.getTotalGeneralizationLevel();
+        for (int level = 0; level < indexNodes.length; level++) {
+            if (indexNodes[level][0].getTotalGeneralizationLevel() == total) {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the level in the spatial index that is displayed at the given
+     * screen coordinate, -1 if there is none.
+     *
+     * @param y
      * @param height
+     * @return
      */
-    private void drawText(final GC gc, final String text, final int x, final int y, final int width, final int height) {
+    private int getLevel(int y, int height) {
+        int level = (int) Math.round(getLatticeY(y) - 0.5d);
+        if (level < 0 || level >= indexNodes.length || Math.abs(getScreenY(level) - y) > height / 2d) {
+            return -1;
+        }
+        return level;
+    }
 
-        Point size = canvas.getSize();
-        Point extent = gc.textExtent(text);
-        gc.setClipping(x, y, width, height);
-        int xx = x + (width - extent.x) / 2;
-        int yy = y + height / 2 - extent.y / 2;
-        gc.drawText(text, xx, yy, true);
-        gc.setClipping(0, 0, size.x, size.y);
+    /**
+     * Returns the index of the highest level in the viewport.
+     *
+     * @return
+     */
+    private int getMaxVisibleLevel() {
+        return Math.min(indexNodes.length - 1, (int) Math.floor(viewY + viewHeight));
+    }
+
+    /**
+     * Returns the index of the lowest level in the viewport.
+     *
+     * @return
+     */
+    private int getMinVisibleLevel() {
+        return Math.max(0, (int) Math.ceil(viewY - 1d));
     }
 
     /**
@@ -559,6 +835,32 @@ public class ViewLattice extends ViewSolutionSpace {
      * @return
      */
     private ARXNode getNode(final int x, final int y) {
+        
+        // Search in spatial index
+        if (aggregated) {
+            if (screen == null || countVisibleNodes() > getModel().getMaxNodesInViewer()) {
+                return null;
+            }
+            int size = getGlyphSize();
+            int level = getLevel(y, size);
+            if (level == -1) {
+                return null;
+            }
+            double[] positions = indexPositions[level];
+            int end = lowerBound(positions, getLatticeX(x + size / 2 + 1));
+            ARXNode result = null;
+            double distance = Double.MAX_VALUE;
+            for (int i = lowerBound(positions, getLatticeX(x - size / 2 - 1)); i < end; i++) {
+                double current = Math.abs(getScreenX(positions[i]) - x);
+                if (current < distance) {
+                    distance = current;
+                    result = indexNodes[level][i];
+                }
+            }
+            return result;
+        }
+        
+        // Search all nodes
         for (List<ARXNode> level : lattice) {
             for (ARXNode node : level) {
                 double[] bounds = (double[]) node.getAttributes().get(ATTRIBUTE_CENTER);
@@ -575,6 +877,36 @@ public class ViewLattice extends ViewSolutionSpace {
         return null;
     }
 
+    /**
+     * Returns the position of the given node in lattice coordinates.
+     *
+     * @param node
+     * @return
+     */
+    private double getPosition(ARXNode node) {
+        return node.getHighestScore() == null ? 0d : asRelativeValue(node.getHighestScore()) / 100d;
+    }
+
+    /**
+     * Converts a lattice coordinate into a screen coordinate.
+     *
+     * @param x
+     * @return
+     */
+    private double getScreenX(double x) {
+        return (x - viewX) / viewWidth * screen.x;
+    }
+
+    /**
+     * Converts the index of a level into a screen coordinate.
+     *
+     * @param level
+     * @return
+     */
+    private double getScreenY(int level) {
+        return screen.y - (level + 0.5d - viewY) / viewHeight * screen.y;
+    }
+
     /**
      * Initializes the data structures for displaying a new lattice.
      *
@@ -595,22 +927,23 @@ public class ViewLattice extends ViewSolutionSpace {
             this.arxLattice = result.getLattice();
         } else {
             this.lattice.clear();
+            this.visible.clear();
         }
+        this.clearIndex();
 
         // Build the visible sub-lattice
         ARXLattice originalLattice = result.getLattice();
+        List<List<ARXNode>> levels = new ArrayList<List<ARXNode>>();
+        for (int i = 0; i < originalLattice.getLevels().length; i++) {
+            levels.add(new ArrayList<ARXNode>());
+        }
+        for (ARXNode node : getVisibleNodes(result, filter)) {
+            levels.get(node.getTotalGeneralizationLevel()).add(node);
+            visible.add(node);
+        }
         this.latticeWidth = 0;
-        this.numNodes = 0;
-        for (ARXNode[] originalLevel : originalLattice.getLevels()) {
-            List<ARXNode> level = new ArrayList<ARXNode>();
-            for (ARXNode node : originalLevel) {
-                boolean visible = filter.isAllowed(result.getLattice(), node);
-                node.getAttributes().put(ATTRIBUTE_VISIBLE, visible);
-                if (visible) {
-                    level.add(node);
-                    numNodes++;
-                } 
-            }
+        this.numNodes = visible.size();
+        for (List<ARXNode> level : levels) {
             if (!level.isEmpty()) {
                 this.lattice.add(level);
             }
@@ -618,7 +951,10 @@ public class ViewLattice extends ViewSolutionSpace {
         }
 
         // Check
-        if (numNodes > getModel().getMaxNodesInViewer()) { return; }
+        if (numNodes > getModel().getMaxNodesInViewer()) {
+            initializeIndex();
+            return;
+        }
 
         // Now initialize the text attribute
         for (List<ARXNode> level : this.lattice) {
@@ -643,6 +979,11 @@ public class ViewLattice extends ViewSolutionSpace {
 
         // Obtain screen size
         screen = canvas.getSize();
+        
+        // Positions are relative to the viewport
+        if (aggregated) {
+            return;
+        }
 
         // Obtain optimal width and height per node
         double width = NODE_INITIAL_SIZE;
@@ -684,6 +1025,54 @@ public class ViewLattice extends ViewSolutionSpace {
         }
     }
 
+    /**
+     * Builds the spatial index. Nodes are sorted by utility on each level.
+     */
+    private void initializeIndex() {
+
+        // Prepare
+        this.aggregated = true;
+        this.indexNodes = new ARXNode[lattice.size()][];
+        this.indexPositions = new double[lattice.size()][];
+        this.indexAnonymous = new int[lattice.size()][];
+
+        // For each level
+        for (int level = 0; level < lattice.size(); level++) {
+
+            // Sort by position
+            List<ARXNode> nodes = lattice.get(level);
+            final double[] positions = new double[nodes.size()];
+            Integer[] order = new Integer[nodes.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = getPosition(nodes.get(i));
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer arg0, Integer arg1) {
+                    return Double.compare(positions[arg0], positions[arg1]);
+                }
+            });
+
+            // Store
+            indexNodes[level] = new ARXNode[positions.length];
+            indexPositions[level] = new double[positions.length];
+            indexAnonymous[level] = new int[positions.length + 1];
+            for (int i = 0; i < positions.length; i++) {
+                ARXNode node = nodes.get(order[i]);
+                indexNodes[level][i] = node;
+                indexPositions[level][i] = positions[order[i]];
+                indexAnonymous[level][i + 1] = indexAnonymous[level][i] + (node.getAnonymity() == Anonymity.ANONYMOUS ? 1 : 0);
+            }
+        }
+
+        // Show everything
+        this.viewX = -VIEW_MARGIN;
+        this.viewWidth = 1d + 2d * VIEW_MARGIN;
+        this.viewY = 0d;
+        this.viewHeight = lattice.size();
+    }
+
     /**
      * Creates all required listeners.
      */
@@ -727,6 +1116,9 @@ public class ViewLattice extends ViewSolutionSpace {
                     final ARXNode node = getNode(arg0.x, arg0.y);
                     if (node != null) {
                         actionButtonClicked1(node);
+                    } else if (getBin(arg0.x, arg0.y) != null) {
+                        zoom(arg0.x, arg0.y, ZOOM_CLICK);
+                        canvas.redraw();
                     }
                 } 
             }
@@ -753,7 +1145,18 @@ public class ViewLattice extends ViewSolutionSpace {
                 if (dragType != DragType.NONE) {
                     final int deltaX = arg0.x - dragX;
                     final int deltaY = arg0.y - dragY;
-                    if (dragType == DragType.MOVE) {
+                    if (aggregated) {
+                        
+                        // Just move or zoom the viewport
+                        if (dragType == DragType.MOVE) {
+                            viewX -= (double) deltaX / (double) screen.x * viewWidth;
+                            viewY += (double) deltaY / (double) screen.y * viewHeight;
+                        } else if (dragType == DragType.ZOOM) {
+                            double zoom = -((double) deltaY / (double) screen.y) * ZOOM_SPEED;
+                            zoom(dragStartX, dragStartY, Math.max(0.1d, 1d + zoom));
+                        }
+                        
+                    } else if (dragType == DragType.MOVE) {
                         
                         // Just move the nodes around
                         for (List<ARXNode> level : lattice) {
@@ -841,6 +1244,10 @@ public class ViewLattice extends ViewSolutionSpace {
                     if (tooltipX != -1 && tooltipY != -1) {
                         ARXNode node = getNode(tooltipX, tooltipY);
                         text = node == null ? null : getTooltipDecorator().decorate(node);
+                        int[] bin = node == null ? getBin(tooltipX, tooltipY) : null;
+                        if (bin != null) {
+                            text = String.format(Resources.getMessage("LatticeView.12"), bin[0], bin[1]); //$NON-NLS-1$
+                        }
                     } 
                     canvas.setToolTipText(text);
                 }
@@ -853,6 +1260,27 @@ public class ViewLattice extends ViewSolutionSpace {
         });
     }
 
+    /**
+     * Returns the index of the first value which is not smaller than the given value.
+     *
+     * @param values
+     * @param value
+     * @return
+     */
+    private int lowerBound(double[] values, double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Liang-Barsky line clipping function. Adapted from Daniel White
      *
@@ -904,6 +1332,22 @@ public class ViewLattice extends ViewSolutionSpace {
          return true;
      }
 
+    /**
+     * Zooms the viewport by the given factor, keeping the given screen coordinates in place.
+     *
+     * @param x
+     * @param y
+     * @param factor
+     */
+    private void zoom(int x, int y, double factor) {
+        double centerX = getLatticeX(x);
+        double centerY = getLatticeY(y);
+        viewWidth = Math.max(VIEW_MIN_WIDTH, Math.min(1d + 2d * VIEW_MARGIN, viewWidth / factor));
+        viewHeight = Math.max(1d, Math.min(indexNodes.length, viewHeight / factor));
+        viewX = centerX - (double) x / (double) screen.x * viewWidth;
+        viewY = centerY - (double) (screen.y - y) / (double) screen.y * viewHeight;
+    }
+
     @Override
     protected void actionRedraw() {
         this.canvas.redraw();
@@ -929,4 +1373,9 @@ public class ViewLattice extends ViewSolutionSpace {
     protected void eventResultChanged(ARXResult result) {
         if (getModel().getResult() == null) reset();
     }
+
+    @Override
+    protected boolean isAggregationSupported() {
+        return true;
+    }
 }
@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.deidentifier.arx.ARXLattice;
 import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXResult;
 import org.deidentifier.arx.gui.Controller;
@@ -342,27 +341,18 @@ public class ViewList extends ViewSolutionSpace {
                 }
                 list.clear();
                 
-                final ARXLattice l = result.getLattice();
-                for (final ARXNode[] level : l.getLevels()) {
-                    for (final ARXNode node : level) {
-                        if (filter.isAllowed(result.getLattice(), node)) {
-                            list.add(node);
+                // Check before sorting
+                final List<ARXNode> nodes = getVisibleNodes(result, filter);
+                if (nodes.size() <= getModel().getMaxNodesInViewer()) {
+                    list.addAll(nodes);
+                    Collections.sort(list, new Comparator<ARXNode>() {
+                        @Override
+                        public int compare(final ARXNode arg0,
+                                           final ARXNode arg1) {
+                            return arg0.getHighestScore()
+                                       .compareTo(arg1.getHighestScore());
                         }
-                    }
-                }
-
-                Collections.sort(list, new Comparator<ARXNode>() {
-                    @Override
-                    public int compare(final ARXNode arg0,
-                                       final ARXNode arg1) {
-                        return arg0.getHighestScore()
-                                   .compareTo(arg1.getHighestScore());
-                    }
-                });
-
-                // Check
-                if (list.size() > getModel().getMaxNodesInViewer()) {
-                    list.clear();
+                    });
                 }
                 
                 if (listener != null) {
@@ -19,6 +19,9 @@ package org.deidentifier.arx.gui.view.impl.explore;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.deidentifier.arx.ARXLattice;
 import org.deidentifier.arx.ARXLattice.ARXNode;
@@ -125,6 +128,15 @@ public abstract class ViewSolutionSpace implements IView {
     /** Maximal length of a label in characters */
     private static final int         MAX_LABEL_LENGTH  = 20;
 
+    /** The lattice for which the visible nodes have been determined */
+    private ARXLattice               visibleLattice    = null;
+
+    /** The filter for which the visible nodes have been determined */
+    private ModelNodeFilter          visibleFilter     = null;
+
+    /** The visible nodes */
+    private List<ARXNode>            visibleNodes      = null;
+
     /**
      * Constructor
      * @param parent
@@ -186,6 +198,7 @@ public abstract class ViewSolutionSpace implements IView {
     public void reset() {
         this.optimum = null;
         this.selectedNode = null;
+        this.resetVisibleNodes();
     }
     
     @Override
@@ -195,6 +208,7 @@ public abstract class ViewSolutionSpace implements IView {
             selectedNode = (ARXNode) event.data;
             eventNodeSelected();
         } else if (event.part == ModelPart.RESULT) {
+            resetVisibleNodes();
             ARXResult result = (ARXResult)event.data;
             if (model != null && result != null && result.getGlobalOptimum() != null) {
                 optimum = result.getGlobalOptimum();
@@ -206,6 +220,7 @@ public abstract class ViewSolutionSpace implements IView {
             }
         } else if (event.part == ModelPart.MODEL) {
             model = (Model) event.data;
+            resetVisibleNodes();
             if (model != null && model.getResult() != null &&
                 model.getResult().getGlobalOptimum() != null) {
                 optimum = model.getResult().getGlobalOptimum();
@@ -220,6 +235,7 @@ public abstract class ViewSolutionSpace implements IView {
                 eventFilterChanged(model.getResult(), (ModelNodeFilter) event.data);
             }
         } else if (event.part == ModelPart.EXPAND) {
+            resetVisibleNodes();
             if (model!=null && !isTooLarge(model.getResult(), model.getNodeFilter(), model.getMaxNodesInViewer())) {
                 eventFilterChanged(model.getResult(), model.getNodeFilter());
             }
@@ -307,20 +323,12 @@ public abstract class ViewSolutionSpace implements IView {
      */
     private boolean isTooLarge(ARXResult result, ModelNodeFilter filter, int max) {
 
-        if(result == null) {
+        if(result == null || isAggregationSupported()) {
             showPrimaryComposite();
             return false;
         }
 
-        int count = 0;
-        final ARXLattice l = result.getLattice();
-        for (final ARXNode[] level : l.getLevels()) {
-            for (final ARXNode node : level) {
-                if (filter.isAllowed(result.getLattice(), node)) {
-                    count++;
-                }
-            }
-        }
+        int count = getVisibleNodes(result, filter).size();
         if (count > max) {
             showSecondaryComposite(count, max);
             return true;
@@ -438,6 +446,64 @@ public abstract class ViewSolutionSpace implements IView {
         }
     }
     
+    /**
+     * Returns the nodes that pass the given filter. Results are cached. If the filter is a restriction
+     * of the previous filter, only the previously visible nodes are checked.
+     *
+     * @param result
+     * @param filter
+     * @return
+     */
+    protected List<ARXNode> getVisibleNodes(ARXResult result, ModelNodeFilter filter) {
+
+        // Check
+        if (result == null || filter == null) {
+            return Collections.emptyList();
+        }
+
+        // Return cached nodes
+        final ARXLattice lattice = result.getLattice();
+        if (visibleNodes != null && visibleLattice == lattice && visibleFilter != null) {
+            if (filter.isRestrictionOf(visibleFilter) && visibleFilter.isRestrictionOf(filter)) {
+                return visibleNodes;
+            }
+        }
+
+        // Determine visible nodes
+        final List<ARXNode> nodes = new ArrayList<ARXNode>();
+        if (visibleNodes != null && visibleLattice == lattice && filter.isRestrictionOf(visibleFilter)) {
+            for (final ARXNode node : visibleNodes) {
+                if (filter.isAllowed(lattice, node)) {
+                    nodes.add(node);
+                }
+            }
+        } else {
+            for (final ARXNode[] level : lattice.getLevels()) {
+                for (final ARXNode node : level) {
+                    if (filter.isAllowed(lattice, node)) {
+                        nodes.add(node);
+                    }
+                }
+            }
+        }
+
+        // Cache
+        visibleLattice = lattice;
+        visibleFilter = filter.clone();
+        visibleNodes = Collections.unmodifiableList(nodes);
+        return visibleNodes;
+    }
+
+    /**
+     * Returns whether the view is able to display arbitrarily large parts of the solution space.
+     * If not, a message is displayed instead of the view, when too many nodes pass the filter.
+     *
+     * @return
+     */
+    protected boolean isAggregationSupported() {
+        return false;
+    }
+
     /**
      * Returns the model
      * @return
@@ -508,6 +574,15 @@ public abstract class ViewSolutionSpace implements IView {
         }
     }
     
+    /**
+     * Clears the cached visible nodes
+     */
+    private void resetVisibleNodes() {
+        this.visibleLattice = null;
+        this.visibleFilter = null;
+        this.visibleNodes = null;
+    }
+
     /**
      * Shows the primary composite
      */
@@ -19,8 +19,11 @@
 package org.deidentifier.arx.gui.view.impl.explore;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.deidentifier.arx.ARXLattice;
 import org.deidentifier.arx.ARXLattice.ARXNode;
@@ -207,21 +210,24 @@ public class ViewTiles extends ViewSolutionSpace {
     }
 
     /**
-     * Updates the filter
+     * Updates the filter. Nodes are checked against the set of visible nodes, which
+     * is maintained incrementally.
      *
-     * @param lattice
+     * @param result
      * @param filter
      */
-    private void updateFilter(final ARXLattice lattice, final ModelNodeFilter filter) {
+    private void updateFilter(final ARXResult result, final ModelNodeFilter filter) {
 
         if (filter == null) return;
 
         final ModelNodeFilter filterClone = filter.clone();
         getController().getResources().getDisplay().asyncExec(new Runnable() {
             public void run() {
+                final Set<ARXNode> visible = Collections.newSetFromMap(new IdentityHashMap<ARXNode, Boolean>());
+                visible.addAll(getVisibleNodes(result, filterClone));
                 tiles.setFilter(new Filter<ARXNode>() {
                     public boolean accepts(ARXNode node) {
-                        return filterClone.isAllowed(lattice, node);
+                        return visible.contains(node);
                     }
                 });
                 tiles.update();
@@ -272,7 +278,7 @@ public class ViewTiles extends ViewSolutionSpace {
     @Override
     protected void eventFilterChanged(ARXResult result, ModelNodeFilter filter) {
         if (getModel() != null && result != null) {
-            updateFilter(result.getLattice(), filter);
+            updateFilter(result, filter);
         } else {
             reset();
         }
@@ -282,7 +288,7 @@ public class ViewTiles extends ViewSolutionSpace {
     protected void eventModelChanged() {
         if (getModel() != null && getModel().getResult() != null) {
             updateLattice(getModel().getResult().getLattice());
-            updateFilter(getModel().getResult().getLattice(), getModel().getNodeFilter());
+            updateFilter(getModel().getResult(), getModel().getNodeFilter());
         }
     }
 
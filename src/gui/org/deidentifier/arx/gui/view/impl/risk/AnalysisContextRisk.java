@@ -32,6 +32,9 @@ public class AnalysisContextRisk implements AnalysisContextVisualization{
     /** Context information. */
     public DataHandle    handle         = null;
     
+    /** Context information. */
+    public Object        key            = null;
+    
     /** Context information. */
     public Model         model          = null;
     
@@ -46,6 +49,7 @@ public class AnalysisContextRisk implements AnalysisContextVisualization{
     public AnalysisContextRisk(AnalysisContext context){
         if (context.getData()==null) return;
         this.handle = context.getData().handle;
+        this.key = context.getData().key;
         this.context = context;
         if (handle == null) return;
         this.model = context.getModel();
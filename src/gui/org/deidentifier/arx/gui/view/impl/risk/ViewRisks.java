@@ -18,7 +18,9 @@
 package org.deidentifier.arx.gui.view.impl.risk;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -304,6 +306,20 @@ public abstract class ViewRisks<T extends AnalysisContextVisualization> implemen
                                                .getInterruptibleInstance();
     }
     
+    /**
+     * Returns a key for analyses which only depend on the data and the quasi-identifiers
+     * @param context
+     * @return
+     */
+    protected Object getKey(AnalysisContextRisk context) {
+        
+        AnalysisContext analysisContext = context.context;
+        if (analysisContext.getData() == null || analysisContext.getData().definition == null) {
+            return null;
+        }
+        return Arrays.asList(context.key, new HashSet<String>(analysisContext.getData().definition.getQuasiIdentifyingAttributes()));
+    }
+    
     /**
      * Returns the model
      * @return
@@ -296,6 +296,7 @@ public class ViewRisksRiskDistributionPlot extends ViewRisks<AnalysisContextRisk
 
         // Enable/disable
         final RiskEstimateBuilderInterruptible builder = getBuilder(context);
+        final Object key = getKey(context);
         if (!this.isEnabled() || builder == null) {
             if (manager != null) {
                 manager.stop();
@@ -313,6 +314,25 @@ public class ViewRisksRiskDistributionPlot extends ViewRisks<AnalysisContextRisk
             private double[] threshold;
             private String[] labels;
 
+            @Override
+            public Object getKey() {
+                return key;
+            }
+
+            @Override
+            public Object getResult() {
+                return new Object[] { frequencies, cumulative, threshold, labels };
+            }
+
+            @Override
+            public void setResult(Object result) {
+                Object[] results = (Object[]) result;
+                this.frequencies = (double[]) results[0];
+                this.cumulative = (double[]) results[1];
+                this.threshold = (double[]) results[2];
+                this.labels = (String[]) results[3];
+            }
+
             @Override
             public int getProgress() {
                 return 0;
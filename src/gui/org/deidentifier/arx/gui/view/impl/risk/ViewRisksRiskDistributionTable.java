@@ -134,6 +134,7 @@ public class ViewRisksRiskDistributionTable extends ViewRisks<AnalysisContextRis
 
         // Enable/disable
         final RiskEstimateBuilderInterruptible builder = getBuilder(context);
+        final Object key = getKey(context);
         if (!this.isEnabled() || builder == null) {
             if (manager != null) {
                 manager.stop();
@@ -150,6 +151,24 @@ public class ViewRisksRiskDistributionTable extends ViewRisks<AnalysisContextRis
             private double[] cumulative;
             private String[] labels;
 
+            @Override
+            public Object getKey() {
+                return key;
+            }
+
+            @Override
+            public Object getResult() {
+                return new Object[] { frequencies, cumulative, labels };
+            }
+
+            @Override
+            public void setResult(Object result) {
+                Object[] results = (Object[]) result;
+                this.frequencies = (double[]) results[0];
+                this.cumulative = (double[]) results[1];
+                this.labels = (String[]) results[2];
+            }
+
             @Override
             public int getProgress() {
                 return 0;
@@ -53,6 +53,9 @@ public class AnalysisContextContingency implements AnalysisContextVisualization
     /** Context information. */
     public DataHandle    handle         = null;
     
+    /** Context information. */
+    public Object        key            = null;
+    
     /** Context information. */
     public Model         model          = null;
 
@@ -64,6 +67,7 @@ public class AnalysisContextContingency implements AnalysisContextVisualization
     public AnalysisContextContingency(AnalysisContext context){
         if (context.getData()==null) return;
         this.handle = context.getData().handle;
+        this.key = context.getData().key;
         if (handle == null) return;
         this.model = context.getModel();
         if (model==null) return;
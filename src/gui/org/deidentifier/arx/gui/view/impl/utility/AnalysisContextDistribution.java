@@ -43,6 +43,9 @@ public class AnalysisContextDistribution implements AnalysisContextVisualization
     /** Context information. */
     public DataHandle    handle         = null;
     
+    /** Context information. */
+    public Object        key            = null;
+    
     /** Context information. */
     public Model         model          = null;
     
@@ -57,6 +60,7 @@ public class AnalysisContextDistribution implements AnalysisContextVisualization
     public AnalysisContextDistribution(AnalysisContext context){
         if (context.getData()==null) return;
         this.handle = context.getData().handle;
+        this.key = context.getData().key;
         this.context = context;
         if (handle == null) return;
         this.model = context.getModel();
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.gui.view.impl.utility;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -113,6 +114,7 @@ public class ViewStatisticsContingencyTable extends ViewStatistics<AnalysisConte
         final int column1 = context.handle.getColumnIndexOf(context.attribute1);
         final int column2 = context.handle.getColumnIndexOf(context.attribute2);
         final StatisticsBuilderInterruptible builder = context.handle.getStatistics().getInterruptibleInstance();
+        final Object key = Arrays.asList(context.key, context.attribute1, context.attribute2, context.dataType1, context.dataType2);
             
         // Create an analysis
         Analysis analysis = new Analysis(){
@@ -122,6 +124,24 @@ public class ViewStatisticsContingencyTable extends ViewStatistics<AnalysisConte
             private int[][]                    outputValues;
             private double[][]                 outputFrequencies;
 
+            @Override
+            public Object getKey() {
+                return key;
+            }
+
+            @Override
+            public Object getResult() {
+                return new Object[] { contingency, outputValues, outputFrequencies };
+            }
+
+            @Override
+            public void setResult(Object result) {
+                Object[] results = (Object[]) result;
+                this.contingency = (StatisticsContingencyTable) results[0];
+                this.outputValues = (int[][]) results[1];
+                this.outputFrequencies = (double[][]) results[2];
+            }
+
             @Override
             public int getProgress() {
                 return 0;
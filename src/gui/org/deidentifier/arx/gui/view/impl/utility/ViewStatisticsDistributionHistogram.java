@@ -16,6 +16,8 @@
  */
 package org.deidentifier.arx.gui.view.impl.utility;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.aggregates.StatisticsBuilderInterruptible;
@@ -256,6 +258,7 @@ public class ViewStatisticsDistributionHistogram extends ViewStatistics<Analysis
         final Hierarchy hierarchy = context.context.getHierarchy(context.context.getData(), context.attribute);
         final DataHandle handle = context.handle;
         final int column = handle.getColumnIndexOf(context.attribute);
+        final Object key = Arrays.asList(context.key, context.attribute, context.dataType, hierarchy);
         
         // Create an analysis
         Analysis analysis = new Analysis(){
@@ -263,6 +266,21 @@ public class ViewStatisticsDistributionHistogram extends ViewStatistics<Analysis
             private boolean                         stopped = false;
             private StatisticsFrequencyDistribution distribution;
 
+            @Override
+            public Object getKey() {
+                return key;
+            }
+
+            @Override
+            public Object getResult() {
+                return this.distribution;
+            }
+
+            @Override
+            public void setResult(Object result) {
+                this.distribution = (StatisticsFrequencyDistribution) result;
+            }
+
             @Override
             public int getProgress() {
                 return 0;
@@ -290,10 +308,11 @@ public class ViewStatisticsDistributionHistogram extends ViewStatistics<Analysis
                 series.getLabel().setVisible(false);
                 series.getLabel().setFont(chart.getFont());
                 series.setBarColor(Display.getDefault().getSystemColor(SWT.COLOR_BLACK));
-                for (int i = 0; i < this.distribution.frequency.length; i++) {
-                    this.distribution.frequency[i] *= 100d;
+                double[] frequency = new double[this.distribution.frequency.length];
+                for (int i = 0; i < frequency.length; i++) {
+                    frequency[i] = this.distribution.frequency[i] * 100d;
                 }
-                series.setYSeries(this.distribution.frequency);
+                series.setYSeries(frequency);
                 chart.getLegend().setVisible(false);
 
                 IAxisSet axisSet = chart.getAxisSet();
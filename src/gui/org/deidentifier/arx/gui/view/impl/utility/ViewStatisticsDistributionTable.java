@@ -16,6 +16,8 @@
  */
 package org.deidentifier.arx.gui.view.impl.utility;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.aggregates.StatisticsBuilderInterruptible;
@@ -107,6 +109,7 @@ public class ViewStatisticsDistributionTable extends ViewStatistics<AnalysisCont
         final Hierarchy hierarchy = context.context.getHierarchy(context.context.getData(), context.attribute);
         final DataHandle handle = context.handle;
         final int column = handle.getColumnIndexOf(context.attribute);
+        final Object key = Arrays.asList(context.key, context.attribute, context.dataType, hierarchy);
         
         // Create an analysis
         Analysis analysis = new Analysis(){
@@ -114,6 +117,21 @@ public class ViewStatisticsDistributionTable extends ViewStatistics<AnalysisCont
             private boolean                         stopped = false;
             private StatisticsFrequencyDistribution distribution;
 
+            @Override
+            public Object getKey() {
+                return key;
+            }
+
+            @Override
+            public Object getResult() {
+                return this.distribution;
+            }
+
+            @Override
+            public void setResult(Object result) {
+                this.distribution = (StatisticsFrequencyDistribution) result;
+            }
+
             @Override
             public int getProgress() {
                 return 0;
@@ -16,6 +16,9 @@
  */
 package org.deidentifier.arx.gui.view.impl.utility;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.deidentifier.arx.aggregates.StatisticsBuilderInterruptible;
 import org.deidentifier.arx.aggregates.StatisticsSummary;
 import org.deidentifier.arx.gui.Controller;
@@ -135,6 +138,14 @@ public class ViewStatisticsSummaryTable extends ViewStatistics<AnalysisContextDi
         // The statistics builder
         final StatisticsBuilderInterruptible builder = context.handle.getStatistics().getInterruptibleInstance();
         final String attribute = context.attribute;
+        final boolean listwiseDeletion = getModel() != null ? getModel().getUseListwiseDeletion() : true;
+        final List<Object> key = new ArrayList<Object>();
+        key.add(context.key);
+        key.add(attribute);
+        key.add(listwiseDeletion);
+        for (int column = 0; column < context.handle.getNumColumns(); column++) {
+            key.add(context.handle.getDataType(context.handle.getAttributeName(column)));
+        }
         
         // Create an analysis
         Analysis analysis = new Analysis(){
@@ -142,6 +153,21 @@ public class ViewStatisticsSummaryTable extends ViewStatistics<AnalysisContextDi
             private boolean              stopped = false;
             private StatisticsSummary<?> summary;
 
+            @Override
+            public Object getKey() {
+                return key;
+            }
+
+            @Override
+            public Object getResult() {
+                return this.summary;
+            }
+
+            @Override
+            public void setResult(Object result) {
+                this.summary = (StatisticsSummary<?>) result;
+            }
+
             @Override
             public int getProgress() {
                 return 0;
@@ -202,7 +228,6 @@ public class ViewStatisticsSummaryTable extends ViewStatistics<AnalysisContextDi
                 // Perform work
                 // TODO: This view computes the statistics for all attributes, each time the selected attribute is changed
                 // TODO: This is done because of list-wise deletion, could be implemented more efficient anyways, however
-                boolean listwiseDeletion = getModel() != null ? getModel().getUseListwiseDeletion() : true;
                 this.summary = builder.getSummaryStatistics(listwiseDeletion).get(attribute);
 
                 // Our users are patient
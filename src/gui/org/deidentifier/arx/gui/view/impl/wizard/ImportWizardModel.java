@@ -20,8 +20,10 @@ package org.deidentifier.arx.gui.view.impl.wizard;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.math3.util.Pair;
 import org.deidentifier.arx.Data;
@@ -145,6 +147,9 @@ public class ImportWizardModel {
     /** Should we perform cleansing */
     private boolean                       performCleansing       = true;
 
+    /** Matching data types per column index, detected for all columns at once */
+    private Map<Integer, List<Pair<DataType<?>, Double>>> matchingDataTypes;
+
     /**
      * Creates a new instance
      * @param model
@@ -262,16 +267,20 @@ public char[] getCsvLinebreak() {
             throw new IllegalArgumentException(Resources.getMessage("ImportWizardModel.0"));  //$NON-NLS-1$
         }
 
-        Data data = Data.create(getPreviewData());
-        int columnIndex = -1;
-        ImportColumn c = column.getColumn();
-        if (c instanceof ImportColumnIndexed) {
-            columnIndex =  ((ImportColumnIndexed) column.getColumn()).getIndex();
-        } else if (column.getColumn() instanceof ImportColumnJDBC){
-            columnIndex = ((ImportColumnJDBC) column.getColumn()).getIndex();
+        // Detect types of all columns at once
+        if (matchingDataTypes == null) {
+            int[] indices = new int[wizardColumns.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = getColumnIndex(wizardColumns.get(i));
+            }
+            Data data = Data.create(getPreviewData());
+            List<List<Pair<DataType<?>, Double>>> types = data.getHandle().getMatchingDataTypes(indices, locale, 0d);
+            matchingDataTypes = new HashMap<Integer, List<Pair<DataType<?>, Double>>>();
+            for (int i = 0; i < indices.length; i++) {
+                matchingDataTypes.put(indices[i], types.get(i));
+            }
         }
-        
-        return data.getHandle().getMatchingDataTypes(columnIndex, locale, 0d);
+        return new ArrayList<Pair<DataType<?>, Double>>(matchingDataTypes.get(getColumnIndex(column)));
     }
 
     /**
@@ -446,6 +455,7 @@ public char[] getCsvLinebreak() {
     public void setPreviewData(List<String[]> previewData) {
 
         this.previewData = previewData;
+        this.matchingDataTypes = null;
     }
 
     /**
@@ -473,5 +483,21 @@ public char[] getCsvLinebreak() {
     public void setWizardColumns(List<ImportWizardModelColumn> columns) {
 
         this.wizardColumns = columns;
+        this.matchingDataTypes = null;
+    }
+
+    /**
+     * Returns the index of the given column in the preview data
+     * @param column
+     * @return
+     */
+    private int getColumnIndex(ImportWizardModelColumn column) {
+        ImportColumn c = column.getColumn();
+        if (c instanceof ImportColumnIndexed) {
+            return ((ImportColumnIndexed) c).getIndex();
+        } else if (c instanceof ImportColumnJDBC){
+            return ((ImportColumnJDBC) c).getIndex();
+        }
+        return -1;
     }
 }
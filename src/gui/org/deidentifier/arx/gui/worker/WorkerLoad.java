@@ -18,6 +18,7 @@
 package org.deidentifier.arx.gui.worker;
 
 import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -626,14 +627,26 @@ public class WorkerLoad extends Worker<Model> {
      */
     private void readInput(final ModelConfiguration config, final ZipFile zip) throws IOException {
 
-        final ZipEntry entry = zip.getEntry("data/input.csv"); //$NON-NLS-1$
-        if (entry == null) { return; }
-
-        // Read input
-        // Use project delimiter for backwards compatibility
-        config.setInput(Data.create(new BufferedInputStream(zip.getInputStream(entry)),
-                                    Charset.defaultCharset(),
-                                    model.getCSVSyntax().getDelimiter()));
+        // Read binary input
+        ZipEntry entry = zip.getEntry("data/input.bin"); //$NON-NLS-1$
+        if (entry != null) {
+            InputStream stream = zip.getInputStream(entry);
+            try {
+                config.setInput(Data.createBinary(stream));
+            } finally {
+                stream.close();
+            }
+        } else {
+            
+            // Read CSV input for backwards compatibility
+            entry = zip.getEntry("data/input.csv"); //$NON-NLS-1$
+            if (entry == null) { return; }
+            
+            // Use project delimiter for backwards compatibility
+            config.setInput(Data.create(new BufferedInputStream(zip.getInputStream(entry)),
+                                        Charset.defaultCharset(),
+                                        model.getCSVSyntax().getDelimiter()));
+        }
         
         // Disable visualization
         if (model.getMaximalSizeForComplexOperations() > 0 &&
@@ -695,8 +708,130 @@ public class WorkerLoad extends Worker<Model> {
 
         final Map<Integer, List<ARXNode>> levels = new HashMap<Integer, List<ARXNode>>();
 
+        // Read the lattice
+        entry = zip.getEntry("lattice.bin"); //$NON-NLS-1$
+        if (entry != null) {
+            readLattice(zip, entry, levels, min, max, attrs, headermap);
+        } else {
+            readLatticeXML(zip, levels, min, max, attrs, headermap);
+        }
+
+        // Set lattice
+        int bottomLevel = Integer.MAX_VALUE;
+        final ARXNode[][] llevels = new ARXNode[levels.size()][];
+        for (final Entry<Integer, List<ARXNode>> e : levels.entrySet()) {
+            llevels[e.getKey()] = e.getValue().toArray(new ARXNode[] {});
+            if (!e.getValue().isEmpty()) {
+                bottomLevel = Math.min(e.getKey(), bottomLevel);
+            }
+        }
+        
+        lattice.access().setLevels(llevels);
+        lattice.access().setBottom(llevels[bottomLevel][0]);
+        lattice.access().setTop(llevels[llevels.length - 1][0]);
+
+        // Return the map
+        final Map<String, ARXNode> result = new HashMap<String, ARXNode>();
+        for (final List<ARXNode> e : levels.values()) {
+            for (final ARXNode node : e) {
+                result.put(Arrays.toString(node.getTransformation()), node);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the binary representation of the lattice in a single pass.
+     *
+     * @param zip
+     * @param entry
+     * @param levels
+     * @param min
+     * @param max
+     * @param attrs
+     * @param headermap
+     * @throws IOException
+     */
+    private void readLattice(final ZipFile zip,
+                             final ZipEntry entry,
+                             final Map<Integer, List<ARXNode>> levels,
+                             final Map<Integer, InformationLoss<?>> min,
+                             final Map<Integer, InformationLoss<?>> max,
+                             final Map<Integer, Map<Integer, Object>> attrs,
+                             final Map<String, Integer> headermap) throws IOException {
+
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(zip.getInputStream(entry)));
+        try {
+
+            // Read header
+            final int version = in.readInt();
+            if (version != WorkerSave.LATTICE_VERSION) {
+                throw new IOException(Resources.getMessage("WorkerLoad.10") + version); //$NON-NLS-1$
+            }
+            final int[] sizes = new int[in.readInt()];
+            final int dimensions = in.readInt();
+            int size = 0;
+            for (int level = 0; level < sizes.length; level++) {
+                sizes[level] = in.readInt();
+                size += sizes[level];
+                levels.put(level, new ArrayList<ARXNode>(sizes[level]));
+            }
+
+            // Read nodes
+            final ARXNode[] nodes = new ARXNode[size];
+            int id = 0;
+            for (int level = 0; level < sizes.length; level++) {
+                for (int i = 0; i < sizes[level]; i++) {
+                    final int[] transformation = new int[dimensions];
+                    for (int j = 0; j < dimensions; j++) {
+                        transformation[j] = in.readInt();
+                    }
+                    final ARXNode node = lattice.new ARXNode(lattice);
+                    node.access().setAnonymity(Anonymity.valueOf(in.readUTF()));
+                    node.access().setChecked(in.readBoolean());
+                    node.access().setTransformation(transformation);
+                    node.access().setHighestScore(max.get(id));
+                    node.access().setLowestScore(min.get(id));
+                    node.access().setAttributes(attrs.get(id));
+                    node.access().setHeadermap(headermap);
+                    levels.get(level).add(node);
+                    nodes[id++] = node;
+                }
+            }
+
+            // Read relationships
+            for (final ARXNode node : nodes) {
+                node.access().setPredecessors(readNodes(nodes, in));
+                node.access().setSuccessors(readNodes(nodes, in));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the lattice from the XML representation used by previous versions.
+     *
+     * @param zip
+     * @param levels
+     * @param min
+     * @param max
+     * @param attrs
+     * @param headermap
+     * @throws IOException
+     * @throws SAXException
+     */
+    private void readLatticeXML(final ZipFile zip,
+                                final Map<Integer, List<ARXNode>> levels,
+                                final Map<Integer, InformationLoss<?>> min,
+                                final Map<Integer, InformationLoss<?>> max,
+                                final Map<Integer, Map<Integer, Object>> attrs,
+                                final Map<String, Integer> headermap) throws IOException,
+                                                                            SAXException {
+
         // Read the lattice for the first time
-        entry = zip.getEntry("lattice.xml"); //$NON-NLS-1$
+        ZipEntry entry = zip.getEntry("lattice.xml"); //$NON-NLS-1$
         if (entry == null) { throw new IOException(Resources.getMessage("WorkerLoad.7")); } //$NON-NLS-1$
 
         final Map<Integer, ARXNode> map = new HashMap<Integer, ARXNode>();
@@ -870,30 +1005,6 @@ public class WorkerLoad extends Worker<Model> {
             }
         });
         xmlReader.parse(inputSource);
-
-        // Set lattice
-        int bottomLevel = Integer.MAX_VALUE;
-        final ARXNode[][] llevels = new ARXNode[levels.size()][];
-        for (final Entry<Integer, List<ARXNode>> e : levels.entrySet()) {
-            llevels[e.getKey()] = e.getValue().toArray(new ARXNode[] {});
-            if (!e.getValue().isEmpty()) {
-                bottomLevel = Math.min(e.getKey(), bottomLevel);
-            }
-        }
-        
-        lattice.access().setLevels(llevels);
-        lattice.access().setBottom(llevels[bottomLevel][0]);
-        lattice.access().setTop(llevels[llevels.length - 1][0]);
-
-        // Return the map
-        final Map<String, ARXNode> result = new HashMap<String, ARXNode>();
-        for (final List<ARXNode> e : levels.values()) {
-            for (final ARXNode node : e) {
-                result.put(Arrays.toString(node.getTransformation()), node);
-            }
-        }
-
-        return result;
     }
 
     /**
@@ -966,8 +1077,20 @@ public class WorkerLoad extends Worker<Model> {
      */
     private int[] readMinMax(final ZipFile zip) throws SAXException, IOException  {
 
+        // Read the header of the binary lattice. Levels are always stored starting with 0.
+        ZipEntry entry = zip.getEntry("lattice.bin"); //$NON-NLS-1$
+        if (entry != null) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(zip.getInputStream(entry)));
+            try {
+                in.readInt();
+                return new int[] { 0, in.readInt() - 1 };
+            } finally {
+                in.close();
+            }
+        }
+
         // Read the lattice
-        ZipEntry entry = zip.getEntry("lattice.xml"); //$NON-NLS-1$
+        entry = zip.getEntry("lattice.xml"); //$NON-NLS-1$
         if (entry == null) {
             return new int[]{0,0};
         }
@@ -1028,6 +1151,22 @@ public class WorkerLoad extends Worker<Model> {
         oos.close();
     }
 
+    /**
+     * Reads a list of node identifiers and returns the according nodes.
+     *
+     * @param nodes
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private ARXNode[] readNodes(final ARXNode[] nodes, final DataInputStream in) throws IOException {
+        final ARXNode[] result = new ARXNode[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = nodes[in.readInt()];
+        }
+        return result;
+    }
+
     /**
      * Reads a transformation from the serialized array representation.
      *
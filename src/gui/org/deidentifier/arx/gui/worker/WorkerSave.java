@@ -18,6 +18,7 @@
 package org.deidentifier.arx.gui.worker;
 
 import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
@@ -63,6 +64,9 @@ import org.eclipse.core.runtime.IProgressMonitor;
  */
 public class WorkerSave extends Worker<Model> {
 
+    /** The version of the binary representation of the lattice. */
+    static final int   LATTICE_VERSION = 1;
+
     /** The vocabulary to use. */
     private Vocabulary vocabulary = new Vocabulary_V2();
 	
@@ -139,16 +143,19 @@ public class WorkerSave extends Worker<Model> {
     }
 
     /**
-     * Returns an XML representation of the lattice.
+     * Writes a binary representation of the lattice. The format consists of the version,
+     * the number of levels, the number of dimensions and the size of each level, followed by
+     * the transformation, anonymity and checked flag of each node in level order. The
+     * relationships are written last as lists of node identifiers.
      *
      * @param map
      * @param l
      * @param zip
      * @throws IOException
      */
-    private void toXML(final Map<String, Integer> map,
-                       final ARXLattice l,
-                       final ZipOutputStream zip) throws IOException {
+    private void toBinary(final Map<String, Integer> map,
+                          final ARXLattice l,
+                          final ZipOutputStream zip) throws IOException {
 
         // Build mapping
         int id = 0;
@@ -161,42 +168,35 @@ public class WorkerSave extends Worker<Model> {
             }
         }
 
-        // Write directly because of size
-        final FileBuilder b = new FileBuilder(new OutputStreamWriter(zip));
-        final XMLWriter writer = new XMLWriter(b);
-        
-        writer.write(vocabulary.getHeader());
-
-        // Build xml
-        writer.indent(vocabulary.getLattice());
-        for (int i = 0; i < l.getLevels().length; i++) {
-        	
-        	writer.indent(vocabulary.getLevel(), vocabulary.getDepth(), i);
-            for (final ARXNode n : l.getLevels()[i]) {
-                
-            	final String key = Arrays.toString(n.getTransformation());
-                final int currentId = map.get(key);
-                
-                writer.indent(vocabulary.getNode2(), vocabulary.getId(), currentId);
-                writer.write(vocabulary.getTransformation(), n.getTransformation());
-                writer.write(vocabulary.getAnonymity(), n.getAnonymity());
-                writer.write(vocabulary.getChecked(), n.isChecked());
-                if (n.getPredecessors().length > 0) {
-                	writer.write(vocabulary.getPredecessors(), n.getPredecessors(), map);
-                }
-                if (n.getSuccessors().length > 0) {
-                	writer.write(vocabulary.getSuccessors(), n.getSuccessors(), map);
+        // Write header
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(zip));
+        final ARXNode[][] levels = l.getLevels();
+        out.writeInt(LATTICE_VERSION);
+        out.writeInt(levels.length);
+        out.writeInt(l.getBottom().getTransformation().length);
+        for (final ARXNode[] level : levels) {
+            out.writeInt(level.length);
+        }
+
+        // Write nodes
+        for (final ARXNode[] level : levels) {
+            for (final ARXNode n : level) {
+                for (final int value : n.getTransformation()) {
+                    out.writeInt(value);
                 }
-                writer.indent(vocabulary.getInfoloss());
-                writer.write(vocabulary.getMax2(), n.getHighestScore().toString());
-                writer.write(vocabulary.getMin2(), n.getLowestScore().toString());
-                writer.unindent();
-                writer.unindent();
+                out.writeUTF(n.getAnonymity().name());
+                out.writeBoolean(n.isChecked());
             }
-            writer.unindent();
         }
-        writer.unindent();
-        b.flush();
+
+        // Write relationships
+        for (final ARXNode[] level : levels) {
+            for (final ARXNode n : level) {
+                writeNodes(map, n.getPredecessors(), out);
+                writeNodes(map, n.getSuccessors(), out);
+            }
+        }
+        out.flush();
     }
 
     /**
@@ -532,12 +532,8 @@ public class WorkerSave extends Worker<Model> {
     private void writeInput(final Model model, final ZipOutputStream zip) throws IOException {
         if (model.getInputConfig().getInput() != null) {
             if (model.getInputConfig().getInput().getHandle() != null) {
-                zip.putNextEntry(new ZipEntry("data/input.csv")); //$NON-NLS-1$
-                final CSVDataOutput out = new CSVDataOutput(zip, model.getCSVSyntax().getDelimiter());
-                out.write(model.getInputConfig()
-                               .getInput()
-                               .getHandle()
-                               .iterator());
+                zip.putNextEntry(new ZipEntry("data/input.bin")); //$NON-NLS-1$
+                model.getInputConfig().getInput().getHandle().saveBinary(zip);
             }
         }
     }
@@ -577,8 +573,8 @@ public class WorkerSave extends Worker<Model> {
 
         // Write lattice
         final ARXLattice l = model.getResult().getLattice();
-        zip.putNextEntry(new ZipEntry("lattice.xml")); //$NON-NLS-1$
-        toXML(map, l, zip);
+        zip.putNextEntry(new ZipEntry("lattice.bin")); //$NON-NLS-1$
+        toBinary(map, l, zip);
 
         zip.putNextEntry(new ZipEntry("lattice.dat")); //$NON-NLS-1$
         ObjectOutputStream oos = new ObjectOutputStream(zip);
@@ -646,6 +642,23 @@ public class WorkerSave extends Worker<Model> {
 
     }
 
+    /**
+     * Writes the identifiers of the given nodes.
+     *
+     * @param map
+     * @param nodes
+     * @param out
+     * @throws IOException
+     */
+    private void writeNodes(final Map<String, Integer> map,
+                            final ARXNode[] nodes,
+                            final DataOutputStream out) throws IOException {
+        out.writeInt(nodes.length);
+        for (final ARXNode n : nodes) {
+            out.writeInt(map.get(Arrays.toString(n.getTransformation())));
+        }
+    }
+
     /**
      * Writes the project to the file.
      *
@@ -18,13 +18,29 @@
 package org.deidentifier.arx;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
+import org.deidentifier.arx.algorithm.BranchAndBoundAlgorithm;
+import org.deidentifier.arx.algorithm.DPSearchAlgorithm;
+import org.deidentifier.arx.algorithm.DistributedAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithmImpl;
 import org.deidentifier.arx.algorithm.FLASHStrategy;
@@ -35,6 +51,8 @@ import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.ParetoFrontier;
+import org.deidentifier.arx.framework.check.SearchStatistics;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -118,11 +136,19 @@ public class ARXAnonymizer {
 
 		    // Create lattice
 	        final ARXLattice lattice = new ARXLattice(solutionSpace,
-	                                                  (algorithm instanceof FLASHAlgorithmImpl),
+	                                                  (algorithm instanceof FLASHAlgorithmImpl || algorithm instanceof DistributedAlgorithm) && !algorithm.isStopped(),
 	                                                  optimum,
 	                                                  manager.getDataGeneralized().getHeader(),
 	                                                  config.getInternalConfiguration());
 
+	        // Create statistics
+	        ARXSearchStatistics statistics = checker.getStatistics().isEnabled() ? 
+	                                         new ARXSearchStatistics(checker.getStatistics()) : null;
+
+	        // Create frontier
+	        ARXParetoFrontier frontier = checker.getParetoFrontier() != null ?
+	                                     new ARXParetoFrontier(checker.getParetoFrontier(), solutionSpace, lattice) : null;
+
 			// Create output handle
 	        ((DataHandleInput)handle).setLocked(true);
             return new ARXResult(handle.getRegistry(),
@@ -132,10 +158,22 @@ public class ARXAnonymizer {
                                  config,
                                  lattice,
                                  System.currentTimeMillis() - time,
-                                 solutionSpace);      
+                                 solutionSpace,
+                                 statistics,
+                                 algorithm.getOptimalityGap(),
+                                 frontier);      
 		}
     }
 
+    /** Estimated memory occupied by an equivalence class. */
+    private static final long          BYTES_PER_CLASS     = 96L;
+
+    /** Minimal default threshold for spilling classes to disk. */
+    private static final long          MIN_SPILL_THRESHOLD = 1000000L;
+
+    /** Counter for naming JMX beans. */
+    private static final AtomicInteger MBEAN_COUNTER       = new AtomicInteger();
+
     /** History size. */
     private int         historySize          = 200;
 
@@ -151,6 +189,18 @@ public class ARXAnonymizer {
     /** The maximal number of QIs that can be processed. */
     private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
 
+    /** Whether statistics about the search process are collected. */
+    private boolean     searchStatistics     = false;
+
+    /** Number of classes above which the source of a roll-up is spilled to disk. */
+    private int         spillThreshold       = getDefaultSpillThreshold();
+
+    /** Number of worker processes. The search is performed in-process if less than two. */
+    private int         workerProcesses      = 0;
+
+    /** Arguments passed to the JVMs of worker processes. */
+    private String[]    workerArguments      = new String[0];
+
 
     /**
      * Creates a new anonymizer with the default configuration.
@@ -179,7 +229,8 @@ public class ARXAnonymizer {
     }
 
     /**
-     * Performs data anonymization.
+     * Performs data anonymization. Interrupting the calling thread does not stop the search.
+     * Use {@link #anonymizeAsync(Data, ARXConfiguration, Executor)} for a search which can be cancelled.
      *
      * @param data The data
      * @param config The privacy config
@@ -187,33 +238,56 @@ public class ARXAnonymizer {
      * @throws IOException
      */
     public ARXResult anonymize(final Data data, ARXConfiguration config) throws IOException {
-        
-        if (((DataHandleInput)data.getHandle()).isLocked()){
-            throw new RuntimeException("This data handle is locked. Please release it first");
-        }
-        
-        // Update registry
-        DataHandle handle = data.getHandle();
-        handle.getDefinition().materializeHierarchies(handle);
-        checkBeforeEncoding(handle, config);
-        handle.getRegistry().reset();
-        
-        // Create manager
-        DataManager manager = getDataManager(handle, handle.getDefinition(), config);
-
-        // Attach subset to handle
-        handle.getRegistry().createInputSubset(config);
-        
-        // Attach arrays to data handle
-        ((DataHandleInput)handle).update(manager.getDataGeneralized().getArray(), 
-                                         manager.getDataAnalyzed().getArray(),
-                                         manager.getDataStatic().getArray());
+        return anonymize(data, config, Long.MAX_VALUE, false);
+    }
 
+    /**
+     * Performs data anonymization asynchronously using the given executor. The search can be cancelled
+     * by calling <code>cancel(true)</code> on the returned future, which will stop the search cooperatively
+     * and leave the input data unlocked. Jobs that are executed concurrently must operate on
+     * different instances of {@link Data}. If the listener implements {@link ARXProgressListener},
+     * structured progress events are reported.
+     *
+     * @param data The data
+     * @param config The privacy config
+     * @param executor The executor
+     * @return A future for the result
+     */
+    public Future<ARXResult> anonymizeAsync(final Data data,
+                                            final ARXConfiguration config,
+                                            final Executor executor) {
+        return anonymizeAsync(data, config, executor, Long.MAX_VALUE);
+    }
 
-        // Execute
-        return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
+    /**
+     * Performs data anonymization asynchronously using the given executor. The search can be cancelled
+     * by calling <code>cancel(true)</code> on the returned future, which will stop the search cooperatively
+     * and leave the input data unlocked. Jobs that are executed concurrently must operate on
+     * different instances of {@link Data}.<br>
+     * <br>
+     * If the search has not been completed when the timeout, measured from the invocation of this
+     * method, expires, it will be stopped and the result will contain the best solution found so far.
+     * In this case, the solution space will not be characterized completely, i.e.
+     * <code>ARXResult.getLattice().isComplete()</code> will return false.
+     *
+     * @param data The data
+     * @param config The privacy config
+     * @param executor The executor
+     * @param timeout The timeout
+     * @param unit The unit of the timeout
+     * @return A future for the result
+     */
+    public Future<ARXResult> anonymizeAsync(final Data data,
+                                            final ARXConfiguration config,
+                                            final Executor executor,
+                                            final long timeout,
+                                            final TimeUnit unit) {
+        if (timeout <= 0) { throw new IllegalArgumentException("Timeout must be greater than zero"); }
+        long millis = unit.toMillis(timeout);
+        long now = System.currentTimeMillis();
+        return anonymizeAsync(data, config, executor, millis < Long.MAX_VALUE - now ? now + millis : Long.MAX_VALUE);
     }
-    
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -242,6 +316,16 @@ public class ARXAnonymizer {
         return snapshotSizeSnapshot;
     }
 
+    /**
+     * Returns the number of equivalence classes above which the source of a roll-up is
+     * spilled to disk.
+     * 
+     * @return
+     */
+    public int getSpillThreshold() {
+        return spillThreshold;
+    }
+
     /**
      * Returns the maximal number of quasi-identifiers.
      * @return
@@ -250,6 +334,33 @@ public class ARXAnonymizer {
         return maxQuasiIdentifiers;
     }
 
+    /**
+     * Returns the number of worker processes.
+     * 
+     * @return
+     */
+    public int getNumberOfWorkerProcesses() {
+        return workerProcesses;
+    }
+
+    /**
+     * Returns the arguments passed to the JVMs of worker processes.
+     * 
+     * @return
+     */
+    public String[] getWorkerArguments() {
+        return workerArguments.clone();
+    }
+
+    /**
+     * Returns whether statistics about the search process are collected.
+     * 
+     * @return
+     */
+    public boolean isSearchStatisticsEnabled() {
+        return searchStatistics;
+    }
+
     /**
      * Sets the maximum number of snapshots allowed to store in the history.
      * 
@@ -293,6 +404,22 @@ public class ARXAnonymizer {
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
     }
 
+    /**
+     * Sets the number of equivalence classes above which the source of a roll-up is spilled
+     * to a temporary file. Roll-ups compute the classes of a transformation from the classes
+     * of its predecessor, which means that two sets of classes must be kept in memory. If the
+     * predecessor has more classes than the threshold, they are written to disk in a compact
+     * format and streamed back, which reduces the memory required for processing very large
+     * datasets at the cost of additional I/O. By default, the threshold is derived from the
+     * maximal size of the heap. Set to Integer.MAX_VALUE to disable spilling.
+     * 
+     * @param spillThreshold
+     */
+    public void setSpillThreshold(final int spillThreshold) {
+        if (spillThreshold < 0) { throw new IllegalArgumentException("Threshold must be positive or 0"); }
+        this.spillThreshold = spillThreshold;
+    }
+
     /**
      * Sets the maximal number of quasi-identifiers. Set to Integer.MAX_VALUE to disable the 
      * restriction. By default, the restriction is disabled.
@@ -302,6 +429,100 @@ public class ARXAnonymizer {
         this.maxQuasiIdentifiers = maxQuasiIdentifiers;
     }
 
+    /**
+     * Sets the number of local worker processes among which the search is distributed. Each worker
+     * is a separate JVM, which is launched with the classpath of the current JVM and connected via
+     * the loopback interface. The input is written to a temporary binary file, which is mapped into
+     * memory by all workers. The solution space is partitioned into sub-lattices along the
+     * quasi-identifier with the most generalization levels and each worker searches one of them with
+     * its own history and groupify operators. The coordinator merges the classification of the
+     * solution space and determines the global optimum. This allows processing datasets which are
+     * too large for the heap of a single JVM. Distribution is only used for searches which would
+     * otherwise be performed with an optimal algorithm. Search statistics are not collected by the
+     * workers. Set to 0 or 1 to perform the search in-process, which is the default.
+     * 
+     * @param workerProcesses
+     */
+    public void setNumberOfWorkerProcesses(final int workerProcesses) {
+        if (workerProcesses < 0) { throw new IllegalArgumentException("Number of worker processes must be positive or 0"); }
+        this.workerProcesses = workerProcesses;
+    }
+
+    /**
+     * Sets the arguments passed to the JVMs of worker processes, e.g. to configure their heap size.
+     * 
+     * @param arguments
+     */
+    public void setWorkerArguments(final String... arguments) {
+        if (arguments == null) { throw new NullPointerException("Arguments must not be null"); }
+        this.workerArguments = arguments.clone();
+    }
+
+    /**
+     * Enables or disables the collection of statistics about the search process. If enabled,
+     * the statistics are available via {@link ARXResult#getSearchStatistics()} and are
+     * registered as a JMX MBean while the search is running. Disabled by default.
+     *
+     * @param enabled
+     */
+    public void setSearchStatisticsEnabled(boolean enabled) {
+        this.searchStatistics = enabled;
+    }
+
+    /**
+     * Performs data anonymization.
+     *
+     * @param data The data
+     * @param config The privacy config
+     * @param deadline Point in time (wall clock) after which the search is stopped
+     * @param interruptible Whether the search is cancelled when the executing thread is interrupted
+     * @return ARXResult
+     * @throws IOException
+     */
+    private ARXResult anonymize(final Data data, ARXConfiguration config, long deadline, boolean interruptible) throws IOException {
+
+        if (((DataHandleInput)data.getHandle()).isLocked()){
+            throw new RuntimeException("This data handle is locked. Please release it first");
+        }
+
+        // Prepare
+        DataHandle handle = data.getHandle();
+        DataManager manager = prepare(handle, config);
+
+        // Execute
+        Result result = anonymize(manager, handle.getDefinition(), config, deadline, interruptible, null, (DataHandleInput)handle);
+
+        // Don't lock the handle, if the search has been cancelled
+        if (interruptible && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Anonymization has been cancelled");
+        }
+        return result.asResult(config, handle);
+    }
+
+    /**
+     * Performs data anonymization asynchronously.
+     *
+     * @param data
+     * @param config
+     * @param executor
+     * @param deadline
+     * @return
+     */
+    private Future<ARXResult> anonymizeAsync(final Data data,
+                                             final ARXConfiguration config,
+                                             final Executor executor,
+                                             final long deadline) {
+        if (executor == null) { throw new NullPointerException("Executor must not be null"); }
+        FutureTask<ARXResult> task = new FutureTask<ARXResult>(new Callable<ARXResult>() {
+            @Override
+            public ARXResult call() throws Exception {
+                return anonymize(data, config, deadline, true);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
     /**
      * Performs some sanity checks.
      *
@@ -488,17 +709,37 @@ public class ARXAnonymizer {
      * @param manager
      * @param solutionSpace
      * @param checker
+     * @param definition
+     * @param input The input handle, if the search may be distributed among worker processes
      * @return
      */
     private AbstractAlgorithm getAlgorithm(final ARXConfiguration config,
                                           final DataManager manager,
                                           final SolutionSpace solutionSpace,
-                                          final NodeChecker checker) {
+                                          final NodeChecker checker,
+                                          final DataDefinition definition,
+                                          final DataHandleInput input) {
         
-        if (config.isHeuristicSearchEnabled() ||
+        EDDifferentialPrivacy dp = config.getPrivacyModel(EDDifferentialPrivacy.class);
+        if (dp != null && dp.isDataDependent()) {
+            return DPSearchAlgorithm.create(solutionSpace, checker, manager, dp);
+            
+        } else if (config.isHeuristicSearchEnabled() ||
             solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
+            
+            if (config.isBranchAndBoundSearchEnabled()) {
+                NodeChecker[] checkers = new NodeChecker[config.getBranchAndBoundSearchThreads()];
+                checkers[0] = checker;
+                for (int i = 1; i < checkers.length; i++) {
+                    checkers[i] = getNodeChecker(manager, config, solutionSpace, checker.getStatistics(), checker.getParetoFrontier());
+                }
+                return BranchAndBoundAlgorithm.create(solutionSpace, checkers, config.getBranchAndBoundSearchGap());
+            }
             return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
             
+        } else if (input != null && workerProcesses > 1) {
+            return DistributedAlgorithm.create(solutionSpace, checker, manager, new ARXWorker.Launcher(definition, config, input, this));
+            
         } else {
             FLASHStrategy strategy = new FLASHStrategy(solutionSpace, manager.getHierarchies());
             return FLASHAlgorithm.create(solutionSpace, checker, strategy);
@@ -524,6 +765,111 @@ public class ARXAnonymizer {
         return manager;
     }
 
+    /**
+     * Prepares the given handle and creates the data manager.
+     *
+     * @param handle
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    private DataManager prepare(final DataHandle handle, final ARXConfiguration config) throws IOException {
+
+        // Update registry
+        handle.getDefinition().materializeHierarchies(handle);
+        checkBeforeEncoding(handle, config);
+        handle.getRegistry().reset();
+
+        // Create manager
+        DataManager manager = getDataManager(handle, handle.getDefinition(), config);
+
+        // Attach subset to handle
+        handle.getRegistry().createInputSubset(config);
+
+        // Attach arrays to data handle
+        ((DataHandleInput)handle).update(manager.getDataGeneralized().getArray(),
+                                         manager.getDataAnalyzed().getArray(),
+                                         manager.getDataStatic().getArray());
+        return manager;
+    }
+
+    /**
+     * Creates a node checker
+     * @param manager
+     * @param config
+     * @param solutionSpace
+     * @param statistics
+     * @param frontier
+     * @return
+     */
+    private NodeChecker getNodeChecker(final DataManager manager,
+                                       final ARXConfiguration config,
+                                       final SolutionSpace solutionSpace,
+                                       final SearchStatistics statistics,
+                                       final ParetoFrontier frontier) {
+        return new NodeChecker(manager,
+                               config.getQualityModel(),
+                               config.getInternalConfiguration(),
+                               historySize,
+                               snapshotSizeDataset,
+                               snapshotSizeSnapshot,
+                               solutionSpace,
+                               statistics,
+                               frontier,
+                               spillThreshold);
+    }
+
+    /**
+     * Returns the default threshold for spilling classes to disk, which is the number of
+     * classes that roughly occupy a quarter of the maximal heap size
+     * @return
+     */
+    private static int getDefaultSpillThreshold() {
+        long classes = Runtime.getRuntime().maxMemory() / 4L / BYTES_PER_CLASS;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(classes, MIN_SPILL_THRESHOLD));
+    }
+
+    /**
+     * Registers the statistics as a JMX MBean, if enabled. Monitoring is optional, 
+     * errors are therefore ignored.
+     * 
+     * @param statistics
+     * @return The name of the bean, null if it has not been registered
+     */
+    private ObjectName registerStatistics(SearchStatistics statistics) {
+        if (!statistics.isEnabled()) {
+            return null;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("org.deidentifier.arx:type=SearchStatistics,id=" + MBEAN_COUNTER.incrementAndGet());
+            server.registerMBean(statistics, name);
+            return name;
+        } catch (JMException e) {
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Unregisters the given JMX MBean, if any.
+     * 
+     * @param name
+     */
+    private void unregisterStatistics(ObjectName name) {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // Ignore
+        } catch (SecurityException e) {
+            // Ignore
+        }
+    }
+
     /**
      * Reset a previous lattice and run the algorithm .
      *
@@ -536,6 +882,85 @@ public class ARXAnonymizer {
     protected Result anonymize(final DataManager manager,
                                final DataDefinition definition,
                                final ARXConfiguration config) throws IOException {
+        return anonymize(manager, definition, config, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reset a previous lattice and run the algorithm .
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @param deadline Point in time (wall clock) after which the search is stopped
+     * @return
+     * @throws IOException
+     */
+    protected Result anonymize(final DataManager manager,
+                               final DataDefinition definition,
+                               final ARXConfiguration config,
+                               final long deadline) throws IOException {
+        return anonymize(manager, definition, config, deadline, false, null, null);
+    }
+
+    /**
+     * Searches the sub-lattice in which the generalization levels of the given attribute are
+     * restricted to the given range. Used by worker processes.
+     *
+     * @param data
+     * @param config
+     * @param attribute
+     * @param minLevel
+     * @param maxLevel
+     * @param deadline Point in time (wall clock) after which the search is stopped
+     * @return
+     * @throws IOException
+     */
+    Result anonymize(final Data data,
+                     final ARXConfiguration config,
+                     final String attribute,
+                     final int minLevel,
+                     final int maxLevel,
+                     final long deadline) throws IOException {
+
+        // Prepare
+        DataHandle handle = data.getHandle();
+        DataManager manager = prepare(handle, config);
+
+        // Restrict
+        int index = Arrays.asList(manager.getDataGeneralized().getHeader()).indexOf(attribute);
+        if (index == -1) {
+            throw new IllegalArgumentException("Attribute '" + attribute + "' is not a quasi-identifier with generalization");
+        }
+        int[] minLevels = manager.getHierarchiesMinLevels().clone();
+        int[] maxLevels = manager.getHierarchiesMaxLevels().clone();
+        minLevels[index] = minLevel;
+        maxLevels[index] = maxLevel;
+
+        // Execute
+        return anonymize(manager, handle.getDefinition(), config, deadline, false, new int[][] { minLevels, maxLevels }, null);
+    }
+
+    /**
+     * Reset a previous lattice and run the algorithm. The search can be restricted to a
+     * sub-lattice or it can be distributed among worker processes.
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @param deadline Point in time (wall clock) after which the search is stopped
+     * @param interruptible Whether the search is stopped when the executing thread is interrupted
+     * @param partition Minimal and maximal generalization levels of the sub-lattice, null for the whole solution space
+     * @param input The input handle, if the search may be distributed among worker processes
+     * @return
+     * @throws IOException
+     */
+    private Result anonymize(final DataManager manager,
+                             final DataDefinition definition,
+                             final ARXConfiguration config,
+                             final long deadline,
+                             final boolean interruptible,
+                             final int[][] partition,
+                             final DataHandleInput input) throws IOException {
 
         // Initialize
         config.initialize(manager);
@@ -544,32 +969,38 @@ public class ARXAnonymizer {
         checkAfterEncoding(config, manager);
 
         // Build or clean the lattice
-        SolutionSpace solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        SolutionSpace solutionSpace = partition != null ? new SolutionSpace(partition[0], partition[1]) :
+                                                          new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
 
         // Initialize the metric
         config.getQualityModel().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
 
         // Build a node checker
-        final NodeChecker checker = new NodeChecker(manager,
-                                                    config.getQualityModel(),
-                                                    config.getInternalConfiguration(),
-                                                    historySize,
-                                                    snapshotSizeDataset,
-                                                    snapshotSizeSnapshot,
-                                                    solutionSpace);
+        final SearchStatistics statistics = new SearchStatistics(searchStatistics);
+        final ParetoFrontier frontier = config.isParetoFrontierEnabled() ? new ParetoFrontier() : null;
+        final NodeChecker checker = getNodeChecker(manager, config, solutionSpace, statistics, frontier);
 
         // Create an algorithm instance
         AbstractAlgorithm algorithm = getAlgorithm(config,
                                                    manager,
                                                    solutionSpace,
-                                                   checker);
+                                                   checker,
+                                                   definition,
+                                                   input);
         algorithm.setListener(listener);
+        algorithm.setDeadline(deadline);
+        algorithm.setInterruptible(interruptible);
 
         
         // Execute
 
         final long time = System.currentTimeMillis();
-        algorithm.traverse();
+        ObjectName mbean = registerStatistics(statistics);
+        try {
+            algorithm.traverse();
+        } finally {
+            unregisterStatistics(mbean);
+        }
         
         // Deactivate history to prevent bugs when sorting data
         checker.getHistory().reset();
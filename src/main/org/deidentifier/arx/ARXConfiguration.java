@@ -372,6 +372,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchTimeLimit                         = 30000;
 
+    /** Should we use the branch-and-bound algorithm instead of the heuristic algorithm? */
+    private boolean                            branchAndBoundSearchEnabled                      = false;
+
+    /** The branch-and-bound algorithm will terminate when the optimality gap is below this threshold */
+    private Double                             branchAndBoundSearchGap                          = 0d;
+
+    /** Number of threads used by the branch-and-bound algorithm, null for the number of processors */
+    private Integer                            branchAndBoundSearchThreads                      = null;
+
+    /** Should the Pareto frontier of quality and re-identification risk be collected? */
+    private boolean                            paretoFrontierEnabled                            = false;
+
     /** Cost/benefit configuration */
     private ARXCostBenefitConfiguration        costBenefitConfiguration                         = ARXCostBenefitConfiguration.create();
 
@@ -512,6 +524,10 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.branchAndBoundSearchEnabled = this.branchAndBoundSearchEnabled;
+        result.branchAndBoundSearchGap = this.branchAndBoundSearchGap;
+        result.branchAndBoundSearchThreads = this.branchAndBoundSearchThreads;
+        result.paretoFrontierEnabled = this.paretoFrontierEnabled;
         result.utilityBasedMicroaggregation = this.utilityBasedMicroaggregation;
         result.costBenefitConfiguration = this.getCostBenefitConfiguration().clone();
         if (this.attributeWeights != null) {
@@ -625,6 +641,32 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.getPrivacyModel(clazz);
     }
     
+    /**
+     * The branch-and-bound search algorithm will terminate, when the relative gap between the
+     * best solution found and a lower bound for the information loss of all remaining solutions
+     * is below the returned threshold. The default is 0, which means that an optimal solution
+     * will be found.
+     * @return
+     */
+    public double getBranchAndBoundSearchGap() {
+        if (this.branchAndBoundSearchGap == null) {
+            this.branchAndBoundSearchGap = 0d;
+        }
+        return this.branchAndBoundSearchGap;
+    }
+
+    /**
+     * Returns the number of threads used by the branch-and-bound search algorithm.
+     * The default is the number of available processors.
+     * @return
+     */
+    public int getBranchAndBoundSearchThreads() {
+        if (this.branchAndBoundSearchThreads == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return this.branchAndBoundSearchThreads;
+    }
+
     /**
      * When the size of the solution space exceeds the returned number of transformations,
      * ARX will use a heuristic search strategy. The default is 100.000.
@@ -834,6 +876,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return (suppressedAttributeTypes & (1 << type.getType())) != 0;
     }
 
+    /**
+     * Returns whether ARX will use a parallel branch-and-bound search strategy instead of the
+     * heuristic search strategy. The default is false.
+     * @return
+     */
+    public boolean isBranchAndBoundSearchEnabled() {
+        return this.branchAndBoundSearchEnabled;
+    }
+
     /**
      * Returns whether ARX will use a heuristic search strategy. The default is false.
      * @return
@@ -842,6 +893,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchEnabled;
     }
 
+    /**
+     * Returns whether the Pareto frontier of quality and re-identification risk is collected
+     * during the search. The default is false.
+     * @return
+     */
+    public boolean isParetoFrontierEnabled() {
+        return this.paretoFrontierEnabled;
+    }
+
     /**
      * Is practical monotonicity assumed.
      *
@@ -960,6 +1020,41 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this;
     }
 
+    /**
+     * Sets whether ARX will use a parallel branch-and-bound search strategy instead of the
+     * heuristic search strategy, i.e. if the heuristic search strategy has been enabled or
+     * the size of the solution space exceeds the according threshold. The search uses lower
+     * bounds provided by the quality model for pruning and is not subject to the time limit
+     * of the heuristic search strategy. The default is false.
+     * @param branchAndBoundSearchEnabled
+     */
+    public void setBranchAndBoundSearchEnabled(boolean branchAndBoundSearchEnabled) {
+        this.branchAndBoundSearchEnabled = branchAndBoundSearchEnabled;
+    }
+
+    /**
+     * The branch-and-bound search algorithm will terminate, when the relative gap between the
+     * best solution found and a lower bound for the information loss of all remaining solutions
+     * is below the given threshold. For example, 0.01 means that the information loss of the
+     * solution found is within 1% of the optimum, relative to the lowest possible information loss.
+     * The default is 0, which means that an optimal solution will be found.
+     * @param gap
+     */
+    public void setBranchAndBoundSearchGap(double gap) {
+        if (gap < 0d || gap > 1d) { throw new IllegalArgumentException("Parameter must be >= 0 and <= 1"); }
+        this.branchAndBoundSearchGap = gap;
+    }
+
+    /**
+     * Sets the number of threads used by the branch-and-bound search algorithm.
+     * The default is the number of available processors.
+     * @param threads
+     */
+    public void setBranchAndBoundSearchThreads(int threads) {
+        if (threads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.branchAndBoundSearchThreads = threads;
+    }
+
     /**
      * Sets whether ARX will use a heuristic search strategy. The default is false.
      * @param heuristicSearchEnabled
@@ -1012,6 +1107,21 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.setQualityModel(model);
     }
     
+    /**
+     * Sets whether the Pareto frontier of quality and re-identification risk is collected
+     * during the search. If enabled, the quality of each transformation that is checked and
+     * found to be anonymous is recorded together with the average and the highest
+     * re-identification risk (prosecutor model) derived from the sizes of its equivalence
+     * classes. Transformations which are dominated in all three dimensions are discarded
+     * on-the-fly. Transformations that are classified without being checked, e.g. by
+     * predictive tagging, are not considered. The frontier is available via
+     * {@link ARXResult#getParetoFrontier()}. The default is false.
+     * @param paretoFrontierEnabled
+     */
+    public void setParetoFrontierEnabled(boolean paretoFrontierEnabled) {
+        this.paretoFrontierEnabled = paretoFrontierEnabled;
+    }
+
     /**
      * Set, if practical monotonicity assumed.
      *
@@ -1354,6 +1464,9 @@ public class ARXConfiguration implements Serializable, Cloneable {
         if (this.requires(REQUIREMENT_SECONDARY_COUNTER)) {
             this.snapshotLength += 1;
         }
+        if (this.metric.isRowWeightsRequired()) {
+            this.snapshotLength += 2;
+        }
     }
 
     /**
@@ -100,6 +100,7 @@ public class ARXLattice implements Serializable {
          */
         public void setLevels(final ARXNode[][] levels) {
             lattice.levels = levels;
+            lattice.nodes = null;
         }
 
         /**
@@ -320,16 +321,16 @@ public class ARXLattice implements Serializable {
         }
 
         /** Id. */
-        private Integer              id         = null;
+        private int                  id         = -1;
 
-        /** The access. */
-        private final Access         access     = new Access(this);
+        /** The access. Created on demand. */
+        private Access               access;
 
         /** Is it anonymous. */
         private Anonymity            anonymity;
 
-        /** Attributes. */
-        private Map<Integer, Object> attributes = new HashMap<Integer, Object>();
+        /** Attributes. Created on demand. */
+        private Map<Integer, Object> attributes;
 
         /** Has the node been checked. */
         private boolean              checked;
@@ -346,10 +347,10 @@ public class ARXLattice implements Serializable {
         /** The min information loss. */
         private InformationLoss<?>   minInformationLoss;
 
-        /** The predecessors. */
+        /** The predecessors. Derived on first use in complete lattices. */
         private ARXNode[]            predecessors;
 
-        /** The successors. */
+        /** The successors. Derived on first use in complete lattices. */
         private ARXNode[]            successors;
 
         /** The transformation. */
@@ -388,38 +389,7 @@ public class ARXLattice implements Serializable {
             this.maxInformationLoss = transformation.getInformationLoss();
             this.lowerBound = transformation.getLowerBound();
             this.checked = transformation.hasProperty(solutions.getPropertyChecked());
-            
-            // Transfer anonymity property without uncertainty
-            if (transformation.hasProperty(solutions.getPropertyChecked())){
-                if (transformation.hasProperty(solutions.getPropertyAnonymous())) {
-                    this.anonymity = Anonymity.ANONYMOUS;
-                } else if(transformation.hasProperty(solutions.getPropertyNotAnonymous())) {
-                    this.anonymity = Anonymity.NOT_ANONYMOUS;
-                } else {                  
-                    if (!complete) {
-                        this.anonymity = Anonymity.UNKNOWN;
-                    } else {
-                        throw new IllegalStateException("Missing information about transformations");
-                    }
-                }
-            // This is a node for which the property is unknown
-            } else {
-                if (transformation.hasProperty(solutions.getPropertyAnonymous())) {
-                    this.anonymity = uncertainty ? Anonymity.PROBABLY_ANONYMOUS : Anonymity.ANONYMOUS;
-                } else if (transformation.hasProperty(solutions.getPropertyNotAnonymous())) {
-                    this.anonymity = uncertainty ? Anonymity.PROBABLY_NOT_ANONYMOUS : Anonymity.NOT_ANONYMOUS;
-                } else if (transformation.hasProperty(solutions.getPropertyNotKAnonymous())) {
-                    this.anonymity = Anonymity.NOT_ANONYMOUS;
-                } else if (transformation.hasProperty(solutions.getPropertyInsufficientUtility())) {
-                    this.anonymity = Anonymity.UNKNOWN;
-                } else {
-                    if (!complete) {
-                        this.anonymity = Anonymity.UNKNOWN;
-                    } else {
-                        throw new IllegalStateException("Missing information about transformations");
-                    }
-                }
-            }
+            this.anonymity = lattice.getAnonymity(solutions, transformation);
 
             // Make sure that we have information loss available
             // Important for expand operations
@@ -432,6 +402,24 @@ public class ARXLattice implements Serializable {
                 }
             }
         }
+
+        /**
+         * Constructor for views on complete lattices.
+         *
+         * @param lattice
+         * @param identifier
+         */
+        private ARXNode(final ARXLattice lattice, final int identifier) {
+            this.lattice = lattice;
+            this.id = identifier;
+            this.headermap = lattice.headermap;
+            this.transformation = lattice.solutions.getTransformation(identifier).getGeneralization();
+            this.minInformationLoss = lattice.lowestScores.get(identifier);
+            this.maxInformationLoss = lattice.highestScores.get(identifier);
+            this.lowerBound = lattice.lowerBounds.get(identifier);
+            this.checked = (lattice.states[identifier] & STATE_CHECKED) != 0;
+            this.anonymity = ANONYMITIES[lattice.states[identifier] & ~STATE_CHECKED];
+        }
         
         /**
          * Alter associated fields.
@@ -439,6 +427,9 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public Access access() {
+            if (access == null) {
+                access = new Access(this);
+            }
             return access;
         }
         
@@ -464,6 +455,9 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public Map<Integer, Object> getAttributes() {
+            if (attributes == null) {
+                attributes = new HashMap<Integer, Object>();
+            }
             return attributes;
         }
         
@@ -531,6 +525,9 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public ARXNode[] getPredecessors() {
+            if (predecessors == null && lattice.nodes != null) {
+                predecessors = lattice.getPredecessors(this);
+            }
             return predecessors;
         }
 
@@ -553,6 +550,9 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public ARXNode[] getSuccessors() {
+            if (successors == null && lattice.nodes != null) {
+                successors = lattice.getSuccessors(this);
+            }
             return successors;
         }
 
@@ -627,11 +627,11 @@ public class ARXLattice implements Serializable {
         }
 
         /**
-         * Returns a node's internal id.
+         * Returns a node's internal id, -1 if it has not been set.
          *
          * @return
          */
-        protected Integer getId(){
+        protected int getId(){
             return this.id;
         }
 
@@ -674,6 +674,12 @@ public class ARXLattice implements Serializable {
     /** SVUID */
     private static final long                    serialVersionUID       = -8790104959905019184L;
 
+    /** Flag for checked transformations in the state of a transformation */
+    private static final byte                    STATE_CHECKED          = 0x40;
+
+    /** Anonymity properties, indexed by their ordinal */
+    private static final Anonymity[]             ANONYMITIES            = Anonymity.values();
+
     /**
      * Returns the deserialization context.
      * 
@@ -684,49 +690,76 @@ public class ARXLattice implements Serializable {
     }
 
     /** The accessor. */
-    private final Access            access                 = new Access(this);
+    private final Access                   access                 = new Access(this);
 
     /** The bottom node. */
-    private transient ARXNode       bottom;
+    private transient ARXNode              bottom;
 
     /** The levels in the lattice. */
-    private transient ARXNode[][]   levels;
+    private transient ARXNode[][]          levels;
 
     /** Metric. */
-    private Metric<?>               metric;
+    private Metric<?>                      metric;
 
     /** The optimum. */
-    private transient ARXNode       optimum;
+    private transient ARXNode              optimum;
 
     /** The number of nodes. */
-    private int                     size;
+    private int                            size;
 
     /** The virtual size */
-    private Long                    virtualSize;
+    private Long                           virtualSize;
 
     /** The top node. */
-    private transient ARXNode       top;
+    private transient ARXNode              top;
 
     /** Is practical monotonicity being assumed. */
-    private boolean                 uncertainty;
+    private boolean                        uncertainty;
 
     /** Is this the result of an optimal algorithm */
-    private Boolean                 complete;
+    private Boolean                        complete;
 
     /** Monotonicity of information loss. */
-    private boolean                 monotonicAnonymous;
+    private boolean                        monotonicAnonymous;
 
     /** Monotonicity of information loss. */
-    private boolean                 monotonicNonAnonymous;
+    private boolean                        monotonicNonAnonymous;
 
     /** Minimum loss in the lattice. */
-    private InformationLoss<?>      minimumInformationLoss = null;
+    private InformationLoss<?>             minimumInformationLoss = null;
 
     /** Maximum loss in the lattice. */
-    private InformationLoss<?>      maximumInformationLoss = null;
+    private InformationLoss<?>             maximumInformationLoss = null;
 
     /** The solution space */
-    private transient SolutionSpace solutions;
+    private transient SolutionSpace        solutions;
+
+    /** Nodes indexed by their identifier, materialized on first use, in complete lattices only */
+    private transient ARXNode[]            nodes;
+
+    /** Anonymity and checked flag per identifier, in complete lattices only */
+    private transient byte[]               states;
+
+    /** Lowest scores per identifier, in complete lattices only */
+    private transient ScoreArray           lowestScores;
+
+    /** Highest scores per identifier, in complete lattices only */
+    private transient ScoreArray           highestScores;
+
+    /** Lower bounds per identifier, in complete lattices only */
+    private transient ScoreArray           lowerBounds;
+
+    /** The header map, in complete lattices only */
+    private transient Map<String, Integer> headermap;
+
+    /** Offsets of identifiers per dimension, in complete lattices only */
+    private transient int[]                offsets;
+
+    /** Minimal levels, in complete lattices only */
+    private transient int[]                minLevels;
+
+    /** Maximal levels, in complete lattices only */
+    private transient int[]                maxLevels;
 
     /**
      * Constructor.
@@ -765,28 +798,28 @@ public class ARXLattice implements Serializable {
             buildComplete(optimum, headermap);
         } else {
             buildIncomplete(optimum, headermap);
-        }
-        
-        // find bottom node
-        outer: for (int i = 0; i < this.levels.length; i++) {
-            final ARXNode[] level = this.levels[i];
-            for (int j = 0; j < level.length; j++) {
-                final ARXNode node = level[j];
-                if (node != null) {
-                    this.bottom = node;
-                    break outer;
+            
+            // find bottom node
+            outer: for (int i = 0; i < this.levels.length; i++) {
+                final ARXNode[] level = this.levels[i];
+                for (int j = 0; j < level.length; j++) {
+                    final ARXNode node = level[j];
+                    if (node != null) {
+                        this.bottom = node;
+                        break outer;
+                    }
                 }
             }
-        }
-
-        // find top node
-        outer: for (int i = this.levels.length - 1; i >= 0; i--) {
-            final ARXNode[] level = this.levels[i];
-            for (int j = 0; j < level.length; j++) {
-                final ARXNode node = level[j];
-                if (node != null) {
-                    this.top = node;
-                    break outer;
+            
+            // find top node
+            outer: for (int i = this.levels.length - 1; i >= 0; i--) {
+                final ARXNode[] level = this.levels[i];
+                for (int j = 0; j < level.length; j++) {
+                    final ARXNode node = level[j];
+                    if (node != null) {
+                        this.top = node;
+                        break outer;
+                    }
                 }
             }
         }
@@ -921,6 +954,9 @@ public class ARXLattice implements Serializable {
      * @return
      */
     public ARXNode[][] getLevels() {
+        if (levels == null && nodes != null) {
+            buildLevels();
+        }
         return levels;
     }
     
@@ -993,7 +1029,8 @@ public class ARXLattice implements Serializable {
     }
     
     /**
-     * Build an ARX lattice for a completely classified solution space
+     * Build an ARX lattice for a completely classified solution space. Only the state of each
+     * transformation is stored. Nodes are materialized on first use.
      * @param optimum
      * @param headermap
      */
@@ -1001,68 +1038,31 @@ public class ARXLattice implements Serializable {
 
         // Init
         this.size = (int) solutions.getSize();
-        int[] offsets = solutions.getMultipliersForLowDimensionalData();
-        int[] maxLevels = solutions.getTop().getGeneralization();
-        int[] minLevels = solutions.getBottom().getGeneralization();
-        int topLevel = solutions.getTop().getLevel();
-
-        // Create nodes
-        int[] levelsizes = new int[topLevel + 1];
-        ARXNode[] cache = new ARXNode[size];
-        for (int identifier = 0; identifier < cache.length; identifier++) {
-            
-            // Create ARXNode
+        this.headermap = headermap;
+        this.offsets = solutions.getMultipliersForLowDimensionalData();
+        this.maxLevels = solutions.getTop().getGeneralization();
+        this.minLevels = solutions.getBottom().getGeneralization();
+        this.nodes = new ARXNode[size];
+        this.states = new byte[size];
+        this.lowestScores = new ScoreArray(size, metric);
+        this.highestScores = new ScoreArray(size, metric);
+        this.lowerBounds = new ScoreArray(size, metric);
+
+        // Store state of transformations
+        for (int identifier = 0; identifier < size; identifier++) {
             Transformation transformation = solutions.getTransformation(identifier);
-            cache[identifier] = new ARXNode(this,
-                                       this.solutions,
-                                       transformation,
-                                       headermap);
-            
-            // Store optimum
-            if (optimum != null && identifier == optimum.getIdentifier()) {
-                this.optimum = cache[identifier];
-            }
-            
-            // Count successors and predecessors
-            int numSuccessors = 0;
-            int numPredecessors = 0;
-            int[] generalization = transformation.getGeneralization();
-            for (int dimension = 0; dimension<generalization.length; dimension++) {
-                numPredecessors += generalization[dimension] > minLevels[dimension] ? 1 : 0;
-                numSuccessors += generalization[dimension] < maxLevels[dimension] ? 1 : 0;
-            }
-            
-            // Increase level size
-            levelsizes[transformation.getLevel()]++;
-            
-            // Initialize arrays
-            cache[identifier].successors = new ARXNode[numSuccessors];
-            cache[identifier].predecessors = new ARXNode[numPredecessors];
+            boolean checked = transformation.hasProperty(solutions.getPropertyChecked());
+            states[identifier] = (byte) (getAnonymity(solutions, transformation).ordinal() | (checked ? STATE_CHECKED : 0));
+            lowestScores.set(identifier, transformation.getInformationLoss());
+            highestScores.set(identifier, transformation.getInformationLoss());
+            lowerBounds.set(identifier, transformation.getLowerBound());
         }
 
-        // Generate level arrays
-        this.levels = new ARXNode[topLevel + 1][];
-        for (int i = 0; i < levels.length; i++) {
-            levels[i] = new ARXNode[levelsizes[i]];
-        }
-
-        // Generate links to successors and predecessors
-        int[] successorIndices = new int[size];
-        int[] predecessorIndices = new int[size];
-        for (int identifier = 0; identifier < cache.length; identifier++) {
-            ARXNode node = cache[identifier];
-            int level = node.getTotalGeneralizationLevel();
-            --levelsizes[level];
-            levels[level][levels[level].length - 1 - levelsizes[level]] = node;
-            int[] generalization = node.getTransformation();
-            for (int dimension = 0; dimension < generalization.length; dimension++) {
-                if (generalization[dimension] < maxLevels[dimension]) {
-                    int successorIdentifier = identifier + offsets[dimension];
-                    ARXNode successor = cache[successorIdentifier];
-                    node.successors[successorIndices[identifier]++] = successor;
-                    successor.predecessors[predecessorIndices[successorIdentifier]++] = node;
-                }
-            }
+        // Materialize important nodes
+        this.bottom = getNode(0);
+        this.top = getNode(size - 1);
+        if (optimum != null) {
+            this.optimum = getNode((int) optimum.getIdentifier());
         }
     }
 
@@ -1265,6 +1265,160 @@ public class ARXLattice implements Serializable {
         fnode.predecessors = predecessors.toArray(new ARXNode[predecessors.size()]);
     }
     
+    /**
+     * Materializes the levels of a complete lattice. Nodes are ordered by identifier within each level.
+     */
+    private void buildLevels() {
+        
+        // Count
+        int[] sizes = new int[top.getTotalGeneralizationLevel() + 1];
+        for (int identifier = 0; identifier < size; identifier++) {
+            sizes[getNode(identifier).getTotalGeneralizationLevel()]++;
+        }
+        
+        // Fill
+        ARXNode[][] levels = new ARXNode[sizes.length][];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new ARXNode[sizes[i]];
+            sizes[i] = 0;
+        }
+        for (int identifier = 0; identifier < size; identifier++) {
+            ARXNode node = nodes[identifier];
+            int level = node.getTotalGeneralizationLevel();
+            levels[level][sizes[level]++] = node;
+        }
+        this.levels = levels;
+    }
+
+    /**
+     * Returns the anonymity property of the given transformation
+     * @param solutions
+     * @param transformation
+     * @return
+     */
+    private Anonymity getAnonymity(SolutionSpace solutions, Transformation transformation) {
+
+        // Transfer anonymity property without uncertainty
+        if (transformation.hasProperty(solutions.getPropertyChecked())){
+            if (transformation.hasProperty(solutions.getPropertyAnonymous())) {
+                return Anonymity.ANONYMOUS;
+            } else if(transformation.hasProperty(solutions.getPropertyNotAnonymous())) {
+                return Anonymity.NOT_ANONYMOUS;
+            } else {                  
+                if (!complete) {
+                    return Anonymity.UNKNOWN;
+                } else {
+                    throw new IllegalStateException("Missing information about transformations");
+                }
+            }
+        // This is a node for which the property is unknown
+        } else {
+            if (transformation.hasProperty(solutions.getPropertyAnonymous())) {
+                return uncertainty ? Anonymity.PROBABLY_ANONYMOUS : Anonymity.ANONYMOUS;
+            } else if (transformation.hasProperty(solutions.getPropertyNotAnonymous())) {
+                return uncertainty ? Anonymity.PROBABLY_NOT_ANONYMOUS : Anonymity.NOT_ANONYMOUS;
+            } else if (transformation.hasProperty(solutions.getPropertyNotKAnonymous())) {
+                return Anonymity.NOT_ANONYMOUS;
+            } else if (transformation.hasProperty(solutions.getPropertyInsufficientUtility())) {
+                return Anonymity.UNKNOWN;
+            } else {
+                if (!complete) {
+                    return Anonymity.UNKNOWN;
+                } else {
+                    throw new IllegalStateException("Missing information about transformations");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the node with the given identifier in a complete lattice, materializes it if necessary
+     * @param identifier
+     * @return
+     */
+    private ARXNode getNode(int identifier) {
+        ARXNode node = nodes[identifier];
+        if (node == null) {
+            node = new ARXNode(this, identifier);
+            nodes[identifier] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Derives the predecessors of a node in a complete lattice, ordered by identifier
+     * @param node
+     * @return
+     */
+    private ARXNode[] getPredecessors(ARXNode node) {
+        
+        // Collect identifiers
+        int[] identifiers = new int[node.transformation.length];
+        int count = getPredecessors(node.id, node.transformation, identifiers);
+        Arrays.sort(identifiers, 0, count);
+        
+        // Map to nodes
+        ARXNode[] result = new ARXNode[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = getNode(identifiers[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Stores the identifiers of the predecessors of the given transformation in a complete lattice
+     * in the given array, ordered by dimension, and returns their number
+     * @param identifier
+     * @param generalization
+     * @param result
+     * @return
+     */
+    int getPredecessors(int identifier, int[] generalization, int[] result) {
+        int count = 0;
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            if (generalization[dimension] > minLevels[dimension]) {
+                result[count++] = identifier - offsets[dimension];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Derives the successors of a node in a complete lattice, ordered by dimension
+     * @param node
+     * @return
+     */
+    private ARXNode[] getSuccessors(ARXNode node) {
+        
+        // Collect identifiers
+        int[] identifiers = new int[node.transformation.length];
+        int count = getSuccessors(node.id, node.transformation, identifiers);
+        
+        // Map to nodes
+        ARXNode[] result = new ARXNode[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = getNode(identifiers[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Stores the identifiers of the successors of the given transformation in a complete lattice
+     * in the given array, ordered by dimension, and returns their number
+     * @param identifier
+     * @param generalization
+     * @param result
+     * @return
+     */
+    int getSuccessors(int identifier, int[] generalization, int[] result) {
+        int count = 0;
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            if (generalization[dimension] < maxLevels[dimension]) {
+                result[count++] = identifier + offsets[dimension];
+            }
+        }
+        return count;
+    }
 
     /**
      * De-serialization.
@@ -1343,6 +1497,117 @@ public class ARXLattice implements Serializable {
         }
     }
 
+    /**
+     * Returns the anonymity property of the transformation with the given identifier in a complete lattice
+     * @param identifier
+     * @return
+     */
+    Anonymity getAnonymity(int identifier) {
+        return nodes[identifier] != null ? nodes[identifier].anonymity : ANONYMITIES[states[identifier] & ~STATE_CHECKED];
+    }
+
+    /**
+     * Returns the number of dimensions of a complete lattice
+     * @return
+     */
+    int getDimensions() {
+        return offsets.length;
+    }
+
+    /**
+     * Stores the generalization levels of the transformation with the given identifier in a complete
+     * lattice in the given array
+     * @param identifier
+     * @param result
+     */
+    void getGeneralization(int identifier, int[] result) {
+        for (int dimension = 0; dimension < result.length; dimension++) {
+            result[dimension] = minLevels[dimension] + (identifier / offsets[dimension]) % (maxLevels[dimension] - minLevels[dimension] + 1);
+        }
+    }
+
+    /**
+     * Returns the highest score of the transformation with the given identifier in a complete lattice
+     * @param identifier
+     * @return
+     */
+    InformationLoss<?> getHighestScore(int identifier) {
+        return nodes[identifier] != null ? nodes[identifier].maxInformationLoss : highestScores.get(identifier);
+    }
+
+    /**
+     * Returns the lower bound of the transformation with the given identifier in a complete lattice
+     * @param identifier
+     * @return
+     */
+    InformationLoss<?> getLowerBound(int identifier) {
+        return nodes[identifier] != null ? nodes[identifier].lowerBound : lowerBounds.get(identifier);
+    }
+
+    /**
+     * Returns the lowest score of the transformation with the given identifier in a complete lattice
+     * @param identifier
+     * @return
+     */
+    InformationLoss<?> getLowestScore(int identifier) {
+        return nodes[identifier] != null ? nodes[identifier].minInformationLoss : lowestScores.get(identifier);
+    }
+
+    /**
+     * Returns the node representing the given transformation, null if there is none
+     * @param transformation
+     * @return
+     */
+    ARXNode getNode(Transformation transformation) {
+        if (nodes != null) {
+            return getNode((int) transformation.getIdentifier());
+        }
+        ARXNode[][] levels = getLevels();
+        int level = transformation.getLevel();
+        if (level < levels.length) {
+            int[] generalization = transformation.getGeneralization();
+            for (ARXNode node : levels[level]) {
+                if (Arrays.equals(node.getTransformation(), generalization)) {
+                    return node;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the nodes of this lattice are views, which are materialized on first use.
+     * This is the case for complete lattices, which are backed by a solution space.
+     * @return
+     */
+    boolean isMaterializedOnDemand() {
+        return nodes != null;
+    }
+
+    /**
+     * Sets the highest score of the transformation with the given identifier in a complete lattice
+     * @param identifier
+     * @param score
+     */
+    void setHighestScore(int identifier, InformationLoss<?> score) {
+        highestScores.set(identifier, score);
+        if (nodes[identifier] != null) {
+            nodes[identifier].maxInformationLoss = score;
+        }
+    }
+
+    /**
+     * Sets the lowest score of the transformation with the given identifier in a complete lattice
+     * @param identifier
+     * @param score
+     */
+    void setLowestScore(int identifier, InformationLoss<?> score) {
+        lowestScores.set(identifier, score);
+        if (nodes[identifier] != null) {
+            nodes[identifier].minInformationLoss = score;
+        }
+    }
+
     /**
      * Returns the optimum, if any.
      *
@@ -0,0 +1,141 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.framework.check.ParetoFrontier;
+import org.deidentifier.arx.framework.check.ParetoFrontier.Point;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * The Pareto frontier of quality and re-identification risk, which has been collected during
+ * the search process. It consists of all anonymous transformations which have been checked and
+ * which are not dominated by any other checked transformation with regard to their information
+ * loss, their average re-identification risk and their highest re-identification risk. Risks
+ * are derived from the sizes of the equivalence classes of unsuppressed records, following the
+ * prosecutor attacker model. The frontier is only collected if enabled via
+ * {@link ARXConfiguration#setParetoFrontierEnabled(boolean)}.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXParetoFrontier implements Serializable {
+
+    /** SVUID */
+    private static final long   serialVersionUID = -2687153201582837398L;
+
+    /** The nodes, ordered by information loss */
+    private final List<ARXNode> nodes;
+
+    /** The average re-identification risks */
+    private final double[]      averageRisks;
+
+    /** The highest re-identification risks */
+    private final double[]      highestRisks;
+
+    /**
+     * Creates a new instance
+     * @param frontier
+     * @param solutionSpace
+     * @param lattice
+     */
+    ARXParetoFrontier(ParetoFrontier frontier, SolutionSpace solutionSpace, ARXLattice lattice) {
+
+        // Order by information loss and risks
+        List<Point> points = frontier.getPoints();
+        Collections.sort(points, new Comparator<Point>() {
+            @Override
+            public int compare(Point o1, Point o2) {
+                int cmp = o1.informationLoss.compareTo(o2.informationLoss);
+                cmp = cmp != 0 ? cmp : Double.compare(o2.averageRisk, o1.averageRisk);
+                cmp = cmp != 0 ? cmp : Double.compare(o2.highestRisk, o1.highestRisk);
+                return cmp != 0 ? cmp : Long.compare(o1.identifier, o2.identifier);
+            }
+        });
+
+        // Map to nodes
+        this.nodes = new ArrayList<ARXNode>();
+        List<Point> found = new ArrayList<Point>();
+        for (Point point : points) {
+            ARXNode node = lattice.getNode(solutionSpace.getTransformation(point.identifier));
+            if (node != null) {
+                nodes.add(node);
+                found.add(point);
+            }
+        }
+        this.averageRisks = new double[found.size()];
+        this.highestRisks = new double[found.size()];
+        for (int i = 0; i < found.size(); i++) {
+            averageRisks[i] = found.get(i).averageRisk;
+            highestRisks[i] = found.get(i).highestRisk;
+        }
+    }
+
+    /**
+     * Returns the average re-identification risk of the given node on the frontier
+     * @param node
+     * @return
+     */
+    public double getAverageRisk(ARXNode node) {
+        return averageRisks[getIndex(node)];
+    }
+
+    /**
+     * Returns the highest re-identification risk of the given node on the frontier
+     * @param node
+     * @return
+     */
+    public double getHighestRisk(ARXNode node) {
+        return highestRisks[getIndex(node)];
+    }
+
+    /**
+     * Returns the nodes on the frontier, ordered by increasing information loss and thus,
+     * in general, by decreasing re-identification risk
+     * @return
+     */
+    public List<ARXNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Returns the number of nodes on the frontier
+     * @return
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the index of the given node
+     * @param node
+     * @return
+     */
+    private int getIndex(ARXNode node) {
+        int index = nodes.indexOf(node);
+        if (index == -1) {
+            throw new IllegalArgumentException("Node is not on the frontier");
+        }
+        return index;
+    }
+}
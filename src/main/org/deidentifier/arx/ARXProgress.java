@@ -0,0 +1,108 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A structured progress event, which is reported to an {@link ARXProgressListener}
+ * while the search is running.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXProgress {
+
+    /** The progress value in [0, 1] */
+    private final double             progress;
+
+    /** Time elapsed since the search has been started, in milliseconds */
+    private final long               time;
+
+    /** The best transformation found so far, if any */
+    private final int[]              optimum;
+
+    /** The information loss of the best transformation found so far, if any */
+    private final InformationLoss<?> informationLoss;
+
+    /** Has the search been stopped */
+    private final boolean            stopped;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param progress
+     * @param time
+     * @param optimum
+     * @param informationLoss
+     * @param stopped
+     */
+    public ARXProgress(double progress, long time, int[] optimum, InformationLoss<?> informationLoss, boolean stopped) {
+        this.progress = progress;
+        this.time = time;
+        this.optimum = optimum;
+        this.informationLoss = informationLoss;
+        this.stopped = stopped;
+    }
+
+    /**
+     * Returns the information loss of the best transformation found so far, null if
+     * no solution has been found yet
+     * 
+     * @return
+     */
+    public InformationLoss<?> getInformationLoss() {
+        return informationLoss;
+    }
+
+    /**
+     * Returns the best transformation found so far, null if no solution has been found yet
+     * 
+     * @return
+     */
+    public int[] getOptimum() {
+        return optimum == null ? null : optimum.clone();
+    }
+
+    /**
+     * Returns the progress value in [0, 1]
+     * 
+     * @return
+     */
+    public double getProgress() {
+        return progress;
+    }
+
+    /**
+     * Returns the time elapsed since the search has been started, in milliseconds
+     * 
+     * @return
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns whether the search has been stopped, because the deadline has passed
+     * or because it has been cancelled
+     * 
+     * @return
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A listener, which receives structured progress events. If a listener implements this
+ * interface, {@link #progress(ARXProgress)} is called instead of {@link #progress(double)}.
+ *
+ * @author Fabian Prasser
+ */
+public interface ARXProgressListener extends ARXListener {
+
+    /**
+     * Reports the progress of the search
+     *
+     * @param progress The progress event
+     */
+    public void progress(ARXProgress progress);
+}
@@ -26,6 +26,7 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.SearchStatistics;
 import org.deidentifier.arx.framework.check.TransformedData;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.data.Data;
@@ -76,6 +77,15 @@ public class ARXResult {
     /** The registry. */
     private final SolutionSpace    solutionSpace;
 
+    /** Statistics about the search process, if any. */
+    private final ARXSearchStatistics statistics;
+
+    /** The optimality gap, if known. */
+    private final double              optimalityGap;
+
+    /** The Pareto frontier of quality and risk, if any. */
+    private final ARXParetoFrontier   paretoFrontier;
+
     /**
      * Internal constructor for deserialization.
      *
@@ -142,7 +152,8 @@ public class ARXResult {
                                                      historySize,
                                                      snapshotSizeDataset,
                                                      snapshotSizeSnapshot,
-                                                     solutionSpace);
+                                                     solutionSpace,
+                                                     new SearchStatistics(false));
 
         // Initialize the result
         this.registry = handle.getRegistry();
@@ -154,6 +165,9 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = time;
         this.solutionSpace = solutionSpace;
+        this.statistics = null;
+        this.optimalityGap = Double.NaN;
+        this.paretoFrontier = null;
     }
     
     /**
@@ -167,6 +181,9 @@ public class ARXResult {
      * @param lattice
      * @param duration
      * @param solutionSpace
+     * @param statistics
+     * @param optimalityGap
+     * @param paretoFrontier
      */
     protected ARXResult(DataRegistry registry,
                         DataManager manager,
@@ -175,7 +192,10 @@ public class ARXResult {
                         ARXConfiguration config,
                         ARXLattice lattice,
                         long duration,
-                        SolutionSpace solutionSpace) {
+                        SolutionSpace solutionSpace,
+                        ARXSearchStatistics statistics,
+                        double optimalityGap,
+                        ARXParetoFrontier paretoFrontier) {
 
         this.registry = registry;
         this.manager = manager;
@@ -186,6 +206,9 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = duration;
         this.solutionSpace = solutionSpace;
+        this.statistics = statistics;
+        this.optimalityGap = optimalityGap;
+        this.paretoFrontier = paretoFrontier;
     }
 
 
@@ -372,6 +395,40 @@ public class ARXResult {
         return getOutput(optimalNode, fork);
     }
 
+    /**
+     * Returns an upper bound for the relative difference between the information loss of the
+     * global optimum and the information loss of an optimal solution, which is provided by the
+     * branch-and-bound search strategy (see {@link ARXConfiguration#setBranchAndBoundSearchEnabled(boolean)}).
+     * Returns <code>Double.NaN</code>, if no such bound is known.
+     *
+     * @return
+     */
+    public double getOptimalityGap() {
+        return optimalityGap;
+    }
+
+    /**
+     * Returns the Pareto frontier of quality and re-identification risk collected during the
+     * search. Returns null, if the collection of the frontier has not been enabled via
+     * {@link ARXConfiguration#setParetoFrontierEnabled(boolean)}. Nodes on the frontier
+     * can be passed to {@link #getOutput(ARXNode)}.
+     *
+     * @return
+     */
+    public ARXParetoFrontier getParetoFrontier() {
+        return paretoFrontier;
+    }
+
+    /**
+     * Returns statistics about the search process. Returns null, if the collection of 
+     * statistics has not been enabled via {@link ARXAnonymizer#setSearchStatisticsEnabled(boolean)}.
+     *
+     * @return
+     */
+    public ARXSearchStatistics getSearchStatistics() {
+        return statistics;
+    }
+
     /**
      * Returns the execution time (wall clock).
      *
@@ -0,0 +1,280 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.Serializable;
+
+import org.deidentifier.arx.framework.check.SearchStatistics;
+
+/**
+ * Statistics about the search process, which can be used for tuning parameters such as
+ * the size of the history or the snapshot ratios. All times are reported in milliseconds.
+ * Statistics are only collected if enabled via {@link ARXAnonymizer#setSearchStatisticsEnabled(boolean)}.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXSearchStatistics implements Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = -1830349164932286014L;
+
+    /** Field */
+    private final double      averageEquivalenceClasses;
+    /** Field */
+    private final long        historyEvictions;
+    /** Field */
+    private final long        historyHits;
+    /** Field */
+    private final long        historyLookups;
+    /** Field */
+    private final long        historyStores;
+    /** Field */
+    private final long        maxEquivalenceClasses;
+    /** Field */
+    private final long        numChecks;
+    /** Field */
+    private final long        numMetricEvaluations;
+    /** Field */
+    private final long        numPrunedTransformations;
+    /** Field */
+    private final long        numRollupTransitions;
+    /** Field */
+    private final long        numSnapshotTransitions;
+    /** Field */
+    private final long        numUnoptimizedTransitions;
+    /** Field */
+    private final long        rowsRollupTransitions;
+    /** Field */
+    private final long        rowsSnapshotTransitions;
+    /** Field */
+    private final long        rowsUnoptimizedTransitions;
+    /** Field */
+    private final long        timeMetric;
+    /** Field */
+    private final long        timePrivacyModels;
+    /** Field */
+    private final long        timeRollupTransitions;
+    /** Field */
+    private final long        timeSnapshotTransitions;
+    /** Field */
+    private final long        timeUnoptimizedTransitions;
+
+    /**
+     * Creates a snapshot of the given statistics
+     * @param statistics
+     */
+    ARXSearchStatistics(SearchStatistics statistics) {
+        this.averageEquivalenceClasses = statistics.getAverageEquivalenceClasses();
+        this.historyEvictions = statistics.getHistoryEvictions();
+        this.historyHits = statistics.getHistoryHits();
+        this.historyLookups = statistics.getHistoryLookups();
+        this.historyStores = statistics.getHistoryStores();
+        this.maxEquivalenceClasses = statistics.getMaxEquivalenceClasses();
+        this.numChecks = statistics.getNumChecks();
+        this.numMetricEvaluations = statistics.getNumMetricEvaluations();
+        this.numPrunedTransformations = statistics.getNumPrunedTransformations();
+        this.numRollupTransitions = statistics.getNumRollupTransitions();
+        this.numSnapshotTransitions = statistics.getNumSnapshotTransitions();
+        this.numUnoptimizedTransitions = statistics.getNumUnoptimizedTransitions();
+        this.rowsRollupTransitions = statistics.getRowsRollupTransitions();
+        this.rowsSnapshotTransitions = statistics.getRowsSnapshotTransitions();
+        this.rowsUnoptimizedTransitions = statistics.getRowsUnoptimizedTransitions();
+        this.timeMetric = statistics.getTimeMetric();
+        this.timePrivacyModels = statistics.getTimePrivacyModels();
+        this.timeRollupTransitions = statistics.getTimeRollupTransitions();
+        this.timeSnapshotTransitions = statistics.getTimeSnapshotTransitions();
+        this.timeUnoptimizedTransitions = statistics.getTimeUnoptimizedTransitions();
+    }
+
+    /**
+     * Returns the average number of equivalence classes per check
+     * @return
+     */
+    public double getAverageEquivalenceClasses() {
+        return averageEquivalenceClasses;
+    }
+
+    /**
+     * Returns the number of snapshots evicted from the history
+     * @return
+     */
+    public long getHistoryEvictions() {
+        return historyEvictions;
+    }
+
+    /**
+     * Returns the number of lookups in the history that returned a snapshot
+     * @return
+     */
+    public long getHistoryHits() {
+        return historyHits;
+    }
+
+    /**
+     * Returns the number of lookups in the history
+     * @return
+     */
+    public long getHistoryLookups() {
+        return historyLookups;
+    }
+
+    /**
+     * Returns the number of snapshots that have been stored in the history
+     * @return
+     */
+    public long getHistoryStores() {
+        return historyStores;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes observed
+     * @return
+     */
+    public long getMaxEquivalenceClasses() {
+        return maxEquivalenceClasses;
+    }
+
+    /**
+     * Returns the number of transformations that have been checked
+     * @return
+     */
+    public long getNumChecks() {
+        return numChecks;
+    }
+
+    /**
+     * Returns the number of evaluations of the quality model
+     * @return
+     */
+    public long getNumMetricEvaluations() {
+        return numMetricEvaluations;
+    }
+
+    /**
+     * Returns the number of transformations that have been pruned
+     * @return
+     */
+    public long getNumPrunedTransformations() {
+        return numPrunedTransformations;
+    }
+
+    /**
+     * Returns the number of roll-up transitions
+     * @return
+     */
+    public long getNumRollupTransitions() {
+        return numRollupTransitions;
+    }
+
+    /**
+     * Returns the number of snapshot transitions
+     * @return
+     */
+    public long getNumSnapshotTransitions() {
+        return numSnapshotTransitions;
+    }
+
+    /**
+     * Returns the number of unoptimized transitions
+     * @return
+     */
+    public long getNumUnoptimizedTransitions() {
+        return numUnoptimizedTransitions;
+    }
+
+    /**
+     * Returns the number of entries processed in roll-up transitions
+     * @return
+     */
+    public long getRowsRollupTransitions() {
+        return rowsRollupTransitions;
+    }
+
+    /**
+     * Returns the number of entries processed in snapshot transitions
+     * @return
+     */
+    public long getRowsSnapshotTransitions() {
+        return rowsSnapshotTransitions;
+    }
+
+    /**
+     * Returns the number of entries processed in unoptimized transitions
+     * @return
+     */
+    public long getRowsUnoptimizedTransitions() {
+        return rowsUnoptimizedTransitions;
+    }
+
+    /**
+     * Returns the time spent evaluating the quality model
+     * @return
+     */
+    public long getTimeMetric() {
+        return timeMetric;
+    }
+
+    /**
+     * Returns the time spent evaluating privacy models
+     * @return
+     */
+    public long getTimePrivacyModels() {
+        return timePrivacyModels;
+    }
+
+    /**
+     * Returns the time spent in roll-up transitions
+     * @return
+     */
+    public long getTimeRollupTransitions() {
+        return timeRollupTransitions;
+    }
+
+    /**
+     * Returns the time spent in snapshot transitions
+     * @return
+     */
+    public long getTimeSnapshotTransitions() {
+        return timeSnapshotTransitions;
+    }
+
+    /**
+     * Returns the time spent in unoptimized transitions
+     * @return
+     */
+    public long getTimeUnoptimizedTransitions() {
+        return timeUnoptimizedTransitions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Search statistics\n");
+        builder.append(" - Checks: ").append(numChecks).append("\n");
+        builder.append(" - Transitions (count / entries / ms)\n");
+        builder.append("   * Roll-up: ").append(numRollupTransitions).append(" / ").append(rowsRollupTransitions).append(" / ").append(timeRollupTransitions).append("\n");
+        builder.append("   * Snapshot: ").append(numSnapshotTransitions).append(" / ").append(rowsSnapshotTransitions).append(" / ").append(timeSnapshotTransitions).append("\n");
+        builder.append("   * Unoptimized: ").append(numUnoptimizedTransitions).append(" / ").append(rowsUnoptimizedTransitions).append(" / ").append(timeUnoptimizedTransitions).append("\n");
+        builder.append(" - History (lookups / hits / stores / evictions): ").append(historyLookups).append(" / ").append(historyHits).append(" / ").append(historyStores).append(" / ").append(historyEvictions).append("\n");
+        builder.append(" - Equivalence classes (average / max): ").append(averageEquivalenceClasses).append(" / ").append(maxEquivalenceClasses).append("\n");
+        builder.append(" - Privacy models (ms): ").append(timePrivacyModels).append("\n");
+        builder.append(" - Quality model (evaluations / ms): ").append(numMetricEvaluations).append(" / ").append(timeMetric).append("\n");
+        builder.append(" - Pruned transformations: ").append(numPrunedTransformations);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,851 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A resident anonymization service, which accepts jobs from local clients via the loopback
+ * interface. Clients must authenticate with a random token, which is generated by the service,
+ * before any object is deserialized. Only classes of the protocol are deserialized and the
+ * size of uploaded content is bounded. Datasets and hierarchies are parsed and encoded once and
+ * kept in a bounded cache, which is keyed by the hash of their content. Clients only transfer
+ * content which is not cached. Searches are executed concurrently by a fixed number of threads
+ * and a bounded number of searches may wait for execution. Further searches are rejected. The
+ * transformed dataset is streamed back to the client in chunks. Searches are cancelled if
+ * their client disconnects before they are completed. Jobs can be submitted with
+ * {@link ARXServiceClient}.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXService implements Closeable {
+
+    /**
+     * A job, which is sent by a client.
+     *
+     * @author Fabian Prasser
+     */
+    static class Job implements Serializable {
+
+        /** SVUID */
+        private static final long         serialVersionUID = 5092358722193646720L;
+
+        /** The dataset */
+        final Source                      data;
+
+        /** The hierarchies */
+        final Map<String, Source>         hierarchies;
+
+        /** The attribute types */
+        final Map<String, AttributeType>  types;
+
+        /** The data types */
+        final Map<String, DataType<?>>    dataTypes;
+
+        /** The configuration */
+        final ARXConfiguration            config;
+
+        /**
+         * Creates a new instance
+         * @param data
+         * @param hierarchies
+         * @param types
+         * @param dataTypes
+         * @param config
+         */
+        Job(Source data,
+            Map<String, Source> hierarchies,
+            Map<String, AttributeType> types,
+            Map<String, DataType<?>> dataTypes,
+            ARXConfiguration config) {
+            this.data = data;
+            this.hierarchies = hierarchies;
+            this.types = types;
+            this.dataTypes = dataTypes;
+            this.config = config;
+        }
+    }
+
+    /**
+     * The reply to a client.
+     *
+     * @author Fabian Prasser
+     */
+    static class Reply implements Serializable {
+
+        /** SVUID */
+        private static final long  serialVersionUID = -4435061744436553021L;
+
+        /** The error, if any */
+        final String               error;
+
+        /** The optimal transformation, if any */
+        final int[]                transformation;
+
+        /** The information loss of the optimal transformation, if any */
+        final InformationLoss<?>   informationLoss;
+
+        /** The header of the output, if any */
+        final String[]             header;
+
+        /** Execution time of the search */
+        final long                 time;
+
+        /**
+         * Creates a new instance
+         * @param error
+         */
+        Reply(String error) {
+            this(error, null, null, null, 0L);
+        }
+
+        /**
+         * Creates a new instance
+         * @param error
+         * @param transformation
+         * @param informationLoss
+         * @param header
+         * @param time
+         */
+        Reply(String error, int[] transformation, InformationLoss<?> informationLoss, String[] header, long time) {
+            this.error = error;
+            this.transformation = transformation;
+            this.informationLoss = informationLoss;
+            this.header = header;
+            this.time = time;
+        }
+    }
+
+    /**
+     * A reference to content, which is parsed with the given syntax.
+     *
+     * @author Fabian Prasser
+     */
+    static class Source implements Serializable {
+
+        /** SVUID */
+        private static final long serialVersionUID = 2183453920461947417L;
+
+        /** The hash of the content */
+        final String              hash;
+
+        /** The charset */
+        final String              charset;
+
+        /** The delimiter */
+        final char                delimiter;
+
+        /**
+         * Creates a new instance
+         * @param hash
+         * @param charset
+         * @param delimiter
+         */
+        Source(String hash, String charset, char delimiter) {
+            this.hash = hash;
+            this.charset = charset;
+            this.delimiter = delimiter;
+        }
+
+        /**
+         * Returns the key used for caching
+         * @return
+         */
+        String getKey() {
+            return hash + ":" + charset + ":" + (int) delimiter;
+        }
+    }
+
+    /**
+     * An object input stream, which only resolves classes of the protocol.
+     *
+     * @author Fabian Prasser
+     */
+    private static class ProtocolInputStream extends ObjectInputStream {
+
+        /** Packages from which classes may be resolved */
+        private static final String[]    PACKAGES = { "org.deidentifier.arx.",
+                                                      "de.linearbits.newtonraphson." };
+
+        /** Further classes which may be resolved */
+        private static final Set<String> CLASSES  = new HashSet<String>(Arrays.asList(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Double",
+            "java.lang.Enum", "java.lang.Float", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Number", "java.lang.Short", "java.lang.String",
+            "java.math.BigDecimal", "java.math.BigInteger", "java.math.RoundingMode",
+            "java.text.DateFormat", "java.text.DateFormatSymbols", "java.text.DecimalFormat",
+            "java.text.DecimalFormatSymbols", "java.text.Format", "java.text.NumberFormat",
+            "java.text.SimpleDateFormat",
+            "java.util.ArrayList", "java.util.Calendar", "java.util.Date",
+            "java.util.GregorianCalendar", "java.util.HashMap", "java.util.HashSet",
+            "java.util.LinkedHashMap", "java.util.LinkedHashSet", "java.util.Locale",
+            "java.util.SimpleTimeZone", "java.util.TimeZone", "java.util.TreeMap",
+            "java.util.TreeSet", "sun.util.calendar.ZoneInfo"));
+
+        /**
+         * Creates a new instance
+         * @param stream
+         * @throws IOException
+         */
+        private ProtocolInputStream(InputStream stream) throws IOException {
+            super(stream);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not part of the protocol");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not part of the protocol");
+        }
+
+        /**
+         * Returns whether the class with the given name may be resolved
+         * @param name
+         * @return
+         */
+        private boolean isAllowed(String name) {
+
+            // Arrays of primitives or of allowed classes
+            int dimensions = 0;
+            while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+                dimensions++;
+            }
+            if (dimensions > 0) {
+                name = name.substring(dimensions);
+                if (name.length() == 1) {
+                    return "ZBCSIJFD".indexOf(name.charAt(0)) != -1;
+                }
+                if (!name.startsWith("L") || !name.endsWith(";")) {
+                    return false;
+                }
+                name = name.substring(1, name.length() - 1);
+            }
+            for (String prefix : PACKAGES) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return CLASSES.contains(name);
+        }
+    }
+
+    /**
+     * An encoded dataset.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Encoding {
+
+        /** The header */
+        private final String[]   header;
+
+        /** The values of the dictionary */
+        private final String[][] mapping;
+
+        /** The encoded data, which is shared among jobs and must not be modified */
+        private final int[][]    data;
+
+        /**
+         * Creates a new instance
+         * @param handle
+         */
+        private Encoding(DataHandleInput handle) {
+            this.header = handle.header;
+            this.mapping = handle.dictionary.getMapping();
+            this.data = handle.data;
+        }
+
+        /**
+         * Creates a dataset with its own dictionary, which may be extended during anonymization
+         * @return
+         */
+        private Data create() {
+            Dictionary dictionary = new Dictionary(header.length);
+            for (int column = 0; column < mapping.length; column++) {
+                for (String value : mapping[column]) {
+                    dictionary.register(column, value);
+                }
+            }
+            dictionary.finalizeAll();
+            return new Data.EncodedData(header, dictionary, data);
+        }
+    }
+
+    /** Number of rows per chunk of the output */
+    private static final int                CHUNK_SIZE      = 1024;
+
+    /** The hash algorithm */
+    private static final String             ALGORITHM       = "SHA-256";
+
+    /** Read timeout for connections in milliseconds */
+    private static final int                TIMEOUT         = 60000;
+
+    /** Interval in which the connection is checked while a search is running, in milliseconds */
+    private static final int                POLL_INTERVAL   = 100;
+
+    /** Delay after failing to accept a connection in milliseconds */
+    private static final int                BACKOFF         = 100;
+
+    /** The maximal number of connections which are handled concurrently */
+    private static final int                MAX_CONNECTIONS = 64;
+
+    /**
+     * Returns the hash of the given content
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    static String getHash(InputStream stream) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) {
+                builder.append(String.format("%02x", b & 0xff));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Hash algorithm not available", e);
+        }
+    }
+
+    /**
+     * Starts a service. The token which must be presented by clients is written to the key
+     * file, which is only accessible by its owner. Arguments: port key-file [threads [queue
+     * size [cache size]]]
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        File key = new File(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 3 ? Integer.parseInt(args[3]) : threads;
+        int cache = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+        ARXService service = new ARXService(port, threads, queue, cache);
+        try {
+            writeKeyFile(key, service.getToken());
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+        System.out.println("Listening on port " + service.getPort());
+    }
+
+    /**
+     * Writes the token to the given file, which is made accessible by its owner only before
+     * the token is written
+     * @param file
+     * @param token
+     * @throws IOException
+     */
+    private static void writeKeyFile(File file, String token) throws IOException {
+        Files.deleteIfExists(file.toPath());
+        Path path = Files.createFile(file.toPath());
+        PosixFileAttributeView view = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+        if (view != null) {
+            view.setPermissions(PosixFilePermissions.fromString("rw-------"));
+        } else if (!file.setReadable(false, false) || !file.setWritable(false, false) ||
+                   !file.setReadable(true, true) || !file.setWritable(true, true)) {
+            Files.delete(path);
+            throw new IOException("Cannot restrict access to key file: " + file);
+        }
+        Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        try {
+            writer.write(token);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /** The cache of encoded datasets and hierarchies */
+    private final Map<String, Object>       cache;
+
+    /** The executor for searches */
+    private final ThreadPoolExecutor        executor;
+
+    /** The executor for connections */
+    private final ThreadPoolExecutor        connections;
+
+    /** The token which must be presented by clients */
+    private final String                    token          = new BigInteger(130, new SecureRandom()).toString(32);
+
+    /** The number of uploads received */
+    private final AtomicLong                uploads        = new AtomicLong();
+
+    /** The maximal size of uploaded content in bytes */
+    private volatile int                    maxUploadSize  = 1 << 28;
+
+    /** The server socket */
+    private final ServerSocket              server;
+
+    /** The thread accepting connections */
+    private final Thread                    acceptor;
+
+    /**
+     * Creates and starts a new service, which listens on the loopback interface.
+     *
+     * @param port The port, 0 for an ephemeral port
+     * @param threads The number of jobs executed concurrently
+     * @param queueSize The number of jobs which may wait for execution
+     * @param cacheSize The maximal number of datasets and hierarchies which are cached
+     * @throws IOException
+     */
+    public ARXService(int port, int threads, int queueSize, final int cacheSize) throws IOException {
+        if (threads < 1) { throw new IllegalArgumentException("Number of threads must be positive"); }
+        if (queueSize < 1) { throw new IllegalArgumentException("Queue size must be positive"); }
+        if (cacheSize < 0) { throw new IllegalArgumentException("Cache size must be positive or 0"); }
+        this.cache = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = -6186412592452312587L;
+            @Override
+            protected boolean removeEldestEntry(Entry<String, Object> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<Runnable>(queueSize));
+        this.connections = new ThreadPoolExecutor(0, MAX_CONNECTIONS, 60L, TimeUnit.SECONDS,
+                                                  new SynchronousQueue<Runnable>());
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "ARXService");
+        this.acceptor.start();
+    }
+
+    /**
+     * Stops the service. Jobs which are running will be completed.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+        executor.shutdown();
+        connections.shutdown();
+    }
+
+    /**
+     * Returns the maximal size of uploaded content in bytes
+     * @return
+     */
+    public int getMaximumUploadSize() {
+        return maxUploadSize;
+    }
+
+    /**
+     * Returns the number of searches which are running or waiting for execution
+     * @return
+     */
+    public int getNumberOfPendingSearches() {
+        return executor.getActiveCount() + executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of datasets and hierarchies which have been uploaded by clients
+     * @return
+     */
+    public long getNumberOfUploads() {
+        return uploads.get();
+    }
+
+    /**
+     * Returns the port
+     * @return
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Returns the token which must be presented by clients
+     * @return
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Sets the maximal size of uploaded content in bytes
+     * @param maxUploadSize
+     */
+    public void setMaximumUploadSize(int maxUploadSize) {
+        if (maxUploadSize < 1) { throw new IllegalArgumentException("Maximal upload size must be positive"); }
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    /**
+     * Accepts connections until the service is stopped
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed()) {
+                    return;
+                }
+                try {
+                    Thread.sleep(BACKOFF);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                connections.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        handle(socket);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                close(socket);
+            }
+        }
+    }
+
+    /**
+     * Checks the token presented by the client
+     * @param input
+     * @return
+     * @throws IOException
+     */
+    private boolean authenticate(DataInputStream input) throws IOException {
+        byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        byte[] actual = input.readUTF().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Closes the socket
+     * @param socket
+     */
+    private void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Waits for the search to complete. Throws an exception if the client disconnects before,
+     * as it does not send anything while waiting for the reply.
+     * @param socket
+     * @param stream
+     * @param future
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private ARXResult await(Socket socket,
+                            InputStream stream,
+                            Future<ARXResult> future) throws IOException, InterruptedException, ExecutionException {
+        socket.setSoTimeout(POLL_INTERVAL);
+        while (!future.isDone()) {
+            try {
+                if (stream.read() == -1) {
+                    throw new EOFException("Client has disconnected");
+                }
+                throw new IOException("Unexpected data from client");
+            } catch (SocketTimeoutException e) {
+                // Client is still waiting
+            }
+        }
+        socket.setSoTimeout(TIMEOUT);
+        return future.get();
+    }
+
+    /**
+     * Creates the dataset for the given job
+     * @param job
+     * @param data
+     * @param hierarchies
+     * @return
+     */
+    private Data create(Job job, Encoding data, Map<String, String[][]> hierarchies) {
+
+        // Create data
+        Data input = data.create();
+        DataDefinition definition = input.getDefinition();
+        for (Entry<String, AttributeType> entry : job.types.entrySet()) {
+            AttributeType type = entry.getValue();
+            if (type instanceof MicroAggregationFunction) {
+                definition.setAttributeType(entry.getKey(), AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+                definition.setMicroAggregationFunction(entry.getKey(), (MicroAggregationFunction) type);
+            } else {
+                definition.setAttributeType(entry.getKey(), getAttributeType(type.getType()));
+            }
+        }
+        for (Entry<String, String[][]> entry : hierarchies.entrySet()) {
+            definition.setHierarchy(entry.getKey(), Hierarchy.create(entry.getValue()));
+        }
+        for (Entry<String, DataType<?>> entry : job.dataTypes.entrySet()) {
+            definition.setDataType(entry.getKey(), entry.getValue());
+        }
+        return input;
+    }
+
+    /**
+     * Returns the cached object for the given source, null if there is none
+     * @param source
+     * @return
+     */
+    private Object get(Source source) {
+        synchronized (cache) {
+            return cache.get(source.getKey());
+        }
+    }
+
+    /**
+     * Returns the attribute type with the given identifier
+     * @param type
+     * @return
+     */
+    private AttributeType getAttributeType(int type) {
+        switch (type) {
+        case AttributeType.ATTR_TYPE_ID:
+            return AttributeType.IDENTIFYING_ATTRIBUTE;
+        case AttributeType.ATTR_TYPE_SE:
+            return AttributeType.SENSITIVE_ATTRIBUTE;
+        case AttributeType.ATTR_TYPE_IS:
+            return AttributeType.INSENSITIVE_ATTRIBUTE;
+        default:
+            return AttributeType.QUASI_IDENTIFYING_ATTRIBUTE;
+        }
+    }
+
+    /**
+     * Handles a connection. The job and missing content are received before the search is
+     * submitted for execution.
+     * @param socket
+     */
+    private void handle(Socket socket) {
+        try {
+            socket.setSoTimeout(TIMEOUT);
+            BufferedInputStream stream = new BufferedInputStream(socket.getInputStream());
+            ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (!authenticate(new DataInputStream(stream))) {
+                output.writeObject(new Reply("Authentication failed"));
+                output.flush();
+                return;
+            }
+            output.writeObject(new Reply(null));
+            output.flush();
+            ObjectInputStream input = new ProtocolInputStream(stream);
+            Job job = (Job) input.readObject();
+
+            // Look up cached content
+            Encoding data = (Encoding) get(job.data);
+            Map<String, String[][]> hierarchies = new LinkedHashMap<String, String[][]>();
+            List<Source> missing = new ArrayList<Source>();
+            if (data == null) {
+                missing.add(job.data);
+            }
+            for (Entry<String, Source> entry : job.hierarchies.entrySet()) {
+                String[][] hierarchy = (String[][]) get(entry.getValue());
+                if (hierarchy == null) {
+                    missing.add(entry.getValue());
+                }
+                hierarchies.put(entry.getKey(), hierarchy);
+            }
+
+            // Request and parse missing content
+            String[] hashes = new String[missing.size()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = missing.get(i).hash;
+            }
+            output.writeObject(hashes);
+            output.flush();
+            Map<String, Object> loaded = new HashMap<String, Object>();
+            for (Source source : missing) {
+                int size = input.readInt();
+                if (size < 0 || size > maxUploadSize) {
+                    throw new IOException("Invalid size of content: " + size);
+                }
+                byte[] content = new byte[size];
+                input.readFully(content);
+                uploads.incrementAndGet();
+                if (!source.hash.equals(getHash(new ByteArrayInputStream(content)))) {
+                    throw new IOException("Content does not match its hash");
+                }
+                Charset charset = Charset.forName(source.charset);
+                Object object;
+                if (source == job.data) {
+                    data = new Encoding((DataHandleInput) Data.create(new ByteArrayInputStream(content), charset, source.delimiter).getHandle());
+                    object = data;
+                } else {
+                    object = Hierarchy.create(new ByteArrayInputStream(content), charset, source.delimiter).getHierarchy();
+                }
+                loaded.put(source.getKey(), object);
+                put(source, object);
+            }
+            for (Entry<String, Source> entry : job.hierarchies.entrySet()) {
+                if (hierarchies.get(entry.getKey()) == null) {
+                    hierarchies.put(entry.getKey(), (String[][]) loaded.get(entry.getValue().getKey()));
+                }
+            }
+
+            // Execute and reply
+            Future<ARXResult> future;
+            try {
+                future = submit(job, data, hierarchies);
+            } catch (RejectedExecutionException e) {
+                output.writeObject(new Reply("Service is busy"));
+                output.flush();
+                return;
+            }
+            ARXResult result;
+            try {
+                result = await(socket, stream, future);
+            } catch (ExecutionException e) {
+                output.writeObject(new Reply(String.valueOf(e.getCause())));
+                output.flush();
+                return;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                // Stops the search, if the client has gone away
+                future.cancel(true);
+            }
+            if (result.getGlobalOptimum() == null) {
+                output.writeObject(new Reply(null, null, null, null, result.getTime()));
+                output.flush();
+                return;
+            }
+            DataHandle handle = result.getOutput(false);
+            Iterator<String[]> iterator = handle.iterator();
+            output.writeObject(new Reply(null,
+                                         result.getGlobalOptimum().getTransformation(),
+                                         result.getGlobalOptimum().getHighestScore(),
+                                         iterator.next(),
+                                         result.getTime()));
+
+            // Stream output
+            List<String[]> chunk = new ArrayList<String[]>();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    output.writeObject(chunk.toArray(new String[chunk.size()][]));
+                    output.reset();
+                    chunk.clear();
+                }
+            }
+            output.writeObject(null);
+            output.flush();
+
+        } catch (IOException e) {
+            // Client has gone away, timed out or violated the protocol
+        } catch (ClassNotFoundException e) {
+            // Protocol violation
+        } finally {
+            close(socket);
+        }
+    }
+
+    /**
+     * Submits the search for the given job. The search is stopped when the future is cancelled.
+     * @param job
+     * @param data
+     * @param hierarchies
+     * @return
+     */
+    private Future<ARXResult> submit(Job job, Encoding data, Map<String, String[][]> hierarchies) {
+        return new ARXAnonymizer().anonymizeAsync(create(job, data, hierarchies), job.config, executor);
+    }
+
+    /**
+     * Caches the given object
+     * @param source
+     * @param object
+     */
+    private void put(Source source, Object object) {
+        synchronized (cache) {
+            cache.put(source.getKey(), object);
+        }
+    }
+}
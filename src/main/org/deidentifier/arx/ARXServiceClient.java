@@ -0,0 +1,393 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.deidentifier.arx.ARXService.Job;
+import org.deidentifier.arx.ARXService.Reply;
+import org.deidentifier.arx.ARXService.Source;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A client for submitting jobs to an {@link ARXService} running on the local machine. The client
+ * authenticates with the token of the service.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXServiceClient {
+
+    /**
+     * A request, which defines the input of a job.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Request {
+
+        /** The dataset */
+        private final File                       data;
+
+        /** The charset */
+        private final Charset                    charset;
+
+        /** The delimiter */
+        private final char                       delimiter;
+
+        /** The hierarchies */
+        private final Map<String, File>          hierarchies = new LinkedHashMap<String, File>();
+
+        /** The attribute types */
+        private final Map<String, AttributeType> types       = new HashMap<String, AttributeType>();
+
+        /** The data types */
+        private final Map<String, DataType<?>>   dataTypes   = new HashMap<String, DataType<?>>();
+
+        /**
+         * Creates a new request for the given CSV file. Hierarchies must use the same syntax.
+         *
+         * @param data
+         * @param charset
+         * @param delimiter
+         */
+        public Request(File data, Charset charset, char delimiter) {
+            this.data = data;
+            this.charset = charset;
+            this.delimiter = delimiter;
+        }
+
+        /**
+         * Define the type of a given attribute.
+         *
+         * @param attribute
+         * @param type
+         */
+        public void setAttributeType(String attribute, AttributeType type) {
+            this.types.put(attribute, type);
+        }
+
+        /**
+         * Define the datatype of a given attribute.
+         *
+         * @param attribute
+         * @param type
+         */
+        public void setDataType(String attribute, DataType<?> type) {
+            this.dataTypes.put(attribute, type);
+        }
+
+        /**
+         * Associates the hierarchy stored in the given CSV file.
+         *
+         * @param attribute
+         * @param hierarchy
+         */
+        public void setHierarchy(String attribute, File hierarchy) {
+            this.hierarchies.put(attribute, hierarchy);
+        }
+    }
+
+    /**
+     * The response of the service. The transformed dataset is streamed from the service
+     * while it is iterated. The response must be closed.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Response implements Closeable, Iterable<String[]> {
+
+        /** The socket */
+        private final Socket            socket;
+
+        /** The input stream */
+        private final ObjectInputStream input;
+
+        /** The reply */
+        private final Reply             reply;
+
+        /** Has the output been iterated */
+        private boolean                 iterated = false;
+
+        /**
+         * Creates a new instance
+         * @param socket
+         * @param input
+         * @param reply
+         */
+        private Response(Socket socket, ObjectInputStream input, Reply reply) {
+            this.socket = socket;
+            this.input = input;
+            this.reply = reply;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        /**
+         * Returns the information loss of the optimal transformation, null if no solution has been found
+         * @return
+         */
+        public InformationLoss<?> getInformationLoss() {
+            return reply.informationLoss;
+        }
+
+        /**
+         * Returns the execution time of the search in the service
+         * @return
+         */
+        public long getTime() {
+            return reply.time;
+        }
+
+        /**
+         * Returns the optimal transformation, null if no solution has been found
+         * @return
+         */
+        public int[] getTransformation() {
+            return reply.transformation == null ? null : reply.transformation.clone();
+        }
+
+        /**
+         * Returns whether a solution has been found
+         * @return
+         */
+        public boolean isSolutionAvailable() {
+            return reply.transformation != null;
+        }
+
+        /**
+         * Returns an iterator over the transformed dataset, including the header. Can only be
+         * called once.
+         */
+        @Override
+        public Iterator<String[]> iterator() {
+            if (!isSolutionAvailable()) {
+                throw new IllegalStateException("No solution available");
+            }
+            if (iterated) {
+                throw new IllegalStateException("Output has already been iterated");
+            }
+            iterated = true;
+            return new Iterator<String[]>() {
+
+                /** The current chunk */
+                private List<String[]> chunk = Collections.singletonList(reply.header);
+
+                /** The offset in the chunk */
+                private int            offset = 0;
+
+                @Override
+                public boolean hasNext() {
+                    if (chunk != null && offset == chunk.size()) {
+                        try {
+                            String[][] next = (String[][]) input.readObject();
+                            chunk = next == null ? null : Arrays.asList(next);
+                            offset = 0;
+                        } catch (IOException e) {
+                            throw new RuntimeException("Error reading output from service", e);
+                        } catch (ClassNotFoundException e) {
+                            throw new RuntimeException("Error reading output from service", e);
+                        }
+                    }
+                    return chunk != null;
+                }
+
+                @Override
+                public String[] next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return chunk.get(offset++);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+    /** The port of the service */
+    private final int    port;
+
+    /** The token of the service */
+    private final String token;
+
+    /** Read timeout in milliseconds, 0 for none */
+    private int          timeout = 0;
+
+    /**
+     * Creates a new client for the service listening on the given local port, which reads
+     * the token from the key file written by the service.
+     *
+     * @param port
+     * @param key
+     * @throws IOException
+     */
+    public ARXServiceClient(int port, File key) throws IOException {
+        this(port, new String(Files.readAllBytes(key.toPath()), StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * Creates a new client for the service listening on the given local port.
+     *
+     * @param port
+     * @param token
+     */
+    public ARXServiceClient(int port, String token) {
+        if (token == null) { throw new IllegalArgumentException("Token must not be null"); }
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * Returns the read timeout in milliseconds, 0 for none
+     * @return
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the read timeout in milliseconds, 0 for none. If the service does not reply within
+     * the timeout, the connection is closed and the service cancels the search.
+     * @param timeout
+     */
+    public void setTimeout(int timeout) {
+        if (timeout < 0) { throw new IllegalArgumentException("Timeout must be positive or 0"); }
+        this.timeout = timeout;
+    }
+
+    /**
+     * Submits a job to the service. Only content which is not cached by the service is
+     * transferred. Throws an exception if the service rejects the job or if it fails.
+     *
+     * @param request
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    public Response anonymize(Request request, ARXConfiguration config) throws IOException {
+
+        // Prepare job
+        Map<String, File> files = new HashMap<String, File>();
+        Source data = getSource(request.data, request, files);
+        Map<String, Source> hierarchies = new LinkedHashMap<String, Source>();
+        for (Entry<String, File> entry : request.hierarchies.entrySet()) {
+            hierarchies.put(entry.getKey(), getSource(entry.getValue(), request, files));
+        }
+        Job job = new Job(data,
+                          hierarchies,
+                          new HashMap<String, AttributeType>(request.types),
+                          new HashMap<String, DataType<?>>(request.dataTypes),
+                          config);
+
+        // Connect
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        try {
+            socket.setSoTimeout(timeout);
+
+            // Authenticate
+            OutputStream stream = new BufferedOutputStream(socket.getOutputStream());
+            new DataOutputStream(stream).writeUTF(token);
+            stream.flush();
+            ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            check((Reply) input.readObject());
+
+            // Submit job and missing content
+            ObjectOutputStream output = new ObjectOutputStream(stream);
+            output.writeObject(job);
+            output.flush();
+            for (String hash : (String[]) input.readObject()) {
+                byte[] content = Files.readAllBytes(files.get(hash).toPath());
+                output.writeInt(content.length);
+                output.write(content);
+            }
+            output.flush();
+
+            // Receive reply
+            Reply reply = (Reply) input.readObject();
+            check(reply);
+            return new Response(socket, input, reply);
+
+        } catch (ClassNotFoundException e) {
+            socket.close();
+            throw new IOException("Unexpected reply from service", e);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        } catch (RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Throws an exception, if the reply signals an error
+     * @param reply
+     */
+    private void check(Reply reply) {
+        if (reply.error != null) {
+            throw new IllegalStateException(reply.error);
+        }
+    }
+
+    /**
+     * Returns a reference to the given file
+     * @param file
+     * @param request
+     * @param files
+     * @return
+     * @throws IOException
+     */
+    private Source getSource(File file, Request request, Map<String, File> files) throws IOException {
+        InputStream stream = new FileInputStream(file);
+        try {
+            String hash = ARXService.getHash(stream);
+            files.put(hash, file);
+            return new Source(hash, request.charset.name(), request.delimiter);
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer.Result;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.FunctionHierarchy;
+import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
+import org.deidentifier.arx.algorithm.DistributedAlgorithm.Fragment;
+import org.deidentifier.arx.algorithm.DistributedAlgorithm.Workers;
+
+/**
+ * A worker process, which searches a sub-lattice of the solution space on behalf of a
+ * coordinator. The worker connects to the coordinator via the loopback interface, authenticates
+ * itself with a token read from its standard input, receives a job, maps the input data into
+ * memory and returns the classification of the sub-lattice.
+ *
+ * @author Fabian Prasser
+ */
+class ARXWorker {
+
+    /**
+     * A job, which is sent to a worker.
+     *
+     * @author Fabian Prasser
+     */
+    static class Job implements Serializable {
+
+        /** SVUID */
+        private static final long                serialVersionUID = -1404937417812217403L;
+
+        /** The binary file containing the input */
+        private final String                     file;
+
+        /** The configuration */
+        private final ARXConfiguration           config;
+
+        /** The attributes */
+        private final String[]                   attributes;
+
+        /** The attribute types, if any */
+        private final Integer[]                  types;
+
+        /** The hierarchies, if any */
+        private final Hierarchy[]                hierarchies;
+
+        /** The microaggregation functions, if any */
+        private final MicroAggregationFunction[] functions;
+
+        /** The data types */
+        private final DataType<?>[]              dataTypes;
+
+        /** The minimal generalization levels, if any */
+        private final Integer[]                  minGeneralization;
+
+        /** The maximal generalization levels, if any */
+        private final Integer[]                  maxGeneralization;
+
+        /** History size. */
+        private final int                        historySize;
+
+        /** Snapshot size. */
+        private final double                     snapshotSizeDataset;
+
+        /** Snapshot size snapshot. */
+        private final double                     snapshotSizeSnapshot;
+
+        /** Number of classes above which the source of a roll-up is spilled to disk. */
+        private final int                        spillThreshold;
+
+        /** Point in time (wall clock) after which the search is stopped */
+        private final long                       deadline;
+
+        /** The attribute along which the solution space is partitioned */
+        private final String                     attribute;
+
+        /** The minimal generalization level of the attribute in the sub-lattice */
+        private final int                        minLevel;
+
+        /** The maximal generalization level of the attribute in the sub-lattice */
+        private final int                        maxLevel;
+
+        /**
+         * Creates a new job
+         * @param file
+         * @param attributes
+         * @param definition
+         * @param config
+         * @param anonymizer
+         * @param deadline
+         * @param attribute
+         * @param minLevel
+         * @param maxLevel
+         */
+        Job(File file,
+            String[] attributes,
+            DataDefinition definition,
+            ARXConfiguration config,
+            ARXAnonymizer anonymizer,
+            long deadline,
+            String attribute,
+            int minLevel,
+            int maxLevel) {
+
+            this.file = file.getAbsolutePath();
+            this.config = config;
+            this.attributes = attributes;
+            this.types = new Integer[attributes.length];
+            this.hierarchies = new Hierarchy[attributes.length];
+            this.functions = new MicroAggregationFunction[attributes.length];
+            this.dataTypes = new DataType<?>[attributes.length];
+            this.minGeneralization = new Integer[attributes.length];
+            this.maxGeneralization = new Integer[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                String name = attributes[i];
+                AttributeType type = definition.getAttributeType(name);
+                this.types[i] = type == null ? null : type.getType();
+                this.hierarchies[i] = getHierarchy(definition, name);
+                this.functions[i] = definition.getMicroAggregationFunction(name);
+                this.dataTypes[i] = definition.getDataType(name);
+                if (definition.getQuasiIdentifiersWithGeneralization().contains(name)) {
+                    this.minGeneralization[i] = definition.getMinimumGeneralization(name);
+                    this.maxGeneralization[i] = definition.getMaximumGeneralization(name);
+                }
+            }
+            this.historySize = anonymizer.getHistorySize();
+            this.snapshotSizeDataset = anonymizer.getMaximumSnapshotSizeDataset();
+            this.snapshotSizeSnapshot = anonymizer.getMaximumSnapshotSizeSnapshot();
+            this.spillThreshold = anonymizer.getSpillThreshold();
+            this.deadline = deadline;
+            this.attribute = attribute;
+            this.minLevel = minLevel;
+            this.maxLevel = maxLevel;
+        }
+
+        /**
+         * Executes the job
+         * @return
+         * @throws Exception
+         */
+        Fragment execute() throws Exception {
+
+            // Load and define data
+            Data data = Data.createBinary(new File(file));
+            DataDefinition definition = data.getDefinition();
+            for (int i = 0; i < attributes.length; i++) {
+                String name = attributes[i];
+                if (types[i] != null) {
+                    definition.setAttributeType(name, getAttributeType(types[i]));
+                }
+                if (hierarchies[i] != null) {
+                    definition.setHierarchy(name, hierarchies[i]);
+                }
+                if (functions[i] != null) {
+                    definition.setMicroAggregationFunction(name, functions[i]);
+                }
+                definition.setDataType(name, dataTypes[i]);
+                if (minGeneralization[i] != null) {
+                    definition.setMinimumGeneralization(name, minGeneralization[i]);
+                    definition.setMaximumGeneralization(name, maxGeneralization[i]);
+                }
+            }
+
+            // Search sub-lattice
+            ARXAnonymizer anonymizer = new ARXAnonymizer();
+            anonymizer.setHistorySize(historySize);
+            anonymizer.setMaximumSnapshotSizeDataset(snapshotSizeDataset);
+            anonymizer.setMaximumSnapshotSizeSnapshot(snapshotSizeSnapshot);
+            anonymizer.setSpillThreshold(spillThreshold);
+            Result result = anonymizer.anonymize(data, config, attribute, minLevel, maxLevel, deadline);
+            return new Fragment(result.solutionSpace, result.manager, result.checker, result.algorithm);
+        }
+
+        /**
+         * Returns a serializable representation of the hierarchy of the given attribute, if any.
+         * Implicit hierarchies are transferred as functions.
+         * @param definition
+         * @param attribute
+         * @return
+         */
+        private Hierarchy getHierarchy(DataDefinition definition, String attribute) {
+            Hierarchy hierarchy = definition.getHierarchyObject(attribute);
+            if (hierarchy instanceof FunctionHierarchy) {
+                return hierarchy;
+            }
+            String[][] array = definition.getHierarchy(attribute);
+            return array == null ? null : Hierarchy.create(array);
+        }
+
+        /**
+         * Returns the attribute type with the given identifier
+         * @param type
+         * @return
+         */
+        private AttributeType getAttributeType(int type) {
+            switch (type) {
+            case AttributeType.ATTR_TYPE_ID:
+                return AttributeType.IDENTIFYING_ATTRIBUTE;
+            case AttributeType.ATTR_TYPE_SE:
+                return AttributeType.SENSITIVE_ATTRIBUTE;
+            case AttributeType.ATTR_TYPE_IS:
+                return AttributeType.INSENSITIVE_ATTRIBUTE;
+            default:
+                return AttributeType.QUASI_IDENTIFYING_ATTRIBUTE;
+            }
+        }
+    }
+
+    /**
+     * Launches worker processes executing this class.
+     *
+     * @author Fabian Prasser
+     */
+    static class Launcher implements Workers {
+
+        /** The data definition */
+        private final DataDefinition   definition;
+
+        /** The configuration */
+        private final ARXConfiguration config;
+
+        /** The input */
+        private final DataHandleInput  input;
+
+        /** The anonymizer */
+        private final ARXAnonymizer    anonymizer;
+
+        /**
+         * Creates a new instance
+         * @param definition
+         * @param config
+         * @param input
+         * @param anonymizer
+         */
+        Launcher(DataDefinition definition,
+                 ARXConfiguration config,
+                 DataHandleInput input,
+                 ARXAnonymizer anonymizer) {
+            this.definition = definition;
+            this.config = config;
+            this.input = input;
+            this.anonymizer = anonymizer;
+        }
+
+        @Override
+        public Serializable createJob(File file, long deadline, String attribute, int minLevel, int maxLevel) {
+            return new Job(file, input.header, definition, config, anonymizer, deadline, attribute, minLevel, maxLevel);
+        }
+
+        @Override
+        public List<String> getCommand(int port) {
+            List<String> command = new ArrayList<String>();
+            command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+            command.addAll(Arrays.asList(anonymizer.getWorkerArguments()));
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ARXWorker.class.getName());
+            command.add(String.valueOf(port));
+            return command;
+        }
+
+        @Override
+        public int getNumberOfProcesses() {
+            return anonymizer.getNumberOfWorkerProcesses();
+        }
+
+        @Override
+        public void writeInput(OutputStream stream) throws IOException {
+            DataBinary.write(input.header, input.dictionary.getMapping(), input.data, stream);
+        }
+    }
+
+    /**
+     * Main entry point of a worker process. Expects the port of the coordinator as its only
+     * argument and the token as the first line of its standard input.
+     *
+     * @param args
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+
+        // Authenticate
+        String token = new BufferedReader(new InputStreamReader(System.in, "UTF-8")).readLine();
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]));
+        try {
+            OutputStream stream = new BufferedOutputStream(socket.getOutputStream());
+            new DataOutputStream(stream).writeUTF(token);
+            ObjectOutputStream output = new ObjectOutputStream(stream);
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            // Execute
+            Job job = (Job) input.readObject();
+            Fragment fragment;
+            try {
+                fragment = job.execute();
+            } catch (Exception e) {
+                StringWriter trace = new StringWriter();
+                e.printStackTrace(new PrintWriter(trace));
+                fragment = new Fragment(trace.toString());
+            }
+            output.writeObject(fragment);
+            output.flush();
+        } finally {
+            socket.close();
+        }
+        System.exit(0);
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.deidentifier.arx.aggregates.HierarchyFunction;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionArithmeticMean;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
@@ -209,6 +210,109 @@ public class AttributeType implements Serializable, Cloneable {
             }  
         }
 
+        /**
+         * An implicit hierarchy, which is defined by a function. It is never materialized
+         * as a table.
+         *
+         * @author Fabian Prasser
+         */
+        public static class FunctionHierarchy extends Hierarchy {
+
+            /** SVUID */
+            private static final long       serialVersionUID = -1402467337596227005L;
+
+            /** The function */
+            private final HierarchyFunction function;
+
+            /**
+             * Instantiates a new function hierarchy.
+             *
+             * @param function the function
+             */
+            private FunctionHierarchy(final HierarchyFunction function) {
+                if (function == null) {
+                    throw new IllegalArgumentException("Function must not be null");
+                }
+                this.function = function;
+            }
+
+            @Override
+            public Hierarchy clone() {
+                return new FunctionHierarchy(function);
+            }
+
+            /**
+             * Returns the function.
+             *
+             * @return
+             */
+            public HierarchyFunction getFunction() {
+                return function;
+            }
+
+            /**
+             * Returns null, as implicit hierarchies are not materialized.
+             */
+            @Override
+            public String[][] getHierarchy() {
+                return null;
+            }
+
+            @Override
+            public void save(final File file) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final File file, final char delimiter) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final File file, final CSVSyntax config) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final OutputStream out) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final OutputStream out, final char delimiter) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final OutputStream out, final CSVSyntax config) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final String path) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final String path, final char delimiter) throws IOException {
+                throw getSaveException();
+            }
+
+            @Override
+            public void save(final String path, final CSVSyntax config) throws IOException {
+                throw getSaveException();
+            }
+
+            /**
+             * Returns the exception thrown when trying to save the hierarchy.
+             *
+             * @return
+             */
+            private IllegalStateException getSaveException() {
+                return new IllegalStateException("Implicit hierarchies cannot be saved, as they are not materialized");
+            }
+        }
+
         /**
          * The implementation for iterators.
          *
@@ -458,6 +562,16 @@ public class AttributeType implements Serializable, Cloneable {
             return new ArrayHierarchy(new CSVHierarchyInput(stream, charset, config).getHierarchy());
         }
 
+        /**
+         * Creates a new implicit hierarchy, which is defined by the given function.
+         *
+         * @param function The function
+         * @return A Hierarchy
+         */
+        public static Hierarchy create(final HierarchyFunction function) {
+            return new FunctionHierarchy(function);
+        }
+
         /**
          * Creates a new hierarchy from an iterator over tuples.
          *
@@ -20,13 +20,16 @@ package org.deidentifier.arx;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.apache.poi.ss.formula.functions.T;
+import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.io.CSVDataInput;
 import org.deidentifier.arx.io.CSVSyntax;
 import org.deidentifier.arx.io.ImportAdapter;
@@ -117,6 +120,94 @@ public abstract class Data {
 
     }
 
+    /**
+     * A data object for data that has already been encoded.
+     *
+     * @author Fabian Prasser
+     */
+    static class EncodedData extends Data {
+
+        /** The header. */
+        private final String[]   header;
+
+        /** The dictionary. */
+        private final Dictionary dictionary;
+
+        /** The encoded data. */
+        private final int[][]    data;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param header the header
+         * @param dictionary the finalized dictionary
+         * @param data the encoded data
+         */
+        EncodedData(final String[] header, final Dictionary dictionary, final int[][] data) {
+            this.header = header;
+            this.dictionary = dictionary;
+            this.data = data;
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return new Iterator<String[]>() {
+
+                private int pos = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < data.length;
+                }
+
+                @Override
+                public String[] next() throws NoSuchElementException {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (pos++ == -1) {
+                        return Arrays.copyOf(header, header.length);
+                    }
+                    int[] tuple = data[pos - 1];
+                    String[] result = new String[tuple.length];
+                    for (int i = 0; i < tuple.length; i++) {
+                        result[i] = dictionary.getMapping()[i][tuple[i]];
+                    }
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Returns the encoded data
+         * @return
+         */
+        int[][] getData() {
+            return data;
+        }
+
+        /**
+         * Returns the dictionary
+         * @return
+         */
+        Dictionary getDictionary() {
+            return dictionary;
+        }
+
+        /**
+         * Returns the header
+         * @return
+         */
+        String[] getHeader() {
+            return header;
+        }
+    }
+
     /**
      * A data object for iterators.
      *
@@ -166,6 +257,47 @@ public abstract class Data {
         return create(adapter);
     }
 
+    /**
+     * Creates a new data object from a stream containing data in ARX's binary format,
+     * as written by {@link DataHandle#saveBinary(OutputStream)}. The stream will not be closed.
+     *
+     * @param stream the stream
+     * @return the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createBinary(final InputStream stream) throws IOException {
+        return DataBinary.read(stream);
+    }
+
+    /**
+     * Creates a new data object from a file containing data in ARX's binary format, as written
+     * by {@link DataHandle#saveBinary(OutputStream)} or {@link #convertToBinary(File, Charset, CSVSyntax, File)}.
+     * The file is mapped into memory, only the dictionaries are parsed and codes are decoded
+     * directly from the mapping.
+     *
+     * @param file the file
+     * @return the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createBinary(final File file) throws IOException {
+        return DataBinary.read(file);
+    }
+
+    /**
+     * Converts a CSV file into ARX's binary format, which can be read with {@link #createBinary(File)}.
+     * The input file is read twice and memory is only required for the dictionaries of the
+     * attributes, which means that very large files can be converted.
+     *
+     * @param input the CSV file
+     * @param charset the charset of the CSV file
+     * @param syntax the syntax of the CSV file
+     * @param output the binary file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static void convertToBinary(final File input, final Charset charset, final CSVSyntax syntax, final File output) throws IOException {
+        DataBinary.convert(input, charset, syntax, output);
+    }
+
     /**
      * Creates a new data object from a CSV file.
      *
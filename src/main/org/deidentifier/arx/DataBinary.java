@@ -0,0 +1,499 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.CSVDataInput;
+import org.deidentifier.arx.io.CSVSyntax;
+
+/**
+ * A versioned binary format for encoded data. Instead of plain strings, it stores the
+ * dictionary of each attribute followed by the encoded values in column-major order.
+ * Depending on the size of the dictionary, codes are stored as bytes, shorts or ints.
+ * Reading data in this format neither requires parsing nor hashing of all cells, because
+ * the encoding can be used as-is.<br>
+ * <br>
+ * Layout (all numbers are big-endian, strings are stored as their length in bytes followed
+ * by their UTF-8 representation, with a length of -1 denoting null):<br>
+ * <pre>
+ * int      magic number "ARXB"
+ * int      version
+ * int      number of columns
+ * int      number of rows
+ * string[] attribute names, one per column
+ * For each column:
+ *   int      size of the dictionary
+ *   string[] values, indexed by their codes
+ * For each column:
+ *   code[]   codes, one per row, stored as unsigned byte (size &lt;= 255),
+ *            unsigned short (size &lt;= 65535) or int
+ * </pre>
+ *
+ * @author Fabian Prasser
+ */
+class DataBinary {
+
+    /** Magic number: "ARXB" */
+    private static final int     MAGIC       = 0x41525842;
+
+    /** Current version of the format */
+    private static final int     VERSION     = 1;
+
+    /** Size of the buffers used for writing columns */
+    private static final int     BUFFER_SIZE = 1 << 16;
+
+    /** Charset used for strings */
+    private static final Charset CHARSET     = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+    /**
+     * Converts a CSV file into binary format. The input is read twice: once to build the
+     * dictionaries and once to write the codes. Codes are written to their column's region
+     * of the output file directly, which means that memory is only required for the
+     * dictionaries.
+     *
+     * @param input
+     * @param charset
+     * @param syntax
+     * @param output
+     * @throws IOException
+     */
+    static void convert(File input, Charset charset, CSVSyntax syntax, File output) throws IOException {
+
+        // Build dictionary
+        Iterator<String[]> iterator = new CSVDataInput(input, charset, syntax).iterator();
+        if (!iterator.hasNext()) {
+            throw new IOException("Input file is empty");
+        }
+        String[] header = iterator.next();
+        header = Arrays.copyOf(header, header.length);
+        Dictionary dictionary = new Dictionary(header.length);
+        int rows = 0;
+        while (iterator.hasNext()) {
+            register(dictionary, iterator.next(), header.length, rows++);
+        }
+        String[][] values = new String[header.length][];
+        for (int column = 0; column < header.length; column++) {
+            values[column] = dictionary.getUnfinalizedValues(column);
+        }
+
+        // Write header and dictionary
+        FileOutputStream stream = new FileOutputStream(output);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            writeHeader(out, header, values, rows);
+            out.flush();
+
+            // Prepare regions of columns
+            FileChannel channel = stream.getChannel();
+            long[] positions = new long[header.length];
+            ByteBuffer[] buffers = new ByteBuffer[header.length];
+            long position = channel.position();
+            for (int column = 0; column < header.length; column++) {
+                positions[column] = position;
+                position += (long) rows * getWidth(values[column].length);
+                buffers[column] = ByteBuffer.allocate(BUFFER_SIZE);
+            }
+
+            // Write codes
+            iterator = new CSVDataInput(input, charset, syntax).iterator();
+            iterator.next();
+            for (int row = 0; row < rows; row++) {
+                if (!iterator.hasNext()) {
+                    throw new IOException("Input file has been modified during conversion");
+                }
+                int[] codes = register(dictionary, iterator.next(), header.length, row);
+                for (int column = 0; column < header.length; column++) {
+                    ByteBuffer buffer = buffers[column];
+                    int width = getWidth(values[column].length);
+                    if (buffer.remaining() < width) {
+                        positions[column] += flush(channel, buffer, positions[column]);
+                    }
+                    if (width == 1) {
+                        buffer.put((byte) codes[column]);
+                    } else if (width == 2) {
+                        buffer.putShort((short) codes[column]);
+                    } else {
+                        buffer.putInt(codes[column]);
+                    }
+                }
+            }
+            for (int column = 0; column < header.length; column++) {
+                positions[column] += flush(channel, buffers[column], positions[column]);
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Maps the given file into memory and reads data in binary format from it. Only the header
+     * and the dictionaries are parsed, codes are decoded directly from the mapped regions of
+     * the file.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    static Data read(File file) throws IOException {
+
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            long length = channel.size();
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, Math.min(length, Integer.MAX_VALUE));
+
+            // Check header
+            if (length < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary data file");
+            }
+            int version = buffer.getInt();
+            if (version > VERSION) {
+                throw new IOException("Unsupported version of binary data file: " + version);
+            }
+
+            // Read attributes
+            int columns = buffer.getInt();
+            int rows = buffer.getInt();
+            String[] header = new String[columns];
+            for (int column = 0; column < columns; column++) {
+                header[column] = readString(buffer);
+            }
+
+            // Read dictionary
+            Dictionary dictionary = new Dictionary(columns);
+            int[] sizes = new int[columns];
+            for (int column = 0; column < columns; column++) {
+                sizes[column] = buffer.getInt();
+                for (int code = 0; code < sizes[column]; code++) {
+                    dictionary.register(column, readString(buffer));
+                }
+            }
+            dictionary.finalizeAll();
+
+            // Decode codes from the mapped regions of all columns
+            long position = buffer.position();
+            int[][] data = new int[rows][columns];
+            for (int column = 0; column < columns; column++) {
+                int width = getWidth(sizes[column]);
+                long size = (long) rows * width;
+                if (position + size > length) {
+                    throw new IOException("Truncated binary data file");
+                }
+                MappedByteBuffer region = channel.map(MapMode.READ_ONLY, position, size);
+                if (width == 1) {
+                    for (int row = 0; row < rows; row++) {
+                        data[row][column] = region.get() & 0xFF;
+                    }
+                } else if (width == 2) {
+                    for (int row = 0; row < rows; row++) {
+                        data[row][column] = region.getShort() & 0xFFFF;
+                    }
+                } else {
+                    for (int row = 0; row < rows; row++) {
+                        data[row][column] = region.getInt();
+                    }
+                }
+                position += size;
+            }
+
+            // Done
+            return new Data.EncodedData(header, dictionary, data);
+
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary data file");
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads data in binary format from the given stream. The stream will not be closed.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    static Data read(InputStream stream) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+
+        // Check header
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary data file");
+        }
+        int version = in.readInt();
+        if (version > VERSION) {
+            throw new IOException("Unsupported version of binary data file: " + version);
+        }
+
+        // Read attributes
+        int columns = in.readInt();
+        int rows = in.readInt();
+        String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = readString(in);
+        }
+
+        // Read dictionary. Values are unique, which means that they are assigned
+        // the same codes when being registered in the original order
+        Dictionary dictionary = new Dictionary(columns);
+        int[] sizes = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            sizes[column] = in.readInt();
+            for (int code = 0; code < sizes[column]; code++) {
+                dictionary.register(column, readString(in));
+            }
+        }
+        dictionary.finalizeAll();
+
+        // Read data
+        int[][] data = new int[rows][columns];
+        for (int column = 0; column < columns; column++) {
+            int width = getWidth(sizes[column]);
+            if (width == 1) {
+                for (int row = 0; row < rows; row++) {
+                    data[row][column] = in.readUnsignedByte();
+                }
+            } else if (width == 2) {
+                for (int row = 0; row < rows; row++) {
+                    data[row][column] = in.readUnsignedShort();
+                }
+            } else {
+                for (int row = 0; row < rows; row++) {
+                    data[row][column] = in.readInt();
+                }
+            }
+        }
+
+        // Done
+        return new Data.EncodedData(header, dictionary, data);
+    }
+
+    /**
+     * Encodes and writes the given data in binary format. The first element must be the header.
+     * The stream will not be closed.
+     *
+     * @param iterator
+     * @param stream
+     * @throws IOException
+     */
+    static void write(Iterator<String[]> iterator, OutputStream stream) throws IOException {
+
+        // Header
+        String[] header = iterator.next();
+        header = Arrays.copyOf(header, header.length);
+
+        // Encode
+        Dictionary dictionary = new Dictionary(header.length);
+        List<int[]> data = new ArrayList<int[]>();
+        while (iterator.hasNext()) {
+            String[] strings = iterator.next();
+            int[] tuple = new int[header.length];
+            for (int i = 0; i < strings.length; i++) {
+                tuple[i] = dictionary.register(i, strings[i]);
+            }
+            data.add(tuple);
+        }
+        dictionary.finalizeAll();
+
+        // Write
+        write(header, dictionary.getMapping(), data.toArray(new int[data.size()][]), stream);
+    }
+
+    /**
+     * Writes the given encoded data in binary format. The stream will not be closed.
+     *
+     * @param header
+     * @param dictionary
+     * @param data
+     * @param stream
+     * @throws IOException
+     */
+    static void write(String[] header, String[][] dictionary, int[][] data, OutputStream stream) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+
+        // Header and dictionary
+        writeHeader(out, header, dictionary, data.length);
+
+        // Data
+        for (int column = 0; column < header.length; column++) {
+            int width = getWidth(dictionary[column].length);
+            if (width == 1) {
+                for (int[] row : data) {
+                    out.writeByte(row[column]);
+                }
+            } else if (width == 2) {
+                for (int[] row : data) {
+                    out.writeShort(row[column]);
+                }
+            } else {
+                for (int[] row : data) {
+                    out.writeInt(row[column]);
+                }
+            }
+        }
+
+        // Flush but don't close
+        out.flush();
+    }
+
+    /**
+     * Writes the buffer to the given position of the channel and clears it. Returns the
+     * number of bytes written.
+     * @param channel
+     * @param buffer
+     * @param position
+     * @return
+     * @throws IOException
+     */
+    private static int flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    /**
+     * Returns the number of bytes used for codes of a dictionary with the given size
+     * @param size
+     * @return
+     */
+    private static int getWidth(int size) {
+        return size <= 0xFF ? 1 : (size <= 0xFFFF ? 2 : 4);
+    }
+
+    /**
+     * Reads a string
+     * @param buffer
+     * @return
+     */
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * Encodes the given row
+     * @param dictionary
+     * @param strings
+     * @param columns
+     * @param row
+     * @return
+     * @throws IOException
+     */
+    private static int[] register(Dictionary dictionary, String[] strings, int columns, int row) throws IOException {
+        if (strings.length != columns) {
+            throw new IOException("Row " + row + " contains " + strings.length + " values, expected " + columns);
+        }
+        int[] codes = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            codes[i] = dictionary.register(i, strings[i]);
+        }
+        return codes;
+    }
+
+    /**
+     * Writes the header and the dictionary
+     * @param out
+     * @param header
+     * @param dictionary
+     * @param rows
+     * @throws IOException
+     */
+    private static void writeHeader(DataOutputStream out, String[] header, String[][] dictionary, int rows) throws IOException {
+
+        // Header
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(header.length);
+        out.writeInt(rows);
+        for (String attribute : header) {
+            writeString(out, attribute);
+        }
+
+        // Dictionary
+        for (String[] values : dictionary) {
+            out.writeInt(values.length);
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    /**
+     * Reads a string
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * Writes a string
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(CHARSET);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.FunctionHierarchy;
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.aggregates.HierarchyBuilder;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
@@ -176,7 +177,10 @@ public class DataDefinition implements Cloneable{
         checkQuasiIdentifier(attribute);
         Integer result = maxGeneralization.get(attribute);
         if (result != null) return result;
-        if (this.getHierarchy(attribute) != null) {
+        Hierarchy object = this.getHierarchyObject(attribute);
+        if (object instanceof FunctionHierarchy) {
+            return ((FunctionHierarchy)object).getFunction().getHeight() - 1;
+        } else if (this.getHierarchy(attribute) != null) {
             String[][] hierarchy = this.getHierarchy(attribute);
             if (hierarchy.length == 0 || hierarchy[0] == null) {
                 return 0;
@@ -265,7 +269,7 @@ public class DataDefinition implements Cloneable{
      * @return
      */
     public boolean isHierarchyAvailable(String attribute) {
-        return getHierarchy(attribute) != null;
+        return getHierarchy(attribute) != null || getHierarchyObject(attribute) instanceof FunctionHierarchy;
     }
 
     /**
@@ -295,7 +299,7 @@ public class DataDefinition implements Cloneable{
      */
     public boolean isMaximumGeneralizationAvailable(String attribute) {
         checkQuasiIdentifier(attribute);
-        return maxGeneralization.containsKey(attribute) || (this.getHierarchy(attribute) != null);
+        return maxGeneralization.containsKey(attribute) || isHierarchyAvailable(attribute);
         
     }
 
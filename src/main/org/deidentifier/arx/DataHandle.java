@@ -33,6 +33,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.math3.util.Pair;
 import org.deidentifier.arx.ARXLattice.ARXNode;
@@ -40,7 +45,6 @@ import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.DataType.ARXDate;
 import org.deidentifier.arx.DataType.ARXDecimal;
 import org.deidentifier.arx.DataType.ARXInteger;
-import org.deidentifier.arx.DataType.DataTypeDescription;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.io.CSVDataOutput;
 import org.deidentifier.arx.io.CSVSyntax;
@@ -64,22 +68,25 @@ import cern.colt.Swapper;
 public abstract class DataHandle {
 
     /** The data types. */
-    protected DataType<?>[][]   dataTypes  = null;
+    protected DataType<?>[][]           dataTypes  = null;
 
     /** The data definition. */
-    protected DataDefinition    definition = null;
+    protected DataDefinition            definition = null;
 
     /** The header. */
-    protected String[]          header     = null;
+    protected String[]                  header     = null;
 
     /** The node. */
-    protected ARXNode           node       = null;
+    protected ARXNode                   node       = null;
 
     /** The current registry. */
-    protected DataRegistry      registry   = null;
+    protected DataRegistry              registry   = null;
 
     /** The current research subset. */
-    protected DataHandle        subset     = null;
+    protected DataHandle                subset     = null;
+
+    /** Caches for parsed values, per column. */
+    private volatile DataTypeCache<?>[] caches     = null;
 
     /**
      * Returns the name of the specified column.
@@ -315,25 +322,7 @@ public abstract class DataHandle {
 
         checkRegistry();
         checkColumn(column);
-        double distinct = this.getDistinctValues(column).length;
-        List<Pair<DataType<?>, Double>> result = new ArrayList<Pair<DataType<?>, Double>>();
-        DataTypeDescription<U> description = DataType.list(clazz);
-        if (description.hasFormat()) {
-            for (String format : description.getExampleFormats()) {
-                DataType<U> type = description.newInstance(format, locale);
-                double matching = getNumConformingValues(column, type) / distinct;
-                if (matching >= threshold) {
-                    result.add(new Pair<DataType<?>, Double>(type, matching));
-                }
-            }
-        } else {
-            DataType<U> type = description.newInstance();
-            double matching = getNumConformingValues(column, type) / distinct;
-            if (matching >= threshold) {
-                result.add(new Pair<DataType<?>, Double>(type, matching));
-            }
-        }
-        return result;
+        return new DataTypeDetector(getDistinctValues(column), locale, threshold).getMatchingDataTypes(clazz);
     }
 
     /**
@@ -372,10 +361,73 @@ public abstract class DataHandle {
 
         checkRegistry();
         checkColumn(column);
+        return getMatchingDataTypes(new DataTypeDetector(getDistinctValues(column), locale, threshold));
+    }
+
+    /**
+     * Returns mappings from data types to the relative number of values that conform to the according type
+     * for each of the given columns. Columns are evaluated concurrently.
+     *
+     * @param columns the columns
+     * @param locale The locale to use
+     * @param threshold Relative minimal number of values that must match to include a data type in the results
+     * @return the matching data types, one list per column
+     */
+    public List<List<Pair<DataType<?>, Double>>> getMatchingDataTypes(int[] columns, Locale locale, double threshold) {
+
+        checkRegistry();
+        final List<DataTypeDetector> detectors = new ArrayList<DataTypeDetector>();
+        for (int column : columns) {
+            checkColumn(column);
+            detectors.add(new DataTypeDetector(getDistinctValues(column), locale, threshold));
+        }
+        
+        // Columns are independent of each other and can be evaluated in parallel
+        final List<List<Pair<DataType<?>, Double>>> result = new ArrayList<List<Pair<DataType<?>, Double>>>();
+        final int threads = Math.min(columns.length, Runtime.getRuntime().availableProcessors());
+        if (threads > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<List<Pair<DataType<?>, Double>>>> futures = new ArrayList<Future<List<Pair<DataType<?>, Double>>>>();
+                for (final DataTypeDetector detector : detectors) {
+                    futures.add(executor.submit(new Callable<List<Pair<DataType<?>, Double>>>() {
+                        @Override
+                        public List<Pair<DataType<?>, Double>> call() {
+                            return getMatchingDataTypes(detector);
+                        }
+                    }));
+                }
+                for (Future<List<Pair<DataType<?>, Double>>> future : futures) {
+                    result.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while detecting data types", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error while detecting data types", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            for (DataTypeDetector detector : detectors) {
+                result.add(getMatchingDataTypes(detector));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Returns a sorted mapping from data types to the relative number of values that conform to the according type.
+     * 
+     * @param detector
+     * @return
+     */
+    private static List<Pair<DataType<?>, Double>> getMatchingDataTypes(DataTypeDetector detector) {
+        
         List<Pair<DataType<?>, Double>> result = new ArrayList<Pair<DataType<?>, Double>>();
-        result.addAll(getMatchingDataTypes(column, Long.class, locale, threshold));
-        result.addAll(getMatchingDataTypes(column, Date.class, locale, threshold));
-        result.addAll(getMatchingDataTypes(column, Double.class, locale, threshold));
+        result.addAll(detector.getMatchingDataTypes(Long.class));
+        result.addAll(detector.getMatchingDataTypes(Date.class));
+        result.addAll(detector.getMatchingDataTypes(Double.class));
         result.add(new Pair<DataType<?>, Double>(DataType.STRING, 1.0d));
         
         // Sort order
@@ -741,6 +793,18 @@ public abstract class DataHandle {
         output.write(iterator());
     }
 
+    /**
+     * Writes the data to a stream in ARX's binary format, which can be read with
+     * {@link Data#createBinary(java.io.InputStream)}. The stream will not be closed.
+     *
+     * @param out Output stream
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void saveBinary(final OutputStream out) throws IOException {
+        checkRegistry();
+        DataBinary.write(iterator(), out);
+    }
+
     /**
      * Sorts the dataset according to the given columns. Will sort input and
      * output analogously.
@@ -935,8 +999,8 @@ public abstract class DataHandle {
             for (int i = 0; i < columns.length; i++) {
 
                 int index = columns[i];
-                int cmp = dataTypes[0][index].compare(internalGetValue(row1, index, false),
-                                                      internalGetValue(row2, index, false));
+                int cmp = getCache(dataTypes[0][index], index).compare(internalGetValue(row1, index, false),
+                                                                       internalGetValue(row2, index, false));
                 if (cmp != 0) {
                     return ascending ? cmp : -cmp;
                 }
@@ -947,6 +1011,41 @@ public abstract class DataHandle {
         }
     }
 
+    /**
+     * Returns a cache for values of the given type in the given column.
+     *
+     * @param type the type
+     * @param column the column
+     * @return the cache
+     */
+    protected DataTypeCache<?> getCache(DataType<?> type, int column) {
+        
+        // Published arrays are never modified.
+        // Redundant caches created by concurrent calls are harmless.
+        DataTypeCache<?>[] caches = this.caches;
+        if (caches == null || caches.length != header.length) {
+            caches = new DataTypeCache<?>[header.length];
+        }
+        DataTypeCache<?> cache = caches[column];
+        if (cache == null || cache.getType() != type) {
+            cache = createCache(type);
+            caches = caches.clone();
+            caches[column] = cache;
+            this.caches = caches;
+        }
+        return cache;
+    }
+
+    /**
+     * Creates a cache for values of the given type.
+     *
+     * @param type the type
+     * @return the cache
+     */
+    private static <T> DataTypeCache<T> createCache(DataType<T> type) {
+        return new DataTypeCache<T>(type);
+    }
+
     /**
      * Internal representation of get value.
      *
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -59,17 +61,27 @@ public class DataHandleInput extends DataHandle {
      */
     protected DataHandleInput(final Data data) {
         
+        // Register
+        this.setRegistry(new DataRegistry());
+        this.getRegistry().updateInput(this);
+        this.definition = data.getDefinition().clone();
+
+        // Use encoding, if available
+        if (data instanceof Data.EncodedData) {
+            final Data.EncodedData encoded = (Data.EncodedData) data;
+            super.header = Arrays.copyOf(encoded.getHeader(), encoded.getHeader().length);
+            this.dictionary = encoded.getDictionary();
+            this.data = encoded.getData();
+            this.dataTypes = getDataTypeArray();
+            return;
+        }
+        
         // Obtain and check iterator
         final Iterator<String[]> iterator = data.iterator();
         if (!iterator.hasNext()) { 
             throw new IllegalArgumentException("Data object is empty!"); 
         }
 
-        // Register
-        this.setRegistry(new DataRegistry());
-        this.getRegistry().updateInput(this);
-        this.definition = data.getDefinition().clone();
-
         // Obtain header
         final String[] columns = iterator.next();
         super.header = Arrays.copyOf(columns, columns.length);
@@ -176,6 +188,12 @@ public class DataHandleInput extends DataHandle {
             }
         };
     }
+
+    @Override
+    public void saveBinary(final OutputStream out) throws IOException {
+        checkRegistry();
+        DataBinary.write(header, dictionary.getMapping(), data, out);
+    }
     
     /**
      * Swaps two rows.
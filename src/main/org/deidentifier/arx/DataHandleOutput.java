@@ -619,7 +619,7 @@ public class DataHandleOutput extends DataHandle {
                 cmp = (s1 == DataType.ANY_VALUE && s2 == DataType.ANY_VALUE) ? 0
                         : (s1 == DataType.ANY_VALUE ? +1
                                 : (s2 == DataType.ANY_VALUE ? -1
-                                        : dataTypes[attributeType][indexMap].compare(s1, s2)));
+                                        : getCache(dataTypes[attributeType][indexMap], index).compare(s1, s2)));
             } catch (final Exception e) {
                 throw new RuntimeException(e);
             }
@@ -23,6 +23,7 @@ import java.io.Serializable;
 import java.io.StringReader;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.text.Format;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -74,6 +75,9 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
         /** Locale. */
         private final Locale                           locale;
 
+        /** Formats for each thread, as formats are not thread-safe. */
+        private transient ThreadLocalFormat<SimpleDateFormat> formats;
+
         /**
          * Create a date with a "dd.MM.yyyy" format string
          * for <code>SimpleDateFormat</code> and default locale.
@@ -196,7 +200,7 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
             if (s == null) {
                 return NULL_VALUE;
             }
-        	return format.format(s);
+        	return getFormatter().format(s);
         }
 
         @Override
@@ -231,6 +235,18 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
             }
         }
 
+        /**
+         * Returns a format for the current thread.
+         *
+         * @return
+         */
+        private SimpleDateFormat getFormatter() {
+            if (formats == null) {
+                formats = new ThreadLocalFormat<SimpleDateFormat>(format);
+            }
+            return formats.get();
+        }
+
         @Override
         public Date getMaximum() {
             return new Date(Long.MAX_VALUE);
@@ -297,7 +313,7 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
                 return null;
             }
         	try {
-				return format.parse(s);
+				return getFormatter().parse(s);
         	} catch (Exception e) {
                 throw new IllegalArgumentException(e.getMessage() + ": " + s, e);
             }
@@ -359,6 +375,9 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
         /** Locale. */
         private final Locale                             locale;
 
+        /** Formats for each thread, as formats are not thread-safe. */
+        private transient ThreadLocalFormat<DecimalFormat> formats;
+
         /**
          * Default constructor.
          */
@@ -483,7 +502,7 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
             if (format==null){
                 return String.valueOf(s);
             } else {
-                return format.format(s);
+                return getFormatter().format(s);
             }
         }
 
@@ -519,6 +538,18 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
             }
         }
 
+        /**
+         * Returns a format for the current thread.
+         *
+         * @return
+         */
+        private DecimalFormat getFormatter() {
+            if (formats == null) {
+                formats = new ThreadLocalFormat<DecimalFormat>(format);
+            }
+            return formats.get();
+        }
+
         @Override
         public Double getMaximum() {
             return Double.MAX_VALUE;
@@ -584,7 +615,7 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
                 if (format == null) {
                     return Double.valueOf(s);
                 } else {
-                    return format.parse(s).doubleValue();
+                    return getFormatter().parse(s).doubleValue();
                 }
             } catch (Exception e) {
                 throw new IllegalArgumentException(e.getMessage() + ": " + s, e);
@@ -639,6 +670,9 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
         /** Locale. */
         private final Locale                           locale;
 
+        /** Formats for each thread, as formats are not thread-safe. */
+        private transient ThreadLocalFormat<DecimalFormat> formats;
+
         /**
          * Default constructor.
          */
@@ -759,7 +793,7 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
             if (format==null){
                 return String.valueOf(s);
             } else {
-                return format.format(s);
+                return getFormatter().format(s);
             }
         }
         
@@ -795,6 +829,18 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
             }
         }
 
+        /**
+         * Returns a format for the current thread.
+         *
+         * @return
+         */
+        private DecimalFormat getFormatter() {
+            if (formats == null) {
+                formats = new ThreadLocalFormat<DecimalFormat>(format);
+            }
+            return formats.get();
+        }
+
         @Override
         public Long getMaximum() {
             return Long.MAX_VALUE;
@@ -860,7 +906,7 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
                 if (format == null) {
                     return Long.valueOf(s);
                 } else {
-                    return format.parse(s).longValue();
+                    return getFormatter().parse(s).longValue();
                 }
             } catch (Exception e) {
                 throw new IllegalArgumentException(e.getMessage() + ": " + s, e);
@@ -1203,6 +1249,33 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
         }
     }
     
+    /**
+     * Provides a copy of a format for each thread.
+     *
+     * @author Fabian Prasser
+     * @param <F>
+     */
+    private static class ThreadLocalFormat<F extends Format> extends ThreadLocal<F> {
+
+        /** The prototype, which is never used directly. */
+        private final F prototype;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param prototype
+         */
+        private ThreadLocalFormat(F prototype) {
+            this.prototype = prototype;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected F initialValue() {
+            return (F) prototype.clone();
+        }
+    }
+
     /**
      * An entry in the list of available data types.
      *
@@ -0,0 +1,231 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.text.ParseException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.deidentifier.arx.DataType.ARXDate;
+import org.deidentifier.arx.DataType.ARXDecimal;
+import org.deidentifier.arx.DataType.ARXInteger;
+import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
+
+/**
+ * A thread-safe cache for values parsed with a data type. Data is dictionary-encoded, which means
+ * that the same strings are parsed over and over again when data is sorted, analyzed or aggregated.
+ * The cache is keyed by the string values and bounded. When it is full, values are parsed without
+ * being cached. Values that cannot be parsed are never cached, so that the according exceptions are
+ * raised by the underlying data type. All methods behave exactly like the according methods of the
+ * data type.
+ *
+ * @author Fabian Prasser
+ * @param <T>
+ */
+public class DataTypeCache<T> {
+
+    /** Default capacity */
+    public static final int                         DEFAULT_CAPACITY = 100000;
+
+    /** Placeholder for null, which cannot be stored in the map */
+    private static final Object                     NULL             = new Object();
+
+    /** The data type */
+    private final DataType<T>                       type;
+
+    /** The capacity */
+    private final int                               capacity;
+
+    /** The cache */
+    private final ConcurrentHashMap<String, Object> cache;
+
+    /** Whether values of the type can be compared after parsing them */
+    private final boolean                           comparable;
+
+    /** Whether longs can be parsed directly */
+    private final boolean                           primitiveLong;
+
+    /** Whether doubles can be parsed directly */
+    private final boolean                           primitiveDouble;
+
+    /**
+     * Creates a new instance with default capacity.
+     *
+     * @param type
+     */
+    public DataTypeCache(DataType<T> type) {
+        this(type, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param type
+     * @param capacity
+     */
+    public DataTypeCache(DataType<T> type, int capacity) {
+        if (type == null) {
+            throw new NullPointerException("Type must not be null");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        this.type = type;
+        this.capacity = capacity;
+        this.cache = new ConcurrentHashMap<String, Object>();
+        this.comparable = type instanceof ARXDate || type instanceof ARXDecimal || type instanceof ARXInteger;
+        this.primitiveLong = type instanceof ARXInteger && ((ARXInteger) type).getFormat() == null;
+        this.primitiveDouble = type instanceof ARXDecimal && ((ARXDecimal) type).getFormat() == null;
+    }
+
+    /**
+     * Compares two values. Behaves like {@link DataType#compare(String, String)}.
+     *
+     * @param s1
+     * @param s2
+     * @return
+     * @throws NumberFormatException
+     * @throws ParseException
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public int compare(String s1, String s2) throws NumberFormatException, ParseException {
+
+        // Only types for which parsing is an order-preserving mapping
+        if (!comparable) {
+            return type.compare(s1, s2);
+        }
+
+        // Parse, raising exceptions via the type
+        Comparable v1;
+        Comparable v2;
+        try {
+            v1 = (Comparable) parse(s1);
+            v2 = (Comparable) parse(s2);
+        } catch (Exception e) {
+            return type.compare(s1, s2);
+        }
+
+        // Compare
+        if (v1 == null && v2 == null) {
+            return 0;
+        } else if (v1 == null) {
+            return +1;
+        } else if (v2 == null) {
+            return -1;
+        } else if (type instanceof ARXDecimal) {
+            double d1 = ((Double) v1).doubleValue();
+            double d2 = ((Double) v2).doubleValue();
+            d1 = d1 == -0.0d ? 0d : d1;
+            d2 = d2 == -0.0d ? 0d : d2;
+            return Double.valueOf(d1).compareTo(Double.valueOf(d2));
+        } else {
+            return v1.compareTo(v2);
+        }
+    }
+
+    /**
+     * Returns the capacity
+     * @return
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the data type
+     * @return
+     */
+    public DataType<T> getType() {
+        return type;
+    }
+
+    /**
+     * Returns whether the value is valid. Behaves like {@link DataType#isValid(String)}.
+     *
+     * @param value
+     * @return
+     */
+    public boolean isValid(String value) {
+        return (value != null && cache.containsKey(value)) || type.isValid(value);
+    }
+
+    /**
+     * Parses the value. Behaves like {@link DataType#parse(String)}.
+     *
+     * @param value
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T parse(String value) {
+        Object result = cache.get(value);
+        if (result == null) {
+            T parsed = type.parse(value);
+            result = parsed == null ? NULL : parsed;
+            if (cache.size() < capacity) {
+                cache.put(value, result);
+            }
+        }
+        return result == NULL ? null : (T) result;
+    }
+
+    /**
+     * Parses the value and converts it into a double. Only supported by types with ratio scale.
+     * Returns <code>Double.NaN</code> for null values.
+     *
+     * @param value
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public double parseDouble(String value) {
+        if (!(type instanceof DataTypeWithRatioScale)) {
+            throw new UnsupportedOperationException("Data type does not have a ratio scale");
+        }
+        if ((primitiveDouble || primitiveLong) && !DataType.isNull(value)) {
+            try {
+                return primitiveLong ? (double) Long.parseLong(value) : Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                // Null values and errors are handled below
+            }
+        }
+        T parsed = parse(value);
+        return parsed == null ? Double.NaN : ((DataTypeWithRatioScale<T>) type).toDouble(parsed);
+    }
+
+    /**
+     * Parses the value into a long. Only supported by integers. Null values are not supported.
+     *
+     * @param value
+     * @return
+     */
+    public long parseLong(String value) {
+        if (!(type instanceof ARXInteger)) {
+            throw new UnsupportedOperationException("Data type is not an integer");
+        }
+        if (primitiveLong && !DataType.isNull(value)) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                // Null values and errors are handled below
+            }
+        }
+        T parsed = parse(value);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        return (Long) parsed;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.math3.util.Pair;
+import org.deidentifier.arx.DataType.DataTypeDescription;
+import org.deidentifier.arx.DataType.DataTypeWithFormat;
+
+/**
+ * Detects the data types that match the distinct values of a column. Candidates are first
+ * tested on a uniform random sample of the values, which is drawn with a fixed seed to obtain
+ * deterministic results. Candidates which, with high confidence, cannot reach the threshold are
+ * eliminated. The remaining candidates are confirmed on all values, stopping as soon as the
+ * threshold cannot be reached anymore. Formats that are listed more than once in a family are
+ * only evaluated once. Results are not shared between different formats of a family, because
+ * each format parses values differently. Instances are not thread-safe, but independent
+ * instances can be used concurrently.
+ *
+ * @author Fabian Prasser
+ */
+class DataTypeDetector {
+
+    /** Size of the sample */
+    private static final int    SAMPLE_SIZE = 1000;
+
+    /** Probability of wrongly eliminating a candidate on the sample */
+    private static final double ERROR       = 1e-6d;
+
+    /** Seed for drawing the sample */
+    private static final long   SEED        = 0xDEADBEEF;
+
+    /** The distinct values */
+    private final String[]      values;
+
+    /** The sample */
+    private final String[]      sample;
+
+    /** The locale */
+    private final Locale        locale;
+
+    /** The threshold */
+    private final double        threshold;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param values The distinct values of the column
+     * @param locale The locale to use
+     * @param threshold Relative minimal number of values that must match to include a data type in the results
+     */
+    DataTypeDetector(String[] values, Locale locale, double threshold) {
+        this.values = values;
+        this.locale = locale;
+        this.threshold = threshold;
+
+        // Draw values independently and uniformly at random, as required by Hoeffding's inequality
+        if (values.length > SAMPLE_SIZE && threshold > 0d) {
+            Random random = new Random(SEED);
+            this.sample = new String[SAMPLE_SIZE];
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                this.sample[i] = values[random.nextInt(values.length)];
+            }
+        } else {
+            this.sample = null;
+        }
+    }
+
+    /**
+     * Returns the data types of the given family that match the values.
+     *
+     * @param <U>
+     * @param clazz
+     * @return
+     */
+    <U> List<Pair<DataType<?>, Double>> getMatchingDataTypes(Class<U> clazz) {
+
+        // Collect candidates
+        DataTypeDescription<U> description = DataType.list(clazz);
+        List<DataType<U>> candidates = new ArrayList<DataType<U>>();
+        if (description.hasFormat()) {
+            for (String format : description.getExampleFormats()) {
+                candidates.add(description.newInstance(format, locale));
+            }
+        } else {
+            candidates.add(description.newInstance());
+        }
+
+        // Evaluate, sharing results between candidates with the same format
+        Map<String, Double> results = new HashMap<String, Double>();
+        List<Pair<DataType<?>, Double>> result = new ArrayList<Pair<DataType<?>, Double>>();
+        for (DataType<U> type : candidates) {
+            String key = getKey(type);
+            Double matching = results.get(key);
+            if (matching == null) {
+                matching = getMatchingValues(type);
+                results.put(key, matching);
+            }
+            if (matching >= threshold) {
+                result.add(new Pair<DataType<?>, Double>(type, matching));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a key that identifies the given type
+     * @param type
+     * @return
+     */
+    private String getKey(DataType<?> type) {
+        String format = type instanceof DataTypeWithFormat ? ((DataTypeWithFormat) type).getFormat() : null;
+        return format == null ? "" : format; //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the relative number of values that conform to the given type. Returns a value that is
+     * below the threshold if the type can be eliminated.
+     *
+     * @param type
+     * @return
+     */
+    private double getMatchingValues(DataType<?> type) {
+
+        // Test on sample, using Hoeffding's inequality
+        if (sample != null) {
+            int conforming = 0;
+            for (String value : sample) {
+                conforming += type.isValid(value) ? 1 : 0;
+            }
+            double epsilon = Math.sqrt(Math.log(1d / ERROR) / (2d * SAMPLE_SIZE));
+            if ((double) conforming / (double) SAMPLE_SIZE + epsilon < threshold) {
+                return -1d;
+            }
+        }
+
+        // Confirm on all values
+        double distinct = values.length;
+        int conforming = 0;
+        int failures = 0;
+        for (String value : values) {
+            if (type.isValid(value)) {
+                conforming++;
+            } else {
+                failures++;
+                if ((distinct - failures) / distinct < threshold) {
+                    return -1d;
+                }
+            }
+        }
+        return conforming / distinct;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.v2.AbstractMetricSingleDimensional;
+import org.deidentifier.arx.metric.v2.ILSingleDimensional;
+import org.deidentifier.arx.metric.v2.__MetricV2;
+
+/**
+ * An array of scores indexed by the identifiers of transformations. If the quality model
+ * measures loss with a single value, scores are stored in a primitive array and instances
+ * are only created when they are read. The array falls back to storing instances as soon
+ * as a score is set which cannot be represented by its value alone, e.g. because it
+ * carries metadata.
+ *
+ * @author Fabian Prasser
+ */
+class ScoreArray {
+
+    /** Values, NaN represents null, if the scores are stored in a primitive array */
+    private double[]             values;
+
+    /** Instances, if the scores are not stored in a primitive array */
+    private InformationLoss<?>[] scores;
+
+    /**
+     * Creates a new array, in which all scores are null
+     * @param size
+     * @param metric
+     */
+    ScoreArray(int size, Metric<?> metric) {
+        if (metric instanceof AbstractMetricSingleDimensional) {
+            this.values = new double[size];
+            Arrays.fill(this.values, Double.NaN);
+        } else {
+            this.scores = new InformationLoss<?>[size];
+        }
+    }
+
+    /**
+     * Returns the score at the given index, null if there is none
+     * @param index
+     * @return
+     */
+    InformationLoss<?> get(int index) {
+        if (values == null) {
+            return scores[index];
+        }
+        double value = values[index];
+        return Double.isNaN(value) ? null : __MetricV2.createILSingleDimensional(value);
+    }
+
+    /**
+     * Sets the score at the given index
+     * @param index
+     * @param score
+     */
+    void set(int index, InformationLoss<?> score) {
+        if (values != null) {
+            if (score == null) {
+                values[index] = Double.NaN;
+                return;
+            }
+            if (score.getClass() == ILSingleDimensional.class && score.getMetadata().isEmpty()) {
+                double value = ((ILSingleDimensional) score).getValue();
+                if (!Double.isNaN(value)) {
+                    values[index] = value;
+                    return;
+                }
+            }
+            inflate();
+        }
+        scores[index] = score;
+    }
+
+    /**
+     * Switches to storing instances
+     */
+    private void inflate() {
+        scores = new InformationLoss<?>[values.length];
+        for (int index = 0; index < values.length; index++) {
+            scores[index] = get(index);
+        }
+        values = null;
+    }
+}
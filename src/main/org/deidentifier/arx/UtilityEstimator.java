@@ -35,6 +35,10 @@ import org.deidentifier.arx.metric.Metric;
  *    -   Anonymous & !monotonic: metric.max<br>
  *    -  !Anonymous &  monotonic: push(max)<br>
  *    -  !Anonymous & !monotonic: metric.max<br>
+ * <br>
+ * Transformations are processed by their id. Predecessors always have smaller ids than their successors.
+ * For lattices which materialize their nodes on demand, the ids are the identifiers in the solution space
+ * and no nodes are materialized.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -47,20 +51,29 @@ class UtilityEstimator {
     /** The metric. */
     private Metric<?>            metric;
 
+    /** Nodes indexed by their id, for lattices which do not materialize nodes on demand. */
+    private ARXNode[]            nodes;
+
+    /** Buffer for generalization levels. */
+    private int[]                generalization;
+
+    /** Buffer for ids of neighbors. */
+    private int[]                neighbors;
+
     /** Additional fields. */
-    private InformationLoss<?>[] minimumAnonymous;
+    private ScoreArray           minimumAnonymous;
     
     /** Additional fields. */
-    private InformationLoss<?>[] minimumNonAnonymous;
+    private ScoreArray           minimumNonAnonymous;
     
     /** Additional fields. */
-    private InformationLoss<?>[] maximumAnonymous;
+    private ScoreArray           maximumAnonymous;
     
     /** Additional fields. */
-    private InformationLoss<?>[] maximumNonAnonymous;
+    private ScoreArray           maximumNonAnonymous;
     
     /** Additional fields. */
-    private InformationLoss<?>[] lowerBound;
+    private ScoreArray           lowerBound;
 
     /** Monotonicity. */
     private final boolean        monotonicAnonymous;
@@ -87,22 +100,35 @@ class UtilityEstimator {
         // Init
         this.lattice = lattice;
         this.metric = metric;
-        this.minimumAnonymous = new InformationLoss<?>[this.lattice.getSize()];
-        this.minimumNonAnonymous = new InformationLoss<?>[this.lattice.getSize()];
-        this.maximumAnonymous = new InformationLoss<?>[this.lattice.getSize()];
-        this.maximumNonAnonymous = new InformationLoss<?>[this.lattice.getSize()];
-        this.lowerBound = new InformationLoss<?>[this.lattice.getSize()];
         this.monotonicAnonymous = monotonicAnonymous;
         this.monotonicNonAnonymous = monotonicNonAnonymous;
         
-        // Make sure that all nodes have an identifier
-        if (this.lattice.getBottom().getId() == null) {
-            int id = 0;
+        // Prepare access
+        if (lattice.isMaterializedOnDemand()) {
+            this.generalization = new int[lattice.getDimensions()];
+            this.neighbors = new int[lattice.getDimensions()];
+        } else {
+            
+            // Make sure that all nodes have an identifier
+            if (this.lattice.getBottom().getId() == -1) {
+                int id = 0;
+                for (ARXNode[] level : this.lattice.getLevels()) {
+                    for (ARXNode node : level) {
+                        node.setId(id++);
+                    }
+                }
+            }
+            
+            // Index
+            this.nodes = new ARXNode[lattice.getSize()];
+            int neighbors = 0;
             for (ARXNode[] level : this.lattice.getLevels()) {
                 for (ARXNode node : level) {
-                    node.setId(id++);
+                    this.nodes[node.getId()] = node;
+                    neighbors = Math.max(neighbors, Math.max(node.getPredecessors().length, node.getSuccessors().length));
                 }
             }
+            this.neighbors = new int[neighbors];
         }
     }
     
@@ -112,20 +138,23 @@ class UtilityEstimator {
     private void estimateMax() {
 
         // Prepare
-        initializeTopDown(lattice.getTop());
-        setMaximum(lattice.getTop());
-        this.globalMaximum = lattice.getTop().getHighestScore();
+        int top = lattice.getSize() - 1;
+        this.maximumAnonymous = new ScoreArray(this.lattice.getSize(), metric);
+        this.maximumNonAnonymous = new ScoreArray(this.lattice.getSize(), metric);
+        initializeTopDown(top);
+        setMaximum(top);
+        this.globalMaximum = getHighestScore(top);
         
         // Pull
-        ARXNode[][] levels = lattice.getLevels();
-        for (int i = levels.length-2; i >= 0; i--) {
-            final ARXNode[] level = levels[i];
-            for (final ARXNode node : level) {
-                pullTopDown(node);
-                setMaximum(node);
-                this.globalMaximum = max(this.globalMaximum, node.getHighestScore());
-            }
+        for (int id = top - 1; id >= 0; id--) {
+            pullTopDown(id);
+            setMaximum(id);
+            this.globalMaximum = max(this.globalMaximum, getHighestScore(id));
         }
+        
+        // Release
+        this.maximumAnonymous = null;
+        this.maximumNonAnonymous = null;
     }
 
     /**
@@ -134,19 +163,95 @@ class UtilityEstimator {
     private void estimateMin() {
 
         // Prepare
-        initializeBottomUp(lattice.getBottom());
-        setMinimum(lattice.getBottom());
-        this.globalMinimum = lattice.getBottom().getLowestScore();
+        this.minimumAnonymous = new ScoreArray(this.lattice.getSize(), metric);
+        this.minimumNonAnonymous = new ScoreArray(this.lattice.getSize(), metric);
+        this.lowerBound = new ScoreArray(this.lattice.getSize(), metric);
+        initializeBottomUp(0);
+        setMinimum(0);
+        this.globalMinimum = getLowestScore(0);
         
         // Pull
-        ARXNode[][] levels = lattice.getLevels();
-        for (int i = 1; i < levels.length; i++) {
-            final ARXNode[] level = levels[i];
-            for (final ARXNode node : level) {
-                pullBottomUp(node);
-                setMinimum(node);
-                this.globalMinimum = min(this.globalMinimum, node.getLowestScore());
+        for (int id = 1; id < lattice.getSize(); id++) {
+            pullBottomUp(id);
+            setMinimum(id);
+            this.globalMinimum = min(this.globalMinimum, getLowestScore(id));
+        }
+        
+        // Release, so that at most three arrays are allocated at the same time
+        this.minimumAnonymous = null;
+        this.minimumNonAnonymous = null;
+        this.lowerBound = null;
+    }
+
+    /**
+     * Returns the anonymity of the given transformation.
+     * @param id
+     * @return
+     */
+    private Anonymity getAnonymity(int id) {
+        return nodes != null ? nodes[id].getAnonymity() : lattice.getAnonymity(id);
+    }
+
+    /**
+     * Returns the highest score of the given transformation.
+     * @param id
+     * @return
+     */
+    private InformationLoss<?> getHighestScore(int id) {
+        return nodes != null ? nodes[id].getHighestScore() : lattice.getHighestScore(id);
+    }
+
+    /**
+     * Returns the lower bound of the given transformation.
+     * @param id
+     * @return
+     */
+    private InformationLoss<?> getLowerBound(int id) {
+        return nodes != null ? nodes[id].getLowerBound() : lattice.getLowerBound(id);
+    }
+
+    /**
+     * Returns the lowest score of the given transformation.
+     * @param id
+     * @return
+     */
+    private InformationLoss<?> getLowestScore(int id) {
+        return nodes != null ? nodes[id].getLowestScore() : lattice.getLowestScore(id);
+    }
+
+    /**
+     * Stores the ids of the predecessors of the given transformation in the buffer and returns their number.
+     * @param id
+     * @return
+     */
+    private int getPredecessors(int id) {
+        if (nodes != null) {
+            ARXNode[] predecessors = nodes[id].getPredecessors();
+            for (int i = 0; i < predecessors.length; i++) {
+                neighbors[i] = predecessors[i].getId();
+            }
+            return predecessors.length;
+        } else {
+            lattice.getGeneralization(id, generalization);
+            return lattice.getPredecessors(id, generalization, neighbors);
+        }
+    }
+
+    /**
+     * Stores the ids of the successors of the given transformation in the buffer and returns their number.
+     * @param id
+     * @return
+     */
+    private int getSuccessors(int id) {
+        if (nodes != null) {
+            ARXNode[] successors = nodes[id].getSuccessors();
+            for (int i = 0; i < successors.length; i++) {
+                neighbors[i] = successors[i].getId();
             }
+            return successors.length;
+        } else {
+            lattice.getGeneralization(id, generalization);
+            return lattice.getSuccessors(id, generalization, neighbors);
         }
     }
 
@@ -163,50 +268,48 @@ class UtilityEstimator {
     /**
      * Initializes the bottom node.
      *
-     * @param node
+     * @param id
      */
-    private void initializeBottomUp(ARXNode node) {
+    private void initializeBottomUp(int id) {
 
-        int id = node.getId();
-        Anonymity nodeAnonymity = node.getAnonymity();
-        InformationLoss<?> nodeMin = node.getLowestScore();
+        Anonymity nodeAnonymity = getAnonymity(id);
+        InformationLoss<?> nodeMin = getLowestScore(id);
         InformationLoss<?> metricMin = metric.createInstanceOfLowestScore();
 
-        lowerBound[id] = getValueOrDefault(node.getLowerBound(), metricMin);
+        lowerBound.set(id, getValueOrDefault(getLowerBound(id), metricMin));
         
         if (nodeAnonymity == Anonymity.ANONYMOUS && monotonicAnonymous) {
-            minimumAnonymous[id] = getValueOrDefault(nodeMin, metricMin);
-            minimumNonAnonymous[id] = metricMin;
+            minimumAnonymous.set(id, getValueOrDefault(nodeMin, metricMin));
+            minimumNonAnonymous.set(id, metricMin);
         } else if (nodeAnonymity == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
-            minimumNonAnonymous[id] = getValueOrDefault(nodeMin, metricMin);
-            minimumAnonymous[id] = metricMin;
+            minimumNonAnonymous.set(id, getValueOrDefault(nodeMin, metricMin));
+            minimumAnonymous.set(id, metricMin);
         } else {
-            minimumAnonymous[id] = metricMin;
-            minimumNonAnonymous[id] = metricMin;
+            minimumAnonymous.set(id, metricMin);
+            minimumNonAnonymous.set(id, metricMin);
         }
     }
 
     /**
      * Initializes the top node.
      *
-     * @param node
+     * @param id
      */
-    private void initializeTopDown(ARXNode node) {
+    private void initializeTopDown(int id) {
         
-        int id = node.getId();
-        Anonymity nodeAnonymity = node.getAnonymity();
-        InformationLoss<?> nodeMax = node.getHighestScore();
+        Anonymity nodeAnonymity = getAnonymity(id);
+        InformationLoss<?> nodeMax = getHighestScore(id);
         InformationLoss<?> metricMax = metric.createInstanceOfHighestScore();
 
         if (nodeAnonymity == Anonymity.ANONYMOUS && monotonicAnonymous) {
-            maximumAnonymous[id] = getValueOrDefault(nodeMax, metricMax);
-            maximumNonAnonymous[id] = metricMax;
+            maximumAnonymous.set(id, getValueOrDefault(nodeMax, metricMax));
+            maximumNonAnonymous.set(id, metricMax);
         } else if (nodeAnonymity == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
-            maximumNonAnonymous[id] = getValueOrDefault(nodeMax, metricMax);
-            maximumAnonymous[id] = metricMax;
+            maximumNonAnonymous.set(id, getValueOrDefault(nodeMax, metricMax));
+            maximumAnonymous.set(id, metricMax);
         } else {
-            maximumAnonymous[id] = metricMax;
-            maximumNonAnonymous[id] = metricMax;
+            maximumAnonymous.set(id, metricMax);
+            maximumNonAnonymous.set(id, metricMax);
         }
     }
 
@@ -239,31 +342,33 @@ class UtilityEstimator {
     /**
      * Propagate bottom up.
      *
-     * @param node
+     * @param id
      */
-    private void pullBottomUp(ARXNode node) {
-        
-        int id = node.getId();
+    private void pullBottomUp(int id) {
         
         // Pull all values
-        for (ARXNode pre : node.getPredecessors()) {
-            int preId = pre.getId();
+        int count = getPredecessors(id);
+        for (int i = 0; i < count; i++) {
+            int preId = neighbors[i];
             pullMax(minimumAnonymous, id, preId);
             pullMax(minimumNonAnonymous, id, preId);
             pullMax(lowerBound, id, preId);
         }
         
         // Lower bound can always be replaced
-        if (node.getLowerBound() != null) {
-            lowerBound[id] = max(lowerBound[id], node.getLowerBound());
+        InformationLoss<?> nodeLowerBound = getLowerBound(id);
+        if (nodeLowerBound != null) {
+            lowerBound.set(id, max(lowerBound.get(id), nodeLowerBound));
         }
         
         // Check if values can be replaced
-        if (node.getLowestScore() != null) {
-            if (node.getAnonymity() == Anonymity.ANONYMOUS && monotonicAnonymous) {
-                minimumAnonymous[id] = max(minimumAnonymous[id], node.getLowestScore());
-            } else if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
-                minimumNonAnonymous[id] = max(minimumNonAnonymous[id], node.getLowestScore());
+        InformationLoss<?> nodeMin = getLowestScore(id);
+        if (nodeMin != null) {
+            Anonymity nodeAnonymity = getAnonymity(id);
+            if (nodeAnonymity == Anonymity.ANONYMOUS && monotonicAnonymous) {
+                minimumAnonymous.set(id, max(minimumAnonymous.get(id), nodeMin));
+            } else if (nodeAnonymity == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
+                minimumNonAnonymous.set(id, max(minimumNonAnonymous.get(id), nodeMin));
             }
         }
     }
@@ -275,8 +380,8 @@ class UtilityEstimator {
      * @param target
      * @param source
      */
-    private void pullMax(InformationLoss<?>[] array, int target, int source) {
-        array[target] = array[target] == null ? array[source] : max(array[target], array[source]);
+    private void pullMax(ScoreArray array, int target, int source) {
+        array.set(target, max(array.get(target), array.get(source)));
     }
 
     /**
@@ -286,33 +391,34 @@ class UtilityEstimator {
      * @param target
      * @param source
      */
-    private void pullMin(InformationLoss<?>[] array, int target, int source) {
-        array[target] = array[target] == null ? array[source] : min(array[target], array[source]);
+    private void pullMin(ScoreArray array, int target, int source) {
+        array.set(target, min(array.get(target), array.get(source)));
     }
     
     
     /**
      * Propagate top down.
      *
-     * @param node
+     * @param id
      */
-    private void pullTopDown(ARXNode node) {
-        
-        int id = node.getId();
+    private void pullTopDown(int id) {
         
         // Pull all values
-        for (ARXNode succ : node.getSuccessors()) {
-            int succId = succ.getId();
+        int count = getSuccessors(id);
+        for (int i = 0; i < count; i++) {
+            int succId = neighbors[i];
             pullMin(maximumAnonymous, id, succId);
             pullMin(maximumNonAnonymous, id, succId);
         }
         
         // Check if values can be replaced
-        if (node.getHighestScore() != null) {
-            if (node.getAnonymity() == Anonymity.ANONYMOUS && monotonicAnonymous) {
-                maximumAnonymous[id] = min(maximumAnonymous[id], node.getHighestScore());
-            } else if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
-                maximumNonAnonymous[id] = min(maximumNonAnonymous[id], node.getHighestScore());
+        InformationLoss<?> nodeMax = getHighestScore(id);
+        if (nodeMax != null) {
+            Anonymity nodeAnonymity = getAnonymity(id);
+            if (nodeAnonymity == Anonymity.ANONYMOUS && monotonicAnonymous) {
+                maximumAnonymous.set(id, min(maximumAnonymous.get(id), nodeMax));
+            } else if (nodeAnonymity == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
+                maximumNonAnonymous.set(id, min(maximumNonAnonymous.get(id), nodeMax));
             }
         }
     }
@@ -320,63 +426,77 @@ class UtilityEstimator {
     /**
      * Selects a maximum for the given node.
      *
-     * @param node
+     * @param id
      */
-    private void setMaximum(ARXNode node) {
+    private void setMaximum(int id) {
     
         // If we already know everything, abort
-        if (node.getLowestScore() != null && 
-            node.getHighestScore() != null && 
-            node.getLowestScore().compareTo(node.getHighestScore())==0){
+        InformationLoss<?> nodeMin = getLowestScore(id);
+        InformationLoss<?> nodeMax = getHighestScore(id);
+        if (nodeMin != null && 
+            nodeMax != null && 
+            nodeMin.compareTo(nodeMax)==0){
             return;
         }
         
         // Check if values can be replaced
+        Anonymity nodeAnonymity = getAnonymity(id);
         InformationLoss<?> minimalMaximum = null;
-        if (node.getAnonymity() == Anonymity.ANONYMOUS && monotonicAnonymous) {
-            minimalMaximum = min(node.getHighestScore(), maximumAnonymous[node.getId()]);
-        } else if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
-            minimalMaximum = min(node.getHighestScore(), maximumNonAnonymous[node.getId()]);
+        if (nodeAnonymity == Anonymity.ANONYMOUS && monotonicAnonymous) {
+            minimalMaximum = min(nodeMax, maximumAnonymous.get(id));
+        } else if (nodeAnonymity == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
+            minimalMaximum = min(nodeMax, maximumNonAnonymous.get(id));
         } else {
-            minimalMaximum = min(node.getHighestScore(), metric.createInstanceOfHighestScore());
+            minimalMaximum = min(nodeMax, metric.createInstanceOfHighestScore());
         }
         
         // Set
-        node.access().setHighestScore(minimalMaximum);
+        if (nodes != null) {
+            nodes[id].access().setHighestScore(minimalMaximum);
+        } else {
+            lattice.setHighestScore(id, minimalMaximum);
+        }
     }
 
     /**
      * Selects a minimum for the given node.
      *
-     * @param node
+     * @param id
      */
-    private void setMinimum(ARXNode node) {
+    private void setMinimum(int id) {
     
         // If we already know everything, abort
-        if (node.getLowestScore() != null && 
-            node.getHighestScore() != null && 
-            node.getLowestScore().compareTo(node.getHighestScore())==0){
+        InformationLoss<?> nodeMin = getLowestScore(id);
+        InformationLoss<?> nodeMax = getHighestScore(id);
+        if (nodeMin != null && 
+            nodeMax != null && 
+            nodeMin.compareTo(nodeMax)==0){
             return;
         }
         
         // We can always use the lower bound
-        InformationLoss<?> maximalMinimum = max(node.getLowestScore(), lowerBound[node.getId()]);
+        InformationLoss<?> maximalMinimum = max(nodeMin, lowerBound.get(id));
         
         // Check if values can be replaced
-        if (node.getAnonymity() == Anonymity.ANONYMOUS) {
+        Anonymity nodeAnonymity = getAnonymity(id);
+        if (nodeAnonymity == Anonymity.ANONYMOUS) {
             
             // We can always use the optimum as a minimum for anonymous nodes
             maximalMinimum = max(maximalMinimum, lattice.getOptimum().getLowestScore());
             
             if (monotonicAnonymous) {
-                maximalMinimum = max(maximalMinimum, minimumAnonymous[node.getId()]);
+                maximalMinimum = max(maximalMinimum, minimumAnonymous.get(id));
             }
-        } else if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
-            maximalMinimum = max(maximalMinimum, minimumNonAnonymous[node.getId()]);
+        } else if (nodeAnonymity == Anonymity.NOT_ANONYMOUS && monotonicNonAnonymous) {
+            maximalMinimum = max(maximalMinimum, minimumNonAnonymous.get(id));
         }
         
         // Set
-        node.access().setLowestScore(maximalMinimum);
+        if (nodes != null) {
+            nodes[id].access().setLowestScore(maximalMinimum);
+        } else {
+            lattice.setLowestScore(id, maximalMinimum);
+        }
     }
 
     /**
@@ -0,0 +1,257 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small cache of hierarchies that have been built, keyed by a SHA-256 digest of the
+ * specification of the builder and the values that have been passed to it. Entries are softly
+ * referenced. The cache is bounded by the number of entries and by the number of cells of all
+ * cached hierarchies. The least recently used entries are evicted first.
+ *
+ * @author Fabian Prasser
+ */
+class HierarchyBuilderCache {
+
+    /**
+     * An entry in the cache.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Entry {
+
+        /** Hierarchy */
+        private final SoftReference<String[][]> hierarchy;
+
+        /** Number of cells */
+        private final long                      size;
+
+        /**
+         * Creates a new instance
+         * @param hierarchy
+         * @param size
+         */
+        private Entry(String[][] hierarchy, long size) {
+            this.hierarchy = new SoftReference<String[][]>(hierarchy);
+            this.size = size;
+        }
+    }
+
+    /**
+     * A key consisting of a digest.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Key {
+
+        /** Digest */
+        private final byte[] digest;
+
+        /** Hash code */
+        private final int    hashCode;
+
+        /**
+         * Creates a new instance
+         * @param digest
+         */
+        private Key(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            return Arrays.equals(digest, ((Key) obj).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** Maximal number of entries */
+    private static final int             CAPACITY = 16;
+
+    /** Maximal number of cells of all cached hierarchies */
+    private static final long            MAX_SIZE = 1L << 24;
+
+    /** The cache */
+    private static final Map<Key, Entry> CACHE    = new LinkedHashMap<Key, Entry>(CAPACITY, 0.75f, true);
+
+    /** Number of cells of all cached hierarchies */
+    private static long                  size     = 0;
+
+    /**
+     * Clears the cache
+     */
+    static synchronized void clear() {
+        CACHE.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of the cached hierarchy, null if there is none.
+     *
+     * @param key
+     * @return
+     */
+    static synchronized String[][] get(Object key) {
+        Entry entry = CACHE.get(key);
+        String[][] hierarchy = entry == null ? null : entry.hierarchy.get();
+        if (entry != null && hierarchy == null) {
+            CACHE.remove(key);
+            size -= entry.size;
+        }
+        return hierarchy == null ? null : copy(hierarchy);
+    }
+
+    /**
+     * Returns a key for the given digest of a builder and the given values.
+     *
+     * @param specification
+     * @param data
+     * @return
+     */
+    static Object getKey(byte[] specification, String[] data) {
+        MessageDigest digest = getDigest();
+        digest.update(specification);
+        update(digest, data.length);
+        for (String value : data) {
+            if (value == null) {
+                update(digest, -1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                update(digest, bytes.length);
+                digest.update(bytes);
+            }
+        }
+        return new Key(digest.digest());
+    }
+
+    /**
+     * Returns a digest of the given builder, null if the builder cannot be serialized.
+     *
+     * @param builder
+     * @return
+     */
+    static byte[] getSpecification(HierarchyBuilder<?> builder) {
+        MessageDigest digest = getDigest();
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(new OutputStream() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    // Only the digest is needed
+                }
+                @Override
+                public void write(int b) {
+                    // Only the digest is needed
+                }
+            }, digest));
+            out.writeObject(builder);
+            out.close();
+            return digest.digest();
+        } catch (IOException e) {
+            // Not cacheable, e.g. because of a custom comparator
+            return null;
+        }
+    }
+
+    /**
+     * Stores a copy of the given hierarchy.
+     *
+     * @param key
+     * @param hierarchy
+     */
+    static synchronized void put(Object key, String[][] hierarchy) {
+
+        // Check size
+        long cells = 0;
+        for (String[] row : hierarchy) {
+            cells += row.length;
+        }
+        if (cells > MAX_SIZE) {
+            return;
+        }
+
+        // Store
+        Entry previous = CACHE.put((Key) key, new Entry(copy(hierarchy), cells));
+        size += cells - (previous == null ? 0 : previous.size);
+
+        // Evict least recently used entries
+        Iterator<Entry> iterator = CACHE.values().iterator();
+        while (size > MAX_SIZE || CACHE.size() > CAPACITY) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Copies the rows of the given hierarchy
+     *
+     * @param hierarchy
+     * @return
+     */
+    private static String[][] copy(String[][] hierarchy) {
+        String[][] result = new String[hierarchy.length][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = hierarchy[i].clone();
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new SHA-256 digest
+     *
+     * @return
+     */
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Must be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds the given integer to the digest
+     *
+     * @param digest
+     * @param value
+     */
+    private static void update(MessageDigest digest, int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+}
@@ -22,13 +22,17 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.SharedThreadPool;
 
 /**
  * This abstract base class enables building hierarchies for categorical and non-categorical values.
@@ -239,6 +243,9 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
     /**  TODO */
     private static final long serialVersionUID = 3208791665131141362L;
     
+    /** Minimal number of cells for labeling levels in parallel. */
+    private static final long PARALLEL_THRESHOLD = 1000000L;
+    
     /** The data array. */
     private transient String[] data;
     
@@ -250,6 +257,9 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
     
     /** Are we ready to go. */
     private transient boolean prepared = false;
+
+    /** Digest of the specification, null if it must be computed. */
+    private transient byte[] specification;
     
     /** The data type. */
     private DataType<T> datatype;
@@ -280,21 +290,46 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
         }
 
         // Add input data
-        String[][] result = new String[data.length][abstractGroups.length + 1];
+        final String[][] result = new String[data.length][];
         for (int i=0; i<result.length; i++) {
             result[i] = new String[abstractGroups.length + 1];
             result[i][0] = data[i];
         }
         
-        // Add levels
-        for (int i=0; i<result[0].length - 1; i++){
-            Map<String, Map<AbstractGroup, String>> multiplicities = new HashMap<String, Map<AbstractGroup, String>>();
-            for (int j=0; j<result.length; j++){
-                result[j][i + 1] = getLabel(multiplicities, abstractGroups[i][j]);
+        // Add levels. Levels are independent of each other and can be labeled in parallel
+        final int levels = abstractGroups.length;
+        final int threads = Math.min(levels, Runtime.getRuntime().availableProcessors());
+        if (threads > 1 && (long)data.length * (long)levels >= PARALLEL_THRESHOLD) {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            try {
+                for (int i = 0; i < levels; i++) {
+                    final int level = i;
+                    futures.add(SharedThreadPool.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            buildLevel(result, level);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while building hierarchy", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error while building hierarchy", e.getCause());
+            } finally {
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        } else {
+            for (int i = 0; i < levels; i++) {
+                buildLevel(result, i);
             }
         }
         
-        
         Hierarchy h = Hierarchy.create(result);
         
         this.prepared = false;
@@ -310,8 +345,24 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
      * @return
      */
     public Hierarchy build(String[] data){
+        
+        // Check cache. The specification is only serialized again after it has been modified.
+        if (specification == null) {
+            specification = HierarchyBuilderCache.getSpecification(this);
+        }
+        Object key = specification == null ? null : HierarchyBuilderCache.getKey(specification, data);
+        String[][] cached = key == null ? null : HierarchyBuilderCache.get(key);
+        if (cached != null) {
+            return Hierarchy.create(cached);
+        }
+        
+        // Build and cache
         prepare(data);
-        return build();
+        Hierarchy hierarchy = build();
+        if (key != null) {
+            HierarchyBuilderCache.put(key, hierarchy.getHierarchy());
+        }
+        return hierarchy;
     }
     
     /**
@@ -411,10 +462,13 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
         int[] result = new int[this.abstractGroups.length + 1];
         result[0] = data.length; 
         for (int i=0; i<result.length - 1; i++){
-            Set<AbstractGroup> set = new HashSet<AbstractGroup>();
+            
+            // Groups are typically shared, so we deduplicate instances first
+            Set<AbstractGroup> instances = Collections.newSetFromMap(new IdentityHashMap<AbstractGroup, Boolean>());
             for (int j=0; j<this.abstractGroups[i].length; j++){
-                set.add(abstractGroups[i][j]);
+                instances.add(abstractGroups[i][j]);
             }
+            Set<AbstractGroup> set = new HashSet<AbstractGroup>(instances);
             result[i + 1] = set.size();
         }
         return result;
@@ -430,8 +484,30 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
             throw new IllegalArgumentException("Function must not be null");
         }
         this.function = function;
+        this.specification = null;
     }
     
+    /**
+     * Labels the given level. Labels are computed only once per group.
+     *
+     * @param result
+     * @param level
+     */
+    private void buildLevel(String[][] result, int level) {
+        Map<String, Map<AbstractGroup, String>> multiplicities = new HashMap<String, Map<AbstractGroup, String>>();
+        Map<AbstractGroup, String> labels = new IdentityHashMap<AbstractGroup, String>();
+        AbstractGroup[] groups = abstractGroups[level];
+        for (int j = 0; j < result.length; j++) {
+            AbstractGroup group = groups[j];
+            String label = labels.get(group);
+            if (label == null) {
+                label = getLabel(multiplicities, group);
+                labels.put(group, label);
+            }
+            result[j][level + 1] = label;
+        }
+    }
+
     /**
      * Returns the label for a given group. Makes sure that no labels are returned twice
      * @param multiplicities
@@ -501,6 +577,7 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
         for (Level<T> level : levels) {
             this.groups.put(level.getLevel(), level);
         }
+        this.specification = null;
     }
 
     /**
@@ -512,6 +589,7 @@ public abstract class HierarchyBuilderGroupingBased<T> extends HierarchyBuilder<
         this.prepared = prepared;
         if (prepared == false) {
             this.abstractGroups = null;
+            this.specification = null;
         }
     }
 }
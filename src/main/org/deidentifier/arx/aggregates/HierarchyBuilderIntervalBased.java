@@ -23,12 +23,15 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 
+import com.carrotsearch.hppc.IntObjectOpenHashMap;
+
 /**
  * This class enables building hierarchies for non-categorical values by mapping them
  * into given intervals.
@@ -834,8 +837,18 @@ public class HierarchyBuilderIntervalBased<T> extends HierarchyBuilderGroupingBa
     }
     
     @Override
-    @SuppressWarnings("unchecked")
     protected AbstractGroup[][] prepareGroups() {
+        return prepareGroups(parse(getData(), getDataType()));
+    }
+
+    /**
+     * Prepares the groups for the given parsed values. Builders for higher levels reuse them.
+     *
+     * @param values
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private AbstractGroup[][] prepareGroups(T[] values) {
 
         // Check
         String valid = isValid();
@@ -905,35 +918,62 @@ public class HierarchyBuilderIntervalBased<T> extends HierarchyBuilderGroupingBa
             upperSnap = lowerSnap;
         }
         
-        // Create first column
+        // Create first column. Groups are computed once per interval and repetition
+        // of the intervals, which is identified by the matching leaf and the shift.
         AbstractGroup[] first = new AbstractGroup[data.length];
+        Map<Interval<T>, IntObjectOpenHashMap<AbstractGroup>> groupsByLeaf = new IdentityHashMap<Interval<T>, IntObjectOpenHashMap<AbstractGroup>>();
+        AbstractGroup nullGroup = null;
+        AbstractGroup lowerGroup = null;
+        AbstractGroup upperGroup = null;
+        T range = type.subtract(index.max, index.min);
         for (int i=0; i<data.length; i++){
-            T value = type.parse(data[i]);
-            Interval<T> interval;
+            T value = values[i];
             
             if (value == null) {
-                interval = new Interval<T>(this);
+                if (nullGroup == null) {
+                    nullGroup = getGroup(cache, new Interval<T>(this));
+                }
+                first[i] = nullGroup;
             } else if (type.compare(value, tempLower.labelBound) < 0) {
                 throw new IllegalArgumentException(type.format(value)+ " is < lower label bound");
             } else if (type.compare(value, tempLower.snapBound) < 0) {
-                interval = new Interval<T>(this, true, tempLower.snapBound);
+                if (lowerGroup == null) {
+                    lowerGroup = getGroup(cache, new Interval<T>(this, true, tempLower.snapBound));
+                }
+                first[i] = lowerGroup;
             } else if (type.compare(value, tempUpper.labelBound) >= 0) {
                 throw new IllegalArgumentException(type.format(value)+ " is >= upper label bound");
             } else if (type.compare(value, tempUpper.snapBound) >= 0) {
-                interval = new Interval<T>(this, false, tempUpper.snapBound);
+                if (upperGroup == null) {
+                    upperGroup = getGroup(cache, new Interval<T>(this, false, tempUpper.snapBound));
+                }
+                first[i] = upperGroup;
             } else {
-                interval = getInterval(index, type, value);    
-            }
-            
-            if (interval.min != null && interval.max != null){
-                if (type.compare(interval.min, lowerSnap.max) < 0){
-                    interval = lowerSnap;
-                } else if (type.compare(interval.max, upperSnap.min) > 0){
-                    interval = upperSnap;
+                
+                // Find leaf
+                int shift = (int)Math.floor(type.ratio(type.subtract(value, index.min), range));
+                T offset = type.multiply(range, shift);
+                Interval<T> leaf = getInterval(index, type.subtract(value, offset));
+                IntObjectOpenHashMap<AbstractGroup> groups = groupsByLeaf.get(leaf);
+                if (groups == null) {
+                    groups = new IntObjectOpenHashMap<AbstractGroup>();
+                    groupsByLeaf.put(leaf, groups);
                 }
+                
+                // Obtain group
+                AbstractGroup group = groups.get(shift);
+                if (group == null) {
+                    Interval<T> interval = new Interval<T>(this, getDataType(), type.add(leaf.min, offset), type.add(leaf.max, offset), leaf.function);
+                    if (type.compare(interval.min, lowerSnap.max) < 0){
+                        interval = lowerSnap;
+                    } else if (type.compare(interval.max, upperSnap.min) > 0){
+                        interval = upperSnap;
+                    }
+                    group = getGroup(cache, interval);
+                    groups.put(shift, group);
+                }
+                first[i] = group;
             }
-            
-            first[i] = getGroup(cache, interval);
         }
         result.add(first);
         
@@ -993,8 +1033,8 @@ public class HierarchyBuilderIntervalBased<T> extends HierarchyBuilderGroupingBa
             }
             
             // Copy data
-            builder.prepare(data);
-            AbstractGroup[][] columns = builder.getPreparedGroups();
+            builder.setData(data);
+            AbstractGroup[][] columns = builder.prepareGroups(values);
             for (AbstractGroup[] column : columns) {
                 result.add(column);
             }
@@ -1014,6 +1054,22 @@ public class HierarchyBuilderIntervalBased<T> extends HierarchyBuilderGroupingBa
         return result.toArray(new AbstractGroup[0][0]);
     }
 
+    /**
+     * Parses the given values.
+     *
+     * @param data
+     * @param type
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private T[] parse(String[] data, DataType<T> type) {
+        Object[] result = new Object[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = type.parse(data[i]);
+        }
+        return (T[]) result;
+    }
+
     /**
      * Sets the data array.
      *
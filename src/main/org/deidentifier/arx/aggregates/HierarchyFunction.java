@@ -0,0 +1,353 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates;
+
+import java.io.Serializable;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.aggregates.HierarchyBuilderRedactionBased.Order;
+
+/**
+ * A generalization hierarchy which is defined by a function instead of a table. The function is
+ * only evaluated for values that actually occur in the data, which means that hierarchies for
+ * attributes with millions of distinct values, e.g. timestamps or fine-grained numeric amounts,
+ * never need to be materialized. The first level is always the identity. Functions must be
+ * deterministic and they must define a hierarchy, i.e. values that are generalized to the same
+ * value on one level must be generalized to the same value on all higher levels.
+ *
+ * @author Fabian Prasser
+ */
+public abstract class HierarchyFunction implements Serializable {
+
+    /**
+     * Generalization of dates by formatting them with decreasing precision.
+     *
+     * @author Fabian Prasser
+     */
+    private static class DateFunction extends HierarchyFunction {
+
+        /** SVUID */
+        private static final long            serialVersionUID = -6207455735766591813L;
+
+        /** Input format */
+        private final String                 input;
+
+        /** Output formats */
+        private final String[]               outputs;
+
+        /** Parser, which is not thread-safe */
+        private transient SimpleDateFormat   parser;
+
+        /** Formatters, which are not thread-safe */
+        private transient SimpleDateFormat[] formatters;
+
+        /**
+         * Creates a new instance
+         * @param input
+         * @param outputs
+         */
+        private DateFunction(String input, String[] outputs) {
+            this.input = input;
+            this.outputs = outputs;
+
+            // Check formats
+            new SimpleDateFormat(input);
+            for (String output : outputs) {
+                new SimpleDateFormat(output);
+            }
+        }
+
+        @Override
+        public int getHeight() {
+            return outputs.length + 2;
+        }
+
+        @Override
+        protected synchronized String getValue(String value, int level) {
+            if (parser == null) {
+                parser = new SimpleDateFormat(input);
+                parser.setLenient(false);
+                formatters = new SimpleDateFormat[outputs.length];
+                for (int i = 0; i < outputs.length; i++) {
+                    formatters[i] = new SimpleDateFormat(outputs[i]);
+                }
+            }
+            Date date;
+            try {
+                date = parser.parse(value);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Cannot parse date: " + value);
+            }
+            return formatters[level - 1].format(date);
+        }
+    }
+
+    /**
+     * Generalization of numbers into nested intervals of fixed width.
+     *
+     * @author Fabian Prasser
+     */
+    private static class IntervalFunction extends HierarchyFunction {
+
+        /** SVUID */
+        private static final long serialVersionUID = 4946126372218473302L;
+
+        /** The widths of the intervals on each level */
+        private final double[]    widths;
+
+        /**
+         * Creates a new instance
+         * @param widths
+         */
+        private IntervalFunction(double[] widths) {
+            this.widths = widths;
+            for (int i = 0; i < widths.length; i++) {
+                if (!(widths[i] > 0d)) {
+                    throw new IllegalArgumentException("Widths must be positive");
+                }
+                if (i > 0) {
+                    double ratio = widths[i] / widths[i - 1];
+                    if (ratio < 1d || Math.abs(ratio - Math.rint(ratio)) > 1e-9) {
+                        throw new IllegalArgumentException("Each width must be a multiple of the previous width");
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int getHeight() {
+            return widths.length + 2;
+        }
+
+        /**
+         * Formats a bound
+         * @param value
+         * @return
+         */
+        private String format(double value) {
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return String.valueOf((long) value);
+            } else {
+                return String.valueOf(value);
+            }
+        }
+
+        @Override
+        protected String getValue(String value, int level) {
+            double number;
+            try {
+                number = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cannot parse number: " + value);
+            }
+            double width = widths[level - 1];
+            double lower = Math.floor(number / width) * width;
+            return "[" + format(lower) + ", " + format(lower + width) + "["; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+    }
+
+    /**
+     * Generalization by redacting characters.
+     *
+     * @author Fabian Prasser
+     */
+    private static class RedactionFunction extends HierarchyFunction {
+
+        /** SVUID */
+        private static final long serialVersionUID = 1716113616547612232L;
+
+        /** Alignment order */
+        private final Order       alignmentOrder;
+
+        /** Redaction order */
+        private final Order       redactionOrder;
+
+        /** Padding character */
+        private final char        paddingCharacter;
+
+        /** Redaction character */
+        private final char        redactionCharacter;
+
+        /** Maximal length of values */
+        private final int         length;
+
+        /**
+         * Creates a new instance
+         * @param alignmentOrder
+         * @param redactionOrder
+         * @param paddingCharacter
+         * @param redactionCharacter
+         * @param length
+         */
+        private RedactionFunction(Order alignmentOrder,
+                                  Order redactionOrder,
+                                  char paddingCharacter,
+                                  char redactionCharacter,
+                                  int length) {
+            if (length < 1) {
+                throw new IllegalArgumentException("Length must be positive");
+            }
+            this.alignmentOrder = alignmentOrder;
+            this.redactionOrder = redactionOrder;
+            this.paddingCharacter = paddingCharacter;
+            this.redactionCharacter = redactionCharacter;
+            this.length = length;
+        }
+
+        @Override
+        public int getHeight() {
+            return length + 1;
+        }
+
+        @Override
+        protected String getTop() {
+
+            // All characters are redacted on the highest level
+            char[] result = new char[length];
+            Arrays.fill(result, redactionCharacter);
+            return new String(result);
+        }
+
+        @Override
+        protected String getValue(String value, int level) {
+
+            // Check
+            if (value.length() > length) {
+                throw new IllegalArgumentException("Value exceeds maximal length of " + length + ": " + value);
+            }
+
+            // Align
+            char[] result = new char[length];
+            int padding = length - value.length();
+            if (alignmentOrder == Order.RIGHT_TO_LEFT) {
+                Arrays.fill(result, 0, padding, paddingCharacter);
+                value.getChars(0, value.length(), result, padding);
+            } else {
+                value.getChars(0, value.length(), result, 0);
+                Arrays.fill(result, value.length(), length, paddingCharacter);
+            }
+
+            // Redact
+            if (redactionOrder == Order.RIGHT_TO_LEFT) {
+                Arrays.fill(result, length - level, length, redactionCharacter);
+            } else {
+                Arrays.fill(result, 0, level, redactionCharacter);
+            }
+            return new String(result);
+        }
+    }
+
+    /** SVUID */
+    private static final long   serialVersionUID = -2406934588337958104L;
+
+    /** Value of the highest level */
+    private static final String TOP              = "*"; //$NON-NLS-1$
+
+    /**
+     * Creates a function that parses dates with the given input format and generalizes
+     * them by formatting them with the given output formats, one per level. Formats must
+     * be given with decreasing precision, e.g. "yyyy-MM-dd", "yyyy-MM", "yyyy". The
+     * highest level is "*".
+     *
+     * @param inputFormat
+     * @param outputFormats
+     * @return
+     */
+    public static HierarchyFunction createDates(String inputFormat, String... outputFormats) {
+        return new DateFunction(inputFormat, outputFormats);
+    }
+
+    /**
+     * Creates a function that generalizes numbers into intervals of the given widths, one
+     * per level. Each width must be a multiple of the previous one, e.g. 10, 100, 1000. The
+     * highest level is "*".
+     *
+     * @param widths
+     * @return
+     */
+    public static HierarchyFunction createIntervals(double... widths) {
+        return new IntervalFunction(Arrays.copyOf(widths, widths.length));
+    }
+
+    /**
+     * Creates a function that redacts characters with the settings of the given builder.
+     * As the function does not see the whole domain, the maximal length of values must be
+     * specified.
+     *
+     * @param builder
+     * @param length
+     * @return
+     */
+    public static HierarchyFunction createRedaction(HierarchyBuilderRedactionBased<?> builder, int length) {
+        return new RedactionFunction(builder.getAligmentOrder(),
+                                     builder.getRedactionOrder(),
+                                     builder.getPaddingCharacter(),
+                                     builder.getRedactionCharacter(),
+                                     length);
+    }
+
+    /**
+     * Generalizes the given value to the given level.
+     *
+     * @param value
+     * @param level
+     * @return
+     */
+    public String generalize(String value, int level) {
+        if (level < 0 || level >= getHeight()) {
+            throw new IndexOutOfBoundsException("Invalid level: " + level);
+        } else if (level == 0) {
+            return value;
+        } else if (level == getHeight() - 1) {
+            return getTop();
+        } else if (value == null || value.equals(DataType.NULL_VALUE)) {
+            return DataType.NULL_VALUE;
+        } else {
+            return getValue(value, level);
+        }
+    }
+
+    /**
+     * Returns the height of the hierarchy, i.e. the number of levels including the identity.
+     *
+     * @return
+     */
+    public abstract int getHeight();
+
+    /**
+     * Returns the value of the highest level.
+     *
+     * @return
+     */
+    protected String getTop() {
+        return TOP;
+    }
+
+    /**
+     * Generalizes a value to an intermediate level, i.e. excluding the lowest and the highest
+     * level.
+     *
+     * @param value
+     * @param level
+     * @return
+     */
+    protected abstract String getValue(String value, int level);
+}
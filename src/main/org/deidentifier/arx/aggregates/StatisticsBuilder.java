@@ -35,6 +35,7 @@ import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.DataScale;
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.DataTypeCache;
 import org.deidentifier.arx.DataType.ARXString;
 import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 import org.deidentifier.arx.aggregates.StatisticsContingencyTable.Entry;
@@ -725,6 +726,15 @@ public class StatisticsBuilder {
                                                                getHierarchy(col, true)));
         }
         
+        // Parse each distinct value only once
+        DataTypeCache<?>[] caches = new DataTypeCache<?>[handle.getNumColumns()];
+        for (int col = 0; col < caches.length; col++) {
+            DataType<?> type = handle.getDataType(handle.getAttributeName(col));
+            if (type instanceof DataTypeWithRatioScale) {
+                caches[col] = createCache(type, DataTypeCache.DEFAULT_CAPACITY);
+            }
+        }
+        
         // Compute summary statistics
         for (int row = 0; row < handle.getNumRows(); row++) {
             
@@ -751,13 +761,12 @@ public class StatisticsBuilder {
                     // Meta
                     String value = handle.getValue(row, col);
                     String attribute = handle.getAttributeName(col);
-                    DataType<?> type = handle.getDataType(attribute);
                     
                     // Analyze
                     if (!DataType.isAny(value) && !DataType.isNull(value)) {
                         ordinal.get(attribute).addValue(value);
-                        if (type instanceof DataTypeWithRatioScale) {
-                            double doubleValue = ((DataTypeWithRatioScale) type).toDouble(type.parse(value));
+                        if (caches[col] != null) {
+                            double doubleValue = caches[col].parseDouble(value);
                             statistics.get(attribute).addValue(doubleValue);
                             geomean.get(attribute).increment(doubleValue + 1d);
                         }
@@ -1000,6 +1009,17 @@ public class StatisticsBuilder {
         }
     }
     
+    /**
+     * Creates a cache for values of the given type.
+     *
+     * @param type
+     * @param capacity
+     * @return
+     */
+    private <U> DataTypeCache<U> createCache(DataType<U> type, int capacity) {
+        return new DataTypeCache<U>(type, capacity);
+    }
+    
     /**
      * Orders the given array by data type.
      *
@@ -1007,6 +1027,9 @@ public class StatisticsBuilder {
      * @param type
      */
     private void sort(final String[] array, final DataType<?> type) {
+        
+        // Each value is parsed only once
+        final DataTypeCache<?> cache = createCache(type, array.length);
         GenericSorting.mergeSort(0, array.length, new IntComparator() {
             
             @Override
@@ -1018,7 +1041,7 @@ public class StatisticsBuilder {
                     return (s1 == DataType.ANY_VALUE && s2 == DataType.ANY_VALUE) ? 0
                             : (s1 == DataType.ANY_VALUE ? +1
                                     : (s2 == DataType.ANY_VALUE ? -1
-                                            : type.compare(s1, s2)));
+                                            : cache.compare(s1, s2)));
                 } catch (
                         IllegalArgumentException
                         | ParseException e) {
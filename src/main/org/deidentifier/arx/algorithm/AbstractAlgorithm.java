@@ -18,6 +18,8 @@
 package org.deidentifier.arx.algorithm;
 
 import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXProgress;
+import org.deidentifier.arx.ARXProgressListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -49,6 +51,18 @@ public abstract class AbstractAlgorithm {
     /** The lattice. */
     protected SolutionSpace    solutionSpace          = null;
 
+    /** Point in time (wall clock) at which the search is stopped */
+    private long               deadline               = Long.MAX_VALUE;
+
+    /** Has the search been stopped before it was completed */
+    private boolean            stopped                = false;
+
+    /** Is the search stopped when the executing thread is interrupted */
+    private boolean            interruptible          = false;
+
+    /** Point in time (wall clock) at which the search has been started */
+    private final long         start                  = System.currentTimeMillis();
+
     /**
      * Walks the lattice.
      * 
@@ -70,6 +84,48 @@ public abstract class AbstractAlgorithm {
         return globalOptimum;
     }
 
+    /**
+     * Returns an upper bound for the relative difference between the information loss of the
+     * global optimum found and the information loss of an optimal solution. Returns
+     * <code>Double.NaN</code>, if the algorithm does not provide such a bound.
+     * 
+     * @return
+     */
+    public double getOptimalityGap() {
+        return Double.NaN;
+    }
+
+    /**
+     * Returns whether the search has been stopped before it was completed, either 
+     * because the deadline has passed or because the executing thread has been interrupted
+     * while the search was interruptible.
+     * 
+     * @return
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Sets a deadline (wall clock) after which the search will be stopped. The best
+     * solution found so far will be retained.
+     * 
+     * @param deadline
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Sets whether the search is stopped when the executing thread is interrupted.
+     * Disabled by default.
+     * 
+     * @param interruptible
+     */
+    public void setInterruptible(boolean interruptible) {
+        this.interruptible = interruptible;
+    }
+
     /**
      * Sets a listener
      * @param listener
@@ -105,12 +161,32 @@ public abstract class AbstractAlgorithm {
         }
     }
 
+    /**
+     * Returns whether the search should be stopped. This is the case if the deadline has
+     * passed or if the executing thread has been interrupted while the search is interruptible.
+     * 
+     * @return
+     */
+    protected boolean isStopRequested() {
+        if (!stopped && ((interruptible && Thread.currentThread().isInterrupted()) || 
+                         (deadline != Long.MAX_VALUE && System.currentTimeMillis() > deadline))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
     /**
      * Propagate progress to listeners
      * @param progress
      */
     protected void progress(double progress) {
-        if (this.listener != null) {
+        if (this.listener instanceof ARXProgressListener) {
+            ((ARXProgressListener) this.listener).progress(new ARXProgress(progress,
+                                                                           System.currentTimeMillis() - start,
+                                                                           globalOptimum == null ? null : globalOptimum.getGeneralization(),
+                                                                           optimalInformationLoss,
+                                                                           stopped));
+        } else if (this.listener != null) {
             this.listener.progress(progress);
         }
     }
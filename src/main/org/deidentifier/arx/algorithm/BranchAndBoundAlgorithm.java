@@ -0,0 +1,500 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+import cern.colt.list.LongArrayList;
+
+/**
+ * A parallel best-first branch-and-bound algorithm for solution spaces which are too large
+ * to be searched with FLASH. Transformations are pruned together with all of their successors,
+ * if their lower bound is not less than the information loss of the best solution found so far.
+ * The search terminates when the relative gap between the information loss of the best solution
+ * and the smallest lower bound of all open transformations falls below a given threshold.<br>
+ * <br>
+ * Each worker uses its own node checker and maintains a queue of open transformations, which is
+ * ordered by lower bounds. Workers continue with transformations which they have generated
+ * themselves, to benefit from the history of their node checker, and steal the most promising
+ * transformation from another worker if their queue is empty. Starting from transformations that
+ * are not anonymous, workers dive towards the top of the lattice to find solutions early on.
+ *
+ * @author Fabian Prasser
+ */
+public class BranchAndBoundAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * An open transformation
+     *
+     * @author Fabian Prasser
+     */
+    private static class Candidate {
+
+        /** The identifier */
+        private final long               identifier;
+
+        /** Lower bound for the information loss of the transformation and its successors */
+        private final InformationLoss<?> bound;
+
+        /** The level */
+        private final int                level;
+
+        /**
+         * Creates a new instance
+         * @param identifier
+         * @param bound
+         * @param level
+         */
+        private Candidate(long identifier, InformationLoss<?> bound, int level) {
+            this.identifier = identifier;
+            this.bound = bound;
+            this.level = level;
+        }
+    }
+
+    /**
+     * A worker
+     *
+     * @author Fabian Prasser
+     */
+    private class Worker implements Runnable {
+
+        /** The checker used by this worker */
+        private final NodeChecker              checker;
+
+        /** The open transformations generated by this worker */
+        private final PriorityQueue<Candidate> queue   = new PriorityQueue<Candidate>(11, COMPARATOR);
+
+        /** The transformation which is currently being processed */
+        private Candidate                      current = null;
+
+        /**
+         * Creates a new instance
+         * @param checker
+         */
+        private Worker(NodeChecker checker) {
+            this.checker = checker;
+        }
+
+        @Override
+        public void run() {
+            try {
+                search(this);
+            } catch (Throwable throwable) {
+                synchronized (lock) {
+                    if (failure == null) {
+                        failure = throwable;
+                    }
+                    terminated = true;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Orders candidates by lower bounds. Ties are broken towards higher levels. */
+    private static final Comparator<Candidate> COMPARATOR = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate o1, Candidate o2) {
+            int cmp = o1.bound.compareTo(o2.bound);
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Integer.compare(o2.level, o1.level);
+            return cmp != 0 ? cmp : Long.compare(o1.identifier, o2.identifier);
+        }
+    };
+
+    /** Maximal time to wait for open transformations, in milliseconds */
+    private static final long                  WAIT       = 10L;
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checkers One checker per worker. The first checker is used by the calling thread.
+     * @param gap The relative optimality gap at which the search is terminated
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker[] checkers,
+                                           double gap) {
+        return new BranchAndBoundAlgorithm(solutionSpace, checkers, gap);
+    }
+
+    /** The workers */
+    private final Worker[]                     workers;
+
+    /** Threshold for the optimality gap */
+    private final double                       threshold;
+
+    /** Identifiers of transformations which have been discovered */
+    private final Set<Long>                    discovered;
+
+    /** The lowest possible information loss */
+    private final InformationLoss<?>           lowestScore;
+
+    /** Is the quality model monotonic */
+    private final boolean                      monotonic;
+
+    /** Guards the queues, the counter and the state of the search */
+    private final Object                       lock       = new Object();
+
+    /** The number of open transformations */
+    private int                                open       = 0;
+
+    /** Has the search been terminated */
+    private volatile boolean                   terminated = false;
+
+    /** A failure of a worker, if any */
+    private Throwable                          failure    = null;
+
+    /** The current optimality gap */
+    private volatile double                    gap        = 1d;
+
+    /** The information loss of the global optimum */
+    private volatile InformationLoss<?>        optimum    = null;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checkers
+     * @param gap
+     */
+    private BranchAndBoundAlgorithm(SolutionSpace space, NodeChecker[] checkers, double gap) {
+        super(space, checkers[0]);
+        if (gap < 0d || gap > 1d) {
+            throw new IllegalArgumentException("Invalid optimality gap. Must be >= 0 and <= 1.");
+        }
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.workers = new Worker[checkers.length];
+        for (int i = 0; i < checkers.length; i++) {
+            checkers[i].getHistory().setStorageStrategy(StorageStrategy.ALL);
+            this.workers[i] = new Worker(checkers[i]);
+        }
+        this.threshold = gap;
+        this.discovered = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        this.lowestScore = checker.getMetric().createInstanceOfLowestScore();
+        this.monotonic = checker.getMetric().isMonotonic(checker.getConfiguration().getMaxOutliers());
+    }
+
+    @Override
+    public synchronized Transformation getGlobalOptimum() {
+        return super.getGlobalOptimum();
+    }
+
+    @Override
+    public double getOptimalityGap() {
+        return gap;
+    }
+
+    @Override
+    public void traverse() {
+
+        // Initialize
+        Transformation bottom = solutionSpace.getBottom();
+        discovered.add(bottom.getIdentifier());
+        workers[0].queue.add(new Candidate(bottom.getIdentifier(),
+                                           max(lowestScore, checker.getMetric().getLowerBound(bottom)),
+                                           bottom.getLevel()));
+        open = 1;
+
+        // Start further workers
+        Thread[] threads = new Thread[workers.length - 1];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(workers[i + 1], "BranchAndBoundWorker-" + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        // Participate and wait for the other workers
+        try {
+            search(workers[0]);
+        } finally {
+            synchronized (lock) {
+                terminated = true;
+                lock.notifyAll();
+            }
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            for (int i = 1; i < workers.length; i++) {
+                workers[i].checker.getHistory().reset();
+                workers[i].checker.getHistory().setSize(0);
+            }
+        }
+
+        // Propagate failures
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        progress(1d - gap);
+    }
+
+    @Override
+    protected synchronized void trackOptimum(Transformation transformation) {
+        super.trackOptimum(transformation);
+        Transformation optimum = super.getGlobalOptimum();
+        this.optimum = optimum != null ? optimum.getInformationLoss() : null;
+    }
+
+    /**
+     * Checks the given candidate and generates its successors. Returns the successor with
+     * which the worker should continue, if any.
+     *
+     * @param worker
+     * @param candidate
+     * @return
+     */
+    private Candidate expand(Worker worker, Candidate candidate) {
+
+        List<Candidate> successors = new ArrayList<Candidate>();
+        Candidate next = null;
+        InformationLoss<?> bound = candidate.bound;
+
+        // Check, if not pruned
+        if (!isPrunable(bound)) {
+            Transformation transformation = solutionSpace.getTransformation(candidate.identifier);
+            transformation.setChecked(worker.checker.check(transformation));
+            trackOptimum(transformation);
+            bound = max(bound, transformation.getLowerBound());
+            
+            // For monotonic models, the information loss is a lower bound as well
+            if (monotonic) {
+                bound = max(bound, transformation.getInformationLoss());
+            }
+
+            // Generate successors, if not pruned
+            if (!isPrunable(bound)) {
+                LongArrayList list = transformation.getSuccessors();
+                for (int i = 0; i < list.size(); i++) {
+                    long id = list.getQuick(i);
+                    if (discovered.add(id)) {
+                        Transformation successor = solutionSpace.getTransformation(id);
+                        InformationLoss<?> successorBound = max(bound, worker.checker.getMetric().getLowerBound(successor));
+                        if (isPrunable(successorBound)) {
+                            worker.checker.getStatistics().recordPruned();
+                        } else {
+                            successors.add(new Candidate(id, successorBound, successor.getLevel()));
+                        }
+                    }
+                }
+
+                // Dive, if the transformation is not anonymous
+                if (!transformation.hasProperty(solutionSpace.getPropertyAnonymous()) && !successors.isEmpty()) {
+                    next = Collections.min(successors, COMPARATOR);
+                    successors.remove(next);
+                }
+            } else {
+                worker.checker.getStatistics().recordPruned();
+            }
+        } else {
+            worker.checker.getStatistics().recordPruned();
+        }
+
+        // Publish successors and update state
+        double gap;
+        synchronized (lock) {
+            worker.queue.addAll(successors);
+            open += successors.size() - (next == null ? 1 : 0);
+            worker.current = next;
+            this.gap = getGap();
+            if (this.gap <= threshold) {
+                terminated = true;
+            }
+            if (!successors.isEmpty() || terminated) {
+                lock.notifyAll();
+            }
+            gap = this.gap;
+        }
+
+        // Report progress and check for termination
+        if (worker == workers[0]) {
+            progress(1d - gap);
+            if (isStopRequested()) {
+                synchronized (lock) {
+                    terminated = true;
+                    lock.notifyAll();
+                }
+            }
+        }
+        return terminated ? null : next;
+    }
+
+    /**
+     * Returns the current optimality gap. Must be called while holding the lock.
+     *
+     * @return
+     */
+    private double getGap() {
+
+        // Nothing found, yet
+        InformationLoss<?> optimum = this.optimum;
+        if (optimum == null) {
+            return open == 0 ? 0d : 1d;
+        }
+
+        // Smallest lower bound of all open transformations
+        InformationLoss<?> bound = null;
+        for (Worker worker : workers) {
+            bound = min(bound, worker.current);
+            bound = min(bound, worker.queue.peek());
+        }
+
+        // Relative gap
+        if (bound == null || bound.compareTo(optimum) >= 0 || optimum.compareTo(lowestScore) <= 0) {
+            return 0d;
+        }
+        double gap = 1d - bound.relativeTo(lowestScore, optimum);
+        return gap < 0d ? 0d : (gap > 1d ? 1d : gap);
+    }
+
+    /**
+     * Returns whether a transformation with the given lower bound and all of its successors
+     * can be pruned.
+     *
+     * @param bound
+     * @return
+     */
+    private boolean isPrunable(InformationLoss<?> bound) {
+        InformationLoss<?> optimum = this.optimum;
+        return optimum != null && bound.compareTo(optimum) >= 0;
+    }
+
+    /**
+     * Returns the larger bound
+     *
+     * @param bound
+     * @param other May be null
+     * @return
+     */
+    private InformationLoss<?> max(InformationLoss<?> bound, InformationLoss<?> other) {
+        return other != null && other.compareTo(bound) > 0 ? other : bound;
+    }
+
+    /**
+     * Returns the smaller bound
+     *
+     * @param bound May be null
+     * @param candidate May be null
+     * @return
+     */
+    private InformationLoss<?> min(InformationLoss<?> bound, Candidate candidate) {
+        if (candidate == null) {
+            return bound;
+        }
+        return bound == null || candidate.bound.compareTo(bound) < 0 ? candidate.bound : bound;
+    }
+
+    /**
+     * Returns the next candidate for the given worker. Returns null if the search has been terminated.
+     *
+     * @param worker
+     * @return
+     */
+    private Candidate next(Worker worker) {
+        synchronized (lock) {
+            while (!terminated) {
+
+                // Take from own queue or steal
+                Candidate candidate = worker.queue.poll();
+                if (candidate == null) {
+                    candidate = steal(worker);
+                }
+                if (candidate != null) {
+                    worker.current = candidate;
+                    return candidate;
+                }
+
+                // Done or stopped
+                if (open == 0) {
+                    gap = getGap();
+                    terminated = true;
+                    lock.notifyAll();
+                } else if (worker == workers[0] && isStopRequested()) {
+                    terminated = true;
+                    lock.notifyAll();
+                } else {
+                    try {
+                        lock.wait(WAIT);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Executes the given worker until the search is terminated
+     *
+     * @param worker
+     */
+    private void search(Worker worker) {
+        Candidate candidate = next(worker);
+        while (candidate != null) {
+            candidate = expand(worker, candidate);
+            if (candidate == null) {
+                candidate = next(worker);
+            }
+        }
+    }
+
+    /**
+     * Steals the most promising candidate from another worker. Must be called while holding the lock.
+     *
+     * @param thief
+     * @return
+     */
+    private Candidate steal(Worker thief) {
+        Worker victim = null;
+        for (Worker worker : workers) {
+            if (worker != thief && !worker.queue.isEmpty() &&
+                (victim == null || COMPARATOR.compare(worker.queue.peek(), victim.queue.peek()) < 0)) {
+                victim = worker;
+            }
+        }
+        return victim != null ? victim.queue.poll() : null;
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.deidentifier.arx.common.SharedThreadPool;
+import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
+/**
+ * Data-dependent search for (e,d)-differential privacy. A generalization scheme is selected
+ * from all transformations in the solution space with the exponential mechanism. The score
+ * of a transformation is based on the sample drawn by (k,b)-SDGS:<br>
+ * <br>
+ * score(T) = - ( |S| + sum_{r not in S} g(T) )<br>
+ * <br>
+ * where S is the set of records in classes with less than k records and g(T) is the normalized
+ * generalization degree of T, i.e. the granularity of non-suppressed records. Adding or removing
+ * one record changes the score by at most k, which determines the sensitivity. Scores are computed
+ * in parallel and independently of the node checker, which only evaluates the selected transformation.
+ *
+ * @author Fabian Prasser
+ */
+public class DPSearchAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param manager
+     * @param criterion
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           DataManager manager,
+                                           EDDifferentialPrivacy criterion) {
+        return new DPSearchAlgorithm(solutionSpace, checker, manager, criterion);
+    }
+
+    /** The criterion */
+    private final EDDifferentialPrivacy criterion;
+
+    /** The data, i.e. the distinct sampled rows of the generalized data */
+    private final int[][]               data;
+
+    /** The number of sampled rows represented by each distinct row */
+    private final int[]                 counts;
+
+    /** The number of sampled rows */
+    private final int                   size;
+
+    /** The hierarchies */
+    private final int[][][]             hierarchies;
+
+    /** Heights of the hierarchies */
+    private final int[]                 heights;
+
+    /** Bits required per dimension for packing generalized values */
+    private final int[]                 bits;
+
+    /** Can tuples be packed into a single long */
+    private final boolean               packed;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param manager
+     * @param criterion
+     */
+    private DPSearchAlgorithm(SolutionSpace space, NodeChecker checker, DataManager manager, EDDifferentialPrivacy criterion) {
+        super(space, checker);
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.criterion = criterion;
+
+        // Extract the sample
+        int[][] data = manager.getDataGeneralized().getArray();
+        int[] rows = criterion.getDataSubset().getArray();
+        int[][] sample = new int[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            sample[i] = data[rows[i]];
+        }
+        
+        // Collapse duplicates, which are not distinguishable by any transformation
+        Arrays.sort(sample, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                for (int i = 0; i < o1.length; i++) {
+                    if (o1[i] != o2[i]) {
+                        return o1[i] < o2[i] ? -1 : +1;
+                    }
+                }
+                return 0;
+            }
+        });
+        List<int[]> distinct = new ArrayList<int[]>();
+        IntArrayList counts = new IntArrayList();
+        for (int i = 0; i < sample.length; i++) {
+            if (i == 0 || !Arrays.equals(sample[i], sample[i - 1])) {
+                distinct.add(sample[i]);
+                counts.add(1);
+            } else {
+                counts.set(counts.size() - 1, counts.get(counts.size() - 1) + 1);
+            }
+        }
+        this.data = distinct.toArray(new int[distinct.size()][]);
+        this.counts = counts.toArray();
+        this.size = sample.length;
+
+        // Prepare hierarchies and packing
+        GeneralizationHierarchy[] hierarchies = manager.getHierarchies();
+        this.hierarchies = new int[hierarchies.length][][];
+        this.heights = new int[hierarchies.length];
+        this.bits = new int[hierarchies.length];
+        int total = 0;
+        for (int dimension = 0; dimension < hierarchies.length; dimension++) {
+            this.hierarchies[dimension] = hierarchies[dimension].getArray();
+            this.heights[dimension] = hierarchies[dimension].getHeight();
+            int max = 0;
+            for (int[] values : this.hierarchies[dimension]) {
+                for (int value : values) {
+                    max = Math.max(max, value);
+                }
+            }
+            this.bits[dimension] = 32 - Integer.numberOfLeadingZeros(max);
+            total += this.bits[dimension];
+        }
+        this.packed = total <= 63;
+    }
+
+    @Override
+    public void traverse() {
+
+        // Check size
+        long size = solutionSpace.getSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Solution space is too large for a data-dependent search");
+        }
+
+        // Score all transformations
+        double[] scores = score((int) size);
+        if (scores == null) {
+            return;
+        }
+        progress(0.9d);
+
+        // Select and evaluate
+        Transformation transformation = solutionSpace.getTransformation(select(scores));
+        transformation.setChecked(checker.check(transformation, true));
+        trackOptimum(transformation);
+        progress(1d);
+    }
+
+    /**
+     * Returns the score of the given transformation
+     * @param generalization
+     * @return
+     */
+    private double getScore(int[] generalization) {
+
+        // Normalized generalization degree
+        double degree = 0d;
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            if (heights[dimension] > 1) {
+                degree += (double) generalization[dimension] / (double) (heights[dimension] - 1);
+            }
+        }
+        degree /= (double) generalization.length;
+
+        // Count suppressed records
+        int k = criterion.getK();
+        int suppressed = 0;
+        if (packed) {
+
+            // Group with packed keys
+            LongIntOpenHashMap groups = new LongIntOpenHashMap();
+            for (int i = 0; i < data.length; i++) {
+                long key = 0;
+                for (int dimension = 0; dimension < generalization.length; dimension++) {
+                    key = (key << bits[dimension]) | hierarchies[dimension][data[i][dimension]][generalization[dimension]];
+                }
+                groups.putOrAdd(key, counts[i], counts[i]);
+            }
+            suppressed = getSuppressed(groups, k);
+        } else {
+
+            // Group by re-encoding dimension by dimension
+            int[] keys = new int[data.length];
+            LongIntOpenHashMap groups = null;
+            for (int dimension = 0; dimension < generalization.length; dimension++) {
+                groups = new LongIntOpenHashMap();
+                for (int i = 0; i < data.length; i++) {
+                    long key = ((long) keys[i] << 32) | hierarchies[dimension][data[i][dimension]][generalization[dimension]];
+                    if (groups.putIfAbsent(key, groups.size())) {
+                        keys[i] = groups.size() - 1;
+                    } else {
+                        keys[i] = groups.lget();
+                    }
+                }
+            }
+            groups = new LongIntOpenHashMap();
+            for (int i = 0; i < keys.length; i++) {
+                groups.putOrAdd(keys[i], counts[i], counts[i]);
+            }
+            suppressed = getSuppressed(groups, k);
+        }
+
+        // Return
+        return - ((double) suppressed + (double) (size - suppressed) * degree);
+    }
+
+    /**
+     * Returns the number of records in classes with less than k records
+     * @param groups
+     * @param k
+     * @return
+     */
+    private int getSuppressed(LongIntOpenHashMap groups, int k) {
+        int suppressed = 0;
+        final int[] values = groups.values;
+        final boolean[] allocated = groups.allocated;
+        for (int i = 0; i < allocated.length; i++) {
+            if (allocated[i] && values[i] < k) {
+                suppressed += values[i];
+            }
+        }
+        return suppressed;
+    }
+
+    /**
+     * Scores all transformations in parallel. Returns null, if the search has been stopped.
+     * @param size
+     * @return
+     */
+    private double[] score(final int size) {
+
+        final double[] scores = new double[size];
+        final int threads = Math.max(1, Math.min(size, Runtime.getRuntime().availableProcessors()));
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        try {
+
+            // Submit
+            for (int thread = 0; thread < threads; thread++) {
+                final int offset = thread;
+                futures.add(SharedThreadPool.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int id = offset; id < size; id += threads) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                return false;
+                            }
+                            // Decoding identifiers does not modify the solution space
+                            scores[id] = getScore(solutionSpace.getTransformation((long) id).getGeneralization());
+                        }
+                        return true;
+                    }
+                }));
+            }
+
+            // Wait
+            for (Future<Boolean> future : futures) {
+                while (true) {
+                    if (isStopRequested()) {
+                        return null;
+                    }
+                    try {
+                        future.get(100, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        // Check again
+                    }
+                }
+            }
+            return scores;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            isStopRequested();
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            for (Future<Boolean> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Selects an identifier using the exponential mechanism
+     * @param scores
+     * @return
+     */
+    private long select(double[] scores) {
+
+        // Prepare
+        Random random = criterion.isDeterministic() ? new Random(0xDEADBEEF) : new SecureRandom();
+        double factor = criterion.getEpsilonSearch() / (2d * (double) criterion.getK());
+        double max = -Double.MAX_VALUE;
+        for (double score : scores) {
+            max = Math.max(max, score);
+        }
+
+        // Compute weights, shifted by the maximum for numerical stability
+        double[] weights = new double[scores.length];
+        double sum = 0d;
+        for (int i = 0; i < scores.length; i++) {
+            weights[i] = Math.exp(factor * (scores[i] - max));
+            sum += weights[i];
+        }
+
+        // Draw
+        double value = random.nextDouble() * sum;
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0d) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
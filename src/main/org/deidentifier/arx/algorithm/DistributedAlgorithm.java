@@ -0,0 +1,576 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration.Monotonicity;
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.ParetoFrontier;
+import org.deidentifier.arx.framework.check.ParetoFrontier.Point;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * An algorithm which distributes the search among local worker processes. The solution space is
+ * partitioned into sub-lattices along the quasi-identifier with the most generalization levels.
+ * Each sub-lattice is searched by a worker with the FLASH algorithm. The classifications returned
+ * by the workers are merged into the solution space and the global optimum is determined. As the
+ * information loss of transformations is computed by all workers relative to the complete solution
+ * space, it can be compared across sub-lattices. The deadline is enforced by the workers, which
+ * return the classification of the part of their sub-lattice searched so far. If the search is
+ * interrupted, the workers are terminated.
+ *
+ * @author Fabian Prasser
+ */
+public class DistributedAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * The classification of a sub-lattice, which is returned by a worker.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Fragment implements Serializable {
+
+        /** SVUID */
+        private static final long    serialVersionUID     = 3297415468214839526L;
+
+        /** Property flag */
+        static final int             CHECKED              = 1 << 0;
+
+        /** Property flag */
+        static final int             ANONYMOUS            = 1 << 1;
+
+        /** Property flag */
+        static final int             NOT_ANONYMOUS        = 1 << 2;
+
+        /** Property flag */
+        static final int             K_ANONYMOUS          = 1 << 3;
+
+        /** Property flag */
+        static final int             NOT_K_ANONYMOUS      = 1 << 4;
+
+        /** Property flag */
+        static final int             INSUFFICIENT_UTILITY = 1 << 5;
+
+        /** The quasi-identifiers, in the order of the transformations */
+        final String[]               header;
+
+        /** The transformations */
+        final int[][]                transformations;
+
+        /** The properties of the transformations */
+        final int[]                  properties;
+
+        /** The information loss of the transformations, if any */
+        final InformationLoss<?>[]   informationLoss;
+
+        /** The lower bounds of the transformations, if any */
+        final InformationLoss<?>[]   lowerBounds;
+
+        /** The transformations on the Pareto frontier, if it has been collected */
+        final int[][]                frontierTransformations;
+
+        /** The information loss of the transformations on the frontier */
+        final InformationLoss<?>[]   frontierInformationLoss;
+
+        /** The average risks of the transformations on the frontier */
+        final double[]               frontierAverageRisks;
+
+        /** The highest risks of the transformations on the frontier */
+        final double[]               frontierHighestRisks;
+
+        /** Has the search been stopped before it was completed */
+        final boolean                stopped;
+
+        /** The error, if any */
+        final String                 error;
+
+        /**
+         * Creates a fragment from the result of searching a sub-lattice
+         * @param solutionSpace
+         * @param manager
+         * @param checker
+         * @param algorithm
+         */
+        public Fragment(SolutionSpace solutionSpace,
+                        DataManager manager,
+                        NodeChecker checker,
+                        AbstractAlgorithm algorithm) {
+
+            // Collect transformations which carry information
+            List<Transformation> list = new ArrayList<Transformation>();
+            for (LongIterator iterator = solutionSpace.getMaterializedTransformations(); iterator.hasNext();) {
+                list.add(solutionSpace.getTransformation(iterator.next()));
+            }
+            list.add(solutionSpace.getBottom());
+            list.add(solutionSpace.getTop());
+
+            // Store
+            this.header = manager.getDataGeneralized().getHeader();
+            this.transformations = new int[list.size()][];
+            this.properties = new int[list.size()];
+            this.informationLoss = new InformationLoss<?>[list.size()];
+            this.lowerBounds = new InformationLoss<?>[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                Transformation transformation = list.get(i);
+                this.transformations[i] = transformation.getGeneralization();
+                this.properties[i] = getProperties(solutionSpace, transformation);
+                this.informationLoss[i] = transformation.getInformationLoss();
+                this.lowerBounds[i] = transformation.getLowerBound();
+            }
+
+            // Frontier
+            ParetoFrontier frontier = checker.getParetoFrontier();
+            if (frontier != null) {
+                List<Point> points = frontier.getPoints();
+                this.frontierTransformations = new int[points.size()][];
+                this.frontierInformationLoss = new InformationLoss<?>[points.size()];
+                this.frontierAverageRisks = new double[points.size()];
+                this.frontierHighestRisks = new double[points.size()];
+                for (int i = 0; i < points.size(); i++) {
+                    Point point = points.get(i);
+                    this.frontierTransformations[i] = solutionSpace.getTransformation(point.identifier).getGeneralization();
+                    this.frontierInformationLoss[i] = point.informationLoss;
+                    this.frontierAverageRisks[i] = point.averageRisk;
+                    this.frontierHighestRisks[i] = point.highestRisk;
+                }
+            } else {
+                this.frontierTransformations = null;
+                this.frontierInformationLoss = null;
+                this.frontierAverageRisks = null;
+                this.frontierHighestRisks = null;
+            }
+            this.stopped = algorithm.isStopped();
+            this.error = null;
+        }
+
+        /**
+         * Creates a fragment representing an error
+         * @param error The error message, including the stack trace
+         */
+        public Fragment(String error) {
+            this.header = null;
+            this.transformations = null;
+            this.properties = null;
+            this.informationLoss = null;
+            this.lowerBounds = null;
+            this.frontierTransformations = null;
+            this.frontierInformationLoss = null;
+            this.frontierAverageRisks = null;
+            this.frontierHighestRisks = null;
+            this.stopped = true;
+            this.error = error;
+        }
+
+        /**
+         * Returns the property flags of the given transformation
+         * @param solutionSpace
+         * @param transformation
+         * @return
+         */
+        private int getProperties(SolutionSpace solutionSpace, Transformation transformation) {
+            int result = 0;
+            result |= transformation.hasProperty(solutionSpace.getPropertyChecked()) ? CHECKED : 0;
+            result |= transformation.hasProperty(solutionSpace.getPropertyAnonymous()) ? ANONYMOUS : 0;
+            result |= transformation.hasProperty(solutionSpace.getPropertyNotAnonymous()) ? NOT_ANONYMOUS : 0;
+            result |= transformation.hasProperty(solutionSpace.getPropertyKAnonymous()) ? K_ANONYMOUS : 0;
+            result |= transformation.hasProperty(solutionSpace.getPropertyNotKAnonymous()) ? NOT_K_ANONYMOUS : 0;
+            result |= transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility()) ? INSUFFICIENT_UTILITY : 0;
+            return result;
+        }
+    }
+
+    /**
+     * Provides the input, the jobs and the command lines of worker processes. A worker process
+     * connects to the port given on its command line, sends the token read from its standard
+     * input, receives a job and returns a fragment.
+     *
+     * @author Fabian Prasser
+     */
+    public static interface Workers {
+
+        /**
+         * Creates a job for searching a sub-lattice
+         * @param file The file containing the input
+         * @param deadline
+         * @param attribute The attribute along which the solution space is partitioned
+         * @param minLevel The minimal generalization level of the attribute in the sub-lattice
+         * @param maxLevel The maximal generalization level of the attribute in the sub-lattice
+         * @return
+         */
+        public Serializable createJob(File file, long deadline, String attribute, int minLevel, int maxLevel);
+
+        /**
+         * Returns the command line of a worker process
+         * @param port
+         * @return
+         */
+        public List<String> getCommand(int port);
+
+        /**
+         * Returns the maximal number of worker processes
+         * @return
+         */
+        public int getNumberOfProcesses();
+
+        /**
+         * Writes the input to the given stream
+         * @param stream
+         * @throws IOException
+         */
+        public void writeInput(OutputStream stream) throws IOException;
+    }
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param manager
+     * @param workers
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           DataManager manager,
+                                           Workers workers) {
+        return new DistributedAlgorithm(solutionSpace, checker, manager, workers);
+    }
+
+    /** Time to wait for workers to connect, in milliseconds */
+    private static final int       CONNECT_TIMEOUT = 60000;
+
+    /** Interval in which requests to stop the search are checked, in milliseconds */
+    private static final int       POLL_INTERVAL   = 100;
+
+    /** The data manager */
+    private final DataManager      manager;
+
+    /** The workers */
+    private final Workers          workers;
+
+    /** Point in time (wall clock) after which the search is stopped */
+    private long                   deadline        = Long.MAX_VALUE;
+
+    /** Has the search of any worker been stopped before it was completed */
+    private boolean                stopped         = false;
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param manager
+     * @param workers
+     */
+    private DistributedAlgorithm(SolutionSpace solutionSpace,
+                                 NodeChecker checker,
+                                 DataManager manager,
+                                 Workers workers) {
+        super(solutionSpace, checker);
+        this.solutionSpace.setAnonymityPropertyPredictable(checker.getConfiguration().getMonotonicityOfPrivacy() == Monotonicity.FULL);
+        this.manager = manager;
+        this.workers = workers;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopped || super.isStopped();
+    }
+
+    @Override
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void traverse() {
+
+        // Partition along the attribute with the most levels
+        int[] min = solutionSpace.getBottom().getGeneralization();
+        int[] max = solutionSpace.getTop().getGeneralization();
+        int dimension = 0;
+        for (int i = 1; i < min.length; i++) {
+            if (max[i] - min[i] > max[dimension] - min[dimension]) {
+                dimension = i;
+            }
+        }
+        String attribute = manager.getDataGeneralized().getHeader()[dimension];
+        int levels = max[dimension] - min[dimension] + 1;
+        int partitions = Math.min(workers.getNumberOfProcesses(), levels);
+
+        File file = null;
+        ServerSocket server = null;
+        List<Process> processes = new ArrayList<Process>();
+        List<Socket> sockets = new ArrayList<Socket>();
+        try {
+
+            // Write input
+            file = File.createTempFile("arx-data-", ".bin");
+            OutputStream stream = new FileOutputStream(file);
+            try {
+                workers.writeInput(stream);
+            } finally {
+                stream.close();
+            }
+
+            // Launch workers
+            server = new ServerSocket(0, partitions, InetAddress.getLoopbackAddress());
+            server.setSoTimeout(POLL_INTERVAL);
+            String token = new BigInteger(130, new SecureRandom()).toString(32);
+            for (int i = 0; i < partitions; i++) {
+                processes.add(launch(server.getLocalPort(), token));
+            }
+
+            // Send jobs to authenticated workers. The token is checked before any object is read.
+            List<InputStream> streams = new ArrayList<InputStream>();
+            List<ObjectInputStream> inputs = new ArrayList<ObjectInputStream>();
+            long timeout = System.currentTimeMillis() + CONNECT_TIMEOUT;
+            for (int i = 0; i < partitions; i++) {
+                Socket socket = accept(server, timeout);
+                if (socket == null) {
+                    return;
+                }
+                sockets.add(socket);
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                if (!authenticate(socket, in, token)) {
+                    sockets.remove(socket);
+                    socket.close();
+                    i--;
+                    continue;
+                }
+                ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                output.writeObject(workers.createJob(file,
+                                                     deadline,
+                                                     attribute,
+                                                     min[dimension] + i * levels / partitions,
+                                                     min[dimension] + (i + 1) * levels / partitions - 1));
+                output.flush();
+                streams.add(in);
+                inputs.add(new ObjectInputStream(in));
+            }
+
+            // Collect and merge results
+            List<Fragment> fragments = new ArrayList<Fragment>();
+            for (int i = 0; i < partitions && await(sockets.get(i), streams.get(i)); i++) {
+                Fragment fragment = (Fragment) inputs.get(i).readObject();
+                if (fragment.error != null) {
+                    throw new RuntimeException("Error in worker process: " + fragment.error);
+                }
+                if (!Arrays.equals(fragment.header, manager.getDataGeneralized().getHeader())) {
+                    throw new IllegalStateException("Inconsistent encoding in worker process");
+                }
+                merge(fragment);
+                fragments.add(fragment);
+                progress((double) (i + 1) / (double) partitions);
+            }
+
+            // Determine optimum
+            for (Fragment fragment : fragments) {
+                for (int i = 0; i < fragment.transformations.length; i++) {
+                    if (fragment.informationLoss[i] != null) {
+                        trackOptimum(solutionSpace.getTransformation(fragment.transformations[i]));
+                    }
+                }
+                stopped |= fragment.stopped;
+            }
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error communicating with worker processes", e);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Error communicating with worker processes", e);
+        } finally {
+            for (Socket socket : sockets) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+            if (server != null) {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+            for (Process process : processes) {
+                process.destroy();
+            }
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Accepts a connection. Returns null if the search has been stopped before.
+     * @param server
+     * @param timeout
+     * @return
+     * @throws IOException
+     */
+    private Socket accept(ServerSocket server, long timeout) throws IOException {
+        while (!isStopRequested()) {
+            try {
+                return server.accept();
+            } catch (SocketTimeoutException e) {
+                if (System.currentTimeMillis() > timeout) {
+                    throw new IOException("Worker process did not connect");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits until data is available on the given socket. Returns false if the search has
+     * been stopped before.
+     * @param socket
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private boolean await(Socket socket, InputStream in) throws IOException {
+        socket.setSoTimeout(POLL_INTERVAL);
+        while (!isStopRequested()) {
+            in.mark(1);
+            try {
+                if (in.read() == -1) {
+                    throw new EOFException("Worker process terminated unexpectedly");
+                }
+                in.reset();
+                socket.setSoTimeout(0);
+                return true;
+            } catch (SocketTimeoutException e) {
+                // Check again
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the token from the given connection and compares it to the expected token in
+     * constant time
+     * @param socket
+     * @param in
+     * @param token
+     * @return
+     */
+    private boolean authenticate(Socket socket, InputStream in, String token) {
+        try {
+            socket.setSoTimeout(CONNECT_TIMEOUT);
+            String other = new DataInputStream(in).readUTF();
+            return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), other.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Launches a worker process
+     * @param port
+     * @param token
+     * @return
+     * @throws IOException
+     */
+    private Process launch(int port, String token) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(workers.getCommand(port));
+        builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        Writer writer = new OutputStreamWriter(process.getOutputStream(), "UTF-8");
+        writer.write(token + "\n");
+        writer.close();
+        return process;
+    }
+
+    /**
+     * Merges the given fragment into the solution space
+     * @param fragment
+     */
+    private void merge(Fragment fragment) {
+
+        // Classification
+        for (int i = 0; i < fragment.transformations.length; i++) {
+            Transformation transformation = solutionSpace.getTransformation(fragment.transformations[i]);
+            int properties = fragment.properties[i];
+            if ((properties & Fragment.CHECKED) != 0) {
+                transformation.setProperty(solutionSpace.getPropertyChecked());
+            }
+            if ((properties & Fragment.ANONYMOUS) != 0) {
+                transformation.setProperty(solutionSpace.getPropertyAnonymous());
+            }
+            if ((properties & Fragment.NOT_ANONYMOUS) != 0) {
+                transformation.setProperty(solutionSpace.getPropertyNotAnonymous());
+            }
+            if ((properties & Fragment.K_ANONYMOUS) != 0) {
+                transformation.setProperty(solutionSpace.getPropertyKAnonymous());
+            }
+            if ((properties & Fragment.NOT_K_ANONYMOUS) != 0) {
+                transformation.setProperty(solutionSpace.getPropertyNotKAnonymous());
+            }
+            if ((properties & Fragment.INSUFFICIENT_UTILITY) != 0) {
+                transformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
+            }
+            if (fragment.informationLoss[i] != null) {
+                transformation.setInformationLoss(fragment.informationLoss[i]);
+            }
+            if (fragment.lowerBounds[i] != null) {
+                transformation.setLowerBound(fragment.lowerBounds[i]);
+            }
+        }
+
+        // Frontier
+        if (fragment.frontierTransformations != null && checker.getParetoFrontier() != null) {
+            for (int i = 0; i < fragment.frontierTransformations.length; i++) {
+                checker.getParetoFrontier().add(solutionSpace.getTransformation(fragment.frontierTransformations[i]).getIdentifier(),
+                                                fragment.frontierInformationLoss[i],
+                                                fragment.frontierAverageRisks[i],
+                                                fragment.frontierHighestRisks[i]);
+            }
+        }
+    }
+}
@@ -116,9 +116,14 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         bottom.setData(result);
 
         // For each node in the lattice
-        for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
+        outer: for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
             for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
 
+                // Stop, if requested
+                if (isStopRequested()) {
+                    break outer;
+                }
+
                 // Run the correct phase
                 Transformation transformation = solutionSpace.getTransformation(id);
                 if (config.isBinaryPhaseRequired()) {
@@ -130,8 +135,10 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
 
         // Potentially allows to better estimate utility in the lattice
-        computeUtilityForMonotonicMetrics(bottom);
-        computeUtilityForMonotonicMetrics(top);
+        if (!isStopped()) {
+            computeUtilityForMonotonicMetrics(bottom);
+            computeUtilityForMonotonicMetrics(top);
+        }
 
         // Remove the associated result information to leave the lattice in a consistent state
         bottom.setData(null);
@@ -157,7 +164,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         queue.add((int)transformation.getIdentifier());
 
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isStopRequested()) {
 
             // Remove head and process
             transformation = solutionSpace.getTransformation(queue.poll());
@@ -228,7 +235,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Transformation lastAnonymousTransformation = null;
 
         // While not done
-        while (low <= high) {
+        while (low <= high && !isStopRequested()) {
 
             // Init
             final int mid = (low + high) / 2;
@@ -343,6 +350,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      */
     private void linearSearch(Transformation transformation) {
 
+        // Stop, if requested. Successors must not be marked as pruned.
+        if (isStopRequested()) {
+            return;
+        }
+
         // Obtain node action
         DependentAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
 
@@ -361,8 +373,10 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             }
         }
 
-        // Mark as successors pruned
-        transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        // Mark as successors pruned, unless the search has been stopped in the meantime
+        if (!isStopped()) {
+            transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        }
     }
 
     /**
@@ -407,6 +421,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (optimalInfoLoss.compareTo(node.getLowerBound()) <= 0) {
                 node.setProperty(solutionSpace.getPropertyInsufficientUtility());
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                checker.getStatistics().recordPruned();
                 // Else, we store it as a future pruning candidate
             } else {
                 potentiallyInsufficientUtility.add((int)node.getIdentifier());
@@ -429,6 +444,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 } else if (optimalInfoLoss.compareTo(currentTransformation.getLowerBound()) <= 0) {
                     currentTransformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     currentTransformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    checker.getStatistics().recordPruned();
                     iterator.remove();
                 }
             }
@@ -481,6 +497,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 if (getGlobalOptimum().getInformationLoss().compareTo(lowerBound) <= 0) {
                     transformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    checker.getStatistics().recordPruned();
                     return true;
                 }
             }
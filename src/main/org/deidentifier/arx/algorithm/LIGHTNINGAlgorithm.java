@@ -105,7 +105,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                 } else {
                     expand(queue, next);
                 }
-                if (getTime() > timeLimit) {
+                if (getTime() > timeLimit || isStopRequested()) {
                     return;
                 }
             }
@@ -130,7 +130,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     * @param transformation
     */
     private void dfs(PriorityQueue<Long> queue, Transformation transformation) {
-        if (getTime() > timeLimit) {
+        if (getTime() > timeLimit || isStopRequested()) {
             return;
         }
         Transformation next = expand(queue, transformation);
@@ -159,7 +159,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                     result = successor;
                 }
             }
-            if (getTime() > timeLimit) {
+            if (getTime() > timeLimit || isStopRequested()) {
                 return null;
             }
         }
@@ -191,6 +191,9 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
             // TODO: We could use this for predictive tagging as well!
             if (checker.getMetric().isMonotonic(checker.getConfiguration().getMaxOutliers())) {
                 prune = transformation.getLowerBound().compareTo(getGlobalOptimum().getInformationLoss()) >= 0;
+                if (prune) {
+                    checker.getStatistics().recordPruned();
+                }
             }
         }
         return (prune || transformation.hasProperty(propertyExpanded));
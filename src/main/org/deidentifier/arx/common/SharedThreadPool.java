@@ -0,0 +1,89 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.common;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of daemon threads, which is shared by operations that are parallelized internally.
+ * Threads are created on demand and terminated when they have been idle for a minute. As
+ * the pool is not bounded, tasks may submit further tasks and wait for them.
+ *
+ * @author Fabian Prasser
+ */
+public final class SharedThreadPool {
+
+    /**
+     * Creates daemon threads.
+     *
+     * @author Fabian Prasser
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        /** Thread counter */
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ARX worker " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /** The pool */
+    private static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(0,
+                                                                          Integer.MAX_VALUE,
+                                                                          60L,
+                                                                          TimeUnit.SECONDS,
+                                                                          new SynchronousQueue<Runnable>(),
+                                                                          new DaemonThreadFactory());
+
+    /**
+     * Submits a task.
+     *
+     * @param task
+     * @return
+     */
+    public static <T> Future<T> submit(Callable<T> task) {
+        return POOL.submit(task);
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param task
+     * @return
+     */
+    public static Future<?> submit(Runnable task) {
+        return POOL.submit(task);
+    }
+
+    /**
+     * No instances
+     */
+    private SharedThreadPool() {
+        // Empty by design
+    }
+}
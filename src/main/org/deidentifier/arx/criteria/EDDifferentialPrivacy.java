@@ -50,6 +50,8 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
     /** Parameter */
     private final double             epsilon;
     /** Parameter */
+    private final double             epsilonSearch;
+    /** Parameter */
     private final double             delta;
     /** Parameter */
     private final int                k;
@@ -64,6 +66,54 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
     /** Parameter */
     private DataGeneralizationScheme generalization;
 
+    /**
+     * Creates a new instance, which selects the generalization scheme in a data-dependent manner.
+     * 10% of the privacy budget will be spent on the search.
+     * 
+     * @param epsilon
+     * @param delta
+     */
+    public EDDifferentialPrivacy(double epsilon, double delta) {
+        this(epsilon, delta, 0.1d * epsilon);
+    }
+
+    /**
+     * Creates a new instance, which selects the generalization scheme in a data-dependent manner
+     * using the exponential mechanism. The given part of epsilon will be spent on the search,
+     * the remainder will be used for anonymizing the data.
+     * 
+     * @param epsilon
+     * @param delta
+     * @param epsilonSearch
+     */
+    public EDDifferentialPrivacy(double epsilon, double delta, double epsilonSearch) {
+        this(epsilon, delta, epsilonSearch, false);
+    }
+    
+    /**
+     * Creates a new instance, which selects the generalization scheme in a data-dependent manner
+     * and which may be configured to produce deterministic output.
+     * Note: *never* use this in production. It is implemented for testing purposes, only.
+     * 
+     * @param epsilon
+     * @param delta
+     * @param epsilonSearch
+     * @param deterministic
+     */
+    public EDDifferentialPrivacy(double epsilon, double delta, double epsilonSearch, boolean deterministic) {
+        super(false, false);
+        if (epsilonSearch <= 0d || epsilonSearch >= epsilon) {
+            throw new IllegalArgumentException("The search budget must be larger than zero and smaller than epsilon");
+        }
+        this.epsilon = epsilon;
+        this.epsilonSearch = epsilonSearch;
+        this.delta = delta;
+        this.generalization = null;
+        this.beta = calculateBeta(epsilon - epsilonSearch);
+        this.k = calculateK(delta, epsilon - epsilonSearch, this.beta);
+        this.deterministic = deterministic;
+    }
+
     /**
      * Creates a new instance
      * @param epsilon
@@ -74,6 +124,7 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
                                  DataGeneralizationScheme generalization) {
         super(false, false);
         this.epsilon = epsilon;
+        this.epsilonSearch = 0d;
         this.delta = delta;
         this.generalization = generalization;
         this.beta = calculateBeta(epsilon);
@@ -95,6 +146,7 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
                                  boolean deterministic) {
         super(false, false);
         this.epsilon = epsilon;
+        this.epsilonSearch = 0d;
         this.delta = delta;
         this.generalization = generalization;
         this.beta = calculateBeta(epsilon);
@@ -105,6 +157,9 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
 
     @Override
     public EDDifferentialPrivacy clone() {
+        if (this.isDataDependent()) {
+            return new EDDifferentialPrivacy(this.getEpsilon(), this.getDelta(), this.getEpsilonSearch());
+        }
         return new EDDifferentialPrivacy(this.getEpsilon(), this.getDelta(), this.getGeneralizationScheme());
     }
 
@@ -138,7 +193,16 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
     }
 
     /**
-     * Returns the defined generalization scheme
+     * Returns the part of epsilon that is spent on a data-dependent search, 0 if
+     * the generalization scheme has been defined by the user
+     * @return
+     */
+    public double getEpsilonSearch() {
+        return epsilonSearch;
+    }
+
+    /**
+     * Returns the defined generalization scheme, null if it is selected in a data-dependent manner
      * @return
      */
     public DataGeneralizationScheme getGeneralizationScheme() {
@@ -213,6 +277,22 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
         return entry.count >= k;
     }
 
+    /**
+     * Returns whether the generalization scheme is selected in a data-dependent manner
+     * @return
+     */
+    public boolean isDataDependent() {
+        return generalization == null;
+    }
+
+    /**
+     * Returns whether this instance produces deterministic output. For testing purposes, only.
+     * @return
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return false;
@@ -17,12 +17,16 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
  * The t-closeness criterion with hierarchical-distance EMD.
  *
@@ -31,20 +35,80 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  */
 public class HierarchicalDistanceTCloseness extends TCloseness {
 
+    /**
+     * Scratch space used by one thread.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Scratch {
+
+        /** Values in the class */
+        private final int[]           values;
+
+        /** Frequencies by value */
+        private final int[]           frequencies;
+
+        /** Packed distribution */
+        private final int[]           key;
+
+        /** Nodes which contain values from the class */
+        private final int[]           touched;
+
+        /** Number of records from the class per node */
+        private final long[]          counts;
+
+        /** Sum of positive extras of touched children per node */
+        private final long[]          positive;
+
+        /** Sum of negative extras of touched children per node */
+        private final long[]          negative;
+
+        /** Number of records from the dataset in touched children per node */
+        private final long[]          covered;
+
+        /** Cached results */
+        private final TClosenessCache cache = new TClosenessCache();
+
+        /**
+         * Creates a new instance
+         * @param leafs
+         * @param nodes
+         */
+        private Scratch(int leafs, int nodes) {
+            this.values = new int[leafs];
+            this.frequencies = new int[leafs];
+            this.key = new int[leafs * 2];
+            this.touched = new int[nodes];
+            this.counts = new long[nodes];
+            this.positive = new long[nodes];
+            this.negative = new long[nodes];
+            this.covered = new long[nodes];
+        }
+    }
+
     /**  SVUID */
-    private static final long serialVersionUID = -2142590190479670706L;
+    private static final long              serialVersionUID = -2142590190479670706L;
 
     /** The hierarchy used for the EMD. */
-    private final Hierarchy   hierarchy;
+    private final Hierarchy                hierarchy;
+
+    /** Number of records in the dataset. */
+    private transient long                 total;
 
-    /** Internal tree. */
-    private int[]             tree;
+    /** Height of the hierarchy. */
+    private transient double               height;
 
-    /** Internal offset. */
-    private int               start;
+    /** Parent of each node, leafs first, -1 for roots. */
+    private transient int[]                parents;
 
-    /** Internal empty tree. */
-    private int[]             empty;
+    /** Level of each node. */
+    private transient int[]                levels;
+
+    /** Number of records from the dataset per node. */
+    private transient long[]               frequencies;
+
+    /** Scratch space */
+    private transient ThreadLocal<Scratch> scratch;
 
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
@@ -78,91 +142,145 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
-        this.tree = manager.getTree(attribute);
-        this.start = this.tree[1] + 3;
-        this.empty = new int[this.tree[1]];
+        
+        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
+        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
+        // child_x, pos_e, neg_e], ...
+        int[] tree = manager.getTree(attribute);
+        final int leafs = tree[1];
+        final int extraStartPos = leafs + 3;
+        final int extraEndPos = extraStartPos + leafs;
+        
+        // Count inner nodes
+        int inner = 0;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            inner++;
+        }
+        final int nodes = leafs + inner;
+        
+        // Convert into parent pointers. Inner nodes are stored bottom-up.
+        this.total = tree[0];
+        this.height = tree[2];
+        this.parents = new int[nodes];
+        this.levels = new int[nodes];
+        this.frequencies = new long[nodes];
+        Arrays.fill(parents, -1);
+        for (int i = 0; i < leafs; i++) {
+            frequencies[i] = tree[i + 3];
+        }
+        IntIntOpenHashMap offsets = new IntIntOpenHashMap();
+        int id = leafs;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            int children = tree[i];
+            levels[id] = tree[i + 1];
+            for (int j = 0; j < children; j++) {
+                int pointer = tree[i + 2 + j];
+                int child = levels[id] == 1 ? pointer - extraStartPos : offsets.get(pointer);
+                parents[child] = id;
+                frequencies[id] += frequencies[child];
+            }
+            offsets.put(i, id);
+            id++;
+        }
+        
+        // Scratch space
+        this.scratch = new ThreadLocal<Scratch>() {
+            @Override
+            protected Scratch initialValue() {
+                return new Scratch(leafs, nodes);
+            }
+        };
     }
 
+    /**
+     * The EMD is computed as a sum over all inner nodes of the hierarchy. The contribution of
+     * nodes that do not cover any value from the class is zero, so only the ancestors of the
+     * values in the class are visited. This needs O(k h) time for a class with k distinct
+     * values and a hierarchy of height h.
+     */
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
         
-        // Empty data in tree
-        System.arraycopy(empty, 0, tree, start, empty.length);
-
-        // init parameters
-        final int totalElementsP = tree[0];
-        final int numLeafs = tree[1];
-        final double height = tree[2]; // cast to double as it is used in double
-                                       // calculations
-        final int extraStartPos = numLeafs + 3;
-        final int extraEndPos = extraStartPos + numLeafs;
-
-        // Copy and count
-        int totalElementsQ = 0;
+        // Init
+        Scratch scratch = this.scratch.get();
         int[] buckets = entry.distributions[index].getBuckets();
+        
+        // Collect values
+        int size = 0;
+        long count = 0;
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
-                final int value = buckets[i];
-                final int frequency = buckets[i + 1];
-                tree[value + extraStartPos] = frequency;
-                totalElementsQ += frequency;
+                int value = buckets[i];
+                scratch.values[size++] = value;
+                scratch.frequencies[value] = buckets[i + 1];
+                count += buckets[i + 1];
             }
         }
-        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
-        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
-        // child_x, pos_e, neg_e], ...
-        double cost = 0;
-
-        // leafs
-        for (int i = extraStartPos; i < extraEndPos; i++) {
-            tree[i] = (tree[i - numLeafs] * totalElementsQ) -
-                      (tree[i] * totalElementsP); // p_i - q_i
+        Arrays.sort(scratch.values, 0, size);
+        
+        // Pack
+        int[] key = scratch.key;
+        for (int i = 0; i < size; i++) {
+            int value = scratch.values[i];
+            key[i * 2] = value;
+            key[i * 2 + 1] = scratch.frequencies[value];
         }
-
-        // innerNodes
-        for (int i = extraEndPos; i < tree.length; i++) {
-            int pos_e = 0;
-            int neg_e = 0;
-
-            final int numChilds = tree[i++];
-            final int level = tree[i++];
-
-            // iterate over all children
-            for (int j = 0; j < numChilds; j++) {
-                // differentiate between first level and rest
-
-                int extra = 0;
-                if (level == 1) {
-                    extra = tree[tree[i + j]];
-                } else {
-                    final int extra_child_index = tree[i + j] +
-                                                  tree[tree[i + j]] + 2; // pointer to the pos_e of node
-                    final int pos_child = tree[extra_child_index];
-                    final int neg_child = tree[extra_child_index + 1];
-                    extra = pos_child - neg_child;
+        
+        // Check cache
+        int cached = scratch.cache.get(key, size * 2);
+        if (cached != -1) {
+            return cached == 1;
+        }
+        
+        // Count records from the class per node
+        long[] counts = scratch.counts;
+        int[] touched = scratch.touched;
+        int numTouched = 0;
+        for (int i = 0; i < size; i++) {
+            int frequency = key[i * 2 + 1];
+            for (int current = key[i * 2]; current != -1; current = parents[current]) {
+                if (counts[current] == 0) {
+                    touched[numTouched++] = current;
                 }
-
-                if (extra > 0) { // positive
-                    pos_e += extra;
-                } else { // negative
-                    neg_e += (-extra);
+                counts[current] += frequency;
+            }
+        }
+        
+        // Propagate extras, i.e. p_i - q_i scaled by the sizes, to the parents
+        for (int i = 0; i < numTouched; i++) {
+            int current = touched[i];
+            int parent = parents[current];
+            if (parent != -1) {
+                long extra = count * frequencies[current] - total * counts[current];
+                if (extra > 0) {
+                    scratch.positive[parent] += extra;
+                } else {
+                    scratch.negative[parent] -= extra;
                 }
+                scratch.covered[parent] += frequencies[current];
             }
-
-            // save extras
-            i += numChilds; // increment pointer to extra
-            tree[i++] = pos_e;
-            tree[i] = neg_e;
-
-            // sum
-            final double cost_n = (level / height) * Math.min(pos_e, neg_e);
-            cost += cost_n;
         }
+        
+        // Sum up costs. Children that do not cover values from the class have positive extras.
+        double cost = 0d;
+        for (int i = 0; i < numTouched; i++) {
+            int current = touched[i];
+            if (levels[current] > 0) {
+                long positive = scratch.positive[current] + count * (frequencies[current] - scratch.covered[current]);
+                long negative = scratch.negative[current];
+                cost += (levels[current] / height) * Math.min(positive, negative);
+            }
+            counts[current] = 0;
+            scratch.positive[current] = 0;
+            scratch.negative[current] = 0;
+            scratch.covered[current] = 0;
+        }
+        cost /= ((double) total * (double) count);
 
-        cost /= ((double) totalElementsP * (double) totalElementsQ);
-
-        // check
-        return cost <= t;
+        // Check and store
+        boolean result = cost <= t;
+        scratch.cache.put(key, size * 2, result);
+        return result;
     }
     
 	@Override
@@ -17,13 +17,13 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
-import com.carrotsearch.hppc.IntDoubleOpenHashMap;
-
 /**
  * The t-closeness criterion for ordered attributes.
  *
@@ -32,14 +32,56 @@ import com.carrotsearch.hppc.IntDoubleOpenHashMap;
  */
 public class OrderedDistanceTCloseness extends TCloseness {
 
+    /**
+     * Scratch space used by one thread.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Scratch {
+
+        /** Ranks of the values in the class */
+        private final int[]           ranks;
+
+        /** Frequencies by rank */
+        private final int[]           frequencies;
+
+        /** Packed distribution */
+        private final int[]           key;
+
+        /** Cached results */
+        private final TClosenessCache cache = new TClosenessCache();
+
+        /**
+         * Creates a new instance
+         * @param size
+         */
+        private Scratch(int size) {
+            this.ranks = new int[size];
+            this.frequencies = new int[size];
+            this.key = new int[size * 2];
+        }
+    }
+
     /** SVUID */
-    private static final long serialVersionUID = -2395544663063577862L;
+    private static final long                 serialVersionUID = -2395544663063577862L;
 
     /** The original distribution. */
-    private double[]          distribution;
+    private double[]                          distribution;
 
     /** The order of the elements. */
-    private int[]             order;
+    private int[]                             order;
+
+    /** The rank of each element in the order. */
+    private transient int[]                   rank;
+
+    /** Cumulative original distribution: cumulative[i] = sum_{j<=i} distribution[order[j]]. */
+    private transient double[]                cumulative;
+
+    /** Prefix sums of the cumulative distribution: sums[i] = sum_{j<i} cumulative[j]. */
+    private transient double[]                sums;
+
+    /** Scratch space */
+    private transient ThreadLocal<Scratch>    scratch;
     
     /**
      * Creates a new instance of the t-closeness criterion for ordered attributes as proposed in:
@@ -64,44 +106,95 @@ public class OrderedDistanceTCloseness extends TCloseness {
         super.initialize(manager, config);
         this.distribution = manager.getDistribution(attribute);
         this.order = manager.getOrder(attribute);
+        
+        // Prepare prefix sums
+        final int size = order.length;
+        this.rank = new int[size];
+        this.cumulative = new double[size];
+        this.sums = new double[size + 1];
+        double sum = 0d;
+        for (int i = 0; i < size; i++) {
+            rank[order[i]] = i;
+            sum += distribution[order[i]];
+            cumulative[i] = sum;
+            sums[i + 1] = sums[i] + sum;
+        }
+        this.scratch = new ThreadLocal<Scratch>() {
+            @Override
+            protected Scratch initialValue() {
+                return new Scratch(size);
+            }
+        };
     }
 
+    /**
+     * The EMD is the sum of |P(i) - Q(i)| over all ranks i, where P and Q are the cumulative
+     * distributions of the class and the overall dataset. As P is constant between two ranks
+     * of values contained in the class and Q is monotonic, each such segment can be evaluated
+     * with a binary search and prefix sums. This needs O(k log n) time for a class with k
+     * distinct values and a domain of size n.
+     */
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
 
         // Init
+        Scratch scratch = this.scratch.get();
         int[] buckets = entry.distributions[index].getBuckets();
-        double count = entry.count;
         
-        // Prepare
-        IntDoubleOpenHashMap map = new IntDoubleOpenHashMap(buckets.length/2);
+        // Collect ranks
+        int size = 0;
+        int count = 0;
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
-                int value = buckets[i];
-                double frequency = ((double) buckets[i + 1] / count);
-                map.put(value, frequency);
+                int rank = this.rank[buckets[i]];
+                scratch.ranks[size++] = rank;
+                scratch.frequencies[rank] = buckets[i + 1];
+                count += buckets[i + 1];
             }
         }
-        double threshold = t * (order.length - 1d);
-        double distance = 0d;
-        double sum_i = 0d;
+        Arrays.sort(scratch.ranks, 0, size);
+        
+        // Pack
+        int[] key = scratch.key;
+        for (int i = 0; i < size; i++) {
+            int rank = scratch.ranks[i];
+            key[i * 2] = rank;
+            key[i * 2 + 1] = scratch.frequencies[rank];
+        }
+        
+        // Check cache
+        int cached = scratch.cache.get(key, size * 2);
+        if (cached != -1) {
+            return cached == 1;
+        }
         
         // Calculate and check
-        for (int i=0; i<order.length; i++) {
+        double threshold = t * (order.length - 1d);
+        double distance = size == 0 ? sums[order.length] : sums[key[0]];
+        double current = 0d;
+        boolean result = true;
+        for (int i = 0; i < size && result; i++) {
+            
+            // Segment [from, to) with constant cumulative frequency in the class
+            int from = key[i * 2];
+            int to = (i + 1 < size) ? key[(i + 1) * 2] : order.length;
+            current += (double) key[i * 2 + 1] / (double) count;
             
-            // Compute summands and distance
-            int value = order[i];
-            sum_i += (map.getOrDefault(value, 0d) - distribution[value]);
-            distance += Math.abs(sum_i);
+            // Split at the first rank at which the overall distribution reaches the current value
+            int split = Arrays.binarySearch(cumulative, from, to, current);
+            split = split < 0 ? -split - 1 : split;
+            distance += current * (split - from) - (sums[split] - sums[from]);
+            distance += (sums[to] - sums[split]) - current * (to - split);
             
             // Early abort
             if (distance > threshold) {
-                return false;
+                result = false;
             }
         }
         
-        // Yes
-        return true;
+        // Store
+        scratch.cache.put(key, size * 2, result);
+        return result;
     }
 
     @Override
@@ -0,0 +1,89 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.criteria;
+
+import java.util.Arrays;
+
+/**
+ * A direct-mapped cache for results of t-closeness checks. Keys are distributions which are packed
+ * into sorted sequences of values and frequencies. Identical distributions recur across equivalence
+ * classes and transformations. The cache is not thread-safe and meant to be used per thread. Lookups
+ * do not allocate memory.
+ *
+ * @author Fabian Prasser
+ */
+class TClosenessCache {
+
+    /** Number of slots, must be a power of two */
+    private static final int SIZE = 1024;
+
+    /** Keys */
+    private final int[][]    keys    = new int[SIZE][];
+
+    /** Results */
+    private final boolean[]  results = new boolean[SIZE];
+
+    /**
+     * Returns the cached result for the given key: 1 for true, 0 for false and -1 if there is none.
+     *
+     * @param key
+     * @param length
+     * @return
+     */
+    int get(int[] key, int length) {
+        int slot = getSlot(key, length);
+        int[] stored = keys[slot];
+        if (stored == null || stored.length != length) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (stored[i] != key[i]) {
+                return -1;
+            }
+        }
+        return results[slot] ? 1 : 0;
+    }
+
+    /**
+     * Stores the result for the given key.
+     *
+     * @param key
+     * @param length
+     * @param result
+     */
+    void put(int[] key, int length, boolean result) {
+        int slot = getSlot(key, length);
+        keys[slot] = Arrays.copyOf(key, length);
+        results[slot] = result;
+    }
+
+    /**
+     * Returns the slot for the given key
+     * @param key
+     * @param length
+     * @return
+     */
+    private int getSlot(int[] key, int length) {
+        int hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + key[i];
+        }
+        hash ^= (hash >>> 16);
+        return hash & (SIZE - 1);
+    }
+}
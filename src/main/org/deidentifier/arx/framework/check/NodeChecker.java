@@ -17,12 +17,15 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.io.IOException;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.Transition;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifySpill;
 import org.deidentifier.arx.framework.check.history.History;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -122,6 +125,38 @@ public class NodeChecker {
     /** Is a minimal class size required */
     private final boolean                         minimalClassSizeRequired;
 
+    /** Statistics about the search process */
+    private final SearchStatistics                statistics;
+
+    /** The Pareto frontier of quality and risk, if any */
+    private final ParetoFrontier                  frontier;
+
+    /** Number of classes above which the source of a roll-up is spilled to disk */
+    private final int                             spillThreshold;
+
+    /**
+     * Creates a new NodeChecker instance.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param statistics Statistics about the search process
+     */
+    public NodeChecker(final DataManager manager,
+                       final Metric<?> metric,
+                       final ARXConfigurationInternal config,
+                       final int historyMaxSize,
+                       final double snapshotSizeDataset,
+                       final double snapshotSizeSnapshot,
+                       final SolutionSpace solutionSpace,
+                       final SearchStatistics statistics) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, solutionSpace, statistics, null, Integer.MAX_VALUE);
+    }
+
     /**
      * Creates a new NodeChecker instance.
      * 
@@ -132,6 +167,9 @@ public class NodeChecker {
      * @param snapshotSizeDataset A history threshold
      * @param snapshotSizeSnapshot A history threshold
      * @param solutionSpace
+     * @param statistics Statistics about the search process
+     * @param frontier The Pareto frontier to maintain, may be null
+     * @param spillThreshold Number of classes above which the source of a roll-up is spilled to disk
      */
     public NodeChecker(final DataManager manager,
                        final Metric<?> metric,
@@ -139,7 +177,10 @@ public class NodeChecker {
                        final int historyMaxSize,
                        final double snapshotSizeDataset,
                        final double snapshotSizeSnapshot,
-                       final SolutionSpace solutionSpace) {
+                       final SolutionSpace solutionSpace,
+                       final SearchStatistics statistics,
+                       final ParetoFrontier frontier,
+                       final int spillThreshold) {
         
         // Initialize all operators
         this.metric = metric;
@@ -151,6 +192,9 @@ public class NodeChecker {
         this.microaggregationMap = manager.getMicroaggregationMap();
         this.microaggregationHeader = manager.getMicroaggregationHeader();
         this.solutionSpace = solutionSpace;
+        this.statistics = statistics;
+        this.frontier = frontier;
+        this.spillThreshold = spillThreshold;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
         
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
@@ -172,7 +216,8 @@ public class NodeChecker {
                                    config,
                                    dictionarySensValue,
                                    dictionarySensFreq,
-                                   solutionSpace);
+                                   solutionSpace,
+                                   statistics);
         
         this.stateMachine = new StateMachine(history);
         this.currentGroupify = new HashGroupify(initialSize, config);
@@ -182,7 +227,8 @@ public class NodeChecker {
                                            manager.getHierarchies(),
                                            config,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           statistics);
     }
 
     
@@ -225,19 +271,18 @@ public class NodeChecker {
         Data microaggregatedOutput = new Data(new int[0][0], new String[0], new int[0], new Dictionary(0));
         Data generalizedOutput = new Data(transformer.getBuffer(), dataGeneralized.getHeader(), dataGeneralized.getMap(), dataGeneralized.getDictionary());
         
-        // Perform microaggregation. This has to be done before suppression.
+        // Perform microaggregation and suppression in one pass
+        boolean suppress = config.getAbsoluteMaxOutliers() != 0 || !currentGroupify.isPrivacyModelFulfilled();
         if (microaggregationFunctions.length > 0) {
-            microaggregatedOutput = currentGroupify.performMicroaggregation(transformer.getBuffer(), 
-                                                                            microaggregationStartIndex,
-                                                                            microaggregationNumAttributes,
-                                                                            microaggregationFunctions,
-                                                                            microaggregationMap,
-                                                                            microaggregationHeader,
-                                                                            microaggregationDictionary);
-        }
-        
-        // Perform suppression
-        if (config.getAbsoluteMaxOutliers() != 0 || !currentGroupify.isPrivacyModelFulfilled()) {
+            microaggregatedOutput = currentGroupify.performMicroaggregationAndSuppression(transformer.getBuffer(), 
+                                                                                          microaggregationStartIndex,
+                                                                                          microaggregationNumAttributes,
+                                                                                          microaggregationFunctions,
+                                                                                          microaggregationMap,
+                                                                                          microaggregationHeader,
+                                                                                          microaggregationDictionary,
+                                                                                          suppress);
+        } else if (suppress) {
             currentGroupify.performSuppression(transformer.getBuffer());
         }
         
@@ -284,29 +329,54 @@ public class NodeChecker {
         currentGroupify = temp;
         
         // Apply transition
+        final boolean timed = statistics.isEnabled();
+        long time = timed ? System.nanoTime() : 0L;
         switch (transition.type) {
         case UNOPTIMIZED:
             currentGroupify = transformer.apply(transition.projection, node.getGeneralization(), currentGroupify);
             break;
         case ROLLUP:
-            currentGroupify = transformer.applyRollup(transition.projection, node.getGeneralization(), lastGroupify, currentGroupify);
+            if (lastGroupify.getNumberOfEquivalenceClasses() > spillThreshold) {
+                currentGroupify = applySpilledRollup(transition.projection, node.getGeneralization());
+            } else {
+                currentGroupify = transformer.applyRollup(transition.projection, node.getGeneralization(), lastGroupify, currentGroupify);
+            }
             break;
         case SNAPSHOT:
             currentGroupify = transformer.applySnapshot(transition.projection, node.getGeneralization(), currentGroupify, transition.snapshot);
             break;
         }
+        if (timed) {
+            long now = System.nanoTime();
+            statistics.recordTransition(transition.type, now - time);
+            statistics.recordCheck(currentGroupify.getNumberOfEquivalenceClasses());
+            time = now;
+        }
         
         // We are done with transforming and adding
         currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
         if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
             currentGroupify.stateResetSuppression();
         }
+        if (timed) {
+            long now = System.nanoTime();
+            statistics.recordPrivacyModels(now - time);
+            time = now;
+        }
         
         // Compute information loss and lower bound
         InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
                 metric.getInformationLoss(node, currentGroupify) : null;
         InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
         InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
+        if (timed) {
+            statistics.recordMetric(System.nanoTime() - time);
+        }
+        
+        // Maintain frontier
+        if (frontier != null && loss != null && currentGroupify.isPrivacyModelFulfilled()) {
+            frontier.add(node.getIdentifier(), loss, currentGroupify);
+        }
         
         // Return result;
         return new NodeChecker.Result(currentGroupify.isPrivacyModelFulfilled(),
@@ -315,6 +385,28 @@ public class NodeChecker {
                                       bound);
     }
     
+    /**
+     * Performs a roll-up from the last groupify, which is spilled to disk before, so that both
+     * groupifies do not have to be kept in memory at the same time
+     * @param projection
+     * @param generalization
+     * @return
+     */
+    private HashGroupify applySpilledRollup(long projection, int[] generalization) {
+        currentGroupify.stateClear();
+        HashGroupifySpill spill = null;
+        try {
+            spill = HashGroupifySpill.create(lastGroupify);
+            return transformer.applyRollup(projection, generalization, spill, currentGroupify);
+        } catch (IOException e) {
+            throw new RuntimeException("Error spilling equivalence classes to disk", e);
+        } finally {
+            if (spill != null) {
+                spill.close();
+            }
+        }
+    }
+
     /**
      * Returns the configuration
      * @return
@@ -340,6 +432,22 @@ public class NodeChecker {
         return this.dataGeneralized.getArray();
     }
     
+    /**
+     * Returns statistics about the search process
+     * @return
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+    
+    /**
+     * Returns the Pareto frontier maintained by this checker, if any
+     * @return
+     */
+    public ParetoFrontier getParetoFrontier() {
+        return frontier;
+    }
+    
     /**
      * Returns the utility measure
      * @return
@@ -0,0 +1,157 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Maintains the set of transformations which are not dominated with regard to their
+ * information loss, their average re-identification risk and their highest re-identification
+ * risk. Risks are derived from the sizes of all equivalence classes which have not been
+ * suppressed, following the prosecutor attacker model. The set is updated incrementally and
+ * may be updated by multiple threads.
+ *
+ * @author Fabian Prasser
+ */
+public class ParetoFrontier {
+
+    /**
+     * A point on the frontier.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Point {
+
+        /** The identifier of the transformation */
+        public final long               identifier;
+
+        /** The information loss */
+        public final InformationLoss<?> informationLoss;
+
+        /** The average re-identification risk */
+        public final double             averageRisk;
+
+        /** The highest re-identification risk */
+        public final double             highestRisk;
+
+        /**
+         * Creates a new instance
+         * @param identifier
+         * @param informationLoss
+         * @param averageRisk
+         * @param highestRisk
+         */
+        Point(long identifier, InformationLoss<?> informationLoss, double averageRisk, double highestRisk) {
+            this.identifier = identifier;
+            this.informationLoss = informationLoss;
+            this.averageRisk = averageRisk;
+            this.highestRisk = highestRisk;
+        }
+
+        /**
+         * Returns whether this point dominates the other point, i.e. whether it is at least as
+         * good in all dimensions. Equal points dominate each other.
+         * @param other
+         * @return
+         */
+        boolean dominates(Point other) {
+            return this.averageRisk <= other.averageRisk && this.highestRisk <= other.highestRisk &&
+                   this.informationLoss.compareTo(other.informationLoss) <= 0;
+        }
+    }
+
+    /** The points */
+    private final List<Point> points = new ArrayList<Point>();
+
+    /**
+     * Adds the transformation represented by the given groupify, if it is not dominated by
+     * any point on the frontier. Points that are dominated by the transformation are removed.
+     *
+     * @param identifier
+     * @param informationLoss
+     * @param groupify
+     */
+    public void add(long identifier, InformationLoss<?> informationLoss, HashGroupify groupify) {
+
+        // Collect sizes of classes that are not suppressed
+        long records = 0;
+        int classes = 0;
+        int min = Integer.MAX_VALUE;
+        HashGroupifyEntry entry = groupify.getFirstEquivalenceClass();
+        while (entry != null) {
+            if (entry.isNotOutlier && entry.count > 0) {
+                records += entry.count;
+                classes++;
+                min = Math.min(min, entry.count);
+            }
+            entry = entry.nextOrdered;
+        }
+
+        // Add
+        add(new Point(identifier,
+                      informationLoss,
+                      records == 0 ? 0d : (double) classes / (double) records,
+                      records == 0 ? 0d : 1d / (double) min));
+    }
+
+    /**
+     * Adds the transformation with the given risks, if it is not dominated by any point on the
+     * frontier. Points that are dominated by the transformation are removed.
+     *
+     * @param identifier
+     * @param informationLoss
+     * @param averageRisk
+     * @param highestRisk
+     */
+    public void add(long identifier, InformationLoss<?> informationLoss, double averageRisk, double highestRisk) {
+        add(new Point(identifier, informationLoss, averageRisk, highestRisk));
+    }
+
+    /**
+     * Returns the points on the frontier in the order in which they have been added
+     * @return
+     */
+    public synchronized List<Point> getPoints() {
+        return new ArrayList<Point>(points);
+    }
+
+    /**
+     * Adds the point, if it is not dominated
+     * @param point
+     */
+    private synchronized void add(Point point) {
+        for (Point other : points) {
+            if (other.dominates(point)) {
+                return;
+            }
+        }
+        Iterator<Point> iterator = points.iterator();
+        while (iterator.hasNext()) {
+            if (point.dominates(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        points.add(point);
+    }
+}
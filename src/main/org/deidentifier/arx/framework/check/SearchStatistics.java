@@ -0,0 +1,299 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+
+/**
+ * Collects statistics about the search process. Counters may be maintained by multiple
+ * threads and are updated while holding the lock on this object. They are read without
+ * synchronization, which means that, when monitored via JMX, values may be slightly
+ * outdated. If the collector is disabled, all methods return immediately and callers
+ * should not obtain timestamps.
+ *
+ * @author Fabian Prasser
+ */
+public class SearchStatistics implements SearchStatisticsMBean {
+
+    /** Nanoseconds per millisecond */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** Is this collector enabled */
+    private final boolean     enabled;
+
+    /** Number of checks */
+    private long              checks;
+
+    /** Sum of equivalence classes */
+    private long              classes;
+
+    /** Maximal number of equivalence classes */
+    private long              classesMax;
+
+    /** History */
+    private long              historyEvictions;
+
+    /** History */
+    private long              historyHits;
+
+    /** History */
+    private long              historyLookups;
+
+    /** History */
+    private long              historyStores;
+
+    /** Number of evaluations of the quality model */
+    private long              metricEvaluations;
+
+    /** Number of pruned transformations */
+    private long              pruned;
+
+    /** Time spent evaluating the quality model */
+    private long              timeMetric;
+
+    /** Time spent evaluating privacy models */
+    private long              timePrivacyModels;
+
+    /** Transitions, indexed by TransitionType.ordinal() */
+    private final long[]      transitions     = new long[TransitionType.values().length];
+
+    /** Processed entries, indexed by TransitionType.ordinal() */
+    private final long[]      transitionsRows = new long[TransitionType.values().length];
+
+    /** Time spent, indexed by TransitionType.ordinal() */
+    private final long[]      transitionsTime = new long[TransitionType.values().length];
+
+    /**
+     * Creates a new instance
+     * @param enabled
+     */
+    public SearchStatistics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public double getAverageEquivalenceClasses() {
+        return checks == 0 ? 0d : (double) classes / (double) checks;
+    }
+
+    @Override
+    public long getHistoryEvictions() {
+        return historyEvictions;
+    }
+
+    @Override
+    public long getHistoryHits() {
+        return historyHits;
+    }
+
+    @Override
+    public long getHistoryLookups() {
+        return historyLookups;
+    }
+
+    @Override
+    public long getHistoryStores() {
+        return historyStores;
+    }
+
+    @Override
+    public long getMaxEquivalenceClasses() {
+        return classesMax;
+    }
+
+    @Override
+    public long getNumChecks() {
+        return checks;
+    }
+
+    @Override
+    public long getNumMetricEvaluations() {
+        return metricEvaluations;
+    }
+
+    @Override
+    public long getNumPrunedTransformations() {
+        return pruned;
+    }
+
+    @Override
+    public long getNumRollupTransitions() {
+        return transitions[TransitionType.ROLLUP.ordinal()];
+    }
+
+    @Override
+    public long getNumSnapshotTransitions() {
+        return transitions[TransitionType.SNAPSHOT.ordinal()];
+    }
+
+    @Override
+    public long getNumUnoptimizedTransitions() {
+        return transitions[TransitionType.UNOPTIMIZED.ordinal()];
+    }
+
+    @Override
+    public long getRowsRollupTransitions() {
+        return transitionsRows[TransitionType.ROLLUP.ordinal()];
+    }
+
+    @Override
+    public long getRowsSnapshotTransitions() {
+        return transitionsRows[TransitionType.SNAPSHOT.ordinal()];
+    }
+
+    @Override
+    public long getRowsUnoptimizedTransitions() {
+        return transitionsRows[TransitionType.UNOPTIMIZED.ordinal()];
+    }
+
+    @Override
+    public long getTimeMetric() {
+        return timeMetric / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getTimePrivacyModels() {
+        return timePrivacyModels / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getTimeRollupTransitions() {
+        return transitionsTime[TransitionType.ROLLUP.ordinal()] / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getTimeSnapshotTransitions() {
+        return transitionsTime[TransitionType.SNAPSHOT.ordinal()] / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getTimeUnoptimizedTransitions() {
+        return transitionsTime[TransitionType.UNOPTIMIZED.ordinal()] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns whether statistics are collected
+     * @return
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a check
+     * @param numClasses Number of equivalence classes
+     */
+    public void recordCheck(int numClasses) {
+        if (enabled) {
+            synchronized (this) {
+                checks++;
+                classes += numClasses;
+                classesMax = Math.max(classesMax, numClasses);
+            }
+        }
+    }
+
+    /**
+     * Records a lookup in the history
+     * @param hit
+     */
+    public void recordHistoryLookup(boolean hit) {
+        if (enabled) {
+            synchronized (this) {
+                historyLookups++;
+                historyHits += hit ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Records that a snapshot has been stored in the history
+     * @param eviction Whether another snapshot has been evicted
+     */
+    public void recordHistoryStore(boolean eviction) {
+        if (enabled) {
+            synchronized (this) {
+                historyStores++;
+                historyEvictions += eviction ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Records an evaluation of the quality model
+     * @param nanos
+     */
+    public void recordMetric(long nanos) {
+        if (enabled) {
+            synchronized (this) {
+                metricEvaluations++;
+                timeMetric += nanos;
+            }
+        }
+    }
+
+    /**
+     * Records an evaluation of privacy models
+     * @param nanos
+     */
+    public void recordPrivacyModels(long nanos) {
+        if (enabled) {
+            synchronized (this) {
+                timePrivacyModels += nanos;
+            }
+        }
+    }
+
+    /**
+     * Records that a transformation has been pruned
+     */
+    public void recordPruned() {
+        if (enabled) {
+            synchronized (this) {
+                pruned++;
+            }
+        }
+    }
+
+    /**
+     * Records a transition
+     * @param type
+     * @param nanos
+     */
+    public void recordTransition(TransitionType type, long nanos) {
+        if (enabled) {
+            synchronized (this) {
+                transitions[type.ordinal()]++;
+                transitionsTime[type.ordinal()] += nanos;
+            }
+        }
+    }
+
+    /**
+     * Records the number of entries processed in a transition
+     * @param type
+     * @param rows
+     */
+    public void recordTransitionRows(TransitionType type, int rows) {
+        if (enabled) {
+            synchronized (this) {
+                transitionsRows[type.ordinal()] += rows;
+            }
+        }
+    }
+}
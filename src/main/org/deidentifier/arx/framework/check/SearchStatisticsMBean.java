@@ -0,0 +1,147 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+/**
+ * Management interface for search statistics, which allows monitoring a running
+ * search via JMX. All times are reported in milliseconds.
+ *
+ * @author Fabian Prasser
+ */
+public interface SearchStatisticsMBean {
+
+    /**
+     * Returns the average number of equivalence classes per check
+     * @return
+     */
+    public double getAverageEquivalenceClasses();
+
+    /**
+     * Returns the number of snapshots evicted from the history
+     * @return
+     */
+    public long getHistoryEvictions();
+
+    /**
+     * Returns the number of lookups in the history that returned a snapshot
+     * @return
+     */
+    public long getHistoryHits();
+
+    /**
+     * Returns the number of lookups in the history
+     * @return
+     */
+    public long getHistoryLookups();
+
+    /**
+     * Returns the number of snapshots that have been stored in the history
+     * @return
+     */
+    public long getHistoryStores();
+
+    /**
+     * Returns the maximal number of equivalence classes observed
+     * @return
+     */
+    public long getMaxEquivalenceClasses();
+
+    /**
+     * Returns the number of transformations that have been checked
+     * @return
+     */
+    public long getNumChecks();
+
+    /**
+     * Returns the number of evaluations of the quality model
+     * @return
+     */
+    public long getNumMetricEvaluations();
+
+    /**
+     * Returns the number of transformations that have been pruned
+     * @return
+     */
+    public long getNumPrunedTransformations();
+
+    /**
+     * Returns the number of roll-up transitions
+     * @return
+     */
+    public long getNumRollupTransitions();
+
+    /**
+     * Returns the number of snapshot transitions
+     * @return
+     */
+    public long getNumSnapshotTransitions();
+
+    /**
+     * Returns the number of unoptimized transitions
+     * @return
+     */
+    public long getNumUnoptimizedTransitions();
+
+    /**
+     * Returns the number of entries processed in roll-up transitions
+     * @return
+     */
+    public long getRowsRollupTransitions();
+
+    /**
+     * Returns the number of entries processed in snapshot transitions
+     * @return
+     */
+    public long getRowsSnapshotTransitions();
+
+    /**
+     * Returns the number of entries processed in unoptimized transitions
+     * @return
+     */
+    public long getRowsUnoptimizedTransitions();
+
+    /**
+     * Returns the time spent evaluating the quality model
+     * @return
+     */
+    public long getTimeMetric();
+
+    /**
+     * Returns the time spent evaluating privacy models
+     * @return
+     */
+    public long getTimePrivacyModels();
+
+    /**
+     * Returns the time spent in roll-up transitions
+     * @return
+     */
+    public long getTimeRollupTransitions();
+
+    /**
+     * Returns the time spent in snapshot transitions
+     * @return
+     */
+    public long getTimeSnapshotTransitions();
+
+    /**
+     * Returns the time spent in unoptimized transitions
+     * @return
+     */
+    public long getTimeUnoptimizedTransitions();
+}
@@ -17,11 +17,14 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.io.IOException;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifySpill;
 import org.deidentifier.arx.framework.check.transformer.AbstractTransformer;
 import org.deidentifier.arx.framework.check.transformer.Transformer01;
 import org.deidentifier.arx.framework.check.transformer.Transformer02;
@@ -76,6 +79,9 @@ public class Transformer {
     /** The buffer. */
     protected int[][]                          outputGeneralized;
 
+    /** Statistics about the search process. */
+    protected final SearchStatistics           statistics;
+
     /**
      * Instantiates a new transformer.
      *
@@ -85,15 +91,18 @@ public class Transformer {
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
+     * @param statistics
      */
     public Transformer(final int[][] inputGeneralized,
                        final int[][] inputAnalyzed,
                        final GeneralizationHierarchy[] hierarchies,
                        final ARXConfigurationInternal config,
                        final IntArrayDictionary dictionarySensValue,
-                       final IntArrayDictionary dictionarySensFreq) {
+                       final IntArrayDictionary dictionarySensFreq,
+                       final SearchStatistics statistics) {
 
         this.config = config;
+        this.statistics = statistics;
         this.inputGeneralized = inputGeneralized;
         this.hierarchies = hierarchies;
         this.instances = new AbstractTransformer[16];
@@ -158,6 +167,48 @@ public class Transformer {
                              TransitionType.ROLLUP);
     }
 
+    /**
+     * Apply rollup from classes which have been spilled to disk. The classes are
+     * read and processed in chunks.
+     * 
+     * @param projection
+     *            the projection
+     * @param state
+     *            the state
+     * @param source
+     *            the source
+     * @param target
+     *            the target
+     * @return the hash groupify
+     * @throws IOException 
+     */
+    public HashGroupify applyRollup(final long projection,
+                                     final int[] state,
+                                     final HashGroupifySpill source,
+                                     final HashGroupify target) throws IOException {
+
+        statistics.recordTransitionRows(TransitionType.ROLLUP, source.getNumberOfEquivalenceClasses());
+        AbstractTransformer app = getApplicator(projection);
+        target.stateClear();
+        HashGroupifyEntry element = source.next();
+        while (element != null) {
+            app.init(projection,
+                     state,
+                     target,
+                     null,
+                     null,
+                     TransitionType.ROLLUP,
+                     0,
+                     0,
+                     0,
+                     element,
+                     outputGeneralized);
+            app.callAndAppend();
+            element = source.next();
+        }
+        return target;
+    }
+
     /**
      * Apply snapshot.
      * 
@@ -342,6 +393,8 @@ public class Transformer {
             break;
         }
 
+        statistics.recordTransitionRows(transition, stopIndex - startIndex);
+
         AbstractTransformer app = null;
 
         app = getApplicator(projection);
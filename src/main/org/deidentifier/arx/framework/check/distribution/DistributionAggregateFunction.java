@@ -17,18 +17,13 @@
 package org.deidentifier.arx.framework.check.distribution;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 
-import cern.colt.GenericSorting;
-import cern.colt.Swapper;
-import cern.colt.function.IntComparator;
 import cern.colt.list.DoubleArrayList;
 
 /**
@@ -434,58 +429,38 @@ public abstract class DistributionAggregateFunction implements Serializable {
             @SuppressWarnings("unchecked")
             final DataType<T> type = (DataType<T>)this.type;
             
-            // Determine median
-            final List<T> values = new ArrayList<T>();
-            final List<Integer> frequencies = new ArrayList<Integer>();
-
             // Collect
             int[] buckets = distribution.getBuckets();
+            int size = 0;
+            for (int i = 0; i < buckets.length; i += 2) {
+                size += buckets[i] != -1 ? 1 : 0;
+            }
+            final int[] values = new int[size];
+            final int[] frequencies = new int[size];
+            int total = 0;
+            int index = 0;
             for (int i = 0; i < buckets.length; i += 2) {
                 int value = buckets[i];
                 if (value != -1) {
                     int frequency = buckets[i + 1];
-                    values.add(type.parse(dictionary[value]));
-                    frequencies.add(frequency);
+                    values[index] = value;
+                    frequencies[index++] = frequency;
+                    total += frequency;
                 }
             }
 
-            // Sort
-            GenericSorting.mergeSort(0, values.size(), new IntComparator() {
-                @Override
-                public int compare(int arg0, int arg1) {
-                    return type.compare(values.get(arg0), values.get(arg1));
-                }
-            }, new Swapper() {
-                @Override
-                public void swap(int arg0, int arg1) {
-                    T temp = values.get(arg0);
-                    values.set(arg0, values.get(arg1));
-                    values.set(arg1, temp);
-                    Integer temp2 = frequencies.get(arg0);
-                    frequencies.set(arg0, frequencies.get(arg1));
-                    frequencies.set(arg1, temp2);
-                }
-            });
-
-            // Accumulate
-            int total = 0;
-            for (int i = 0; i < frequencies.size(); i++) {
-                total += frequencies.get(i);
-                frequencies.set(i, total - 1);
-            }
-
             // Switch
             if (total % 2 == 1) {
-                return type.format(getValueAt(values, frequencies, total / 2));
+                return type.format(getValue(getValueAt(type, values, frequencies, total / 2), type));
             } else if (type instanceof DataTypeWithRatioScale) {
                 @SuppressWarnings("unchecked")
                 DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>) type;
-                double median1 = rType.toDouble(getValueAt(values, frequencies, total / 2 - 1));
-                double median2 = rType.toDouble(getValueAt(values, frequencies, total / 2));
+                double median1 = getDouble(getValueAt(type, values, frequencies, total / 2 - 1), rType);
+                double median2 = getDouble(getValueAt(type, values, frequencies, total / 2), rType);
                 return rType.format(rType.fromDouble((median1 + median2) / 2d));
             } else {
-                T median1 = getValueAt(values, frequencies, total / 2 - 1);
-                T median2 = getValueAt(values, frequencies, total / 2);
+                T median1 = getValue(getValueAt(type, values, frequencies, total / 2 - 1), type);
+                T median2 = getValue(getValueAt(type, values, frequencies, total / 2), type);
                 if ((median1 == null && median2 == null) || median1.equals(median2)) {
                     return type.format(median1);
                 } else {
@@ -517,7 +492,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
             @SuppressWarnings("unchecked")
             DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>) this.type;
             DoubleArrayList list = new DoubleArrayList();
-            Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, dictionary, rType);
+            Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, this, rType);
             while (it.hasNext()) {
                 Double value = it.next();
                 value = value == null ? (ignoreMissingData ? null : 0d) : value;
@@ -550,18 +525,85 @@ public abstract class DistributionAggregateFunction implements Serializable {
         }
 
         /**
-         * Returns the value at
+         * Compares the values with the given indices. Ties are broken by index, which matches
+         * the order of a stable sort.
+         * @param type
          * @param values
-         * @param frequencies
-         * @param index
+         * @param index1
+         * @param index2
          * @return
          */
-        private <T> T getValueAt(List<T> values, List<Integer> frequencies, int index) {
-            int pointer = 0;
-            while (frequencies.get(pointer) < index) {
-                pointer++;
+        private <T> int compare(DataType<T> type, int[] values, int index1, int index2) {
+            int cmp = type.compare(getValue(values[index1], type), getValue(values[index2], type));
+            return cmp != 0 ? cmp : Integer.compare(index1, index2);
+        }
+
+        /**
+         * Returns the value with the given rank, i.e. the value at the given index in the sorted
+         * list of values, in which each value is repeated according to its frequency. Implemented
+         * with a weighted quickselect, which runs in expected linear time.
+         * @param type
+         * @param values indices into the dictionary
+         * @param frequencies
+         * @param rank
+         * @return the index of the value in the dictionary
+         */
+        private <T> int getValueAt(DataType<T> type, int[] values, int[] frequencies, int rank) {
+            
+            // Prepare
+            int[] order = new int[values.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            
+            // Select
+            int from = 0;
+            int to = order.length;
+            while (from < to) {
+                
+                // Partition into smaller and larger values
+                int pivot = order[from + (to - from) / 2];
+                int lower = from;
+                int upper = to;
+                int i = from;
+                while (i < upper) {
+                    int cmp = compare(type, values, order[i], pivot);
+                    if (cmp < 0) {
+                        swap(order, lower++, i++);
+                    } else if (cmp > 0) {
+                        swap(order, i, --upper);
+                    } else {
+                        i++;
+                    }
+                }
+                
+                // Continue with the partition that contains the rank
+                long smaller = 0;
+                for (int j = from; j < lower; j++) {
+                    smaller += frequencies[order[j]];
+                }
+                if (rank < smaller) {
+                    to = lower;
+                } else if (rank < smaller + frequencies[pivot]) {
+                    return values[pivot];
+                } else {
+                    rank -= smaller + frequencies[pivot];
+                    from = upper;
+                }
             }
-            return values.get(pointer);
+            throw new IndexOutOfBoundsException("Invalid rank");
+        }
+
+        /**
+         * Swaps two elements
+         * @param array
+         * @param index1
+         * @param index2
+         */
+        private void swap(int[] array, int index1, int index2) {
+            int temp = array[index1];
+            array[index1] = array[index2];
+            array[index2] = temp;
         }
     }
 
@@ -638,7 +680,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
             @SuppressWarnings("unchecked")
             DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>) this.type;
             DoubleArrayList list = new DoubleArrayList();
-            Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, dictionary, rType);
+            Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, this, rType);
             while (it.hasNext()) {
                 Double value = it.next();
                 value = value == null ? (ignoreMissingData ? null : 0d) : value;
@@ -702,6 +744,14 @@ public abstract class DistributionAggregateFunction implements Serializable {
     protected transient DataType<?> type;
     /** Hierarchy */
     protected transient int[][]     hierarchy;
+    /** Values of the dictionary converted to doubles, parsed lazily */
+    private transient Double[]      doubles;
+    /** Whether an entry of the dictionary has already been parsed */
+    private transient boolean[]     parsed;
+    /** Values of the dictionary, parsed lazily */
+    private transient Object[]      values;
+    /** Whether an entry of the dictionary has already been parsed into a value */
+    private transient boolean[]     parsedValues;
 
     /**
      * Instantiates a new function.
@@ -766,6 +816,10 @@ public abstract class DistributionAggregateFunction implements Serializable {
         this.dictionary = dictionary;
         this.type = type;
         this.hierarchy = hierarchy;
+        this.doubles = null;
+        this.parsed = null;
+        this.values = null;
+        this.parsedValues = null;
     }
     
     /**
@@ -787,7 +841,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
                            Distribution distribution,
                            DataTypeWithRatioScale<T> type,
                            double offset) {
-        Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, dictionary, type);
+        Iterator<Double> it = DistributionIterator.createIteratorDouble(distribution, this, type);
         while (it.hasNext()) {
             Double value = it.next();
             value = value == null ? (ignoreMissingData ? null : 0d) : value;
@@ -797,6 +851,44 @@ public abstract class DistributionAggregateFunction implements Serializable {
         }
     }
 
+    /**
+     * Returns the value with the given index in the dictionary as a double. Each value is parsed only once.
+     * @param index
+     * @param type
+     * @return
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Double getDouble(int index, DataTypeWithRatioScale type) {
+        if (doubles == null) {
+            doubles = new Double[dictionary.length];
+            parsed = new boolean[dictionary.length];
+        }
+        if (!parsed[index]) {
+            doubles[index] = type.toDouble(type.parse(dictionary[index]));
+            parsed[index] = true;
+        }
+        return doubles[index];
+    }
+
+    /**
+     * Returns the value with the given index in the dictionary. Each value is parsed only once.
+     * @param index
+     * @param type
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T getValue(int index, DataType<T> type) {
+        if (values == null) {
+            values = new Object[dictionary.length];
+            parsedValues = new boolean[dictionary.length];
+        }
+        if (!parsedValues[index]) {
+            values[index] = type.parse(dictionary[index]);
+            parsedValues[index] = true;
+        }
+        return (T) values[index];
+    }
+
     /**
      * Returns the minimum and maximum value
      * @param dictionary
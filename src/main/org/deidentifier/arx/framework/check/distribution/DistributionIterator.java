@@ -36,25 +36,26 @@ public abstract class DistributionIterator<T> implements Iterator<T>{
     private static class DistributionIteratorDouble extends DistributionIterator<Double> {
         
         /** The data type */
-        @SuppressWarnings("rawtypes")
-        private final DataTypeWithRatioScale type;
+        private final DataTypeWithRatioScale<?>     type;
 
+        /** The function, which caches parsed values */
+        private final DistributionAggregateFunction function;
 
         /**
          * Constructor
          * @param distribution
-         * @param dictionary
+         * @param function
          * @param type
          */
-        DistributionIteratorDouble(Distribution distribution, String[] dictionary, DataTypeWithRatioScale<?> type) {
-            super(distribution, dictionary);
+        DistributionIteratorDouble(Distribution distribution, DistributionAggregateFunction function, DataTypeWithRatioScale<?> type) {
+            super(distribution, function.dictionary);
+            this.function = function;
             this.type = type;
         }
 
-        @SuppressWarnings("unchecked")
         @Override
-        protected Double parse(String value) {
-            return type.toDouble(type.parse(value));
+        protected Double parse(int value) {
+            return function.getDouble(value, type);
         }
     }
 
@@ -75,20 +76,20 @@ public abstract class DistributionIterator<T> implements Iterator<T>{
         }
 
         @Override
-        protected String parse(String value) {
-            return value;
+        protected String parse(int value) {
+            return dictionary[value];
         }
     }
 
     /**
-     * Returns a string iterator
+     * Returns a double iterator, which uses the values cached by the given function
      * @param distribution
-     * @param dictionary
+     * @param function
      * @param type
      * @return
      */
-    static Iterator<Double> createIteratorDouble(Distribution distribution, String[] dictionary, DataTypeWithRatioScale<?> type) {
-        return new DistributionIteratorDouble(distribution, dictionary, type);
+    static Iterator<Double> createIteratorDouble(Distribution distribution, DistributionAggregateFunction function, DataTypeWithRatioScale<?> type) {
+        return new DistributionIteratorDouble(distribution, function, type);
     }
 
     /**
@@ -105,7 +106,7 @@ public abstract class DistributionIterator<T> implements Iterator<T>{
     private final int[]    buckets;
 
     /** The dictionary. */
-    private final String[] dictionary;
+    protected final String[] dictionary;
 
     /** The index of the next bucket. */
     private int            nextBucket = 0;
@@ -186,15 +187,15 @@ public abstract class DistributionIterator<T> implements Iterator<T>{
         }
         
         // Store
-        currentValue = parse(dictionary[value]);
+        currentValue = parse(value);
         currentFrequency = buckets[nextBucket - 1];
         currentValid = true;
     }
 
     /**
-     * Parses the given value
+     * Parses the value with the given index in the dictionary
      * @param value
      * @return
      */
-    protected abstract T parse(String value);
+    protected abstract T parse(int value);
 }
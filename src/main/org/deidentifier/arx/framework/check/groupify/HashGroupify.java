@@ -17,8 +17,14 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.common.SharedThreadPool;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
@@ -30,7 +36,6 @@ import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.Metric;
 
-import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
  * A hash groupify operator. It implements a hash table with chaining and keeps
@@ -40,6 +45,9 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
  * @author Florian Kohlmayer
  */
 public class HashGroupify {
+
+    /** Minimal number of classes per thread when aggregating in parallel */
+    private static final int             PARALLEL_THRESHOLD  = 10000;
         
     /** Criteria. */
     private final PrivacyCriterion[]     classBasedCriteria;
@@ -79,6 +87,9 @@ public class HashGroupify {
     
     /** The research subset, if d-presence is contained in the set of criteria. */
     private final RowSet                 privacyModelDefinesSubset;
+
+    /** Weights of the rows, if the sum of the weights must be tracked per class. */
+    private final int[]                  rowWeights;
     
     /** Is the result anonymous. */
     private boolean                      privacyModelFulfilled;
@@ -110,6 +121,7 @@ public class HashGroupify {
         this.currentNumOutliers = 0;
         this.suppressionLimit = config.getAbsoluteMaxOutliers();
         this.utilityMeasure = config.getQualityModel();
+        this.rowWeights = this.utilityMeasure.getRowWeights();
         this.heuristicForSampleBasedCriteria = config.isUseHeuristicForSampleBasedCriteria();
         
         // Extract research subset
@@ -150,6 +162,11 @@ public class HashGroupify {
         final int hash = HashTableUtil.hashcode(generalized);
         final HashGroupifyEntry entry = addInternal(generalized, hash, representative, count, pcount);
         
+        // Track weights
+        if (rowWeights != null) {
+            entry.weight += rowWeights[representative];
+        }
+        
         // Is a other attribute provided
         if (other != null) {
             if (entry.distributions == null) {
@@ -179,12 +196,14 @@ public class HashGroupify {
      * @param representative
      * @param count
      * @param pcount
+     * @param weight
      */
-    public void addFromGroupify(int[] generalized, Distribution[] distributions, int representative, int count, int pcount) {
+    public void addFromGroupify(int[] generalized, Distribution[] distributions, int representative, int count, int pcount, long weight) {
         
         // Add
         final int hash = HashTableUtil.hashcode(generalized);
         final HashGroupifyEntry entry = addInternal(generalized, hash, representative, count, pcount);
+        entry.weight += weight;
         
         // Is a distribution provided
         if (distributions != null) {
@@ -208,12 +227,14 @@ public class HashGroupify {
      * @param representative
      * @param count
      * @param pcount
+     * @param weight
      */
-    public void addFromSnapshot(int[] generalized, int[][] elements, int[][] frequencies, int representative, int count, int pcount) {
+    public void addFromSnapshot(int[] generalized, int[][] elements, int[][] frequencies, int representative, int count, int pcount, long weight) {
         
         // Add
         final int hash = HashTableUtil.hashcode(generalized);
         final HashGroupifyEntry entry = addInternal(generalized, hash, representative, count, pcount);
+        entry.weight += weight;
         
         // Is a distribution provided
         if (elements != null) {
@@ -279,7 +300,10 @@ public class HashGroupify {
     }
     
     /**
-     * Microaggregates all according attributes
+     * Microaggregates all according attributes and, if requested, marks all outliers in the given
+     * (generalized subset of the) input dataset. This is performed in one pass over the data. Aggregates
+     * are computed once per equivalence class, in parallel for large numbers of classes.
+     * 
      * @param data
      * @param start
      * @param num
@@ -287,24 +311,37 @@ public class HashGroupify {
      * @param map
      * @param header
      * @param dictionary
+     * @param suppress
      * @return
      */
-    public Data performMicroaggregation(int[][] data,
-                                        int start,
-                                        int num,
-                                        DistributionAggregateFunction[] functions,
-                                        int[] map,
-                                        String[] header,
-                                        Dictionary dictionary) {
+    public Data performMicroaggregationAndSuppression(int[][] data,
+                                                      int start,
+                                                      int num,
+                                                      DistributionAggregateFunction[] functions,
+                                                      int[] map,
+                                                      String[] header,
+                                                      Dictionary dictionary,
+                                                      boolean suppress) {
         
         // Prepare result
         Data result = new Data(new int[data.length][num], header, map, dictionary);
+        int[][] output = result.getArray();
+
+        // Aggregate all classes that contain rows
+        List<HashGroupifyEntry> entries = new ArrayList<HashGroupifyEntry>();
+        HashGroupifyEntry entry = hashTableFirstEntry;
+        while (entry != null) {
+            if (entry.count > 0) {
+                entries.add(entry);
+            }
+            entry = entry.nextOrdered;
+        }
+        aggregate(entries, start, num, functions);
 
-        // TODO: To improve performance, microaggregation and marking of outliers could be performed in one pass
-        ObjectIntOpenHashMap<Distribution> cache = new ObjectIntOpenHashMap<Distribution>();
+        // Write codes and mark outliers. Codes are registered in the order of rows.
         for (int row = 0; row < data.length; row++) {
+            final int[] key = data[row];
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int[] key = data[row];
                 final int hash = HashTableUtil.hashcode(key);
                 final int index = hash & (hashTableBuckets.length - 1);
                 HashGroupifyEntry m = hashTableBuckets[index];
@@ -312,20 +349,31 @@ public class HashGroupify {
                     m = m.next;
                 }
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before microaggregation!"); }
-                int dimension = 0;
-                result.getArray()[row] = new int[num];
-                for (int i = start; i < start + num; i++) {
-                    if (!cache.containsKey(m.distributions[i])) {
-                        String value = functions[dimension].aggregate(m.distributions[i]);
-                        int code = result.getDictionary().register(dimension, value);
-                        cache.put(m.distributions[i], code);
+                if (m.aggregateCodes == null) {
+                    if (m.aggregates == null) {
+                        entries.add(m);
+                        aggregate(entries, entries.size() - 1, entries.size(), start, num, functions);
+                    }
+                    m.aggregateCodes = new int[num];
+                    for (int dimension = 0; dimension < num; dimension++) {
+                        m.aggregateCodes[dimension] = dictionary.register(dimension, m.aggregates[dimension]);
                     }
-                    result.getArray()[row][dimension] = cache.get(m.distributions[i]);
-                    dimension++;
                 }
+                System.arraycopy(m.aggregateCodes, 0, output[row], 0, num);
+                if (suppress && !m.isNotOutlier) {
+                    key[0] |= Data.OUTLIER_MASK;
+                }
+            } else if (suppress) {
+                key[0] |= Data.OUTLIER_MASK;
             }
         }
         
+        // Release
+        for (HashGroupifyEntry e : entries) {
+            e.aggregates = null;
+            e.aggregateCodes = null;
+        }
+        
         // Finalize
         result.getDictionary().finalizeAll();
         
@@ -395,6 +443,83 @@ public class HashGroupify {
         this.currentNumOutliers = 0;
     }
     
+    /**
+     * Computes the aggregates of the given classes. Uses multiple threads from the shared pool,
+     * each working with its own copies of the functions, if there are many classes.
+     * 
+     * @param entries
+     * @param start
+     * @param num
+     * @param functions
+     */
+    private void aggregate(final List<HashGroupifyEntry> entries,
+                           final int start,
+                           final int num,
+                           final DistributionAggregateFunction[] functions) {
+        
+        final int threads = Math.min(Runtime.getRuntime().availableProcessors(), entries.size() / PARALLEL_THRESHOLD);
+        if (threads <= 1) {
+            aggregate(entries, 0, entries.size(), start, num, functions);
+            return;
+        }
+        
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        try {
+            final int size = (entries.size() + threads - 1) / threads;
+            for (int i = 0; i < threads; i++) {
+                final int from = i * size;
+                final int to = Math.min(entries.size(), from + size);
+                futures.add(SharedThreadPool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        DistributionAggregateFunction[] clones = new DistributionAggregateFunction[functions.length];
+                        for (int j = 0; j < clones.length; j++) {
+                            clones[j] = functions[j].clone();
+                        }
+                        aggregate(entries, from, to, start, num, clones);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during microaggregation", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error during microaggregation", e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Computes the aggregates of the given range of classes.
+     * 
+     * @param entries
+     * @param from
+     * @param to
+     * @param start
+     * @param num
+     * @param functions
+     */
+    private void aggregate(List<HashGroupifyEntry> entries,
+                           int from,
+                           int to,
+                           int start,
+                           int num,
+                           DistributionAggregateFunction[] functions) {
+        for (int i = from; i < to; i++) {
+            HashGroupifyEntry entry = entries.get(i);
+            entry.aggregates = new String[num];
+            for (int dimension = 0; dimension < num; dimension++) {
+                entry.aggregates[dimension] = functions[dimension].aggregate(entry.distributions[start + dimension]);
+            }
+        }
+    }
+
     /**
      * Internal adder method.
      *
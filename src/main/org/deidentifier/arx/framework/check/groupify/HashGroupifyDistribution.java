@@ -17,11 +17,9 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution.PrivacyCondition.State;
@@ -46,7 +44,9 @@ import org.deidentifier.arx.risk.RiskModelHistogram;
 import com.carrotsearch.hppc.IntIntOpenHashMap;
 
 /**
- * A distribution of equivalence classes
+ * A distribution of equivalence classes. Classes which can be suppressed are bucketed by size,
+ * which means that the histogram of class sizes can be maintained incrementally while classes
+ * are being suppressed.
  * @author Fabian Prasser
  */
 public class HashGroupifyDistribution {
@@ -75,8 +75,10 @@ public class HashGroupifyDistribution {
         public State isFulfilled(HashGroupifyDistribution distribution);
     }
 
-    /** The backing map */
-    private IntIntOpenHashMap   distribution = new IntIntOpenHashMap();
+    /** The distinct sizes of classes, in ascending order */
+    private int[]               sizes;
+    /** The number of classes per size that are currently not suppressed */
+    private int[]               counts;
     /** The number of suppressed tuples */
     private int                 numSuppressed   = 0;
     /** Entries that can be suppressed */
@@ -93,22 +95,55 @@ public class HashGroupifyDistribution {
      * @param transformation
      * @param entry
      */
-    HashGroupifyDistribution(final Metric<?> metric,
-                             final Transformation transformation,
-                             HashGroupifyEntry entry) {
+    public HashGroupifyDistribution(final Metric<?> metric,
+                                    final Transformation transformation,
+                                    HashGroupifyEntry entry) {
         
         // Initialize
-        List<HashGroupifyEntry> list = new ArrayList<HashGroupifyEntry>();
+        IntIntOpenHashMap distribution = new IntIntOpenHashMap();
+        HashGroupifyEntry first = entry;
+        int size = 0;
         while(entry != null) {
             if (entry.isNotOutlier && entry.count > 0) {
-                addToDistribution(entry.count);
-                list.add(entry);
+                distribution.putOrAdd(entry.count, 1, 1);
+                this.numClasses++;
+                this.numRecords += entry.count;
+                size++;
             } else {
                 this.numSuppressed += entry.count;
             }
             entry = entry.nextOrdered;
         }
         
+        // Distinct sizes in ascending order
+        this.sizes = new int[distribution.size()];
+        int index = 0;
+        for (int i = 0; i < distribution.allocated.length; i++) {
+            if (distribution.allocated[i]) {
+                this.sizes[index++] = distribution.keys[i];
+            }
+        }
+        Arrays.sort(this.sizes);
+        
+        // Count classes per size and turn the distribution into offsets of buckets
+        this.counts = new int[this.sizes.length];
+        int[] offsets = new int[this.sizes.length + 1];
+        for (int i = 0; i < this.sizes.length; i++) {
+            this.counts[i] = distribution.get(this.sizes[i]);
+            offsets[i + 1] = offsets[i] + this.counts[i];
+            distribution.put(this.sizes[i], offsets[i]);
+        }
+        
+        // Counting sort by size
+        this.entries = new HashGroupifyEntry[size];
+        entry = first;
+        while(entry != null) {
+            if (entry.isNotOutlier && entry.count > 0) {
+                this.entries[distribution.addTo(entry.count, 1) - 1] = entry;
+            }
+            entry = entry.nextOrdered;
+        }
+        
         Comparator<HashGroupifyEntry> comparator;
         
         // Blacklist metrics for which information loss of individual entries
@@ -168,9 +203,12 @@ public class HashGroupifyDistribution {
             };
         }
             
-        // Sort & store suppressible entries
-        Collections.sort(list, comparator);
-        this.entries = list.toArray(new HashGroupifyEntry[list.size()]);
+        // Sort entries within each bucket
+        for (int i = 0; i < this.sizes.length; i++) {
+            if (offsets[i + 1] - offsets[i] > 1) {
+                Arrays.sort(this.entries, offsets[i], offsets[i + 1], comparator);
+            }
+        }
     }
     
     /**
@@ -187,14 +225,15 @@ public class HashGroupifyDistribution {
      * @return
      */
     public double getFractionOfRecordsInClassesOfSize(int size) {
-        return (double)distribution.get(size) * (double)size / numRecords;
+        int index = Arrays.binarySearch(sizes, size);
+        return index < 0 ? 0d : (double)counts[index] * (double)size / numRecords;
     }
 
     /**
      * Returns a set of classes as an input for the risk model
      */
     public RiskModelHistogram getHistogram() {
-        return new RiskModelHistogram(this.distribution);
+        return new RiskModelHistogram(this.sizes, this.counts);
     }
 
     /**
@@ -306,7 +345,7 @@ public class HashGroupifyDistribution {
     private void addToDistribution(int size) {
         this.numClasses++;
         this.numRecords += size;
-        this.distribution.putOrAdd(size, 1, 1);   
+        this.counts[Arrays.binarySearch(this.sizes, size)]++;
     }
 
     /**
@@ -316,10 +355,7 @@ public class HashGroupifyDistribution {
     private void removeFromDistribution(int size) {
         this.numClasses--;
         this.numRecords -= size;
-        int previous = distribution.remove(size);
-        if (previous != 1) {
-            distribution.put(size, previous - 1);
-        }
+        this.counts[Arrays.binarySearch(this.sizes, size)]--;
     }
 
     /**
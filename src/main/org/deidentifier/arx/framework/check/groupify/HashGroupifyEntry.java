@@ -54,6 +54,15 @@ public class HashGroupifyEntry {
     /** Frequency set for other attributes *. */
     public Distribution[]    distributions;
 
+    /** Sum of the weights of the rows in this class, only tracked if the quality model defines row weights. */
+    public long              weight         = 0L;
+
+    /** Aggregates of microaggregated attributes, only set during microaggregation. */
+    public String[]          aggregates     = null;
+
+    /** Codes of the aggregates, only set during microaggregation. */
+    public int[]             aggregateCodes = null;
+
     /**
      * Creates a new entry.
      * 
@@ -0,0 +1,200 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+
+/**
+ * The equivalence classes of a hash groupify operator, which have been spilled to a temporary
+ * file. Only the information required for roll-ups is stored, i.e. the representative, the
+ * counters and the distributions of each class, in a compact binary layout. The classes can
+ * be read back in chunks in their original order.
+ *
+ * @author Fabian Prasser
+ */
+public class HashGroupifySpill implements Closeable {
+
+    /** Number of classes per chunk */
+    private static final int      CHUNK_SIZE  = 1 << 14;
+
+    /** Size of the buffers */
+    private static final int      BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes all classes of the given groupify to a temporary file and clears the groupify.
+     *
+     * @param groupify
+     * @return
+     * @throws IOException
+     */
+    public static HashGroupifySpill create(HashGroupify groupify) throws IOException {
+
+        File file = File.createTempFile("arx-groupify-", ".bin");
+        int classes = groupify.getNumberOfEquivalenceClasses();
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            HashGroupifyEntry entry = groupify.getFirstEquivalenceClass();
+            while (entry != null) {
+                output.writeInt(entry.representative);
+                output.writeInt(entry.count);
+                output.writeInt(entry.pcount);
+                output.writeLong(entry.weight);
+                if (entry.distributions == null) {
+                    output.writeInt(0);
+                } else {
+                    output.writeInt(entry.distributions.length);
+                    for (Distribution distribution : entry.distributions) {
+                        int[] buckets = distribution.getBuckets();
+                        output.writeInt(distribution.size());
+                        for (int i = 0; i < buckets.length; i += 2) {
+                            if (buckets[i] != -1) {
+                                output.writeInt(buckets[i]);
+                                output.writeInt(buckets[i + 1]);
+                            }
+                        }
+                    }
+                }
+                entry = entry.nextOrdered;
+            }
+            output.close();
+            output = null;
+        } catch (IOException e) {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException ignored) {
+                    // Ignore
+                }
+            }
+            file.delete();
+            throw e;
+        }
+        groupify.stateClear();
+        try {
+            return new HashGroupifySpill(file, classes);
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        } catch (RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+    }
+
+    /** The file */
+    private final File                file;
+
+    /** The number of classes */
+    private final int                 classes;
+
+    /** The input stream */
+    private final DataInputStream     input;
+
+    /** The number of classes that have not been read */
+    private int                       remaining;
+
+    /** Entries which are reused for each chunk */
+    private final HashGroupifyEntry[] chunk;
+
+    /**
+     * Creates a new instance
+     * @param file
+     * @param classes
+     * @throws IOException
+     */
+    private HashGroupifySpill(File file, int classes) throws IOException {
+        this.file = file;
+        this.classes = classes;
+        this.remaining = classes;
+        this.chunk = new HashGroupifyEntry[Math.min(CHUNK_SIZE, Math.max(classes, 1))];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = new HashGroupifyEntry(null, 0);
+        }
+        this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+    }
+
+    @Override
+    public void close() {
+        try {
+            input.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+        file.delete();
+    }
+
+    /**
+     * Returns the number of classes
+     * @return
+     */
+    public int getNumberOfEquivalenceClasses() {
+        return classes;
+    }
+
+    /**
+     * Reads the next chunk of classes. Returns the first class of the chunk, the others can be
+     * accessed via <code>HashGroupifyEntry.nextOrdered</code>. Returns null if all classes have
+     * been read. Entries are reused and are only valid until the next chunk is read.
+     *
+     * @return
+     * @throws IOException
+     */
+    public HashGroupifyEntry next() throws IOException {
+
+        if (remaining == 0) {
+            return null;
+        }
+        int size = Math.min(remaining, chunk.length);
+        for (int i = 0; i < size; i++) {
+            HashGroupifyEntry entry = chunk[i];
+            entry.representative = input.readInt();
+            entry.count = input.readInt();
+            entry.pcount = input.readInt();
+            entry.weight = input.readLong();
+            int length = input.readInt();
+            if (length == 0) {
+                entry.distributions = null;
+            } else {
+                entry.distributions = new Distribution[length];
+                for (int j = 0; j < length; j++) {
+                    int[] elements = new int[input.readInt()];
+                    int[] frequencies = new int[elements.length];
+                    for (int k = 0; k < elements.length; k++) {
+                        elements[k] = input.readInt();
+                        frequencies[k] = input.readInt();
+                    }
+                    entry.distributions[j] = new Distribution(elements, frequencies);
+                }
+            }
+            entry.nextOrdered = i + 1 < size ? chunk[i + 1] : null;
+        }
+        remaining -= size;
+        return chunk[0];
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Iterator;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.SearchStatistics;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -65,6 +66,9 @@ public class History {
     /** The current requirements. */
     private final int                       requirements;
 
+    /** Whether the sum of the weights of the rows is stored at the end of each entry. */
+    private final boolean                   rowWeights;
+
     /** The node backing the last returned snapshot. */
     private MRUCacheEntryMetadata           resultMetadata;
 
@@ -80,6 +84,9 @@ public class History {
     /** The solution space */
     private final SolutionSpace             solutionSpace;
 
+    /** Statistics about the search process */
+    private final SearchStatistics          statistics;
+
     /** Store the results of all types of transformations. */
     private final DependentAction STORAGE_TRIGGER_ALL = new DependentAction(){
         @Override
@@ -110,6 +117,7 @@ public class History {
      * @param dictionarySensValue
      * @param dictionarySensFreq
      * @param solutionSpace
+     * @param statistics
      */
     public History(final int rowCount,
                    final int size,
@@ -118,7 +126,8 @@ public class History {
                    final ARXConfigurationInternal config,
                    final IntArrayDictionary dictionarySensValue,
                    final IntArrayDictionary dictionarySensFreq,
-                   final SolutionSpace solutionSpace) {
+                   final SolutionSpace solutionSpace,
+                   final SearchStatistics statistics) {
         
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
@@ -129,8 +138,10 @@ public class History {
         this.dictionarySensValue = dictionarySensValue;
         this.config = config;
         this.requirements = config.getRequirements();
+        this.rowWeights = config.getQualityModel().isRowWeightsRequired();
         this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
         this.solutionSpace = solutionSpace;
+        this.statistics = statistics;
     }
     
     /**
@@ -167,6 +178,7 @@ public class History {
             cache.touch(resultMetadata);
         }
         this.resultMetadata = resultMetadata;
+        this.statistics.recordHistoryLookup(resultSnapshot != null);
 
         // Return
         return resultSnapshot;
@@ -285,8 +297,10 @@ public class History {
         cleanUpHistory();
 
         // Perform LRU eviction, if still too large
+        boolean eviction = false;
         if (cache.size() >= size) {
             removeHistoryEntry(cache.removeHead());
+            eviction = true;
         }
         
         // Create the snapshot
@@ -296,6 +310,7 @@ public class History {
         // assign snapshot and keep reference for cache
         nodeToSnapshot.put(transformation.getIdentifier(), data);
         cache.append(new MRUCacheEntryMetadata(transformation));
+        statistics.recordHistoryStore(eviction);
 
         return true;
     }
@@ -360,6 +375,11 @@ public class History {
             default:
                 throw new RuntimeException("Invalid requirements: " + requirements);
             }
+            // Add the sum of the weights
+            if (rowWeights) {
+                data[index + config.getSnapshotLength() - 2] = (int) (m.weight >>> 32);
+                data[index + config.getSnapshotLength() - 1] = (int) m.weight;
+            }
             index += config.getSnapshotLength();
             // Next element
             m = m.nextOrdered;
@@ -374,11 +394,12 @@ public class History {
      */
     private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
         final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+        final int length = config.getSnapshotLength() - (rowWeights ? 2 : 0);
 
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
             for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
-                for (int j = i + 3; j < i + config.getSnapshotLength() - 1; j += 2) {
+                for (int j = i + 3; j < i + length - 1; j += 2) {
                     dictionarySensValue.decrementRefCount(snapshot[j]);
                     dictionarySensFreq.decrementRefCount(snapshot[j+1]);
                 }
@@ -388,7 +409,7 @@ public class History {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
         case ARXConfiguration.REQUIREMENT_DISTRIBUTION:
             for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
-                for (int j = i + 2; j < i + config.getSnapshotLength() - 1; j += 2) {
+                for (int j = i + 2; j < i + length - 1; j += 2) {
                     dictionarySensValue.decrementRefCount(snapshot[j]);
                     dictionarySensFreq.decrementRefCount(snapshot[j+1]);
                 }
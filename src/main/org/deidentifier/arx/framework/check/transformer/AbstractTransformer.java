@@ -48,12 +48,12 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
         @Override
         public final void callGroupify(final int[] outtuple, final HashGroupifyEntry element) {
-            groupify.addFromGroupify(outtuple, null, element.representative, element.count, -1);
+            groupify.addFromGroupify(outtuple, null, element.representative, element.count, -1, element.weight);
         }
 
         @Override
         public final void callSnapshot(final int[] outtuple, final int[] snapshot, final int i) {
-            groupify.addFromSnapshot(outtuple, null, null, snapshot[i], snapshot[i + 1], -1);
+            groupify.addFromSnapshot(outtuple, null, null, snapshot[i], snapshot[i + 1], -1, getWeight(snapshot, i));
         }
     }
 
@@ -70,7 +70,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
         @Override
         public final void callGroupify(final int[] outtuple, final HashGroupifyEntry element) {
-            groupify.addFromGroupify(outtuple, element.distributions, element.representative, element.count, -1);
+            groupify.addFromGroupify(outtuple, element.distributions, element.representative, element.count, -1, element.weight);
         }
 
         @Override
@@ -81,13 +81,13 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
             int[][] frequencies = new int[otherData[0].length][];
             int index = 0;
             int offset = i + 2;
-            int length = config.getSnapshotLength() - 1 - 2;
+            int length = config.getSnapshotLength() - ssWeightWidth - 1 - 2;
             for (int j = offset; j < offset + length; j += 2) {
                 values[index] = dictionarySensValue.get(snapshot[j]);
                 frequencies[index++] = dictionarySensFreq.get(snapshot[j + 1]);
             }
             
-            groupify.addFromSnapshot(outtuple, values, frequencies, snapshot[i], snapshot[i + 1], -1);
+            groupify.addFromSnapshot(outtuple, values, frequencies, snapshot[i], snapshot[i + 1], -1, getWeight(snapshot, i));
         }
     }
 
@@ -104,12 +104,12 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
         @Override
         public final void callGroupify(final int[] outtuple, final HashGroupifyEntry element) {
-            groupify.addFromGroupify(outtuple, null, element.representative, element.count, element.pcount);
+            groupify.addFromGroupify(outtuple, null, element.representative, element.count, element.pcount, element.weight);
         }
 
         @Override
         public final void callSnapshot(final int[] outtuple, final int[] snapshot, final int i) {
-            groupify.addFromSnapshot(outtuple, null, null, snapshot[i], snapshot[i + 1], snapshot[i + 2]);
+            groupify.addFromSnapshot(outtuple, null, null, snapshot[i], snapshot[i + 1], snapshot[i + 2], getWeight(snapshot, i));
         }
     }
 
@@ -127,7 +127,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
         @Override
         public final void callGroupify(final int[] outtuple, final HashGroupifyEntry element) {
-            groupify.addFromGroupify(outtuple, element.distributions, element.representative, element.count, element.pcount);
+            groupify.addFromGroupify(outtuple, element.distributions, element.representative, element.count, element.pcount, element.weight);
         }
 
         @Override
@@ -138,13 +138,13 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
             int[][] frequencies = new int[otherData[0].length][];
             int index = 0;
             int offset = i + 3;
-            int length = config.getSnapshotLength() - 1 - 3;
+            int length = config.getSnapshotLength() - ssWeightWidth - 1 - 3;
             for (int j = offset; j < offset + length; j += 2) {
                 values[index] = dictionarySensValue.get(snapshot[j]);
                 frequencies[index++] = dictionarySensFreq.get(snapshot[j + 1]);
             }
 
-            groupify.addFromSnapshot(outtuple, values, frequencies, snapshot[i], snapshot[i + 1], snapshot[i + 2]);
+            groupify.addFromSnapshot(outtuple, values, frequencies, snapshot[i], snapshot[i + 1], snapshot[i + 2], getWeight(snapshot, i));
         }
     }
 
@@ -162,7 +162,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
         @Override
         public final void callGroupify(final int[] outtuple, final HashGroupifyEntry element) {
-            groupify.addFromGroupify(outtuple, element.distributions, element.representative, element.count, -1);
+            groupify.addFromGroupify(outtuple, element.distributions, element.representative, element.count, -1, element.weight);
         }
 
         @Override
@@ -173,13 +173,13 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
             int[][] frequencies = new int[otherData[0].length][];
             int index = 0;
             int offset = i + 2;
-            int length = config.getSnapshotLength() - 1 - 2;
+            int length = config.getSnapshotLength() - ssWeightWidth - 1 - 2;
             for (int j = offset; j < offset + length; j += 2) {
                 values[index] = dictionarySensValue.get(snapshot[j]);
                 frequencies[index++] = dictionarySensFreq.get(snapshot[j + 1]);
             }
 
-            groupify.addFromSnapshot(outtuple, values, frequencies, snapshot[i], snapshot[i + 1], -1);
+            groupify.addFromSnapshot(outtuple, values, frequencies, snapshot[i], snapshot[i + 1], -1, getWeight(snapshot, i));
         }
     }
 
@@ -305,6 +305,9 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     
     /** The size of one snapshopt entry *. */
     protected final int                       ssStepWidth;
+
+    /** The number of ints at the end of a snapshot entry, which store the sum of row weights. */
+    protected final int                       ssWeightWidth;
     /** The start index. */
     protected int                             startIndex;
     
@@ -385,6 +388,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.ssStepWidth = config.getSnapshotLength();
+        this.ssWeightWidth = config.getQualityModel().isRowWeightsRequired() ? 2 : 0;
 
         // Init arrays
         this.dimensions = data[0].length;
@@ -432,6 +436,16 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     public HashGroupify call() {
         // clear local groupify
         groupify.stateClear();
+        return callAndAppend();
+    }
+
+    /**
+     * Processes the input without clearing the groupify before, which allows to process
+     * input in chunks.
+     *
+     * @return
+     */
+    public HashGroupify callAndAppend() {
 
         switch (transition) {
         case UNOPTIMIZED:
@@ -622,6 +636,21 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         outindex14 = outindices2[14];
     }
 
+    /**
+     * Returns the sum of the row weights stored in the snapshot entry at the given index,
+     * or 0 if no row weights are tracked.
+     *
+     * @param snapshot
+     * @param i
+     * @return
+     */
+    protected final long getWeight(final int[] snapshot, final int i) {
+        if (ssWeightWidth == 0) {
+            return 0L;
+        }
+        return ((long) snapshot[i + ssStepWidth - 2] << 32) | (snapshot[i + ssStepWidth - 1] & 0xFFFFFFFFL);
+    }
+
     /**
      * Process complete input dataset.
      */
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import org.deidentifier.arx.AttributeType.Hierarchy.FunctionHierarchy;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.DataGeneralizationScheme;
 import org.deidentifier.arx.DataSubset;
@@ -262,7 +263,12 @@ public class DataManager {
                 map[idx] == AttributeTypeInternal.QUASI_IDENTIFYING_GENERALIZED) {
                 final int dictionaryIndex = map[idx + 1];
                 final String name = header[i];
-                if (definition.getHierarchy(name) != null) {
+                if (definition.getHierarchyObject(name) instanceof FunctionHierarchy) {
+                    hierarchiesGeneralized[dictionaryIndex] = new GeneralizationHierarchy(name,
+                                                                                          ((FunctionHierarchy)definition.getHierarchyObject(name)).getFunction(),
+                                                                                          dictionaryIndex,
+                                                                                          dictionaryGeneralized);
+                } else if (definition.getHierarchy(name) != null) {
                     hierarchiesGeneralized[dictionaryIndex] = new GeneralizationHierarchy(name,
                                                                                           definition.getHierarchy(name),
                                                                                           dictionaryIndex,
@@ -282,7 +288,7 @@ public class DataManager {
         
         // Change min & max, when using (e,d)-DP
         for (PrivacyCriterion c : criteria) {
-            if (c instanceof EDDifferentialPrivacy) {
+            if (c instanceof EDDifferentialPrivacy && !((EDDifferentialPrivacy)c).isDataDependent()) {
                 DataGeneralizationScheme scheme = ((EDDifferentialPrivacy)c).getGeneralizationScheme();
                 for (int i = 0; i < header.length; i++) {
                     final int idx = i * 2;
@@ -566,6 +572,11 @@ public class DataManager {
                                                            hierarchiesGeneralized[i].getArray(),
                                                            dataGeneralized.getDictionary().getMapping()[i]);
                     
+                // Create shares for implicit hierarchies
+                } else if (hierarchy == null) {
+                    this.shares[i] = new DomainShareMaterialized(dataGeneralized.getDictionary().getMapping()[i],
+                                                                 hierarchiesGeneralized[i].getArray());
+
                 // Create fallback-shares for materialized hierarchies
                 } else {
                     this.shares[i] = new DomainShareMaterialized(hierarchy, 
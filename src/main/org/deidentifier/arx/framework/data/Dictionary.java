@@ -123,6 +123,26 @@ public class Dictionary {
         return maps[dimension].size();
     }
 
+    /**
+     * Returns the values contained before finalizing the dictionary, indexed by their codes.
+     *
+     * @param dimension
+     * @return
+     */
+    public String[] getUnfinalizedValues(final int dimension) {
+        final ObjectIntOpenHashMap<String> map = maps[dimension];
+        final String[] result = new String[map.size()];
+        final Object[] keys = map.keys;
+        final int[] values = map.values;
+        final boolean[] allocated = map.allocated;
+        for (int i = 0; i < allocated.length; i++) {
+            if (allocated[i]) {
+                result[values[i]] = (String) keys[i];
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the registered value if present, null otherwise.
      *
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.data;
 
+import org.deidentifier.arx.aggregates.HierarchyFunction;
+
 import com.carrotsearch.hppc.IntIntOpenHashMap;
 import com.carrotsearch.hppc.IntOpenHashSet;
 
@@ -77,17 +79,7 @@ public class GeneralizationHierarchy {
         }
 
         // Count distinct values on each level
-        distinctValues = new int[height];
-        final IntOpenHashSet vals = new IntOpenHashSet();
-
-        // for each column
-        for (int i = 0; i < map[0].length; i++) {
-            for (int k = 0; k < map.length; k++) {
-                vals.add(map[k][i]);
-            }
-            distinctValues[i] = vals.size();
-            vals.clear();
-        }
+        distinctValues = getDistinctValues(map, height);
 
         // Sanity check
         if (distinctValues[0] < uniqueIn) {
@@ -95,6 +87,44 @@ public class GeneralizationHierarchy {
         }
     }
 
+    /**
+     * Creates a new generalization hierarchy from an implicit hierarchy. The function is
+     * only evaluated for values contained in the data and generalized values are encoded
+     * directly, without materializing the hierarchy.
+     *
+     * @param name
+     * @param function
+     * @param dimension
+     * @param dictionary
+     */
+    public GeneralizationHierarchy(final String name,
+                                   final HierarchyFunction function,
+                                   final int dimension,
+                                   final Dictionary dictionary) {
+
+        // Check
+        if (function.getHeight() < 1) { 
+            throw new RuntimeException("Empty generalization hierarchy for attribute '" + name + "'");
+        }
+
+        // Init
+        this.attribute = name;
+        final int height = function.getHeight();
+        final String[] values = dictionary.getUnfinalizedValues(dimension);
+
+        // Build hierarchy
+        map = new int[values.length][height];
+        for (int i = 0; i < values.length; i++) {
+            map[i][0] = i;
+            for (int j = 1; j < height; j++) {
+                map[i][j] = dictionary.register(dimension, function.generalize(values[i], j));
+            }
+        }
+
+        // Count distinct values on each level
+        distinctValues = getDistinctValues(map, height);
+    }
+
     /**
      * Can be used to create a copy of the generalization hierarchy.
      *
@@ -157,6 +187,29 @@ public class GeneralizationHierarchy {
         }
     }
 
+    /**
+     * Counts the distinct values on each level.
+     *
+     * @param map
+     * @param height
+     * @return
+     */
+    private static int[] getDistinctValues(final int[][] map, final int height) {
+        
+        final int[] result = new int[height];
+        final IntOpenHashSet vals = new IntOpenHashSet();
+
+        // for each column
+        for (int i = 0; i < height; i++) {
+            for (int k = 0; k < map.length; k++) {
+                vals.add(map[k][i]);
+            }
+            result[i] = vals.size();
+            vals.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the array.
      *
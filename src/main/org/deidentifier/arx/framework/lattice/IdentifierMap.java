@@ -0,0 +1,131 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
+/**
+ * A thread-safe map from identifiers of transformations to objects. Keys are stored as primitives
+ * in a fixed number of stripes, each of which is guarded by its own lock.
+ *
+ * @author Fabian Prasser
+ * @param <T>
+ */
+public class IdentifierMap<T> {
+
+    /** Number of stripes, as a power of two */
+    private static final int                     STRIPES = 16;
+
+    /** The stripes */
+    private final List<LongObjectOpenHashMap<T>> stripes;
+
+    /**
+     * Creates a new instance.
+     */
+    public IdentifierMap() {
+        this.stripes = new ArrayList<LongObjectOpenHashMap<T>>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes.add(new LongObjectOpenHashMap<T>());
+        }
+    }
+
+    /**
+     * Returns the value associated with the given identifier, null if there is none.
+     *
+     * @param identifier
+     * @return
+     */
+    public T get(long identifier) {
+        LongObjectOpenHashMap<T> stripe = getStripe(identifier);
+        synchronized (stripe) {
+            return stripe.getOrDefault(identifier, null);
+        }
+    }
+
+    /**
+     * Returns all identifiers with which a value is associated, in no particular order.
+     * Identifiers which are added concurrently may or may not be returned.
+     *
+     * @return
+     */
+    public long[] getIdentifiers() {
+        long[][] keys = new long[STRIPES][];
+        int size = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            LongObjectOpenHashMap<T> stripe = stripes.get(i);
+            synchronized (stripe) {
+                keys[i] = stripe.keys().toArray();
+            }
+            size += keys[i].length;
+        }
+        long[] result = new long[size];
+        size = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            System.arraycopy(keys[i], 0, result, size, keys[i].length);
+            size += keys[i].length;
+        }
+        return result;
+    }
+
+    /**
+     * Associates the value with the given identifier.
+     *
+     * @param identifier
+     * @param value
+     */
+    public void put(long identifier, T value) {
+        LongObjectOpenHashMap<T> stripe = getStripe(identifier);
+        synchronized (stripe) {
+            stripe.put(identifier, value);
+        }
+    }
+
+    /**
+     * Associates the value with the given identifier, if no value is associated with it yet.
+     * Returns the value which is associated with the identifier afterwards.
+     *
+     * @param identifier
+     * @param value
+     * @return
+     */
+    public T putIfAbsent(long identifier, T value) {
+        LongObjectOpenHashMap<T> stripe = getStripe(identifier);
+        synchronized (stripe) {
+            T current = stripe.getOrDefault(identifier, null);
+            if (current != null) {
+                return current;
+            }
+            stripe.put(identifier, value);
+            return value;
+        }
+    }
+
+    /**
+     * Returns the stripe for the given identifier.
+     *
+     * @param identifier
+     * @return
+     */
+    private LongObjectOpenHashMap<T> getStripe(long identifier) {
+        long hash = identifier * 0x9E3779B97F4A7C15L;
+        return stripes.get((int) (hash >>> 60) & (STRIPES - 1));
+    }
+}
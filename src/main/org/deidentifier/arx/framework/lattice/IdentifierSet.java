@@ -0,0 +1,199 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * A thread-safe set of identifiers of transformations. It is implemented as a bitset over the
+ * identifier space, which is divided into pages that are allocated when the first identifier
+ * is added to them. Solution spaces of which only a small fraction is explored are therefore
+ * supported as well.
+ *
+ * @author Fabian Prasser
+ */
+public class IdentifierSet {
+
+    /** Number of identifiers per page, as a power of two */
+    private static final int                             PAGE_SHIFT    = 15;
+
+    /** Number of words per page */
+    private static final int                             PAGE_WORDS    = 1 << (PAGE_SHIFT - 6);
+
+    /** Mask for identifiers within a page */
+    private static final long                            PAGE_MASK     = (1L << PAGE_SHIFT) - 1L;
+
+    /** Maximal number of pages for which a directory is allocated */
+    private static final long                            MAX_DIRECTORY = 1L << 16;
+
+    /** The pages, if the space is small enough to be addressed directly */
+    private final AtomicReferenceArray<AtomicLongArray> directory;
+
+    /** The pages, otherwise */
+    private final IdentifierMap<AtomicLongArray>         pages;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param size The size of the identifier space
+     */
+    public IdentifierSet(long size) {
+        long numPages = size <= 0 ? Long.MAX_VALUE : ((size - 1L) >>> PAGE_SHIFT) + 1L;
+        if (numPages <= MAX_DIRECTORY) {
+            this.directory = new AtomicReferenceArray<AtomicLongArray>((int) numPages);
+            this.pages = null;
+        } else {
+            this.directory = null;
+            this.pages = new IdentifierMap<AtomicLongArray>();
+        }
+    }
+
+    /**
+     * Adds the given identifier. Returns whether it has not been contained before.
+     *
+     * @param identifier
+     * @return
+     */
+    public boolean add(long identifier) {
+        AtomicLongArray page = getPage(identifier >>> PAGE_SHIFT, true);
+        int index = (int) (identifier & PAGE_MASK);
+        long mask = 1L << index;
+        while (true) {
+            long word = page.get(index >>> 6);
+            if ((word & mask) != 0L) {
+                return false;
+            } else if (page.compareAndSet(index >>> 6, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given identifier is contained.
+     *
+     * @param identifier
+     * @return
+     */
+    public boolean contains(long identifier) {
+        AtomicLongArray page = getPage(identifier >>> PAGE_SHIFT, false);
+        if (page == null) {
+            return false;
+        }
+        int index = (int) (identifier & PAGE_MASK);
+        return (page.get(index >>> 6) & (1L << index)) != 0L;
+    }
+
+    /**
+     * Returns an iterator over all identifiers in ascending order. Identifiers which are added
+     * concurrently may or may not be returned.
+     *
+     * @return
+     */
+    public LongIterator iterator() {
+
+        // Collect pages
+        final long[] numbers;
+        final AtomicLongArray[] content;
+        if (directory != null) {
+            int count = 0;
+            for (int i = 0; i < directory.length(); i++) {
+                count += directory.get(i) != null ? 1 : 0;
+            }
+            numbers = new long[count];
+            content = new AtomicLongArray[count];
+            count = 0;
+            for (int i = 0; i < directory.length() && count < numbers.length; i++) {
+                AtomicLongArray page = directory.get(i);
+                if (page != null) {
+                    numbers[count] = i;
+                    content[count++] = page;
+                }
+            }
+        } else {
+            numbers = pages.getIdentifiers();
+            Arrays.sort(numbers);
+            content = new AtomicLongArray[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                content[i] = pages.get(numbers[i]);
+            }
+        }
+
+        // Iterate
+        return new LongIterator() {
+
+            private int  page = 0;
+            private int  word = 0;
+            private long bits = content.length == 0 ? 0L : content[0].get(0);
+
+            @Override
+            public boolean hasNext() {
+                while (bits == 0L) {
+                    if (page >= content.length) {
+                        return false;
+                    }
+                    if (++word == PAGE_WORDS) {
+                        word = 0;
+                        if (++page == content.length) {
+                            return false;
+                        }
+                    }
+                    bits = content[page].get(word);
+                }
+                return true;
+            }
+
+            @Override
+            public long next() {
+                if (!hasNext()) {
+                    throw new IllegalStateException("No more elements");
+                }
+                int index = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1L;
+                return (numbers[page] << PAGE_SHIFT) + (word << 6) + index;
+            }
+        };
+    }
+
+    /**
+     * Returns the given page.
+     *
+     * @param number
+     * @param create
+     * @return
+     */
+    private AtomicLongArray getPage(long number, boolean create) {
+        if (directory != null) {
+            AtomicLongArray page = directory.get((int) number);
+            if (page == null && create) {
+                directory.compareAndSet((int) number, null, new AtomicLongArray(PAGE_WORDS));
+                page = directory.get((int) number);
+            }
+            return page;
+        } else {
+            AtomicLongArray page = pages.get(number);
+            if (page == null && create) {
+                page = pages.putIfAbsent(number, new AtomicLongArray(PAGE_WORDS));
+            }
+            return page;
+        }
+    }
+}
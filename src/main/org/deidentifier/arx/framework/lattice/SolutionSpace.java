@@ -17,6 +17,9 @@
 
 package org.deidentifier.arx.framework.lattice;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.ARXLattice;
@@ -24,25 +27,29 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.metric.InformationLoss;
 
-import com.carrotsearch.hppc.LongObjectOpenHashMap;
-
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.Lattice;
 import de.linearbits.jhpl.PredictiveProperty;
 import de.linearbits.jhpl.PredictiveProperty.Direction;
 
 /**
- * A class representing the solution space
+ * A class representing the solution space. Predictive properties are stored in the backing JHPL
+ * lattice. All other properties are stored in bitsets over the space of identifiers. All methods
+ * are thread-safe.
  * @author Fabian Prasser
  */
 public class SolutionSpace {
 
     /** Information loss */
-    private LongObjectOpenHashMap<Object>             data                        = new LongObjectOpenHashMap<Object>();
+    private final IdentifierMap<Object>               data                        = new IdentifierMap<Object>();
     /** The backing JHPL lattice */
     private final Lattice<Integer, Integer>           lattice;
     /** Information loss */
-    private LongObjectOpenHashMap<InformationLoss<?>> lowerBound                  = new LongObjectOpenHashMap<InformationLoss<?>>();
+    private final IdentifierMap<InformationLoss<?>>   lowerBound                  = new IdentifierMap<InformationLoss<?>>();
+    /** Transformations for which properties have been set */
+    private final IdentifierSet                       materialized;
+    /** Properties which are not predictive */
+    private final Map<PredictiveProperty, IdentifierSet> properties               = new IdentityHashMap<PredictiveProperty, IdentifierSet>();
     /** The offsets for indices */
     private final int[]                               offsetIndices;
     /** The offset the level */
@@ -82,7 +89,7 @@ public class SolutionSpace {
                                                                                                            Direction.NONE);
 
     /** Information loss */
-    private LongObjectOpenHashMap<InformationLoss<?>> utility                     = new LongObjectOpenHashMap<InformationLoss<?>>();
+    private final IdentifierMap<InformationLoss<?>>   utility                     = new IdentifierMap<InformationLoss<?>>();
 
     /**
      * For de-serialization
@@ -98,12 +105,12 @@ public class SolutionSpace {
                 int lvl = getLevel(index);
                 long id = this.lattice.space().toId(index);
                 if (node.getAnonymity() == Anonymity.ANONYMOUS) {
-                    this.lattice.putProperty(index, lvl, this.getPropertyAnonymous());
+                    this.setProperty(id, index, lvl, this.getPropertyAnonymous());
                 } else if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS) {
-                    this.lattice.putProperty(index, lvl, this.getPropertyNotAnonymous());
+                    this.setProperty(id, index, lvl, this.getPropertyNotAnonymous());
                 }
                 if (node.isChecked()) {
-                    this.lattice.putProperty(index, lvl, this.getPropertyChecked());
+                    this.setProperty(id, index, lvl, this.getPropertyChecked());
                     this.setInformationLoss(id, node.getHighestScore());
                 }
             }
@@ -136,6 +143,23 @@ public class SolutionSpace {
             elements[i] = element;
         }
         this.lattice = new Lattice<Integer, Integer>(elements);
+        
+        // Create bitsets
+        this.materialized = new IdentifierSet(lattice.numNodes());
+        for (PredictiveProperty property : new PredictiveProperty[] { propertyAnonymous,
+                                                                      propertyChecked,
+                                                                      propertyExpanded,
+                                                                      propertyForceSnapshot,
+                                                                      propertyInsufficientUtility,
+                                                                      propertyKAnonymous,
+                                                                      propertyNotAnonymous,
+                                                                      propertyNotKAnonymous,
+                                                                      propertySuccessorsPruned,
+                                                                      propertyVisited }) {
+            if (property.getDirection() == Direction.NONE) {
+                this.properties.put(property, new IdentifierSet(lattice.numNodes()));
+            }
+        }
     }
     
     /**
@@ -164,7 +188,7 @@ public class SolutionSpace {
      * @return
      */
     public LongIterator getMaterializedTransformations() {
-        return lattice.listNodesAsIdentifiers();
+        return materialized.iterator();
     }
 
     /**
@@ -315,7 +339,7 @@ public class SolutionSpace {
      * @return
      */
     public InformationLoss<?> getUtility(long identifier) {
-        return utility.getOrDefault(identifier, null);
+        return utility.get(identifier);
     }
     
     /**
@@ -327,7 +351,23 @@ public class SolutionSpace {
     public boolean hasProperty(int[] transformation, PredictiveProperty property) {
         int[] index = toJHPL(transformation);
         int level = getLevel(index);
-        return lattice.hasProperty(index, level, property);
+        return hasProperty(lattice.space().toId(index), index, level, property);
+    }
+    
+    /**
+     * Returns whether the transformation with the given identifier has a given property.
+     * Does not create a wrapper object for non-predictive properties.
+     * @param identifier
+     * @param property
+     * @return
+     */
+    public boolean hasProperty(long identifier, PredictiveProperty property) {
+        IdentifierSet set = properties.get(property);
+        if (set != null) {
+            return set.contains(identifier);
+        }
+        int[] index = lattice.space().toIndex(identifier);
+        return hasProperty(identifier, index, getLevel(index), property);
     }
 
     /**
@@ -364,16 +404,37 @@ public class SolutionSpace {
     }
 
     /**
-     * Makes the anonymity property predictable
+     * Makes the anonymity property predictable. Must not be called concurrently with other methods.
      * @param predictable
      */
     public void setAnonymityPropertyPredictable(boolean predictable) {
+        properties.remove(propertyAnonymous);
+        properties.remove(propertyNotAnonymous);
         if (predictable) {
             propertyAnonymous = new PredictiveProperty("Anonymous", Direction.UP);
             propertyNotAnonymous = new PredictiveProperty("Not anonymous", Direction.DOWN);
         } else {
             propertyAnonymous = new PredictiveProperty("Anonymous", Direction.NONE);
             propertyNotAnonymous = new PredictiveProperty("Not anonymous", Direction.NONE);
+            properties.put(propertyAnonymous, new IdentifierSet(lattice.numNodes()));
+            properties.put(propertyNotAnonymous, new IdentifierSet(lattice.numNodes()));
+        }
+    }
+
+    /**
+     * Sets a property of the transformation with the given identifier.
+     * Does not create a wrapper object.
+     * @param identifier
+     * @param property
+     */
+    public void setProperty(long identifier, PredictiveProperty property) {
+        IdentifierSet set = properties.get(property);
+        if (set != null) {
+            set.add(identifier);
+            materialized.add(identifier);
+        } else {
+            int[] index = lattice.space().toIndex(identifier);
+            setProperty(identifier, index, getLevel(index), property);
         }
     }
 
@@ -443,7 +504,7 @@ public class SolutionSpace {
      * @return
      */
     protected Object getData(long id) {
-        return data.getOrDefault(id, null);
+        return data.get(id);
     }
     
 
@@ -453,7 +514,7 @@ public class SolutionSpace {
      * @return
      */
     protected InformationLoss<?> getInformationLoss(long identifier) {
-        return utility.getOrDefault(identifier, null);
+        return utility.get(identifier);
     }
     
     /**
@@ -462,7 +523,25 @@ public class SolutionSpace {
      * @return
      */
     protected InformationLoss<?> getLowerBound(long identifier) {
-        return lowerBound.getOrDefault(identifier, null);
+        return lowerBound.get(identifier);
+    }
+
+    /**
+     * Returns whether a transformation has a given property
+     * @param identifier
+     * @param index In JHPL's space
+     * @param level In JHPL's space
+     * @param property
+     * @return
+     */
+    protected boolean hasProperty(long identifier, int[] index, int level, PredictiveProperty property) {
+        IdentifierSet set = properties.get(property);
+        if (set != null) {
+            return set.contains(identifier);
+        }
+        synchronized (lattice) {
+            return lattice.hasProperty(index, level, property);
+        }
     }
 
     /**
@@ -492,6 +571,25 @@ public class SolutionSpace {
         lowerBound.put(identifier, loss);
     }
 
+    /**
+     * Sets a property of a transformation
+     * @param identifier
+     * @param index In JHPL's space
+     * @param level In JHPL's space
+     * @param property
+     */
+    protected void setProperty(long identifier, int[] index, int level, PredictiveProperty property) {
+        IdentifierSet set = properties.get(property);
+        if (set != null) {
+            set.add(identifier);
+        } else {
+            synchronized (lattice) {
+                lattice.putProperty(index, level, property);
+            }
+        }
+        materialized.add(identifier);
+    }
+
     /**
      * Internal method that subtracts the offset
      * @param level
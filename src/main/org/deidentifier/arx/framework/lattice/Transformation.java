@@ -150,8 +150,10 @@ public class Transformation {
     public LongArrayList getPredecessors() {
         
         LongArrayList result = new LongArrayList();
-        for (LongIterator iter = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, identifier); iter.hasNext();) {
-            result.add(iter.next());
+        synchronized (lattice) {
+            for (LongIterator iter = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, identifier); iter.hasNext();) {
+                result.add(iter.next());
+            }
         }
         return result;
     }
@@ -162,8 +164,10 @@ public class Transformation {
      */
     public LongArrayList getSuccessors() {
         cern.colt.list.LongArrayList result = new cern.colt.list.LongArrayList();
-        for (LongIterator iter = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, identifier); iter.hasNext();) {
-            result.add(iter.next());
+        synchronized (lattice) {
+            for (LongIterator iter = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, identifier); iter.hasNext();) {
+                result.add(iter.next());
+            }
         }
         int lower = 0;
         int upper = result.size() - 1;
@@ -184,7 +188,7 @@ public class Transformation {
      */
     public boolean hasProperty(PredictiveProperty property) {
         getLevel();
-        return this.lattice.hasProperty(this.transformationJHPL, this.levelJHPL, property);
+        return this.solutionSpace.hasProperty(this.identifier, this.transformationJHPL, this.levelJHPL, property);
     }
 
     /**
@@ -250,7 +254,7 @@ public class Transformation {
      */
     public void setProperty(PredictiveProperty property) {
         getLevel();
-        this.lattice.putProperty(this.transformationJHPL, this.levelJHPL, property);
+        this.solutionSpace.setProperty(this.identifier, this.transformationJHPL, this.levelJHPL, property);
     }
     
     /**
@@ -258,22 +262,25 @@ public class Transformation {
      * @param property
      */
     public void setPropertyToNeighbours(PredictiveProperty property) {
-        LongIterator neighbors;
-        if (property.getDirection() == Direction.UP) {
-            neighbors = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, identifier);
-        } else if (property.getDirection() == Direction.DOWN) {
-            neighbors = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, identifier);
-        } else {
-            return;
-        }
-        LongArrayList list = new LongArrayList();
-        for (;neighbors.hasNext();) {
-            list.add(neighbors.next());
+        
+        // Each transformation has at most one neighbor per dimension
+        long[] neighbors = new long[transformationJHPL.length];
+        int count = 0;
+        synchronized (lattice) {
+            LongIterator iterator;
+            if (property.getDirection() == Direction.UP) {
+                iterator = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, identifier);
+            } else if (property.getDirection() == Direction.DOWN) {
+                iterator = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, identifier);
+            } else {
+                return;
+            }
+            while (iterator.hasNext()) {
+                neighbors[count++] = iterator.next();
+            }
         }
-        for (int i=0; i<list.size(); i++) {
-            int[] index = lattice.space().toIndex(list.getQuick(i));
-            int level = lattice.nodes().getLevel(index);
-            lattice.putProperty(index, level, property);
+        for (int i = 0; i < count; i++) {
+            solutionSpace.setProperty(neighbors[i], property);
         }
     }
 
@@ -289,31 +296,31 @@ public class Transformation {
         builder.append(" - Generalization: ").append(Arrays.toString(getGeneralization())).append("\n");
         builder.append(" - Level: ").append(getLevel()).append("\n");
         builder.append(" - Properties:\n");
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyAnonymous())) {
+        if (hasProperty(solutionSpace.getPropertyAnonymous())) {
             builder.append("   * ANONYMOUS: ").append(solutionSpace.getPropertyAnonymous().getDirection()).append("\n");    
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyNotAnonymous())) {
+        if (hasProperty(solutionSpace.getPropertyNotAnonymous())) {
             builder.append("   * NOT_ANONYMOUS: ").append(solutionSpace.getPropertyNotAnonymous().getDirection()).append("\n");
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyKAnonymous())) {
+        if (hasProperty(solutionSpace.getPropertyKAnonymous())) {
             builder.append("   * K_ANONYMOUS: ").append(solutionSpace.getPropertyKAnonymous().getDirection()).append("\n");
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyNotKAnonymous())) {
+        if (hasProperty(solutionSpace.getPropertyNotKAnonymous())) {
             builder.append("   * NOT_K_ANONYMOUS: ").append(solutionSpace.getPropertyNotKAnonymous().getDirection()).append("\n");
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyChecked())) {
+        if (hasProperty(solutionSpace.getPropertyChecked())) {
             builder.append("   * CHECKED: ").append(solutionSpace.getPropertyChecked().getDirection()).append("\n");    
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyForceSnapshot())) {
+        if (hasProperty(solutionSpace.getPropertyForceSnapshot())) {
             builder.append("   * FORCE_SNAPSHOT: ").append(solutionSpace.getPropertyForceSnapshot().getDirection()).append("\n");
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyInsufficientUtility())) {
+        if (hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
             builder.append("   * INSUFFICIENT_UTILITY: ").append(solutionSpace.getPropertyInsufficientUtility().getDirection()).append("\n");
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertySuccessorsPruned())) {
+        if (hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
             builder.append("   * SUCCESSORS_PRUNED: ").append(solutionSpace.getPropertySuccessorsPruned().getDirection()).append("\n");
         }
-        if (lattice.hasProperty(transformationJHPL, this.levelJHPL, solutionSpace.getPropertyVisited())) {
+        if (hasProperty(solutionSpace.getPropertyVisited())) {
             builder.append("   * VISITED: ").append(solutionSpace.getPropertyVisited().getDirection()).append("\n");
         }
         builder.append("}");
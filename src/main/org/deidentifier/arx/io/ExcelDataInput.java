@@ -0,0 +1,686 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.ErrorConstants;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.deidentifier.arx.io.ImportConfigurationExcel.ExcelFileTypes;
+
+/**
+ * Streaming access to the rows of a sheet in an Excel file. In contrast to the user model of
+ * Apache POI, which builds the complete workbook in memory, rows are decoded one after another.
+ * XLSX files are parsed with a pull parser, XLS files are read record by record. Only shared
+ * strings and a small number of rows are kept in memory.<br>
+ * <br>
+ * Values are returned as strings, exactly like <code>Cell.setCellType(Cell.CELL_TYPE_STRING)</code>
+ * followed by <code>Cell.getStringCellValue()</code> would return them, e.g. numbers are not
+ * formatted and cached results are returned for formulas. Like the iterator of a sheet, only rows
+ * that physically exist are returned.
+ *
+ * @author Fabian Prasser
+ */
+abstract class ExcelDataInput implements Closeable {
+
+    /**
+     * Reads XLS files.
+     *
+     * @author Fabian Prasser
+     */
+    private static class ExcelDataInputXLS extends ExcelDataInput {
+
+        /** The file system */
+        private final NPOIFSFileSystem                  filesystem;
+
+        /** The records */
+        private final RecordFactoryInputStream          records;
+
+        /** Shared strings */
+        private SSTRecord                               strings;
+
+        /** Rows of the current block which have not been completed, yet */
+        private final TreeMap<Integer, List<String>>    pending  = new TreeMap<Integer, List<String>>();
+
+        /** Rows that have been completed */
+        private final Deque<String[]>                   complete = new ArrayDeque<String[]>();
+
+        /** Whether cells have been read since the last row record */
+        private boolean                                 cells    = false;
+
+        /** Whether the end of the sheet has been reached */
+        private boolean                                 done     = false;
+
+        /** The row of a formula which is waiting for its string result */
+        private int                                     formulaRow;
+
+        /** The column of a formula which is waiting for its string result */
+        private int                                     formulaColumn = -1;
+
+        /** The number of rows */
+        private int                                     rows     = 0;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param file
+         * @param sheet
+         * @throws IOException
+         */
+        private ExcelDataInputXLS(String file, int sheet) throws IOException {
+            this.filesystem = new NPOIFSFileSystem(new File(file), true);
+            InputStream stream;
+            try {
+                stream = filesystem.createDocumentInputStream("Workbook"); //$NON-NLS-1$
+            } catch (IOException e) {
+                try {
+                    stream = filesystem.createDocumentInputStream("WORKBOOK"); //$NON-NLS-1$
+                } catch (IOException e2) {
+                    filesystem.close();
+                    throw e;
+                }
+            }
+            this.records = new RecordFactoryInputStream(stream, false);
+            this.skipToSheet(sheet);
+        }
+
+        @Override
+        public void close() throws IOException {
+            filesystem.close();
+        }
+
+        @Override
+        public int getNumRows() {
+            return rows;
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            while (complete.isEmpty() && !done) {
+                read(records.nextRecord());
+            }
+            return complete.poll();
+        }
+
+        /**
+         * Moves all pending rows to the completed rows
+         */
+        private void flush() {
+            for (Entry<Integer, List<String>> entry : pending.entrySet()) {
+                complete.add(entry.getValue().toArray(new String[entry.getValue().size()]));
+            }
+            pending.clear();
+        }
+
+        /**
+         * Processes a record of the sheet.
+         *
+         * @param record
+         */
+        private void read(Record record) {
+
+            // End of stream or sheet
+            if (record == null || record instanceof EOFRecord) {
+                flush();
+                done = true;
+                return;
+            }
+
+            // Nested streams, e.g. for embedded charts
+            if (record instanceof BOFRecord) {
+                skipStream();
+                return;
+            }
+
+            // Dimensions
+            if (record instanceof DimensionsRecord) {
+                rows = ((DimensionsRecord) record).getLastRow();
+                return;
+            }
+
+            // Rows are stored in blocks, a block of row records is followed by the according cells
+            if (record instanceof RowRecord) {
+                if (cells) {
+                    flush();
+                    cells = false;
+                }
+                getRow(((RowRecord) record).getRowNumber());
+                return;
+            }
+
+            // Cells
+            if (record instanceof LabelSSTRecord) {
+                LabelSSTRecord cell = (LabelSSTRecord) record;
+                setValue(cell.getRow(), cell.getColumn(), strings.getString(cell.getSSTIndex()).getString());
+            } else if (record instanceof LabelRecord) {
+                LabelRecord cell = (LabelRecord) record;
+                setValue(cell.getRow(), cell.getColumn(), cell.getValue());
+            } else if (record instanceof NumberRecord) {
+                NumberRecord cell = (NumberRecord) record;
+                setValue(cell.getRow(), cell.getColumn(), NumberToTextConverter.toText(cell.getValue()));
+            } else if (record instanceof BoolErrRecord) {
+                BoolErrRecord cell = (BoolErrRecord) record;
+                setValue(cell.getRow(), cell.getColumn(), cell.isBoolean() ? getString(cell.getBooleanValue()) :
+                                                                             ErrorConstants.getText(cell.getErrorValue()));
+            } else if (record instanceof FormulaRecord) {
+                FormulaRecord cell = (FormulaRecord) record;
+                switch (cell.getCachedResultType()) {
+                case Cell.CELL_TYPE_STRING:
+                    setValue(cell.getRow(), cell.getColumn(), ""); //$NON-NLS-1$
+                    if (cell.hasCachedResultString()) {
+                        formulaRow = cell.getRow();
+                        formulaColumn = cell.getColumn();
+                    }
+                    break;
+                case Cell.CELL_TYPE_BOOLEAN:
+                    setValue(cell.getRow(), cell.getColumn(), getString(cell.getCachedBooleanValue()));
+                    break;
+                case Cell.CELL_TYPE_ERROR:
+                    setValue(cell.getRow(), cell.getColumn(), ErrorConstants.getText(cell.getCachedErrorValue()));
+                    break;
+                default:
+                    setValue(cell.getRow(), cell.getColumn(), NumberToTextConverter.toText(cell.getValue()));
+                    break;
+                }
+            } else if (record instanceof StringRecord) {
+                if (formulaColumn != -1) {
+                    setValue(formulaRow, formulaColumn, ((StringRecord) record).getString());
+                    formulaColumn = -1;
+                }
+            } else if (record instanceof BlankRecord) {
+                BlankRecord cell = (BlankRecord) record;
+                setValue(cell.getRow(), cell.getColumn(), ""); //$NON-NLS-1$
+            } else if (record instanceof MulBlankRecord) {
+                MulBlankRecord cell = (MulBlankRecord) record;
+                for (int i = 0; i < cell.getNumColumns(); i++) {
+                    setValue(cell.getRow(), cell.getFirstColumn() + i, ""); //$NON-NLS-1$
+                }
+            }
+        }
+
+        /**
+         * Returns the pending row with the given number
+         * @param number
+         * @return
+         */
+        private List<String> getRow(int number) {
+            List<String> row = pending.get(number);
+            if (row == null) {
+                row = new ArrayList<String>();
+                pending.put(number, row);
+            }
+            return row;
+        }
+
+        /**
+         * Sets a value of a pending row.
+         *
+         * @param row
+         * @param column
+         * @param value
+         */
+        private void setValue(int row, int column, String value) {
+            cells = true;
+            List<String> values = getRow(row);
+            while (values.size() <= column) {
+                values.add(""); //$NON-NLS-1$
+            }
+            values.set(column, value);
+        }
+
+        /**
+         * Reads the workbook globals and skips all records until the given sheet begins.
+         *
+         * @param sheet
+         */
+        private void skipToSheet(int sheet) {
+
+            // Workbook globals
+            Record record = records.nextRecord();
+            if (!(record instanceof BOFRecord) || ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                throw new IllegalArgumentException("File does not contain a workbook");
+            }
+            for (record = records.nextRecord(); record != null && !(record instanceof EOFRecord); record = records.nextRecord()) {
+                if (record instanceof SSTRecord) {
+                    strings = (SSTRecord) record;
+                }
+            }
+
+            // Sheets
+            int index = 0;
+            for (record = records.nextRecord(); record != null; record = records.nextRecord()) {
+                if (record instanceof BOFRecord && ((BOFRecord) record).getType() != BOFRecord.TYPE_VB_MODULE) {
+                    if (index++ == sheet) {
+                        return;
+                    }
+                    skipStream();
+                }
+            }
+            throw new IllegalArgumentException("Sheet index (" + sheet + ") is out of range");
+        }
+
+        /**
+         * Skips a stream of records, including all nested streams.
+         */
+        private void skipStream() {
+            int depth = 1;
+            while (depth > 0) {
+                Record record = records.nextRecord();
+                if (record == null) {
+                    return;
+                } else if (record instanceof BOFRecord) {
+                    depth++;
+                } else if (record instanceof EOFRecord) {
+                    depth--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads XLSX files.
+     *
+     * @author Fabian Prasser
+     */
+    private static class ExcelDataInputXLSX extends ExcelDataInput {
+
+        /** Relation type */
+        private static final String RELATION_SHARED_STRINGS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings"; //$NON-NLS-1$
+
+        /** Namespace */
+        private static final String NAMESPACE_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships"; //$NON-NLS-1$
+
+        /** Pattern for escaped characters */
+        private static final Pattern PATTERN_ESCAPED        = Pattern.compile("_x([0-9A-F]{4})_"); //$NON-NLS-1$
+
+        /** The package */
+        private final OPCPackage     pkg;
+
+        /** The stream */
+        private final InputStream    stream;
+
+        /** The reader */
+        private final XMLStreamReader reader;
+
+        /** Shared strings */
+        private final List<String>   strings                = new ArrayList<String>();
+
+        /** The number of rows */
+        private int                  rows                   = 0;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param file
+         * @param sheet
+         * @throws IOException
+         */
+        private ExcelDataInputXLSX(String file, int sheet) throws IOException {
+            try {
+                this.pkg = OPCPackage.open(file, PackageAccess.READ);
+            } catch (InvalidFormatException e) {
+                throw new IOException(e);
+            }
+            try {
+
+                // Workbook
+                PackageRelationship relation = pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT).getRelationship(0);
+                PackagePart workbook = pkg.getPart(relation);
+
+                // Shared strings
+                PackageRelationshipCollection relations = workbook.getRelationshipsByType(RELATION_SHARED_STRINGS);
+                if (relations.size() > 0) {
+                    readStrings(workbook.getRelatedPart(relations.getRelationship(0)));
+                }
+
+                // Sheet
+                PackagePart part = workbook.getRelatedPart(workbook.getRelationship(getSheetId(workbook, sheet)));
+                this.stream = part.getInputStream();
+                this.reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+
+            } catch (IOException | RuntimeException e) {
+                pkg.revert();
+                throw e;
+            } catch (InvalidFormatException | XMLStreamException e) {
+                pkg.revert();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                reader.close();
+                stream.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            } finally {
+                pkg.revert();
+            }
+        }
+
+        @Override
+        public int getNumRows() {
+            return rows;
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            try {
+                List<String> row = null;
+                int column = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if (name.equals("row")) { //$NON-NLS-1$
+                            row = new ArrayList<String>();
+                            column = 0;
+                        } else if (name.equals("c") && row != null) { //$NON-NLS-1$
+                            String reference = reader.getAttributeValue(null, "r"); //$NON-NLS-1$
+                            column = reference != null ? getColumn(reference) : column;
+                            String value = readCell(reader.getAttributeValue(null, "t")); //$NON-NLS-1$
+                            while (row.size() <= column) {
+                                row.add(""); //$NON-NLS-1$
+                            }
+                            row.set(column++, value);
+                        } else if (name.equals("dimension")) { //$NON-NLS-1$
+                            rows = getRow(reader.getAttributeValue(null, "ref")); //$NON-NLS-1$
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && row != null && reader.getLocalName().equals("row")) { //$NON-NLS-1$
+                        return row.toArray(new String[row.size()]);
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        /**
+         * Converts a cell reference into the index of a column.
+         *
+         * @param reference
+         * @return
+         */
+        private int getColumn(String reference) {
+            int column = 0;
+            for (int i = 0; i < reference.length(); i++) {
+                char c = Character.toUpperCase(reference.charAt(i));
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        /**
+         * Converts a range reference into the number of the last row.
+         *
+         * @param reference
+         * @return
+         */
+        private int getRow(String reference) {
+            if (reference == null) {
+                return 0;
+            }
+            String cell = reference.substring(reference.indexOf(':') + 1);
+            int index = 0;
+            while (index < cell.length() && !Character.isDigit(cell.charAt(index))) {
+                index++;
+            }
+            try {
+                return Integer.parseInt(cell.substring(index));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Returns the id of the relation pointing to the given sheet.
+         *
+         * @param workbook
+         * @param sheet
+         * @return
+         * @throws IOException
+         * @throws XMLStreamException
+         */
+        private String getSheetId(PackagePart workbook, int sheet) throws IOException, XMLStreamException {
+            InputStream input = workbook.getInputStream();
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            try {
+                int index = 0;
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("sheet")) { //$NON-NLS-1$
+                        if (index++ == sheet) {
+                            return reader.getAttributeValue(NAMESPACE_RELATIONSHIPS, "id"); //$NON-NLS-1$
+                        }
+                    }
+                }
+                throw new IllegalArgumentException("Sheet index (" + sheet + ") is out of range");
+            } finally {
+                reader.close();
+                input.close();
+            }
+        }
+
+        /**
+         * Reads the value of a cell.
+         *
+         * @param type
+         * @return
+         * @throws XMLStreamException
+         */
+        private String readCell(String type) throws XMLStreamException {
+            String value = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("v")) { //$NON-NLS-1$
+                        value = reader.getElementText();
+                    } else if (name.equals("is")) { //$NON-NLS-1$
+                        value = readString(reader, "is"); //$NON-NLS-1$
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("c")) { //$NON-NLS-1$
+                    break;
+                }
+            }
+            if (value == null) {
+                return ""; //$NON-NLS-1$
+            } else if ("s".equals(type)) { //$NON-NLS-1$
+                return strings.get(Integer.parseInt(value.trim()));
+            } else if ("b".equals(type)) { //$NON-NLS-1$
+                return getString(value.trim().equals("1")); //$NON-NLS-1$
+            } else {
+                return value;
+            }
+        }
+
+        /**
+         * Reads a string, which may consist of several runs. Phonetic runs are ignored.
+         *
+         * @param reader
+         * @param element
+         * @return
+         * @throws XMLStreamException
+         */
+        private String readString(XMLStreamReader reader, String element) throws XMLStreamException {
+            StringBuilder builder = new StringBuilder();
+            int phonetic = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("rPh")) { //$NON-NLS-1$
+                        phonetic++;
+                    } else if (name.equals("t") && phonetic == 0) { //$NON-NLS-1$
+                        builder.append(reader.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("rPh")) { //$NON-NLS-1$
+                        phonetic--;
+                    } else if (name.equals(element)) {
+                        break;
+                    }
+                }
+            }
+            return unescape(builder.toString());
+        }
+
+        /**
+         * Reads the shared strings.
+         *
+         * @param part
+         * @throws IOException
+         * @throws XMLStreamException
+         */
+        private void readStrings(PackagePart part) throws IOException, XMLStreamException {
+            InputStream input = part.getInputStream();
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("si")) { //$NON-NLS-1$
+                        strings.add(readString(reader, "si")); //$NON-NLS-1$
+                    }
+                }
+            } finally {
+                reader.close();
+                input.close();
+            }
+        }
+
+        /**
+         * Decodes escaped characters.
+         *
+         * @param value
+         * @return
+         */
+        private String unescape(String value) {
+            if (value.indexOf("_x") == -1) { //$NON-NLS-1$
+                return value;
+            }
+            StringBuilder builder = new StringBuilder();
+            Matcher matcher = PATTERN_ESCAPED.matcher(value);
+            int index = 0;
+            while (matcher.find()) {
+                builder.append(value, index, matcher.start());
+                builder.append((char) Integer.parseInt(matcher.group(1), 16));
+                index = matcher.end();
+            }
+            builder.append(value.substring(index));
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Opens the sheet specified by the given configuration.
+     *
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    static ExcelDataInput create(ImportConfigurationExcel config) throws IOException {
+        if (config.getExcelFileType() == ExcelFileTypes.XLS) {
+            return new ExcelDataInputXLS(config.getFileLocation(), config.getSheetIndex());
+        } else if (config.getExcelFileType() == ExcelFileTypes.XLSX) {
+            return new ExcelDataInputXLSX(config.getFileLocation(), config.getSheetIndex());
+        } else {
+            throw new IllegalArgumentException("File type not supported");
+        }
+    }
+
+    /**
+     * Returns the string representation of a boolean value
+     * @param value
+     * @return
+     */
+    private static String getString(boolean value) {
+        return value ? "TRUE" : "FALSE"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Returns the value at the given index of the row, an empty string if there is none.
+     *
+     * @param row
+     * @param index
+     * @return
+     */
+    static String getValue(String[] row, int index) {
+        return index < row.length && row[index] != null ? row[index] : ""; //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the (approximate) number of rows in the sheet, as specified in the file. Returns 0 if
+     * the number is not known. The result is only valid after the first row has been read.
+     *
+     * @return
+     */
+    abstract int getNumRows();
+
+    /**
+     * Returns the next row, <code>null</code> if there is none. Missing cells are represented by
+     * empty strings, missing cells at the end of the row are omitted.
+     *
+     * @return
+     * @throws IOException
+     */
+    abstract String[] next() throws IOException;
+}
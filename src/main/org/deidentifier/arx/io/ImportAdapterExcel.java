@@ -17,27 +17,20 @@
 
 package org.deidentifier.arx.io;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.deidentifier.arx.DataType;
-import org.deidentifier.arx.io.ImportConfigurationExcel.ExcelFileTypes;
 
 /**
  * Import adapter for Excel files
  * 
  * This adapter can import data from Excel files. It handles both XLS and XLSX
  * files. The file type itself is defined by {@link ImportConfigurationExcel}.
- * The files are accessed using Apache POI.
+ * The files are accessed using Apache POI. Rows are read one after another
+ * with {@link ExcelDataInput}, which means that the workbook is never loaded
+ * into memory completely.
  *
  * @author Karol Babioch
  * @author Fabian Prasser
@@ -48,8 +41,8 @@ public class ImportAdapterExcel extends ImportAdapter {
     /** The configuration describing the Excel file. */
     private ImportConfigurationExcel config;
 
-    /** Actual iterator used to go through data. */
-    private Iterator<Row>            iterator;
+    /** Actual input used to go through data. */
+    private ExcelDataInput           input;
 
     /**
      * Contains the last row as returned by the iterator.
@@ -57,7 +50,10 @@ public class ImportAdapterExcel extends ImportAdapter {
      * @note This row cannot be simply returned, but needs to be further
      *       processed, e.g. to return only selected columns.
      */
-    private Row                      row;
+    private String[]                 row;
+
+    /** The row following {@link #row}, if it has already been read. */
+    private String[]                 next;
 
     /**
      * Indicates whether the first row has already been returned
@@ -68,21 +64,15 @@ public class ImportAdapterExcel extends ImportAdapter {
      */
     private boolean                  headerReturned = false;
 
-    /** Number of rows within the specified sheet. */
-    private int                      totalRows;
-
     /** Current row {@link lastRow} is referencing. */
     private int                      currentRow     = 0;
 
-    /** TODO */
-    private FileInputStream          input;
-
     /**
      * Creates a new instance of this object with given configuration
      * 
-     * Depending upon the file type it either uses HSSF or XSSF to access the
-     * file. In both cases {@link #iterator} will be assigned a reference to
-     * an iterator, which can then be used to access the actual data on a row by
+     * Depending upon the file type it either uses HSSF or XSSF records to access
+     * the file. In both cases {@link #input} will be assigned a reference to
+     * an input, which can then be used to access the actual data on a row by
      * row basis.
      * 
      * @param config
@@ -96,36 +86,21 @@ public class ImportAdapterExcel extends ImportAdapter {
         super(config);
         this.config = config;
 
-        /* Get row iterator */
-        input = new FileInputStream(config.getFileLocation());
-        Workbook workbook = null;
-
-        if (config.getExcelFileType() == ExcelFileTypes.XLS) {
-            workbook = new HSSFWorkbook(input);
-        } else if (config.getExcelFileType() == ExcelFileTypes.XLSX) {
-            workbook = new XSSFWorkbook(input);
-        } else {
-            input.close();
-            throw new IllegalArgumentException("File type not supported");
-        }
-
-        workbook.setMissingCellPolicy(Row.CREATE_NULL_AS_BLANK);
-        Sheet sheet = workbook.getSheetAt(config.getSheetIndex());
-        iterator = sheet.iterator();
-
-        /* Get total number of rows */
-        totalRows = sheet.getPhysicalNumberOfRows();
+        /* Get row input */
+        input = ExcelDataInput.create(config);
 
         /* Check whether there is actual data within the file */
-        if (iterator.hasNext()) {
-
-            row = iterator.next();
+        row = input.next();
+        if (row != null) {
             if (config.getContainsHeader()) {
-                if (!iterator.hasNext()) {
+                next = input.next();
+                if (next == null) {
+                    close();
                     throw new IOException("File contains nothing but header");
                 }
             }
         } else {
+            close();
             throw new IOException("File contains no data");
         }
 
@@ -144,14 +119,18 @@ public class ImportAdapterExcel extends ImportAdapter {
      */
     @Override
     public int getProgress() {
-        return (int) (((double) currentRow / (double) totalRows) * 100d);
+        int totalRows = input.getNumRows();
+        if (totalRows <= 0) {
+            return 0;
+        }
+        return (int) (Math.min(1d, (double) currentRow / (double) totalRows) * 100d);
     }
 
     /**
      * Indicates whether there is another element to return
      * 
      * This returns true when the file contains another line, which could be
-     * accessed by {@link #iterator}.
+     * accessed by {@link #input}.
      *
      * @return
      * @note {@link #row} effectively works as buffer and will always be set
@@ -185,8 +164,7 @@ public class ImportAdapterExcel extends ImportAdapter {
         String[] result = new String[indexes.length];
         for (int i = 0; i < indexes.length; i++) {
 
-            row.getCell(indexes[i]).setCellType(Cell.CELL_TYPE_STRING);
-            result[i] = IOUtil.trim(row.getCell(indexes[i]).getStringCellValue());
+            result[i] = IOUtil.trim(ExcelDataInput.getValue(row, indexes[i]));
 
             if (!dataTypes[i].isValid(result[i])) {
                 if (config.columns.get(i).isCleansing()) {
@@ -198,17 +176,7 @@ public class ImportAdapterExcel extends ImportAdapter {
         }
 
         /* Fetches the next row, which will be used in next iteration */
-        if (iterator.hasNext()) {
-            row = iterator.next();
-            currentRow++;
-        } else {
-            row = null;
-            try {
-                input.close();
-            } catch (Exception e) {
-                /* Die silently */
-            }
-        }
+        row = read();
 
         /* Return resulting row */
         return result;
@@ -252,8 +220,7 @@ public class ImportAdapterExcel extends ImportAdapter {
 
             ImportColumn column = columns.get(i);
 
-            row.getCell(((ImportColumnExcel) column).getIndex()).setCellType(Cell.CELL_TYPE_STRING);
-            String name = IOUtil.trim(row.getCell(((ImportColumnExcel) column).getIndex()).getStringCellValue());
+            String name = IOUtil.trim(ExcelDataInput.getValue(row, ((ImportColumnExcel) column).getIndex()));
 
             if (config.getContainsHeader() && !name.equals("")) {
                 /* Assign name of file itself */
@@ -273,19 +240,49 @@ public class ImportAdapterExcel extends ImportAdapter {
 
         /* Fetch next row in preparation for next iteration */
         if (config.getContainsHeader()) {
-
-            if (iterator.hasNext()) {
-                row = iterator.next();
-                currentRow++;
-            } else {
-                row = null;
-            }
+            row = read();
         }
 
         /* Return header */
         return header;
     }
 
+    /**
+     * Closes the input
+     */
+    private void close() {
+        try {
+            input.close();
+        } catch (Exception e) {
+            /* Die silently */
+        }
+    }
+
+    /**
+     * Returns the next row, which has already been read, if any, or reads it from the input.
+     * Closes the input after the last row.
+     * 
+     * @return
+     */
+    private String[] read() {
+        String[] result = next;
+        next = null;
+        if (result == null) {
+            try {
+                result = input.next();
+            } catch (IOException e) {
+                close();
+                throw new RuntimeException(e);
+            }
+        }
+        if (result != null) {
+            currentRow++;
+        } else {
+            close();
+        }
+        return result;
+    }
+
     /**
      * Returns an array with indexes of columns that should be imported
      * 
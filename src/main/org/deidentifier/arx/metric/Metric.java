@@ -1341,6 +1341,17 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         return this.toString();
     }
     
+    /**
+     * Returns a weight for each row of the input dataset, if equivalence classes must track the
+     * sum of the weights of their rows. Returns null otherwise. Only available after the metric
+     * has been initialized.
+     *
+     * @return
+     */
+    public int[] getRowWeights() {
+        return null;
+    }
+
     /**
      * Returns the factor used to weight suppressed values.
      *
@@ -1445,6 +1456,16 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         return false;
     }
 
+    /**
+     * Returns whether equivalence classes must track the sum of the weights of their rows,
+     * as returned by getRowWeights(). Must be known before the metric is initialized.
+     *
+     * @return
+     */
+    public boolean isRowWeightsRequired() {
+        return false;
+    }
+
     /**
      * Returns true if the metric is weighted.
      *
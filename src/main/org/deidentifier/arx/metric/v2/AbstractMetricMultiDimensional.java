@@ -73,6 +73,9 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
     /** Header of the microaggregated data subset */
     private String[]                        microaggregationHeader;
 
+    /** Attributes for which values are precomputed, null if all attributes are precomputed */
+    private boolean[]                       precomputedAttributes;
+
     /**
      * Creates a new instance.
      *
@@ -241,6 +244,15 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         return microaggregationStartIndex;
     }
 
+    /**
+     * Returns the attributes for which values are precomputed, null if all attributes are precomputed.
+     *
+     * @return
+     */
+    protected boolean[] getPrecomputedAttributes() {
+        return precomputedAttributes;
+    }
+
     /**
      * For backwards compatibility only.
      *
@@ -306,6 +318,16 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         Arrays.fill(max, Double.MAX_VALUE);
     }
 
+    /**
+     * Returns whether values are precomputed for the given attribute.
+     *
+     * @param dimension
+     * @return
+     */
+    protected boolean isPrecomputed(int dimension) {
+        return precomputedAttributes == null || precomputedAttributes[dimension];
+    }
+
     /**
      * Sets the maximal information loss.
      *
@@ -329,4 +351,13 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         }
         this.min = min;
     }
+
+    /**
+     * Sets the attributes for which values are precomputed, null if all attributes are precomputed.
+     *
+     * @param attributes
+     */
+    void setPrecomputedAttributes(boolean[] attributes) {
+        this.precomputedAttributes = attributes;
+    }
 }
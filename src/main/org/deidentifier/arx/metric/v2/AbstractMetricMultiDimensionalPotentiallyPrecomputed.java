@@ -55,7 +55,8 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
 
     /**
      * Creates a new instance. The precomputed variant will be used if 
-     * #distinctValues / #rows <= threshold for all quasi-identifiers.
+     * #distinctValues / #rows <= threshold for at least one quasi-identifier.
+     * Values will only be precomputed for quasi-identifiers which fulfill this condition.
      * @param defaultMetric
      * @param precomputedMetric
      * @param threshold
@@ -207,17 +208,18 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
                                       final GeneralizationHierarchy[] ahierarchies, 
                                       final ARXConfiguration config) {
         
-        this.precomputed = true;
+        // Decide for each attribute
+        this.precomputed = false;
         double rows = input.getDataLength();
-        for (GeneralizationHierarchy hierarchy : ahierarchies) {
-            double share = (double)hierarchy.getDistinctValues()[0] / rows;
-            if (share > threshold) {
-                this.precomputed = false;
-                break;
-            }
+        boolean[] attributes = new boolean[ahierarchies.length];
+        for (int i = 0; i < ahierarchies.length; i++) {
+            double share = (double)ahierarchies[i].getDistinctValues()[0] / rows;
+            attributes[i] = share <= threshold;
+            this.precomputed |= attributes[i];
         }
         
         if (precomputed) {
+            precomputedMetric.setPrecomputedAttributes(attributes);
             precomputedMetric.initializeInternal(manager, definition, input, ahierarchies, config);
         } else {
             defaultMetric.initializeInternal(manager, definition, input, ahierarchies, config);
@@ -36,9 +36,12 @@ public class Cardinalities implements Serializable {
     /** SVUID. */
     private static final long serialVersionUID = 6164578830669365810L;
     
-    /** Cardinalities: Column -> Id -> Level -> Count. */
+    /** Cardinalities: Column -> Id -> Level -> Count. Only level 0 for columns which are not precomputed. */
     private final int[][][] cardinalities;
     
+    /** Hierarchies of columns which are not precomputed: Column -> Id -> Level -> Output. */
+    private final int[][][] hierarchies;
+    
     /**
      * Creates a new instance for the given data set.
      *
@@ -47,14 +50,29 @@ public class Cardinalities implements Serializable {
      * @param hierarchies
      */
     public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies){
+        this(data, subset, hierarchies, null);
+    }
+    
+    /**
+     * Creates a new instance for the given data set. Cardinalities on higher levels are only
+     * precomputed for the given columns. For all other columns, they are derived on demand.
+     *
+     * @param data
+     * @param subset
+     * @param hierarchies
+     * @param precomputed Columns to precompute, null for all columns
+     */
+    public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies, boolean[] precomputed){
 
         int[][] array = data.getArray();
         Dictionary dictionary = data.getDictionary();
         
         // Initialize counts
-        cardinalities = new int[array[0].length][][];
+        this.cardinalities = new int[array[0].length][][];
+        this.hierarchies = new int[array[0].length][][];
         for (int i = 0; i < cardinalities.length; i++) {
-            cardinalities[i] = new int[dictionary.getMapping()[i].length][hierarchies[i].getArray()[0].length];
+            int levels = precomputed == null || precomputed[i] ? hierarchies[i].getArray()[0].length : 1;
+            cardinalities[i] = new int[dictionary.getMapping()[i].length][levels];
         }
 
         // Compute counts
@@ -70,6 +88,10 @@ public class Cardinalities implements Serializable {
         // Create counts for other levels
         for (int column = 0; column < hierarchies.length; column++) {
             final int[][] hierarchy = hierarchies[column].getArray();
+            if (precomputed != null && !precomputed[column]) {
+                this.hierarchies[column] = hierarchy;
+                continue;
+            }
             for (int in = 0; in < hierarchy.length; in++) {
                 final int cardinality = cardinalities[column][in][0];
                 for (int level = 1; level < hierarchy[in].length; level++) {
@@ -87,14 +109,39 @@ public class Cardinalities implements Serializable {
      */
     public Cardinalities(int[][][] cardinalities) {
         this.cardinalities = cardinalities;
+        this.hierarchies = null;
     }
 
     /**
-     * Returns the cardinalities of the given value.
+     * Returns the cardinalities of the given value. For columns which are not
+     * precomputed, only cardinalities on level 0 are contained.
      *
      * @return
      */
     public int[][][] getCardinalities(){
         return cardinalities;
     }
+
+    /**
+     * Returns the cardinalities of all values of the given column on the given level.
+     *
+     * @param column
+     * @param level
+     * @return Id -> Count
+     */
+    public int[] getCardinalities(int column, int level) {
+        int[][] cardinality = cardinalities[column];
+        int[] result = new int[cardinality.length];
+        if (level == 0 || hierarchies == null || hierarchies[column] == null) {
+            for (int id = 0; id < cardinality.length; id++) {
+                result[id] = cardinality[id][level];
+            }
+        } else {
+            int[][] hierarchy = hierarchies[column];
+            for (int in = 0; in < hierarchy.length; in++) {
+                result[hierarchy[in][level]] += cardinality[in][0];
+            }
+        }
+        return result;
+    }
 }
@@ -22,6 +22,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Arrays;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
 import com.carrotsearch.hppc.LongDoubleOpenHashMap;
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
@@ -93,30 +94,41 @@ public class DomainShareMaterialized implements DomainShare {
                 ObjectIntOpenHashMap<String> map = maps[level];
                 int value = strategy[level];
                 String keyString = encodedValues[value];
-                double share = (double) map.get(keyString) / size;
-                double stored = shares[value];
+                store(value, level, (double) map.get(keyString) / size);
+            }
+        }
+    }
 
-                // If duplicate
-                if (stored != NOT_AVAILABLE) {
+    /**
+     * Creates a new set of domain shares for an implicit hierarchy, which is not materialized.
+     * The domain is assumed to consist of the values contained in the encoded hierarchy.
+     *
+     * @param encodedValues
+     * @param encodedHierarchy
+     */
+    public DomainShareMaterialized(String[] encodedValues, 
+                                   int[][] encodedHierarchy) {
 
-                    // If same share, simply continue
-                    if (stored == share) {
-                        continue;
-                    }
+        this.size = encodedHierarchy.length;
+        this.duplicates = new LongDoubleOpenHashMap();
+        this.shares = new double[encodedValues.length];
+        Arrays.fill(shares, NOT_AVAILABLE);
+        int height = encodedHierarchy.length == 0 ? 0 : encodedHierarchy[0].length;
 
-                    // Mark as duplicate, if not already marked
-                    if (stored >= 0d) {
-                        shares[value] = -shares[value];
-                    }
+        // For each level
+        IntIntOpenHashMap counts = new IntIntOpenHashMap();
+        for (int level = 0; level < height; level++) {
 
-                    // Store duplicate value
-                    long dkey = (((long) value) << 32) | (level & 0xffffffffL);
-                    duplicates.put(dkey, share);
+            // Count
+            counts.clear();
+            for (int row = 0; row < encodedHierarchy.length; row++) {
+                counts.putOrAdd(encodedHierarchy[row][level], 1, 1);
+            }
 
-                    // If its not a duplicate, simply store
-                } else {
-                    shares[value] = share;
-                }
+            // Store
+            for (int row = 0; row < encodedHierarchy.length; row++) {
+                int value = encodedHierarchy[row][level];
+                store(value, level, (double) counts.get(value) / size);
             }
         }
     }
@@ -196,4 +208,38 @@ public class DomainShareMaterialized implements DomainShare {
         // Write map
         IO.writeLongDoubleOpenHashMap(aOutputStream, duplicates);
     }
+
+    /**
+     * Stores the share of the given value on the given level and handles duplicates.
+     *
+     * @param value
+     * @param level
+     * @param share
+     */
+    private void store(int value, int level, double share) {
+
+        double stored = shares[value];
+
+        // If duplicate
+        if (stored != NOT_AVAILABLE) {
+
+            // If same share, simply return
+            if (stored == share) {
+                return;
+            }
+
+            // Mark as duplicate, if not already marked
+            if (stored >= 0d) {
+                shares[value] = -shares[value];
+            }
+
+            // Store duplicate value
+            long dkey = (((long) value) << 32) | (level & 0xffffffffL);
+            duplicates.put(dkey, share);
+
+            // If its not a duplicate, simply store
+        } else {
+            shares[value] = share;
+        }
+    }
 }
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.RowSet;
@@ -36,13 +38,19 @@ import org.deidentifier.arx.metric.MetricConfiguration;
 public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
 
     /** SUID. */
-    private static final long serialVersionUID = -7505441444551612996L;
+    private static final long   serialVersionUID = -7505441444551612996L;
+
+    /** Not available in the cache. */
+    private static final double NOT_AVAILABLE    = Double.POSITIVE_INFINITY;
 
     /** Cardinalities. */
-    private Cardinalities     cardinalities;
+    private Cardinalities       cardinalities;
     
     /** Distinct values: attribute -> level -> values. */
-    private int[][][]         values;
+    private int[][][]           values;
+
+    /** Normalized lower bounds: attribute -> level -> bound. */
+    private double[][]          bounds;
     
     /**
      * Creates a new instance.
@@ -110,32 +118,32 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         double[] bound = new double[dimensions];
         DomainShare[] shares = super.getShares();
         double gFactor = super.getGeneralizationFactor();
-        // Column -> Id -> Level -> Count
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
 
-
-        // For each column
+        // For each precomputed column
         for (int column = 0; column < dimensionsGeneralized; column++) {
+            if (!super.isPrecomputed(column)) {
+                continue;
+            }
 
             // Check for cached value
             int level = transformation[column];
-            int[][] cardinality = cardinalities[column];
-            int[] values = this.values[column][level];
-            
-            for (int value : values) {
-                double count = cardinality[value][level];
-                double share = count * shares[column].getShare(value, level);
-                bound[column] += share * gFactor;
+            double value = bounds[column][level];
+            if (value == NOT_AVAILABLE) {
+                value = 0d;
+                int[] cardinality = this.cardinalities.getCardinalities(column, level);
+                for (int id : this.values[column][level]) {
+                    double count = cardinality[id];
+                    double share = count * shares[column].getShare(id, level);
+                    value += share * gFactor;
+                }
+                value = normalizeGeneralized(value, column);
+                bounds[column][level] = value;
             }
+            bound[column] = value;
         }
-        // Note: we ignore microaggregation, as we cannot compute a bound for it
+        // Note: we ignore microaggregation and columns which are not precomputed, as we cannot compute a bound for them
         // this means that the according entries in the resulting array are not changed and remain 0d
         // This is not a problem, as it is OK to underestimate information loss when computing lower bounds
-                
-        // Normalize
-        for (int column=0; column<dimensionsGeneralized; column++){
-            bound[column] = normalizeGeneralized(bound[column], column);
-        }
         
         // Return
         return super.createInformationLoss(bound);
@@ -143,6 +151,13 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
 
     @Override
     protected AbstractILMultiDimensional getLowerBoundInternal(Transformation node, HashGroupify g) {
+        
+        // Fall back to evaluating classes, if not all columns are precomputed
+        for (int column = 0; column < getDimensionsGeneralized(); column++) {
+            if (!super.isPrecomputed(column)) {
+                return super.getLowerBoundInternal(node, g);
+            }
+        }
         return this.getLowerBoundInternal(node);
     }
 
@@ -160,15 +175,18 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         RowSet subset = super.getSubset(config);
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = new Cardinalities(input, subset, hierarchies, super.getPrecomputedAttributes());
         
-        // Distinct values
+        // Distinct values and bounds
         this.values = new int[hierarchies.length][][];
+        this.bounds = new double[hierarchies.length][];
         for (int i=0; i<values.length; i++) {
             values[i] = new int[hierarchies[i].getHeight()][];
             for (int j=0; j<values[i].length; j++){
                 values[i][j] = hierarchies[i].getDistinctValues(j);
             }
+            bounds[i] = new double[values[i].length];
+            Arrays.fill(bounds[i], NOT_AVAILABLE);
         }
     }
 }
@@ -182,11 +182,12 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
             if (value == NOT_AVAILABLE) {
                 value = 0d;
                 final int[][] cardinality = cardinalities[column];
+                final int[] output = this.cardinalities.getCardinalities(column, transformation);
                 final int[][] hierarchy = hierarchies[column];
                 for (int in = 0; in < hierarchy.length; in++) {
                     final int out = hierarchy[in][transformation];
                     final double a = cardinality[in][0];
-                    final double b = cardinality[out][transformation];
+                    final double b = output[out];
                     if (a != 0d) {
                         value += a * log2(a / b);
                     }
@@ -287,7 +288,7 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
         RowSet subset = super.getSubset(config);
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = new Cardinalities(input, subset, hierarchies, super.getPrecomputedAttributes());
         this.rows = input.getDataLength();
         double gFactor = super.getGeneralizationFactor();
         double sFactor = super.getSuppressionFactor();
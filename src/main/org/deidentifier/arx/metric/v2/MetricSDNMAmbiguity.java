@@ -213,10 +213,15 @@ public class MetricSDNMAmbiguity extends AbstractMetricSingleDimensional {
             // Extract info
             String attribute = input.getHeader()[i];
             String[][] hierarchy = definition.getHierarchy(attribute);
-            this.shares[i] = new DomainShareMaterialized(hierarchy,
-                                                         input.getDictionary().getMapping()[i],
-                                                         hierarchies[i].getArray());
-            this.max *= hierarchy.length;
+            if (hierarchy != null) {
+                this.shares[i] = new DomainShareMaterialized(hierarchy,
+                                                             input.getDictionary().getMapping()[i],
+                                                             hierarchies[i].getArray());
+            } else {
+                this.shares[i] = new DomainShareMaterialized(input.getDictionary().getMapping()[i],
+                                                             hierarchies[i].getArray());
+            }
+            this.max *= this.shares[i].getDomainSize();
         }
 
         // Determine total number of tuples
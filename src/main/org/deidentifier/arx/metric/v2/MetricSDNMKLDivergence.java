@@ -92,11 +92,11 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     /** Maximum value */
     private Double              max               = null;
 
-    /** Tuple matcher */
-    private TupleMatcher        matcher           = null;
+    /** Frequency of the input tuple of each row, 0 for rows that are not part of the subset */
+    private int[]               rowWeights        = null;
 
-    /** Distribution */
-    private double[]            inputDistribution = null;
+    /** Sum of frequency * log2(frequency) over all rows */
+    private double              inputEntropy      = 0d;
 
     /** Log 2. */
     private static final double LOG2              = Math.log(2);
@@ -144,6 +144,16 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
         return "KL-Divergence";
     }
 
+    @Override
+    public int[] getRowWeights() {
+        return rowWeights;
+    }
+
+    @Override
+    public boolean isRowWeightsRequired() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "KL-Divergence";
@@ -168,35 +178,27 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensionalWithBound getInformationLossInternal(Transformation node, HashGroupify g) {
         
-        // Obtain number of outliers
+        // Compute KL-Divergence: sum of p * log2(p / q) = sum of p * log2(p) - sum of p * log2(q),
+        // where the output frequency q is the same for all tuples in a class. The sum of the
+        // input frequencies of the rows in each class is tracked by the groupify operator.
+        // All outliers share one output frequency.
+        int[] generalization = node.getGeneralization();
+        double result = this.inputEntropy;
         double outliers = 0d;
+        long outlierWeight = 0L;
         HashGroupifyEntry m = g.getFirstEquivalenceClass();
         while (m != null) {
-            outliers += !m.isNotOutlier ? m.count : 0d;
+            if (!m.isNotOutlier) {
+                outliers += m.count;
+                outlierWeight += m.weight;
+            } else if (m.weight != 0L) {
+                double outputFrequency = m.count / this.tuples / getArea(m.key, generalization);
+                result -= m.weight / this.tuples * log2(outputFrequency);
+            }
             m = m.nextOrdered;
         }
-        
-        // Init
-        double result = 0d;
-        
-        // For each tuple
-        for (int row = 0; row < this.inputDistribution.length; row++) {
-            
-            // Obtain frequency
-            double inputFrequency = inputDistribution[row];
-            
-            // Only if present
-            if (inputFrequency != 0d) {
-                
-                int[] generalization = node.getGeneralization();
-                HashGroupifyEntry entry = this.matcher.getEntry(row, generalization, g);
-                double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
-                outputFrequency /= this.tuples;
-                outputFrequency /= entry.isNotOutlier ? getArea(entry.key, generalization) : maximalArea;
-                
-                // Compute KL-Divergence
-                result += inputFrequency * log2(inputFrequency / outputFrequency);
-            }
+        if (outlierWeight != 0L) {
+            result -= outlierWeight / this.tuples * log2(outliers / this.tuples / maximalArea);
         }
         
         // Return
@@ -236,18 +238,20 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
             // Extract info
             String attribute = input.getHeader()[i];
             String[][] hierarchy = definition.getHierarchy(attribute);
-            this.shares[i] = new DomainShareMaterialized(hierarchy,
-                                                         input.getDictionary().getMapping()[i],
-                                                         hierarchies[i].getArray());
+            if (hierarchy != null) {
+                this.shares[i] = new DomainShareMaterialized(hierarchy,
+                                                             input.getDictionary().getMapping()[i],
+                                                             hierarchies[i].getArray());
+            } else {
+                this.shares[i] = new DomainShareMaterialized(input.getDictionary().getMapping()[i],
+                                                             hierarchies[i].getArray());
+            }
         }
 
         // Determine total number of tuples
         this.tuples = (double)super.getNumRecords(config, input);
         RowSet subset = super.getSubset(config);
         
-        // Tuple matcher
-        this.matcher = new TupleMatcher(hierarchies, input.getArray());
-       
         // Areamax
         this.maximalArea = 1d;
         for (int dimension = 0; dimension < this.shares.length; dimension++) {
@@ -265,14 +269,16 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
            }
        }
        
-       // Build input distribution and compute max
+       // Store the frequency of the input tuple of each row and compute max
        this.max = 0d;
-       this.inputDistribution = new double[input.getArray().length];
+       this.inputEntropy = 0d;
+       this.rowWeights = new int[input.getDataLength()];
        for (int row = 0; row < input.getDataLength(); row++) {
            if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
-               double frequency = groupify.get(wrapper).doubleValue() / this.tuples;
-               this.inputDistribution[row] = frequency ;
+               int count = groupify.get(new TupleWrapper(input.getArray()[row]));
+               double frequency = count / this.tuples;
+               this.rowWeights[row] = count;
+               this.inputEntropy += frequency * log2(frequency);
                max += frequency * log2(frequency * maximalArea);
            }
        }
@@ -24,7 +24,8 @@ import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * A class that supports associating input with output
+ * A class that supports associating input with output. Instances may be used concurrently,
+ * as long as each thread provides its own buffer.
  * @author Florian Kohlmayer, Fabian Prasser
  *
  */
@@ -37,8 +38,6 @@ public class TupleMatcher implements Serializable {
     private final int[][][] hierarchies;
     /** Data*/
     private final int[][] data;
-    /** Data*/
-    private final int[] tuple;
 
     /**
      * Creates a new instance
@@ -55,9 +54,14 @@ public class TupleMatcher implements Serializable {
         
         // Store data
         this.data = input;
-        
-        // Create tuple
-        this.tuple = new int[this.hierarchies.length];
+    }
+    
+    /**
+     * Creates a buffer for transformed tuples
+     * @return
+     */
+    int[] createBuffer() {
+        return new int[this.hierarchies.length];
     }
     
     /**
@@ -65,9 +69,10 @@ public class TupleMatcher implements Serializable {
      * @param row
      * @param generalization
      * @param groupify
+     * @param tuple Buffer for the transformed tuple
      * @return
      */
-    HashGroupifyEntry getEntry(int row, int[] generalization, HashGroupify groupify) {
+    HashGroupifyEntry getEntry(int row, int[] generalization, HashGroupify groupify, int[] tuple) {
         
         // Transform the tuple
         int[] inputtuple = data[row];
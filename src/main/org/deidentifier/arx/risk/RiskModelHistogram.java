@@ -58,6 +58,40 @@ public class RiskModelHistogram {
                                new WrappedInteger());
     }
 
+    /**
+     * Creates a new instance from the given distribution, which consists of distinct sizes of
+     * classes in ascending order and the according numbers of classes. Sizes for which
+     * there are no classes are ignored.
+     * 
+     * @param sizes
+     * @param counts
+     */
+    public RiskModelHistogram(final int[] sizes, final int[] counts) {
+        
+        // Count
+        int length = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            length += counts[i] != 0 ? 1 : 0;
+        }
+        
+        // Convert and analyze
+        int numClasses = 0;
+        int numTuples = 0;
+        this.equivalenceClasses = new int[length * 2];
+        int idx = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (counts[i] != 0) {
+                this.equivalenceClasses[idx++] = sizes[i];
+                this.equivalenceClasses[idx++] = counts[i];
+                numClasses += counts[i];
+                numTuples += sizes[i] * counts[i];
+            }
+        }
+        this.numRecords = numTuples;
+        this.numClasses = numClasses;
+        this.avgClassSize = this.numRecords / this.numClasses;
+    }
+
     /**
      * Creates a new instance by analyzing the given data handle. 
      * IMPORTANT: Suppressed records will be ignored!
@@ -17,10 +17,14 @@
 
 package org.deidentifier.arx.test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
 import org.deidentifier.arx.metric.Metric;
 import org.junit.Before;
 
@@ -143,4 +147,18 @@ public abstract class AbstractTest {
         }
         return list.toArray(new String[list.size()][]);
     }
+    
+    /**
+     * Returns the adult dataset with five quasi-identifiers
+     *
+     * @return
+     * @throws IOException
+     */
+    protected Data getAdultData() throws IOException {
+        Data data = Data.create("data/adult.csv", StandardCharsets.UTF_8, ';');
+        for (String attribute : new String[] { "sex", "age", "race", "education", "marital-status" }) {
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create("data/adult_hierarchy_" + attribute + ".csv", StandardCharsets.UTF_8, ';'));
+        }
+        return data;
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXProgress;
+import org.deidentifier.arx.ARXProgressListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for asynchronous anonymization, which can be cancelled and which can be stopped at a deadline.
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationAsync extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testKAnonymizationAsync() throws Exception {
+
+        provider.createDataDefinition();
+
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final String[][] expected = resultToArray(anonymizer.anonymize(provider.getData(), config));
+        provider.getData().getHandle().release();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ARXResult result = anonymizer.anonymizeAsync(provider.getData(), config, executor, 1, TimeUnit.HOURS).get();
+            assertTrue(result.getLattice().isComplete());
+            assertTrue(Arrays.deepEquals(resultToArray(result), expected));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testKAnonymizationAsyncCancel() throws Exception {
+
+        provider.createDataDefinition();
+
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final String[][] expected = resultToArray(anonymizer.anonymize(provider.getData(), config));
+        provider.getData().getHandle().release();
+
+        // Block the search after the first check until it is cancelled
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        anonymizer.setListener(new ARXListener() {
+            @Override
+            public void progress(double progress) {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ARXResult> future = anonymizer.anonymizeAsync(provider.getData(), config, executor);
+        started.await();
+        assertTrue(future.cancel(true));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertTrue(future.isCancelled());
+        assertTrue(calls.get() == 1);
+
+        // The handle has not been locked
+        anonymizer.setListener(null);
+        assertTrue(Arrays.deepEquals(resultToArray(anonymizer.anonymize(provider.getData(), config)), expected));
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testKAnonymizationAsyncDeadline() throws Exception {
+
+        provider.createDataDefinition();
+
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+
+        // Warm up, so that the first check is performed before the deadline
+        anonymizer.anonymize(provider.getData(), config);
+        provider.getData().getHandle().release();
+
+        // Delay the search after the first check until the deadline has passed
+        final List<ARXProgress> events = new ArrayList<ARXProgress>();
+        anonymizer.setListener(new ARXProgressListener() {
+            @Override
+            public void progress(double progress) {
+                throw new IllegalStateException("Structured event expected");
+            }
+            @Override
+            public void progress(ARXProgress progress) {
+                events.add(progress);
+                if (events.size() == 1) {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ARXResult result = anonymizer.anonymizeAsync(provider.getData(), config, executor, 100, TimeUnit.MILLISECONDS).get();
+            assertFalse(result.getLattice().isComplete());
+            assertTrue(events.size() == 1);
+            assertTrue(events.get(0).getProgress() > 0d && events.get(0).getProgress() <= 1d);
+            assertTrue(events.get(0).getTime() >= 0L);
+            assertFalse(events.get(0).isStopped());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymizationInterrupted() throws IOException {
+
+        provider.createDataDefinition();
+
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final String[][] expected = resultToArray(anonymizer.anonymize(provider.getData(), config));
+        provider.getData().getHandle().release();
+
+        // Synchronous searches ignore interrupts
+        Thread.currentThread().interrupt();
+        try {
+            ARXResult result = anonymizer.anonymize(provider.getData(), config);
+            assertTrue(result.getLattice().isComplete());
+            assertTrue(Arrays.deepEquals(resultToArray(result), expected));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the branch and bound search.
+ *
+ * @author Fabian Prasser
+ */
+public class TestBranchAndBound extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBranchAndBoundSearch() throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        ARXResult expected = anonymizer.anonymize(provider.getData(), config);
+        
+        provider.getData().getHandle().release();
+        config.setHeuristicSearchEnabled(true);
+        config.setBranchAndBoundSearchEnabled(true);
+        config.setBranchAndBoundSearchThreads(2);
+        ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        
+        assertTrue(result.getGlobalOptimum() != null);
+        assertTrue(result.getGlobalOptimum().getHighestScore().compareTo(expected.getGlobalOptimum().getHighestScore()) == 0);
+        assertTrue(result.getOptimalityGap() == 0d);
+        assertTrue(Double.isNaN(expected.getOptimalityGap()));
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBranchAndBoundSearchGap() throws IOException {
+        
+        final Data data = getAdultData();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(0d);
+        ARXResult expected = anonymizer.anonymize(data, config);
+        
+        data.getHandle().release();
+        config.setHeuristicSearchEnabled(true);
+        config.setBranchAndBoundSearchEnabled(true);
+        config.setBranchAndBoundSearchThreads(2);
+        config.setBranchAndBoundSearchGap(0.1d);
+        ARXResult result = anonymizer.anonymize(data, config);
+        
+        assertTrue(result.getGlobalOptimum() != null);
+        assertTrue(result.getGlobalOptimum().getHighestScore().compareTo(expected.getGlobalOptimum().getHighestScore()) >= 0);
+        assertTrue(result.getOptimalityGap() <= 0.1d);
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBranchAndBoundSearchNonMonotonic() throws IOException {
+        
+        final Data data = getAdultData();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(0.05d);
+        config.setQualityModel(Metric.createEntropyMetric(false));
+        ARXResult expected = anonymizer.anonymize(data, config);
+        
+        // Information loss is no lower bound
+        assertFalse(config.getQualityModel().isMonotonic(config.getMaxOutliers()));
+        
+        data.getHandle().release();
+        config.setHeuristicSearchEnabled(true);
+        config.setBranchAndBoundSearchEnabled(true);
+        config.setBranchAndBoundSearchThreads(2);
+        ARXResult result = anonymizer.anonymize(data, config);
+        
+        assertTrue(result.getGlobalOptimum() != null);
+        assertTrue(result.getGlobalOptimum().getHighestScore().compareTo(expected.getGlobalOptimum().getHighestScore()) == 0);
+        assertTrue(result.getOptimalityGap() == 0d);
+    }
+}
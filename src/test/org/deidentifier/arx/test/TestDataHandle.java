@@ -19,10 +19,23 @@ package org.deidentifier.arx.test;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.math3.util.Pair;
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXLattice;
@@ -34,9 +47,12 @@ import org.deidentifier.arx.Data;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataSelector;
 import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.DataTypeCache;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVSyntax;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -66,6 +82,177 @@ public class TestDataHandle extends AbstractTest {
         
     }
     
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testBinaryFormat() throws IllegalArgumentException, IOException {
+        
+        final DataHandle inHandle = provider.getData().getHandle();
+        
+        // Write and read the encoded data
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inHandle.saveBinary(out);
+        final DataHandle binHandle = Data.createBinary(new ByteArrayInputStream(out.toByteArray())).getHandle();
+        
+        assertTrue(Arrays.deepEquals(iteratorToArray(inHandle.iterator()), iteratorToArray(binHandle.iterator())));
+        assertTrue(Arrays.equals(inHandle.getDistinctValues(2), binHandle.getDistinctValues(2)));
+    }
+    
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testBinaryFormatMapped() throws IllegalArgumentException, IOException {
+        
+        final DataHandle inHandle = provider.getData().getHandle();
+        
+        // Convert from CSV and map the file
+        File csv = File.createTempFile("arx", ".csv");
+        File binary = File.createTempFile("arx", ".bin");
+        try {
+            inHandle.save(csv, ';');
+            Data.convertToBinary(csv, StandardCharsets.UTF_8, new CSVSyntax(';'), binary);
+            final DataHandle binHandle = Data.createBinary(binary).getHandle();
+            
+            assertTrue(Arrays.deepEquals(iteratorToArray(inHandle.iterator()), iteratorToArray(binHandle.iterator())));
+            assertTrue(Arrays.equals(inHandle.getDistinctValues(2), binHandle.getDistinctValues(2)));
+        } finally {
+            csv.delete();
+            binary.delete();
+        }
+    }
+    
+    /**
+     * Test case
+     *
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    @Test
+    public void testConcurrentParsing() throws InterruptedException, ExecutionException {
+        
+        // Shared instances
+        final DataType<Date> date = DataType.createDate("dd.MM.yyyy", Locale.US);
+        final DataType<Double> decimal = DataType.createDecimal("#,##0.00", Locale.US);
+        final DataTypeCache<Date> cache = new DataTypeCache<Date>(date);
+        
+        // Expected results, obtained with separate instances
+        final String[] dates = new String[1000];
+        final String[] decimals = new String[1000];
+        final Date[] expectedDates = new Date[1000];
+        final Double[] expectedDecimals = new Double[1000];
+        DataType<Date> referenceDate = DataType.createDate("dd.MM.yyyy", Locale.US);
+        DataType<Double> referenceDecimal = DataType.createDecimal("#,##0.00", Locale.US);
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = String.format(Locale.US, "%02d.%02d.%04d", 1 + i % 28, 1 + i % 12, 1900 + i);
+            decimals[i] = String.format(Locale.US, "%,.2f", i * 1234.5d);
+            expectedDates[i] = referenceDate.parse(dates[i]);
+            expectedDecimals[i] = referenceDecimal.parse(decimals[i]);
+        }
+        
+        // Parse and format concurrently
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int run = 0; run < 20; run++) {
+                            for (int i = 0; i < dates.length; i++) {
+                                if (!date.parse(dates[i]).equals(expectedDates[i]) ||
+                                    !cache.parse(dates[i]).equals(expectedDates[i]) ||
+                                    !date.format(expectedDates[i]).equals(dates[i]) ||
+                                    !decimal.parse(decimals[i]).equals(expectedDecimals[i]) ||
+                                    !decimal.format(expectedDecimals[i]).equals(decimals[i])) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testMatchingDataTypes() throws IllegalArgumentException, IOException {
+        
+        final DataHandle inHandle = provider.getData().getHandle();
+        
+        // Detect all columns at once
+        List<List<Pair<DataType<?>, Double>>> types = inHandle.getMatchingDataTypes(new int[] { 0, 1, 2 }, Locale.US, 0.8d);
+        assertTrue(types.size() == 3);
+        for (int column = 0; column < 3; column++) {
+            assertTrue(types.get(column).toString().equals(inHandle.getMatchingDataTypes(column, Locale.US, 0.8d).toString()));
+        }
+        
+        // Integers are preferred, gender only matches strings
+        assertTrue(types.get(0).get(0).getFirst().getDescription().getWrappedClass() == Long.class);
+        assertTrue(types.get(0).get(0).getSecond() == 1d);
+        assertTrue(types.get(1).size() == 1);
+        assertTrue(types.get(1).get(0).getFirst().getDescription().getWrappedClass() == String.class);
+    }
+    
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testMatchingDataTypesSampled() throws IllegalArgumentException, IOException {
+        
+        // More distinct values than the size of the sample. 90% of the first
+        // and 50% of the second column are integers.
+        Data.DefaultData data = Data.create();
+        data.add("mixed", "half");
+        for (int i = 0; i < 5000; i++) {
+            data.add(i < 4500 ? String.valueOf(i) : "x" + i,
+                     i % 2 == 0 ? String.valueOf(i) : "y" + i);
+        }
+        final DataHandle handle = data.getHandle();
+        
+        // Integers are detected in the first column, with the exact share of matching values
+        List<Pair<DataType<?>, Double>> types = handle.getMatchingDataTypes(0, Locale.US, 0.8d);
+        assertTrue(types.get(0).getFirst().getDescription().getWrappedClass() == String.class);
+        assertTrue(types.get(1).getFirst().getDescription().getWrappedClass() == Long.class);
+        assertTrue(types.get(1).getSecond() == 0.9d);
+        
+        // Sampling does not change the result
+        List<Pair<DataType<?>, Double>> exhaustive = new ArrayList<Pair<DataType<?>, Double>>();
+        for (Pair<DataType<?>, Double> type : handle.getMatchingDataTypes(0, Locale.US, 0d)) {
+            if (type.getSecond() >= 0.8d) {
+                exhaustive.add(type);
+            }
+        }
+        assertTrue(types.equals(exhaustive));
+        
+        // Integers are eliminated in the second column
+        types = handle.getMatchingDataTypes(1, Locale.US, 0.8d);
+        assertTrue(types.size() == 1);
+        assertTrue(types.get(0).getFirst().getDescription().getWrappedClass() == String.class);
+    }
+    
     /**
      * Test case
      *
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -25,6 +27,9 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataSource;
+import org.deidentifier.arx.DataType;
 import org.junit.Test;
 
 import cern.colt.Arrays;
@@ -52,4 +57,53 @@ public class TestDataImport extends AbstractTest {
             System.out.println(Arrays.toString(result.get(result.size() - 1)));
         }
     }
+    
+    /**
+     * Test importing the legacy Excel format
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExcelXLS() throws IOException {
+        testExcel("data/test.xls");
+    }
+    
+    /**
+     * Test importing the OOXML Excel format
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExcelXLSX() throws IOException {
+        testExcel("data/test.xlsx");
+    }
+
+    /**
+     * Imports the given Excel file, which contains the same data as data/test.csv,
+     * with columns selected by index, by name and by name with an alias
+     *
+     * @param file
+     * @throws IOException
+     */
+    private void testExcel(String file) throws IOException {
+        
+        // Import
+        DataSource source = DataSource.createExcelSource(file, 0, true);
+        source.addColumn(2, DataType.STRING);
+        source.addColumn("gender", DataType.STRING);
+        source.addColumn("age", "renamed", DataType.INTEGER);
+        DataHandle handle = Data.create(source).getHandle();
+        
+        // Compare
+        DataHandle expected = Data.create("data/test.csv", StandardCharsets.UTF_8, ';').getHandle();
+        assertEquals(expected.getNumRows(), handle.getNumRows());
+        assertEquals("zipcode", handle.getAttributeName(0));
+        assertEquals("gender", handle.getAttributeName(1));
+        assertEquals("renamed", handle.getAttributeName(2));
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            assertEquals(expected.getValue(row, 2), handle.getValue(row, 0));
+            assertEquals(expected.getValue(row, 1), handle.getValue(row, 1));
+            assertEquals(expected.getValue(row, 0), handle.getValue(row, 2));
+        }
+    }
 }
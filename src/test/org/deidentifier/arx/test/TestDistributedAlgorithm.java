@@ -0,0 +1,103 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.aggregates.HierarchyBuilderRedactionBased;
+import org.deidentifier.arx.aggregates.HierarchyFunction;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for searches which are distributed among worker processes.
+ *
+ * @author Fabian Prasser
+ */
+public class TestDistributedAlgorithm extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymization() throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        ARXResult expected = anonymizer.anonymize(provider.getData(), config);
+        
+        provider.getData().getHandle().release();
+        anonymizer.setNumberOfWorkerProcesses(2);
+        ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        
+        assertTrue(result.getGlobalOptimum() != null);
+        assertTrue(Arrays.equals(result.getGlobalOptimum().getTransformation(), expected.getGlobalOptimum().getTransformation()));
+        assertTrue(result.getGlobalOptimum().getHighestScore().compareTo(expected.getGlobalOptimum().getHighestScore()) == 0);
+        assertTrue(result.getLattice().isComplete());
+        assertTrue(result.getOutput() != null);
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymizationWithImplicitHierarchy() throws IOException {
+        
+        provider.createDataDefinition();
+        HierarchyBuilderRedactionBased<?> builder = HierarchyBuilderRedactionBased.create('*');
+        provider.getData().getDefinition().setAttributeType("zipcode", Hierarchy.create(HierarchyFunction.createRedaction(builder, 5)));
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        ARXResult expected = anonymizer.anonymize(provider.getData(), config);
+        final String[][] output = resultToArray(expected);
+        
+        provider.getData().getHandle().release();
+        anonymizer.setNumberOfWorkerProcesses(2);
+        ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        
+        assertTrue(result.getGlobalOptimum() != null);
+        assertTrue(Arrays.equals(result.getGlobalOptimum().getTransformation(), expected.getGlobalOptimum().getTransformation()));
+        assertTrue(result.getGlobalOptimum().getHighestScore().compareTo(expected.getGlobalOptimum().getHighestScore()) == 0);
+        assertTrue(Arrays.deepEquals(resultToArray(result), output));
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution.PrivacyCondition;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.risk.RiskModelHistogram;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * Test for the distribution of equivalence classes, which buckets classes by size. Results are
+ * compared to sorting the classes with a comparator and to maintaining the histogram of class
+ * sizes in a hash map.
+ *
+ * @author Fabian Prasser
+ */
+public class TestGroupifyDistribution extends AbstractTest {
+
+    /** Number of random distributions per test */
+    private static final int REPETITIONS = 50;
+
+    /**
+     * Histograms created from sizes and counts must equal histograms created from hash maps.
+     */
+    @Test
+    public void testHistogram() {
+
+        Random random = new Random(0);
+        for (int i = 0; i < REPETITIONS; i++) {
+
+            // Distinct sizes in ascending order, some of which have no classes
+            int length = 1 + random.nextInt(20);
+            int[] sizes = new int[length];
+            int[] counts = new int[length];
+            IntIntOpenHashMap distribution = new IntIntOpenHashMap();
+            int size = 0;
+            for (int j = 0; j < length; j++) {
+                size += 1 + random.nextInt(10);
+                sizes[j] = size;
+                counts[j] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(100);
+                if (counts[j] != 0) {
+                    distribution.put(size, counts[j]);
+                }
+            }
+
+            // Make sure that there is at least one class
+            counts[0]++;
+            distribution.putOrAdd(sizes[0], 1, 1);
+
+            checkHistogram(new RiskModelHistogram(distribution), new RiskModelHistogram(sizes, counts));
+        }
+    }
+
+    /**
+     * Classes must be suppressed in the same order as when sorting them with a comparator,
+     * and the histogram must be maintained while classes are suppressed with a binary search.
+     */
+    @Test
+    public void testSuppressionBinary() {
+
+        Random random = new Random(1);
+        for (int i = 0; i < REPETITIONS; i++) {
+
+            List<HashGroupifyEntry> entries = getEntries(random);
+            final List<HashGroupifyEntry> expected = getOrder(entries);
+            final int threshold = random.nextInt(getNumRecords(entries) + 1);
+            HashGroupifyDistribution distribution = new HashGroupifyDistribution(null, null, entries.get(0));
+            final int initiallySuppressed = distribution.getNumSuppressedRecords();
+
+            distribution.suppressWhileNotFulfilledBinary(new PrivacyCondition() {
+                public State isFulfilled(HashGroupifyDistribution distribution) {
+                    checkState(distribution, expected);
+                    return distribution.getNumSuppressedRecords() - initiallySuppressed >= threshold ? State.FULFILLED : State.NOT_FULFILLED;
+                }
+            });
+            checkState(distribution, expected);
+        }
+    }
+
+    /**
+     * Classes must be suppressed in the same order as when sorting them with a comparator,
+     * and the histogram must be maintained while classes are suppressed one after another.
+     */
+    @Test
+    public void testSuppressionLinear() {
+
+        Random random = new Random(2);
+        for (int i = 0; i < REPETITIONS; i++) {
+
+            List<HashGroupifyEntry> entries = getEntries(random);
+            final List<HashGroupifyEntry> expected = getOrder(entries);
+            HashGroupifyDistribution distribution = new HashGroupifyDistribution(null, null, entries.get(0));
+
+            // Suppress all classes
+            distribution.suppressWhileNotFulfilledLinear(new PrivacyCondition() {
+                public State isFulfilled(HashGroupifyDistribution distribution) {
+                    checkState(distribution, expected);
+                    return State.NOT_FULFILLED;
+                }
+            });
+            checkState(distribution, expected);
+            for (HashGroupifyEntry entry : expected) {
+                assertTrue(!entry.isNotOutlier);
+            }
+        }
+    }
+
+    /**
+     * Compares two histograms
+     *
+     * @param expected
+     * @param actual
+     */
+    private void checkHistogram(RiskModelHistogram expected, RiskModelHistogram actual) {
+        assertTrue(Arrays.equals(expected.getHistogram(), actual.getHistogram()));
+        assertEquals(expected.getNumClasses(), actual.getNumClasses(), 0d);
+        assertEquals(expected.getNumRecords(), actual.getNumRecords(), 0d);
+        assertEquals(expected.getAvgClassSize(), actual.getAvgClassSize(), 0d);
+    }
+
+    /**
+     * Checks whether the suppressed classes are a prefix of the expected order and whether
+     * the distribution matches the classes that are not suppressed
+     *
+     * @param distribution
+     * @param expected
+     */
+    private void checkState(HashGroupifyDistribution distribution, List<HashGroupifyEntry> expected) {
+
+        // Suppressed classes are a prefix
+        int suppressed = 0;
+        while (suppressed < expected.size() && !expected.get(suppressed).isNotOutlier) {
+            suppressed++;
+        }
+        IntIntOpenHashMap histogram = new IntIntOpenHashMap();
+        for (int i = suppressed; i < expected.size(); i++) {
+            HashGroupifyEntry entry = expected.get(i);
+            assertTrue(entry.isNotOutlier);
+            histogram.putOrAdd(entry.count, 1, 1);
+        }
+
+        // Compare distribution
+        if (!histogram.isEmpty()) {
+            checkHistogram(new RiskModelHistogram(histogram), distribution.getHistogram());
+            for (int i = 0; i < histogram.allocated.length; i++) {
+                if (histogram.allocated[i]) {
+                    int size = histogram.keys[i];
+                    double fraction = (double) histogram.values[i] * (double) size / (double) distribution.getNumRecords();
+                    assertEquals(fraction, distribution.getFractionOfRecordsInClassesOfSize(size), 0d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a random list of linked classes, including classes which are suppressed or empty
+     *
+     * @param random
+     * @return
+     */
+    private List<HashGroupifyEntry> getEntries(Random random) {
+
+        // Unique representatives
+        int size = 1 + random.nextInt(500);
+        List<Integer> representatives = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            representatives.add(i);
+        }
+        Collections.shuffle(representatives, random);
+
+        // Classes with few distinct sizes, which are linked in random order
+        List<HashGroupifyEntry> entries = new ArrayList<HashGroupifyEntry>();
+        int maxSize = 1 + random.nextInt(50);
+        for (int i = 0; i < size; i++) {
+            HashGroupifyEntry entry = new HashGroupifyEntry(new int[] { i }, i);
+            entry.count = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(maxSize);
+            entry.isNotOutlier = random.nextInt(10) != 0;
+            entry.representative = representatives.get(i);
+            if (i > 0) {
+                entries.get(i - 1).nextOrdered = entry;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of records in classes that can be suppressed
+     *
+     * @param entries
+     * @return
+     */
+    private int getNumRecords(List<HashGroupifyEntry> entries) {
+        int result = 0;
+        for (HashGroupifyEntry entry : entries) {
+            if (entry.isNotOutlier) {
+                result += entry.count;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the classes that can be suppressed, sorted with a comparator
+     *
+     * @param entries
+     * @return
+     */
+    private List<HashGroupifyEntry> getOrder(List<HashGroupifyEntry> entries) {
+        List<HashGroupifyEntry> result = new ArrayList<HashGroupifyEntry>();
+        for (HashGroupifyEntry entry : entries) {
+            if (entry.isNotOutlier && entry.count > 0) {
+                result.add(entry);
+            }
+        }
+        Collections.sort(result, new Comparator<HashGroupifyEntry>() {
+            public int compare(HashGroupifyEntry o1, HashGroupifyEntry o2) {
+                int cmp = Integer.compare(o1.count, o2.count);
+                return cmp != 0 ? cmp : Integer.compare(o1.representative, o2.representative);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.aggregates.HierarchyBuilderIntervalBased;
+import org.deidentifier.arx.aggregates.HierarchyBuilderIntervalBased.Range;
+import org.junit.Test;
+
+/**
+ * Test for building hierarchies with grouping-based builders, including the cache of
+ * hierarchies which have been built and labeling levels in parallel.
+ *
+ * @author Fabian Prasser
+ */
+public class TestHierarchyBuilders extends AbstractTest {
+
+    /** Minimal number of cells for labeling levels in parallel, see HierarchyBuilderGroupingBased */
+    private static final int PARALLEL_THRESHOLD = 1000000;
+
+    /**
+     * Cached and freshly built hierarchies must be equal.
+     */
+    @Test
+    public void testCache() {
+
+        String[] data = getValues(200);
+        HierarchyBuilderIntervalBased<Long> builder = getBuilder(200l);
+        String[][] expected = getFresh(builder, data);
+
+        // Built and cached, then served from the cache
+        assertTrue(Arrays.deepEquals(expected, builder.build(data).getHierarchy()));
+        String[][] cached = builder.build(data).getHierarchy();
+        assertTrue(Arrays.deepEquals(expected, cached));
+
+        // Cached hierarchies are copies
+        cached[0][1] = "modified";
+        assertTrue(Arrays.deepEquals(expected, builder.build(data).getHierarchy()));
+
+        // Builders with equal specifications share entries
+        assertTrue(Arrays.deepEquals(expected, getBuilder(200l).build(data).getHierarchy()));
+
+        // Different values are not served from the cache
+        String[] subset = Arrays.copyOf(data, 100);
+        String[][] hierarchy = builder.build(subset).getHierarchy();
+        assertTrue(hierarchy.length == subset.length);
+        assertTrue(Arrays.deepEquals(getFresh(builder, subset), hierarchy));
+    }
+
+    /**
+     * Modifying a builder must invalidate its cached specification.
+     */
+    @Test
+    public void testCacheModifiedBuilder() {
+
+        String[] data = getValues(200);
+        HierarchyBuilderIntervalBased<Long> builder = getBuilder(200l);
+        String[][] previous = builder.build(data).getHierarchy();
+
+        // Intervals
+        builder.addInterval(33l, 50l);
+        previous = checkModified(builder, data, previous);
+
+        // Groups
+        builder.getLevel(1).addGroup(2);
+        previous = checkModified(builder, data, previous);
+
+        // Removed groups
+        builder.getLevel(2).clearGroups();
+        checkModified(builder, data, previous);
+    }
+
+    /**
+     * Labeling levels in parallel must yield the same result as labeling them sequentially.
+     * The parallel path is only taken if more than one processor is available.
+     */
+    @Test
+    public void testParallelLabeling() {
+
+        int size = PARALLEL_THRESHOLD / 4;
+        String[] data = getValues(size);
+        HierarchyBuilderIntervalBased<Long> builder = getBuilder((long) size);
+        String[][] hierarchy = getFresh(builder, data);
+        assertTrue((long) data.length * (long) (hierarchy[0].length - 1) >= PARALLEL_THRESHOLD);
+
+        // Labels only depend on the value. Build smaller chunks, which are labeled sequentially.
+        int chunk = size / 10;
+        for (int offset = 0; offset < size; offset += chunk) {
+            String[] values = Arrays.copyOfRange(data, offset, offset + chunk);
+            String[][] expected = getFresh(builder, values);
+            assertTrue(Arrays.deepEquals(expected, Arrays.copyOfRange(hierarchy, offset, offset + chunk)));
+        }
+    }
+
+    /**
+     * Checks whether a modified builder yields a different hierarchy, which equals a freshly
+     * built hierarchy.
+     *
+     * @param builder
+     * @param data
+     * @param previous
+     * @return
+     */
+    private String[][] checkModified(HierarchyBuilderIntervalBased<Long> builder, String[] data, String[][] previous) {
+        String[][] hierarchy = builder.build(data).getHierarchy();
+        assertFalse(Arrays.deepEquals(previous, hierarchy));
+        assertTrue(Arrays.deepEquals(getFresh(builder, data), hierarchy));
+        return hierarchy;
+    }
+
+    /**
+     * Returns a builder with four levels for values in [0, bound[
+     *
+     * @param bound
+     * @return
+     */
+    private HierarchyBuilderIntervalBased<Long> getBuilder(long bound) {
+        HierarchyBuilderIntervalBased<Long> builder = HierarchyBuilderIntervalBased.create(DataType.INTEGER,
+                                                                                           new Range<Long>(0l, 0l, 0l),
+                                                                                           new Range<Long>(bound, bound, bound));
+        builder.setAggregateFunction(DataType.INTEGER.createAggregate().createIntervalFunction(true, false));
+        builder.addInterval(0l, 20l);
+        builder.addInterval(20l, 33l);
+        builder.getLevel(0).addGroup(2);
+        builder.getLevel(1).addGroup(3);
+        builder.getLevel(2).addGroup(2);
+        return builder;
+    }
+
+    /**
+     * Builds a hierarchy without consulting the cache
+     *
+     * @param builder
+     * @param data
+     * @return
+     */
+    private String[][] getFresh(HierarchyBuilderIntervalBased<Long> builder, String[] data) {
+        builder.prepare(data);
+        return builder.build().getHierarchy();
+    }
+
+    /**
+     * Returns the values 0 to size - 1
+     *
+     * @param size
+     * @return
+     */
+    private String[] getValues(int size) {
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = String.valueOf(i);
+        }
+        return values;
+    }
+}
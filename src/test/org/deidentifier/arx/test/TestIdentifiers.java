@@ -0,0 +1,311 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.deidentifier.arx.framework.lattice.IdentifierMap;
+import org.deidentifier.arx.framework.lattice.IdentifierSet;
+import org.junit.Test;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * Tests the sets and maps used for storing properties of transformations.
+ * 
+ * @author Fabian Prasser
+ */
+public class TestIdentifiers extends AbstractTest {
+
+    /** Size of a space which is addressed by a directory of pages */
+    private static final long SMALL   = 1L << 20;
+
+    /** Size of a space which is addressed by a map of pages */
+    private static final long LARGE   = 1L << 40;
+
+    /** Number of identifiers per page of a set */
+    private static final int  PAGE    = 1 << 15;
+
+    /** Number of threads */
+    private static final int  THREADS = 4;
+
+    /**
+     * Performs a test.
+     */
+    @Test
+    public void testMap() {
+        IdentifierMap<String> map = new IdentifierMap<String>();
+        assertNull(map.get(0L));
+        assertEquals(0, map.getIdentifiers().length);
+        
+        Random random = new Random(0xDEADBEEF);
+        TreeSet<Long> expected = new TreeSet<Long>();
+        for (int i = 0; i < 10000; i++) {
+            long identifier = random.nextLong() & (LARGE - 1L);
+            map.put(identifier, String.valueOf(identifier));
+            expected.add(identifier);
+        }
+        for (long identifier : expected) {
+            assertEquals(String.valueOf(identifier), map.get(identifier));
+        }
+        long[] identifiers = map.getIdentifiers();
+        Arrays.sort(identifiers);
+        assertArrayEquals(toArray(expected), identifiers);
+        
+        long identifier = expected.first();
+        assertEquals(String.valueOf(identifier), map.putIfAbsent(identifier, "other"));
+        assertEquals(String.valueOf(identifier), map.get(identifier));
+        map.put(identifier, "other");
+        assertEquals("other", map.get(identifier));
+        assertEquals("new", map.putIfAbsent(LARGE, "new"));
+        assertEquals("new", map.get(LARGE));
+    }
+
+    /**
+     * Performs a test.
+     * 
+     * @throws InterruptedException
+     */
+    @Test
+    public void testMapConcurrent() throws InterruptedException {
+        final IdentifierMap<Object> map = new IdentifierMap<Object>();
+        final int size = 50000;
+        final Object[][] values = new Object[THREADS][size];
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < size; j++) {
+                            long identifier = (thread & 1) == 0 ? j : size - 1 - j;
+                            values[thread][(int) identifier] = map.putIfAbsent(identifier * 31L, new Object());
+                        }
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        join(threads, error);
+        
+        // All threads must have observed the same value
+        for (int j = 0; j < size; j++) {
+            Object value = map.get(j * 31L);
+            for (int i = 0; i < THREADS; i++) {
+                assertSame(value, values[i][j]);
+            }
+        }
+        assertEquals(size, map.getIdentifiers().length);
+    }
+
+    /**
+     * Performs a test.
+     */
+    @Test
+    public void testSetLarge() {
+        testSet(LARGE);
+    }
+
+    /**
+     * Performs a test.
+     * 
+     * @throws InterruptedException
+     */
+    @Test
+    public void testSetLargeConcurrent() throws InterruptedException {
+        testSetConcurrent(LARGE);
+    }
+
+    /**
+     * Performs a test.
+     */
+    @Test
+    public void testSetSmall() {
+        testSet(SMALL);
+    }
+
+    /**
+     * Performs a test.
+     * 
+     * @throws InterruptedException
+     */
+    @Test
+    public void testSetSmallConcurrent() throws InterruptedException {
+        testSetConcurrent(SMALL);
+    }
+
+    /**
+     * Waits for all threads and rethrows the first error.
+     * 
+     * @param threads
+     * @param error
+     * @throws InterruptedException
+     */
+    private void join(Thread[] threads, AtomicReference<Throwable> error) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+    }
+
+    /**
+     * Tests the set for the given size of the identifier space.
+     * 
+     * @param space
+     */
+    private void testSet(long space) {
+        IdentifierSet set = new IdentifierSet(space);
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(space - 1L));
+        assertFalse(set.iterator().hasNext());
+        
+        // Add random identifiers, including both boundaries
+        Random random = new Random(0xDEADBEEF);
+        TreeSet<Long> expected = new TreeSet<Long>();
+        expected.add(0L);
+        expected.add(space - 1L);
+        for (int i = 0; i < 10000; i++) {
+            expected.add((random.nextLong() & Long.MAX_VALUE) % space);
+        }
+        for (long identifier : expected) {
+            assertTrue(set.add(identifier));
+        }
+        for (long identifier : expected) {
+            assertFalse(set.add(identifier));
+            assertTrue(set.contains(identifier));
+        }
+        for (int i = 0; i < 10000; i++) {
+            long identifier = (random.nextLong() & Long.MAX_VALUE) % space;
+            assertEquals(expected.contains(identifier), set.contains(identifier));
+        }
+        
+        // Identifiers are iterated in ascending order
+        assertArrayEquals(toArray(expected), toArray(set.iterator()));
+    }
+
+    /**
+     * Tests concurrent modifications of the set for the given size of the identifier space.
+     * Each identifier must be reported as new exactly once. Identifiers are drawn from a few
+     * pages, which are allocated concurrently.
+     * 
+     * @param space
+     * @throws InterruptedException
+     */
+    private void testSetConcurrent(long space) throws InterruptedException {
+        final IdentifierSet set = new IdentifierSet(space);
+        final long[] identifiers = new long[100000];
+        Random random = new Random(0xDEADBEEF);
+        long[] pages = new long[64];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = (random.nextLong() & Long.MAX_VALUE) % (space / PAGE) * PAGE;
+        }
+        for (int i = 0; i < identifiers.length; i++) {
+            identifiers[i] = pages[random.nextInt(pages.length)] + random.nextInt(PAGE);
+        }
+        final AtomicInteger added = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < identifiers.length; j++) {
+                            long identifier = identifiers[(j + thread * identifiers.length / THREADS) % identifiers.length];
+                            if (set.add(identifier)) {
+                                added.incrementAndGet();
+                            }
+                            if (!set.contains(identifier)) {
+                                throw new AssertionError("Identifier not contained: " + identifier);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        join(threads, error);
+        
+        TreeSet<Long> expected = new TreeSet<Long>();
+        for (long identifier : identifiers) {
+            expected.add(identifier);
+        }
+        assertEquals(expected.size(), added.get());
+        assertArrayEquals(toArray(expected), toArray(set.iterator()));
+    }
+
+    /**
+     * Converts the given iterator into an array.
+     * 
+     * @param iterator
+     * @return
+     */
+    private long[] toArray(LongIterator iterator) {
+        long[] result = new long[16];
+        int size = 0;
+        while (iterator.hasNext()) {
+            if (size == result.length) {
+                result = Arrays.copyOf(result, size * 2);
+            }
+            result[size++] = iterator.next();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Converts the given set into an array.
+     * 
+     * @param set
+     * @return
+     */
+    private long[] toArray(TreeSet<Long> set) {
+        long[] result = new long[set.size()];
+        int size = 0;
+        for (long value : set) {
+            result[size++] = value;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.aggregates.HierarchyBuilderRedactionBased;
+import org.deidentifier.arx.aggregates.HierarchyFunction;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for implicit, function-backed generalization hierarchies.
+ *
+ * @author Fabian Prasser
+ */
+public class TestImplicitHierarchies extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymization() throws IOException {
+        
+        provider.createDataDefinition();
+        HierarchyBuilderRedactionBased<?> builder = HierarchyBuilderRedactionBased.create('*');
+        provider.getData().getDefinition().setAttributeType("zipcode", Hierarchy.create(HierarchyFunction.createRedaction(builder, 5)));
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final String[][] result = resultToArray(anonymizer.anonymize(provider.getData(), config));
+        
+        final String[][] expected = {
+                                      { "age", "gender", "zipcode" },
+                                      { "<50", "*", "816**" },
+                                      { "<50", "*", "816**" },
+                                      { ">=50", "*", "819**" },
+                                      { ">=50", "*", "819**" },
+                                      { "<50", "*", "819**" },
+                                      { ">=50", "*", "819**" },
+                                      { "<50", "*", "819**" } };
+                                      
+        assertTrue(Arrays.deepEquals(result, expected));
+
+        // Check handling of missing values and of the highest level
+        HierarchyFunction function = HierarchyFunction.createRedaction(builder, 5);
+        assertTrue(function.generalize(DataType.NULL_VALUE, 2).equals(DataType.NULL_VALUE));
+        assertTrue(function.generalize("81667", 5).equals("*****"));
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSave() throws IOException {
+        
+        Hierarchy hierarchy = Hierarchy.create(HierarchyFunction.createRedaction(HierarchyBuilderRedactionBased.create('*'), 5));
+        File file = File.createTempFile("arx", ".csv");
+        try {
+            hierarchy.save(file, ';');
+            Assert.fail("Implicit hierarchy saved");
+        } catch (IllegalStateException e) {
+            // Expected
+        } finally {
+            file.delete();
+        }
+        try {
+            hierarchy.save(new ByteArrayOutputStream());
+            Assert.fail("Implicit hierarchy saved");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+}
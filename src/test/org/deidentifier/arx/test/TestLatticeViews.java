@@ -0,0 +1,112 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for views on complete lattices.
+ *
+ * @author Fabian Prasser
+ */
+public class TestLatticeViews extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testViews() throws IOException {
+        checkViews(Metric.createLossMetric());
+    }
+
+    /**
+     * Performs a test with a quality model measuring loss with a single value
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testViewsWithSingleDimensionalScores() throws IOException {
+        checkViews(Metric.createDiscernabilityMetric(true));
+    }
+
+    /**
+     * Checks the nodes of a complete lattice
+     *
+     * @param metric
+     * @throws IOException
+     */
+    private void checkViews(Metric<?> metric) throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        config.setQualityModel(metric);
+        ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        ARXLattice lattice = result.getLattice();
+        assertTrue(lattice.isComplete());
+        InformationLoss<?> optimum = result.getGlobalOptimum().getHighestScore();
+        
+        // Nodes are materialized once and relationships are consistent
+        ARXNode[][] levels = lattice.getLevels();
+        assertTrue(levels[0][0] == lattice.getBottom());
+        assertTrue(levels[levels.length - 1][0] == lattice.getTop());
+        int size = 0;
+        for (ARXNode[] level : levels) {
+            for (ARXNode node : level) {
+                size++;
+                assertTrue(node.getSuccessors() == node.getSuccessors());
+                assertTrue(node.getPredecessors() == node.getPredecessors());
+                for (ARXNode successor : node.getSuccessors()) {
+                    assertTrue(successor.getTotalGeneralizationLevel() == node.getTotalGeneralizationLevel() + 1);
+                    assertTrue(Arrays.asList(successor.getPredecessors()).contains(node));
+                }
+                assertTrue(node.getLowestScore().compareTo(node.getHighestScore()) <= 0);
+                if (node.getAnonymity() == Anonymity.ANONYMOUS) {
+                    assertTrue(node.getHighestScore().compareTo(optimum) >= 0);
+                }
+            }
+        }
+        assertTrue(size == lattice.getSize());
+    }
+}
@@ -24,7 +24,13 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,10 +38,13 @@ import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXResult;
 import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.DataType.ARXInteger;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.io.CSVHierarchyInput;
 import org.deidentifier.arx.metric.Metric;
@@ -158,6 +167,64 @@ public class TestMicroaggregation extends AbstractTest {
         assertTrue(Arrays.deepEquals(resultArray, expectedArray));
     }
     
+    /**
+     * Test that the arithmetic mean and the median of many small classes match the values
+     * computed directly from the input
+     * @throws IOException
+     */
+    @Test
+    public void testMicroaggregationEquivalence() throws IOException {
+        
+        // Create data
+        Random random = new Random(0xDEADBEEF);
+        DefaultData data = Data.create();
+        ARXInteger type = (ARXInteger) DataType.INTEGER;
+        DefaultHierarchy hierarchy = Hierarchy.create();
+        data.add("qi", "mean", "median");
+        for (int i = 0; i < 20000; i++) {
+            hierarchy.add(String.valueOf(i), String.valueOf(i / 10), "*");
+        }
+        Map<String, List<Long>> input = new HashMap<String, List<Long>>();
+        for (int i = 0; i < 50000; i++) {
+            String qi = String.valueOf(random.nextInt(20000));
+            String value = String.valueOf(random.nextInt(100));
+            data.add(qi, value, value);
+            if (!input.containsKey(qi)) {
+                input.put(qi, new ArrayList<Long>());
+            }
+            input.get(qi).add(Long.valueOf(value));
+        }
+        data.getDefinition().setAttributeType("qi", hierarchy);
+        data.getDefinition().setAttributeType("mean", MicroAggregationFunction.createArithmeticMean());
+        data.getDefinition().setAttributeType("median", MicroAggregationFunction.createMedian());
+        data.getDefinition().setDataType("mean", DataType.INTEGER);
+        data.getDefinition().setDataType("median", DataType.INTEGER);
+        
+        // Anonymize
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(1d);
+        ARXResult result = anonymizer.anonymize(data, config);
+        DataHandle output = result.getOutput(result.getLattice().getBottom(), false);
+        
+        // Compare
+        for (int row = 0; row < output.getNumRows(); row++) {
+            if (!output.isOutlier(row)) {
+                List<Long> values = input.get(output.getValue(row, 0));
+                Collections.sort(values);
+                double sum = 0d;
+                for (Long value : values) {
+                    sum += value;
+                }
+                int size = values.size();
+                double median = size % 2 == 1 ? values.get(size / 2) : (values.get(size / 2 - 1) + values.get(size / 2)) / 2d;
+                assertEquals(type.format(type.fromDouble(sum / size)), output.getValue(row, 1));
+                assertEquals(type.format(type.fromDouble(median)), output.getValue(row, 2));
+            }
+        }
+    }
+    
     /**
      * Test microaggregation geometric mean
      * @throws IOException
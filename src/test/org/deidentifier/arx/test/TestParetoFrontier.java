@@ -0,0 +1,87 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXParetoFrontier;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the Pareto frontier of quality and re-identification risk.
+ *
+ * @author Fabian Prasser
+ */
+public class TestParetoFrontier extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParetoFrontier() throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        
+        // Disabled by default
+        ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        Assert.assertNull(result.getParetoFrontier());
+        
+        // Enabled
+        provider.getData().getHandle().release();
+        config.setParetoFrontierEnabled(true);
+        result = anonymizer.anonymize(provider.getData(), config);
+        ARXParetoFrontier frontier = result.getParetoFrontier();
+        Assert.assertNotNull(frontier);
+        assertTrue(frontier.getNodes().contains(result.getGlobalOptimum()));
+        for (ARXNode first : frontier.getNodes()) {
+            assertTrue(first.getAnonymity() == Anonymity.ANONYMOUS);
+            assertTrue(frontier.getHighestRisk(first) <= 0.5d);
+            for (ARXNode second : frontier.getNodes()) {
+                if (first != second) {
+                    assertFalse(first.getHighestScore().compareTo(second.getHighestScore()) <= 0 &&
+                                frontier.getAverageRisk(first) <= frontier.getAverageRisk(second) &&
+                                frontier.getHighestRisk(first) <= frontier.getHighestRisk(second));
+                }
+            }
+        }
+    }
+}
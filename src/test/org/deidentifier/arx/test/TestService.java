@@ -0,0 +1,256 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXService;
+import org.deidentifier.arx.ARXServiceClient;
+import org.deidentifier.arx.ARXServiceClient.Request;
+import org.deidentifier.arx.ARXServiceClient.Response;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the anonymization service and its client.
+ *
+ * @author Fabian Prasser
+ */
+public class TestService extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAnonymization() throws IOException {
+        
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        
+        final String[] attributes = { "age", "gender", "zipcode" };
+        final Data data = Data.create("data/test.csv", StandardCharsets.UTF_8, ';');
+        final Request request = new Request(new File("data/test.csv"), StandardCharsets.UTF_8, ';');
+        for (String attribute : attributes) {
+            String file = "data/test_hierarchy_" + attribute + ".csv";
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(file, StandardCharsets.UTF_8, ';'));
+            request.setHierarchy(attribute, new File(file));
+            request.setAttributeType(attribute, AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+        }
+        ARXResult expected = new ARXAnonymizer().anonymize(data, config);
+        List<String[]> output = new ArrayList<String[]>();
+        Iterator<String[]> iterator = expected.getOutput(false).iterator();
+        while (iterator.hasNext()) {
+            output.add(iterator.next());
+        }
+        
+        ARXService service = new ARXService(0, 1, 1, 8);
+        try {
+            ARXServiceClient client = new ARXServiceClient(service.getPort(), service.getToken());
+            
+            // Second job is served from the cache
+            for (int i = 0; i < 2; i++) {
+                Response response = client.anonymize(request, config);
+                try {
+                    assertTrue(response.isSolutionAvailable());
+                    assertTrue(Arrays.equals(response.getTransformation(), expected.getGlobalOptimum().getTransformation()));
+                    assertTrue(response.getInformationLoss().compareTo(expected.getGlobalOptimum().getHighestScore()) == 0);
+                    int row = 0;
+                    for (String[] line : response) {
+                        assertTrue(Arrays.equals(line, output.get(row++)));
+                    }
+                    assertTrue(row == output.size());
+                } finally {
+                    response.close();
+                }
+                assertTrue(service.getNumberOfUploads() == 1 + attributes.length);
+            }
+        } finally {
+            service.close();
+        }
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAuthentication() throws IOException {
+        
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        final Request request = new Request(new File("data/test.csv"), StandardCharsets.UTF_8, ';');
+        
+        ARXService service = new ARXService(0, 1, 1, 8);
+        try {
+            try {
+                new ARXServiceClient(service.getPort(), "invalid").anonymize(request, config);
+                Assert.fail("Job submitted without valid token");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("Authentication"));
+            }
+            assertTrue(service.getNumberOfUploads() == 0);
+            
+            // Content exceeding the limit is rejected
+            service.setMaximumUploadSize(16);
+            try {
+                new ARXServiceClient(service.getPort(), service.getToken()).anonymize(request, config);
+                Assert.fail("Content exceeding the limit accepted");
+            } catch (IOException e) {
+                // Expected
+            }
+            assertTrue(service.getNumberOfUploads() == 0);
+        } finally {
+            service.close();
+        }
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBusy() throws Exception {
+        
+        // A search on the complete lattice, which takes a while
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(0.02d);
+        config.setQualityModel(Metric.createEntropyMetric(false));
+        final Request request = new Request(new File("data/adult.csv"), StandardCharsets.UTF_8, ';');
+        for (String attribute : new String[] { "sex", "age", "race", "education", "marital-status" }) {
+            request.setHierarchy(attribute, new File("data/adult_hierarchy_" + attribute + ".csv"));
+            request.setAttributeType(attribute, AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+        }
+        
+        // One search is running and one is waiting
+        final ARXService service = new ARXService(0, 1, 1, 8);
+        final ARXServiceClient client = new ARXServiceClient(service.getPort(), service.getToken());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        Response response = client.anonymize(request, config);
+                        try {
+                            return response.isSolutionAvailable();
+                        } finally {
+                            response.close();
+                        }
+                    }
+                }));
+                while (service.getNumberOfPendingSearches() <= i) {
+                    Thread.sleep(10);
+                }
+            }
+            
+            // Further searches are rejected after their job has been received
+            try {
+                client.anonymize(request, config);
+                Assert.fail("Search accepted although queue is full");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("busy"));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+            assertTrue(service.getNumberOfUploads() == 6);
+        } finally {
+            executor.shutdownNow();
+            service.close();
+        }
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDisconnect() throws Exception {
+        
+        // A search on the complete lattice, which takes a while
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(0.02d);
+        config.setQualityModel(Metric.createEntropyMetric(false));
+        final Request request = new Request(new File("data/adult.csv"), StandardCharsets.UTF_8, ';');
+        for (String attribute : new String[] { "sex", "age", "race", "education", "marital-status", "workclass", "native-country" }) {
+            request.setHierarchy(attribute, new File("data/adult_hierarchy_" + attribute + ".csv"));
+            request.setAttributeType(attribute, AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+        }
+        
+        ARXService service = new ARXService(0, 1, 1, 8);
+        try {
+            ARXServiceClient client = new ARXServiceClient(service.getPort(), service.getToken());
+            Response response = client.anonymize(request, config);
+            response.close();
+            long duration = response.getTime();
+            
+            // The search is cancelled when the client gives up waiting
+            client.setTimeout(100);
+            long time = System.currentTimeMillis();
+            try {
+                client.anonymize(request, config);
+                Assert.fail("Reply received before timeout");
+            } catch (SocketTimeoutException e) {
+                // Expected
+            }
+            while (service.getNumberOfPendingSearches() > 0) {
+                Thread.sleep(10);
+            }
+            assertTrue(System.currentTimeMillis() - time < duration / 2);
+        } finally {
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for spilling the sources of roll-ups to disk.
+ *
+ * @author Fabian Prasser
+ */
+public class TestSpilling extends AbstractTest {
+    
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSpilling() throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setSearchStatisticsEnabled(true);
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        config.setHeuristicSearchEnabled(true);
+        config.setBranchAndBoundSearchEnabled(true);
+        config.setBranchAndBoundSearchThreads(1);
+        ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        final String[][] expected = resultToArray(result);
+        
+        // Spill all classes
+        provider.getData().getHandle().release();
+        anonymizer.setSpillThreshold(0);
+        result = anonymizer.anonymize(provider.getData(), config);
+        assertTrue(result.getSearchStatistics().getNumRollupTransitions() > 0);
+        assertTrue(Arrays.deepEquals(resultToArray(result), expected));
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSpillingDistributions() throws IOException {
+        
+        final Data data = getAdultData();
+        data.getDefinition().setAttributeType("occupation", AttributeType.SENSITIVE_ATTRIBUTE);
+        
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setSearchStatisticsEnabled(true);
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.addPrivacyModel(new DistinctLDiversity("occupation", 3));
+        config.setMaxOutliers(0.02d);
+        config.setHeuristicSearchEnabled(true);
+        config.setBranchAndBoundSearchEnabled(true);
+        config.setBranchAndBoundSearchThreads(1);
+        ARXResult result = anonymizer.anonymize(data, config);
+        final String[][] expected = resultToArray(result);
+        
+        // Spill all classes, including the distributions of sensitive values
+        data.getHandle().release();
+        anonymizer.setSpillThreshold(0);
+        result = anonymizer.anonymize(data, config);
+        assertTrue(result.getSearchStatistics().getNumRollupTransitions() > 0);
+        assertTrue(Arrays.deepEquals(resultToArray(result), expected));
+    }
+}
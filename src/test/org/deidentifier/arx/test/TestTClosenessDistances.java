@@ -0,0 +1,381 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.OrderedDistanceTCloseness;
+import org.deidentifier.arx.criteria.TCloseness;
+import org.junit.Test;
+
+/**
+ * Test for the earth mover's distances of t-closeness. The classification of transformations is
+ * compared with the formulas which have been evaluated by previous versions. Classes with
+ * identical distributions recur, so that results are also served from the cache of the
+ * criteria.
+ *
+ * @author Fabian Prasser
+ */
+public class TestTClosenessDistances extends AbstractTest {
+
+    /** Values of the sensitive attribute, in their natural order */
+    private static final String[]   VALUES    = { "1", "2", "3", "4", "5" };
+
+    /** Hierarchy for the values of the sensitive attribute */
+    private static final String[][] HIERARCHY = { { "1", "1-2", "*" },
+                                                  { "2", "1-2", "*" },
+                                                  { "3", "3-5", "*" },
+                                                  { "4", "3-5", "*" },
+                                                  { "5", "3-5", "*" } };
+
+    /** Indices of the sensitive values of consecutive records */
+    private static final int[]      PATTERN   = { 0, 2, 4, 1, 3, 0, 0, 4, 2, 1, 1, 3, 4, 0, 2, 3 };
+
+    /**
+     * Classes of all transformations have sizes which are powers of two. Distances are
+     * represented exactly, so that thresholds can be set to the distances of classes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHierarchicalDistance() throws IOException {
+        check(16, 2, true, true);
+    }
+
+    /**
+     * Classes of various sizes. Thresholds are set between the distances of classes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHierarchicalDistanceIrregular() throws IOException {
+        check(18, 3, true, false);
+    }
+
+    /**
+     * Classes of all transformations have sizes which are powers of two. Distances are
+     * represented exactly, so that thresholds can be set to the distances of classes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOrderedDistance() throws IOException {
+        check(16, 2, false, true);
+    }
+
+    /**
+     * Classes of various sizes. Thresholds are set between the distances of classes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOrderedDistanceIrregular() throws IOException {
+        check(18, 3, false, false);
+    }
+
+    /**
+     * Anonymizes a dataset with thresholds derived from the distances of all classes of all
+     * transformations and compares the classification of the transformations with the
+     * distances.
+     *
+     * @param rows Number of records
+     * @param fanout Fanout of the hierarchy of the first quasi-identifier
+     * @param hierarchical Hierarchical or ordered distance
+     * @param exact Whether thresholds are set to the distances or between them
+     * @throws IOException
+     */
+    private void check(int rows, int fanout, boolean hierarchical, boolean exact) throws IOException {
+
+        // Distances of all classes of all transformations
+        int levels = getLevels(rows, fanout);
+        Map<String, double[]> distances = new HashMap<String, double[]>();
+        Set<Double> values = new TreeSet<Double>();
+        boolean recurring = false;
+        for (int level1 = 0; level1 <= levels; level1++) {
+            for (int level2 = 0; level2 <= 1; level2++) {
+                List<int[]> classes = getClasses(rows, fanout, level1, level2);
+                Set<String> distributions = new HashSet<String>();
+                double[] array = new double[classes.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = hierarchical ? getHierarchicalDistance(classes.get(i), getDistribution(rows))
+                                            : getOrderedDistance(classes.get(i), getDistribution(rows));
+                    values.add(hierarchical ? array[i] : array[i] / (VALUES.length - 1d));
+                    recurring |= !distributions.add(Arrays.toString(classes.get(i)));
+                }
+                distances.put(level1 + "," + level2, array);
+            }
+        }
+        assertTrue(recurring);
+
+        // Thresholds
+        List<Double> thresholds = new ArrayList<Double>();
+        Double previous = null;
+        for (double value : values) {
+            if (exact) {
+                thresholds.add(value);
+                thresholds.add(Math.nextDown(value));
+            } else if (previous != null) {
+                thresholds.add((previous + value) / 2d);
+            }
+            previous = value;
+        }
+
+        // Compare
+        for (double t : thresholds) {
+            if (t <= 0d || t > 1d) {
+                continue;
+            }
+            ARXResult result = anonymize(rows, fanout, hierarchical, t);
+            int compared = 0;
+            for (ARXNode[] level : result.getLattice().getLevels()) {
+                for (ARXNode node : level) {
+                    if (node.getAnonymity() != Anonymity.ANONYMOUS && node.getAnonymity() != Anonymity.NOT_ANONYMOUS) {
+                        continue;
+                    }
+                    boolean expected = true;
+                    for (double distance : distances.get(node.getGeneralization("age") + "," + node.getGeneralization("zipcode"))) {
+                        expected &= hierarchical ? distance <= t : distance <= t * (VALUES.length - 1d);
+                    }
+                    assertEquals("Transformation " + Arrays.toString(node.getTransformation()) + " with t=" + t,
+                                 expected, node.getAnonymity() == Anonymity.ANONYMOUS);
+                    compared++;
+                }
+            }
+            assertTrue(compared > 0);
+        }
+    }
+
+    /**
+     * Anonymizes the dataset
+     *
+     * @param rows
+     * @param fanout
+     * @param hierarchical
+     * @param t
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(int rows, int fanout, boolean hierarchical, double t) throws IOException {
+
+        // Data
+        DefaultData data = Data.create();
+        data.add("age", "zipcode", "salary");
+        for (int i = 0; i < rows; i++) {
+            data.add(String.valueOf(i), String.valueOf(i % 2), VALUES[PATTERN[i % PATTERN.length]]);
+        }
+
+        // Hierarchies
+        int levels = getLevels(rows, fanout);
+        String[][] age = new String[rows][levels + 1];
+        String[][] zipcode = new String[rows][2];
+        for (int i = 0; i < rows; i++) {
+            for (int level = 0; level <= levels; level++) {
+                age[i][level] = getLabel(i, fanout, level, levels);
+            }
+            zipcode[i][0] = String.valueOf(i % 2);
+            zipcode[i][1] = "*";
+        }
+        data.getDefinition().setAttributeType("age", Hierarchy.create(age));
+        data.getDefinition().setAttributeType("zipcode", Hierarchy.create(zipcode));
+        data.getDefinition().setAttributeType("salary", AttributeType.SENSITIVE_ATTRIBUTE);
+        data.getDefinition().setDataType("salary", DataType.INTEGER);
+
+        // Anonymize
+        TCloseness criterion = hierarchical ? new HierarchicalDistanceTCloseness("salary", t, Hierarchy.create(HIERARCHY))
+                                            : new OrderedDistanceTCloseness("salary", t);
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(criterion);
+        config.setMaxOutliers(0d);
+        return new ARXAnonymizer().anonymize(data, config);
+    }
+
+    /**
+     * Returns the frequencies of the sensitive values in the classes of the given transformation
+     *
+     * @param rows
+     * @param fanout
+     * @param level1
+     * @param level2
+     * @return
+     */
+    private List<int[]> getClasses(int rows, int fanout, int level1, int level2) {
+        int levels = getLevels(rows, fanout);
+        Map<String, int[]> classes = new LinkedHashMap<String, int[]>();
+        for (int i = 0; i < rows; i++) {
+            String key = getLabel(i, fanout, level1, levels) + "|" + (level2 == 0 ? String.valueOf(i % 2) : "*");
+            int[] frequencies = classes.get(key);
+            if (frequencies == null) {
+                frequencies = new int[VALUES.length];
+                classes.put(key, frequencies);
+            }
+            frequencies[PATTERN[i % PATTERN.length]]++;
+        }
+        return new ArrayList<int[]>(classes.values());
+    }
+
+    /**
+     * Returns the frequencies of the sensitive values in the dataset
+     *
+     * @param rows
+     * @return
+     */
+    private int[] getDistribution(int rows) {
+        int[] frequencies = new int[VALUES.length];
+        for (int i = 0; i < rows; i++) {
+            frequencies[PATTERN[i % PATTERN.length]]++;
+        }
+        return frequencies;
+    }
+
+    /**
+     * Returns the hierarchical distance, as evaluated by the previous version: the extras of
+     * all nodes are propagated bottom-up through the complete hierarchy.
+     *
+     * @param q Frequencies in the class
+     * @param p Frequencies in the dataset
+     * @return
+     */
+    private double getHierarchicalDistance(int[] q, int[] p) {
+
+        // Totals
+        long totalP = 0;
+        long totalQ = 0;
+        for (int i = 0; i < VALUES.length; i++) {
+            totalP += p[i];
+            totalQ += q[i];
+        }
+
+        // Leafs
+        double height = HIERARCHY[0].length - 1;
+        Map<String, Long> extras = new HashMap<String, Long>();
+        for (int i = 0; i < HIERARCHY.length; i++) {
+            extras.put(HIERARCHY[i][0], p[i] * totalQ - q[i] * totalP);
+        }
+
+        // Inner nodes
+        double cost = 0d;
+        for (int level = 1; level <= height; level++) {
+            Map<String, long[]> nodes = new LinkedHashMap<String, long[]>();
+            Set<String> children = new HashSet<String>();
+            for (String[] row : HIERARCHY) {
+                if (!nodes.containsKey(row[level])) {
+                    nodes.put(row[level], new long[2]);
+                }
+                if (children.add(row[level - 1])) {
+                    long extra = extras.get(row[level - 1]);
+                    if (extra > 0) {
+                        nodes.get(row[level])[0] += extra;
+                    } else {
+                        nodes.get(row[level])[1] -= extra;
+                    }
+                }
+            }
+            extras.clear();
+            for (Entry<String, long[]> node : nodes.entrySet()) {
+                long positive = node.getValue()[0];
+                long negative = node.getValue()[1];
+                cost += (level / height) * Math.min(positive, negative);
+                extras.put(node.getKey(), positive - negative);
+            }
+        }
+        return cost / ((double) totalP * (double) totalQ);
+    }
+
+    /**
+     * Returns the label of the given record on the given level of the first quasi-identifier
+     *
+     * @param row
+     * @param fanout
+     * @param level
+     * @param levels
+     * @return
+     */
+    private String getLabel(int row, int fanout, int level, int levels) {
+        if (level == levels) {
+            return "*";
+        }
+        int size = 1;
+        for (int i = 0; i < level; i++) {
+            size *= fanout;
+        }
+        return level == 0 ? String.valueOf(row) : level + ":" + (row / size);
+    }
+
+    /**
+     * Returns the height of the hierarchy of the first quasi-identifier
+     *
+     * @param rows
+     * @param fanout
+     * @return
+     */
+    private int getLevels(int rows, int fanout) {
+        int levels = 0;
+        for (int size = 1; size < rows; size *= fanout) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Returns the ordered distance, not normalized by the size of the domain, as evaluated by
+     * the previous version: the cumulative differences are summed up over the complete domain.
+     *
+     * @param q Frequencies in the class
+     * @param p Frequencies in the dataset
+     * @return
+     */
+    private double getOrderedDistance(int[] q, int[] p) {
+        double totalP = 0d;
+        double totalQ = 0d;
+        for (int i = 0; i < VALUES.length; i++) {
+            totalP += p[i];
+            totalQ += q[i];
+        }
+        double distance = 0d;
+        double sum = 0d;
+        for (int i = 0; i < VALUES.length; i++) {
+            sum += ((double) q[i] / totalQ - (double) p[i] / totalP);
+            distance += Math.abs(sum);
+        }
+        return distance;
+    }
+}
@@ -45,6 +45,9 @@ public class TestUtilityMetricsPrecomputation extends AbstractTestUtilityMetrics
     /** A threshold */
     private final static double threshold = 1d;
     
+    /** A threshold for which only some attributes are precomputed: all but 'age' in the adult dataset */
+    private final static double mixed     = 0.002d;
+    
     /**
      * Returns the test cases
      * 
@@ -79,6 +82,17 @@ public class TestUtilityMetricsPrecomputation extends AbstractTestUtilityMetrics
                                               { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(AggregateFunction.RANK), Metric.createPrecomputedLossMetric(threshold, AggregateFunction.RANK)) },
                                               { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "occupation", "./data/adult.csv", Metric.createLossMetric(AggregateFunction.RANK), Metric.createPrecomputedLossMetric(threshold, AggregateFunction.RANK)) },
                                               
+                                              // entropy: mixed precomputed and non-precomputed attributes
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.0d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createEntropyMetric(true), Metric.createPrecomputedEntropyMetric(mixed, true)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.0d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createEntropyMetric(false), Metric.createPrecomputedEntropyMetric(mixed, false)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createEntropyMetric(true), Metric.createPrecomputedEntropyMetric(mixed, true)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "occupation", "./data/adult.csv", Metric.createEntropyMetric(false), Metric.createPrecomputedEntropyMetric(mixed, false)) },
+                                              
+                                              // loss: mixed precomputed and non-precomputed attributes
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.0d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(AggregateFunction.RANK), Metric.createPrecomputedLossMetric(mixed, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(AggregateFunction.RANK), Metric.createPrecomputedLossMetric(mixed, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "occupation", "./data/adult.csv", Metric.createLossMetric(AggregateFunction.RANK), Metric.createPrecomputedLossMetric(mixed, AggregateFunction.RANK)) },
+                                              
         });
     }
     